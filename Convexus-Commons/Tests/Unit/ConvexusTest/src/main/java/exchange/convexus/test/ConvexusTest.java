@@ -22,6 +22,7 @@ import com.iconloop.score.test.ServiceManager;
 import com.iconloop.score.test.TestBase;
 import exchange.convexus.core.pool.contracts.ConvexusPool;
 import exchange.convexus.mocks.factory.ConvexusFactoryMock;
+import exchange.convexus.periphery.compounder.ConvexusCompounder;
 import exchange.convexus.periphery.cxs.CXS;
 import exchange.convexus.periphery.governor.ConvexusGovernor;
 import exchange.convexus.periphery.initializer.ConvexusPoolInitializer;
@@ -224,6 +225,14 @@ public class ConvexusTest extends TestBase {
         return new ScoreSpy<ConvexusStaker>(score, spy);
     }
 
+    public ScoreSpy<ConvexusCompounder> deploy_compounder (Address _factory, Address _nonfungiblePositionManager) throws Exception {
+        Score score = sm.deploy(owner, ConvexusCompounder.class, _factory, _nonfungiblePositionManager);
+
+        var spy = (ConvexusCompounder) spy(score.getInstance());
+        score.setInstance(spy);
+        return new ScoreSpy<ConvexusCompounder>(score, spy);
+    }
+
     public ScoreSpy<Sicx> deploy_sicx () throws Exception {
         Score score = sm.deploy(owner, Sicx.class, "Staked ICX", "sICX", 18);
 
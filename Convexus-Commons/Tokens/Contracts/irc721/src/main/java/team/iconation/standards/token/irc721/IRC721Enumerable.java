@@ -46,10 +46,21 @@ public class IRC721Enumerable extends IRC721 {
   // Mapping from token id to position in the allTokens array
   final DictDB<BigInteger, BigInteger> _allTokensIndex;
 
+  // Whether the allTokens array is maintained. If not, only its length is kept for totalSupply
+  private final boolean _enumerateAllTokens;
+
   // ================================================
   // Methods
   // ================================================
   public IRC721Enumerable(String name, String symbol) {
+    this(name, symbol, true);
+  }
+
+  /**
+   * @param enumerateAllTokens False to not maintain the global token list used by {tokenByIndex}, 
+   * which saves several writes per mint and burn. A contract that already maintains it keeps doing so.
+   */
+  public IRC721Enumerable(String name, String symbol, boolean enumerateAllTokens) {
     super(name, symbol);
 
     _ownedTokens = Context.newBranchDB(symbol + "_ownedTokens", BigInteger.class);
@@ -61,6 +72,9 @@ public class IRC721Enumerable extends IRC721 {
     if (_allTokensLength.get() == null) {
       _allTokensLength.set(ZERO);
     }
+
+    _enumerateAllTokens = enumerateAllTokens 
+      || (_allTokensLength.get().signum() > 0 && _allTokens.get(ZERO) != null);
   }
   
   /**
@@ -74,6 +88,26 @@ public class IRC721Enumerable extends IRC721 {
     return this._ownedTokens.at(owner).get(index);
   }
   
+  /**
+   * @dev Returns the token IDs owned by `owner` from the `offset` index of its token list, 
+   * at most `limit` of them. Returns an empty list if `offset` is out of bounds.
+   */
+  protected BigInteger[] _tokensOfOwner (Address owner, int offset, int limit) {
+    require(offset >= 0 && limit >= 0, 
+      "_tokensOfOwner: invalid range");
+
+    int balance = balanceOf(owner).intValue();
+    int size = Math.max(0, Math.min(limit, balance - offset));
+    BigInteger[] tokenIds = new BigInteger[size];
+
+    DictDB<BigInteger, BigInteger> ownedTokens = this._ownedTokens.at(owner);
+    for (int i = 0; i < size; i++) {
+      tokenIds[i] = ownedTokens.get(BigInteger.valueOf(offset + i));
+    }
+
+    return tokenIds;
+  }
+
   /**
    * @dev Returns the total amount of tokens stored by the contract.
    */
@@ -88,6 +122,8 @@ public class IRC721Enumerable extends IRC721 {
    */
   @External(readonly = true)
   public BigInteger tokenByIndex(BigInteger index) {
+    require(_enumerateAllTokens, 
+      "tokenByIndex: global enumeration disabled");
     require(index.compareTo(totalSupply()) < 0, 
       "tokenByIndex: global index out of bounds");
     return _allTokens.get(index);
@@ -114,14 +150,19 @@ public class IRC721Enumerable extends IRC721 {
   ) {
     super._beforeTokenTransfer(from, to, tokenId);
 
+    if (from.equals(to)) {
+        return;
+    }
+
     if (from.equals(ZERO_ADDRESS)) {
         _addTokenToAllTokensEnumeration(tokenId);
-    } else if (from != to) {
-        _removeTokenFromOwnerEnumeration(from, tokenId);
+    } else {
+        // the token index is overwritten right after if the token is transferred
+        _removeTokenFromOwnerEnumeration(from, tokenId, to.equals(ZERO_ADDRESS));
     }
     if (to.equals(ZERO_ADDRESS)) {
         _removeTokenFromAllTokensEnumeration(tokenId);
-    } else if (to != from) {
+    } else {
         _addTokenToOwnerEnumeration(to, tokenId);
     }
   }
@@ -143,6 +184,11 @@ public class IRC721Enumerable extends IRC721 {
    */
   private void _addTokenToAllTokensEnumeration(BigInteger tokenId) {
     BigInteger oldLength = _allTokensLength.get();
+    if (!_enumerateAllTokens) {
+      _allTokensLength.set(oldLength.add(ONE));
+      return;
+    }
+
     _allTokensIndex.set(tokenId, oldLength);
     _allTokens.set(oldLength, tokenId);
     _allTokensLength.set(oldLength.add(ONE));
@@ -155,24 +201,28 @@ public class IRC721Enumerable extends IRC721 {
    * This has O(1) time complexity, but alters the order of the _ownedTokens array.
    * @param from address representing the previous owner of the given token ID
    * @param tokenId ID of the token to be removed from the tokens list of the given address
+   * @param clearIndex false if the token index is about to be overwritten, so it doesn't need to be deleted
    */
-  private void _removeTokenFromOwnerEnumeration(Address from, BigInteger tokenId) {
+  private void _removeTokenFromOwnerEnumeration(Address from, BigInteger tokenId, boolean clearIndex) {
     // To prevent a gap in from's tokens array, we store the last token in the index of the token to delete, and
     // then delete the last slot (swap and pop).
 
+    DictDB<BigInteger, BigInteger> ownedTokens = _ownedTokens.at(from);
     BigInteger lastTokenIndex = balanceOf(from).subtract(ONE);
     BigInteger tokenIndex = _ownedTokensIndex.get(tokenId);
 
     // When the token to delete is the last token, the swap operation is unnecessary
-    if (tokenIndex != lastTokenIndex) {
-        BigInteger lastTokenId = _ownedTokens.at(from).get(lastTokenIndex);
-        _ownedTokens.at(from).set(tokenIndex, lastTokenId); // Move the last token to the slot of the to-delete token
+    if (!tokenIndex.equals(lastTokenIndex)) {
+        BigInteger lastTokenId = ownedTokens.get(lastTokenIndex);
+        ownedTokens.set(tokenIndex, lastTokenId); // Move the last token to the slot of the to-delete token
         _ownedTokensIndex.set(lastTokenId, tokenIndex); // Update the moved token's index
     }
 
     // This also deletes the contents at the last position of the array
-    _ownedTokensIndex.set(tokenId, null);
-    _ownedTokens.at(from).set(lastTokenIndex, null);
+    if (clearIndex) {
+        _ownedTokensIndex.set(tokenId, null);
+    }
+    ownedTokens.set(lastTokenIndex, null);
   }
 
   /**
@@ -181,19 +231,23 @@ public class IRC721Enumerable extends IRC721 {
    * @param tokenId ID of the token to be removed from the tokens list
    */
   private void _removeTokenFromAllTokensEnumeration(BigInteger tokenId) {
+    if (!_enumerateAllTokens) {
+      _allTokensLength.set(_allTokensLength.get().subtract(ONE));
+      return;
+    }
+
     // To prevent a gap in the tokens array, we store the last token in the index of the token to delete, and
     // then delete the last slot (swap and pop).
 
     BigInteger lastTokenIndex = _allTokensLength.get().subtract(ONE);
     BigInteger tokenIndex = _allTokensIndex.get(tokenId);
 
-    // When the token to delete is the last token, the swap operation is unnecessary. However, since this occurs so
-    // rarely (when the last minted token is burnt) that we still do the swap here to avoid the gas cost of adding
-    // an 'if' statement (like in _removeTokenFromOwnerEnumeration)
-    BigInteger lastTokenId = _allTokens.get(lastTokenIndex);
-
-    _allTokens.set(tokenIndex, lastTokenId); // Move the last token to the slot of the to-delete token
-    _allTokensIndex.set(lastTokenId, tokenIndex); // Update the moved token's index
+    // When the token to delete is the last token, the swap operation is unnecessary
+    if (!tokenIndex.equals(lastTokenIndex)) {
+      BigInteger lastTokenId = _allTokens.get(lastTokenIndex);
+      _allTokens.set(tokenIndex, lastTokenId); // Move the last token to the slot of the to-delete token
+      _allTokensIndex.set(lastTokenId, tokenIndex); // Update the moved token's index
+    }
 
     // This also deletes the contents at the last position of the array
     _allTokensIndex.set(tokenId, null);
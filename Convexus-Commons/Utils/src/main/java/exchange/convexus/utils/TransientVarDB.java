@@ -0,0 +1,87 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.utils;
+
+import java.util.Arrays;
+
+import score.ByteArrayObjectWriter;
+import score.Context;
+import score.ObjectReader;
+import score.VarDB;
+
+/**
+ * A variable whose value only lives for the duration of the transaction that wrote it.
+ * 
+ * The SCORE API doesn't provide a transient storage, so the value is stored along with
+ * the hash of the transaction that wrote it, and any value written by another transaction
+ * is read as unset. Values that are only meaningful within a transaction don't need to be
+ * reset at the end of it anymore.
+ */
+public class TransientVarDB<V> {
+    // RLP encoded [transaction hash, value]
+    private final VarDB<byte[]> db;
+    private final Class<V> valueClass;
+
+    public TransientVarDB (String id, Class<V> valueClass) {
+        this.db = Context.newVarDB(id, byte[].class);
+        this.valueClass = valueClass;
+    }
+
+    /**
+     * Returns the value written by the current transaction, or null
+     */
+    public V get () {
+        byte[] encoded = this.db.get();
+        byte[] txHash = Context.getTransactionHash();
+        if (encoded == null || txHash == null) {
+            return null;
+        }
+
+        ObjectReader reader = Context.newByteArrayObjectReader("RLPn", encoded);
+        reader.beginList();
+        if (!Arrays.equals(reader.readByteArray(), txHash)) {
+            // written by a previous transaction
+            return null;
+        }
+        V value = reader.read(this.valueClass);
+        reader.end();
+        return value;
+    }
+
+    public V getOrDefault (V defaultValue) {
+        V value = get();
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * Sets the value for the rest of the current transaction
+     * @param value The value, or null to delete it
+     */
+    public void set (V value) {
+        if (value == null) {
+            this.db.set(null);
+            return;
+        }
+
+        ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+        writer.beginList(2);
+        writer.write(Context.getTransactionHash());
+        writer.write(value);
+        writer.end();
+        this.db.set(writer.toByteArray());
+    }
+}
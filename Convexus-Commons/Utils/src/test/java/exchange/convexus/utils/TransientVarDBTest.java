@@ -0,0 +1,82 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.utils;
+
+import static java.math.BigInteger.ZERO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigInteger;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.ServiceManager;
+import com.iconloop.score.test.TestBase;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import score.Context;
+
+class TransientVarDBTest extends TestBase {
+  private static final ServiceManager sm = getServiceManager();
+  private static final Account owner = sm.createAccount();
+  private static final Account score = sm.createAccount();
+
+  @BeforeEach
+  void setup() {
+    sm.pushFrame(owner, score, false, "test", ZERO);
+  }
+
+  @AfterEach
+  void teardown() {
+    sm.popFrame();
+  }
+
+  // a new block is a new transaction hash
+  private void nextTransaction () {
+    sm.getBlock().increase(1);
+  }
+
+  @Test
+  void testValueSetInTheSameTransactionIsRead () {
+    var db = new TransientVarDB<>("sameTransaction", BigInteger.class);
+    db.set(BigInteger.TEN);
+    assertEquals(BigInteger.TEN, db.get());
+    assertEquals(BigInteger.TEN, db.getOrDefault(ZERO));
+  }
+
+  @Test
+  void testValueFromAPreviousTransactionIsNull () {
+    var db = new TransientVarDB<>("previousTransaction", BigInteger.class);
+    db.set(BigInteger.TEN);
+    nextTransaction();
+    assertNull(db.get());
+    assertEquals(ZERO, db.getOrDefault(ZERO));
+  }
+
+  @Test
+  void testUnsetDeletesTheEntry () {
+    var db = new TransientVarDB<>("unset", BigInteger.class);
+    db.set(BigInteger.TEN);
+    assertNotNull(Context.newVarDB("unset", byte[].class).get());
+
+    db.set(null);
+    assertNull(db.get());
+    assertNull(Context.newVarDB("unset", byte[].class).get());
+  }
+}
@@ -386,6 +386,19 @@ public class ConvexusFactory implements IConvexusPoolDeployer {
         return this.getPool.at(token0).at(token1).get(fee);
     }
 
+    /**
+     * Get the tick spacing of an enabled fee amount
+     * 
+     * @param fee The fee amount ; divide this value by 10000 to get the percent value
+     * @return The tick spacing of the fee amount, or 0 if the fee amount isn't enabled
+     */
+    @External(readonly = true)
+    public int feeAmountTickSpacing (
+        int fee
+    ) {
+        return this.feeAmountTickSpacing.getOrDefault(fee, 0);
+    }
+
     // --- Implement IConvexusPoolDeployer ---
     @External(readonly = true)
     public Parameters parameters() {
@@ -48,6 +48,7 @@ import exchange.convexus.pool.Oracle;
 import exchange.convexus.pool.PairAmounts;
 import exchange.convexus.pool.PoolSettings;
 import exchange.convexus.pool.Position;
+import exchange.convexus.pool.PositionAmounts;
 import exchange.convexus.pool.PositionStorage;
 import exchange.convexus.pool.ProtocolFees;
 import exchange.convexus.pool.Slot0;
@@ -93,6 +94,9 @@ public abstract class ConvexusPool
   // The 0th storage slot in the pool stores many values, and is exposed as a single method to save steps when accessed externally.
   protected final VarDB<Slot0> slot0 = Context.newVarDB(NAME + "_slot0", Slot0.class);
 
+  // The reentrancy lock, stored apart from Slot0 so that locking doesn't re-encode the whole slot
+  protected final VarDB<Boolean> locked = Context.newVarDB(NAME + "_locked", Boolean.class);
+
   // The fee growth as a Q128.128 fees of token0 collected per unit of liquidity for the entire life of the pool
   protected final VarDB<BigInteger> feeGrowthGlobal0X128 = Context.newVarDB(NAME + "_feeGrowthGlobal0X128", BigInteger.class);
 
@@ -110,7 +114,7 @@ public abstract class ConvexusPool
   protected final Observations observations = new Observations();
 
   // Implements IPositions
-  // Returns the information about a position by the position's key
+  // Returns the information about a position by the position's owner, lower tick and upper tick
   protected final Positions positions = new Positions();
 
   // Implements ITickBitmap
@@ -330,6 +334,9 @@ public abstract class ConvexusPool
       "Convexus Pool (" + IIRC2ICX.symbol(parameters.token0) + " / " + IIRC2ICX.symbol(parameters.token1) + " " + ((float) parameters.fee / 10000) + "%)"
     );
 
+    // Positions stored by their hashed key can only exist in a pool that has already been deployed
+    this.positions.initialize(this.liquidity.get() != null);
+
     // Default values
     if (this.liquidity.get() == null) {
       this.liquidity.set(ZERO);
@@ -356,9 +363,8 @@ public abstract class ConvexusPool
    */
   @External
   public void increaseObservationCardinalityNext (int observationCardinalityNext) {
-    this.unlock(false);
+    Slot0 _slot0 = this.lock();
 
-    Slot0 _slot0 = this.slot0.get();
     int observationCardinalityNextOld = _slot0.observationCardinalityNext;
     int observationCardinalityNextNew = this.observations.grow(observationCardinalityNextOld, observationCardinalityNext);
 
@@ -369,25 +375,30 @@ public abstract class ConvexusPool
       this.IncreaseObservationCardinalityNext(observationCardinalityNextOld, observationCardinalityNextNew);
     }
 
-    this.unlock(true);
+    this.unlock();
   }
 
   /**
-   * Enable or disable the lock
-   * @param state Lock state
+   * Enable the reentrancy lock
+   * @dev The lock has its own storage slot: the methods only write Slot0 when they actually modify it
+   * @return The current Slot0, so the locked method doesn't need to read it again
    */
-  public void unlock (boolean state) {
-    // Check current unlock state
+  private Slot0 lock () {
     var slot0 = this.slot0.get();
     Context.require(slot0 != null, 
-      "unlock: pool isn't initialized yet"); 
-    boolean unlock_state = slot0.unlocked;
-    Context.require(state != unlock_state, 
-        NAME + "::unlock: wrong lock state: " + unlock_state);
+      "unlock: pool isn't initialized yet");
+    Context.require(!this.locked.getOrDefault(false), 
+      NAME + "::unlock: wrong lock state: false");
 
-    // OK
-    slot0.unlocked = state;
-    this.slot0.set(slot0);
+    this.locked.set(true);
+    return slot0;
+  }
+
+  /**
+   * Disable the reentrancy lock
+   */
+  private void unlock () {
+    this.locked.set(false);
   }
 
   /**
@@ -441,16 +452,18 @@ public abstract class ConvexusPool
    * @param data Any data that should be passed through to the callback
    * @return amount0 The amount of token0 that was paid to mint the given amount of liquidity. Matches the value in the callback
    * @return amount1 The amount of token1 that was paid to mint the given amount of liquidity. Matches the value in the callback
+   * @return feeGrowthInside0LastX128 The fee growth of token0 inside the position's tick range, as of the mint
+   * @return feeGrowthInside1LastX128 The fee growth of token1 inside the position's tick range, as of the mint
    */
   @External
-  public PairAmounts mint (
+  public PositionAmounts mint (
     Address recipient,
     int tickLower,
     int tickUpper,
     BigInteger amount,
     byte[] data
   ) {
-    this.unlock(false);
+    this.lock();
 
     final Address caller = Context.getCaller();
 
@@ -497,8 +510,9 @@ public abstract class ConvexusPool
 
     this.Mint(recipient, tickLower, tickUpper, caller, amount, amount0, amount1);
 
-    this.unlock(true);
-    return new PairAmounts(amount0, amount1);
+    this.unlock();
+    Position.Info position = result.positionStorage.position;
+    return new PositionAmounts(amount0, amount1, position.feeGrowthInside0LastX128, position.feeGrowthInside1LastX128);
   }
 
   /**
@@ -526,34 +540,114 @@ public abstract class ConvexusPool
     BigInteger amount0Requested,
     BigInteger amount1Requested
   ) {
-    this.unlock(false);
+    this.lock();
 
     final Address caller = Context.getCaller();
 
     // we don't need to checkTicks here, because invalid positions will never have non-zero tokensOwed{0,1}
-    byte[] key = Positions.getKey(caller, tickLower, tickUpper);
-    Position.Info position = this.positions.get(key);
+    Position.Info position = this.positions.get(caller, tickLower, tickUpper);
 
     BigInteger amount0 = amount0Requested.compareTo(position.tokensOwed0) > 0 ? position.tokensOwed0 : amount0Requested;
     BigInteger amount1 = amount1Requested.compareTo(position.tokensOwed1) > 0 ? position.tokensOwed1 : amount1Requested;
 
     if (amount0.compareTo(ZERO) > 0) {
       position.tokensOwed0 = position.tokensOwed0.subtract(amount0);
-      this.positions.set(key, position);
+      this.positions.set(caller, tickLower, tickUpper, position);
       pay(this.settings.token0, recipient, amount0);
     }
     if (amount1.compareTo(ZERO) > 0) {
       position.tokensOwed1 = position.tokensOwed1.subtract(amount1);
-      this.positions.set(key, position);
+      this.positions.set(caller, tickLower, tickUpper, position);
       pay(this.settings.token1, recipient, amount1);
     }
 
     this.Collect(caller, tickLower, tickUpper, recipient, amount0, amount1);
 
-    this.unlock(true);
+    this.unlock();
     return new PairAmounts(amount0, amount1);
   }
 
+  /**
+   * @notice Collects tokens owed to several positions of the caller in a single call
+   * 
+   * Access: Everyone
+   * 
+   * @dev Same as `collect` for each position, except that the tokens collected from all the positions 
+   * are sent to the recipient with a single transfer per token
+   * @param recipient The address which should receive the fees collected
+   * @param tickLowers The lower tick of each position
+   * @param tickUppers The upper tick of each position
+   * @param amount0Requested How much token0 should be withdrawn from the fees owed to each position
+   * @param amount1Requested How much token1 should be withdrawn from the fees owed to each position
+   * @return The amounts of fees collected from each position
+   */
+  @External
+  public PairAmounts[] collectMany (
+    Address recipient,
+    int[] tickLowers,
+    int[] tickUppers,
+    BigInteger[] amount0Requested,
+    BigInteger[] amount1Requested
+  ) {
+    this.lock();
+
+    final Address caller = Context.getCaller();
+
+    final int length = tickLowers.length;
+    Context.require(length > 0 
+      && tickUppers.length == length 
+      && amount0Requested.length == length 
+      && amount1Requested.length == length,
+      "collectMany: invalid positions length");
+
+    PairAmounts[] results = new PairAmounts[length];
+    BigInteger total0 = ZERO;
+    BigInteger total1 = ZERO;
+
+    for (int i = 0; i < length; i++) {
+      int tickLower = tickLowers[i];
+      int tickUpper = tickUppers[i];
+
+      Context.require(amount0Requested[i].signum() >= 0 && amount1Requested[i].signum() >= 0,
+        "collectMany: invalid amount requested");
+
+      // we don't need to checkTicks here, because invalid positions will never have non-zero tokensOwed{0,1}
+      Position.Info position = this.positions.get(caller, tickLower, tickUpper);
+
+      BigInteger amount0 = amount0Requested[i].compareTo(position.tokensOwed0) > 0 ? position.tokensOwed0 : amount0Requested[i];
+      BigInteger amount1 = amount1Requested[i].compareTo(position.tokensOwed1) > 0 ? position.tokensOwed1 : amount1Requested[i];
+
+      boolean collected = false;
+      if (amount0.compareTo(ZERO) > 0) {
+        position.tokensOwed0 = position.tokensOwed0.subtract(amount0);
+        collected = true;
+      }
+      if (amount1.compareTo(ZERO) > 0) {
+        position.tokensOwed1 = position.tokensOwed1.subtract(amount1);
+        collected = true;
+      }
+      if (collected) {
+        this.positions.set(caller, tickLower, tickUpper, position);
+      }
+
+      this.Collect(caller, tickLower, tickUpper, recipient, amount0, amount1);
+
+      results[i] = new PairAmounts(amount0, amount1);
+      total0 = total0.add(amount0);
+      total1 = total1.add(amount1);
+    }
+
+    if (total0.compareTo(ZERO) > 0) {
+      pay(this.settings.token0, recipient, total0);
+    }
+    if (total1.compareTo(ZERO) > 0) {
+      pay(this.settings.token1, recipient, total1);
+    }
+
+    this.unlock();
+    return results;
+  }
+
   /**
    * @notice Burn liquidity from the sender and account tokens owed for the liquidity to the position
    * 
@@ -566,14 +660,16 @@ public abstract class ConvexusPool
    * @param amount How much liquidity to burn
    * @return amount0 The amount of token0 sent to the recipient
    * @return amount1 The amount of token1 sent to the recipient
+   * @return feeGrowthInside0LastX128 The fee growth of token0 inside the position's tick range, as of the burn
+   * @return feeGrowthInside1LastX128 The fee growth of token1 inside the position's tick range, as of the burn
    */
   @External
-  public PairAmounts burn (
+  public PositionAmounts burn (
     int tickLower,
     int tickUpper,
     BigInteger amount
   ) {
-    this.unlock(false);
+    this.lock();
     final Address caller = Context.getCaller();
 
     var result = _modifyPosition(new ModifyPositionParams(
@@ -586,18 +682,159 @@ public abstract class ConvexusPool
     BigInteger amount0 = result.amount0.negate();
     BigInteger amount1 = result.amount1.negate();
     Position.Info position = result.positionStorage.position;
-    byte[] positionKey = result.positionStorage.key;
 
     if (amount0.compareTo(ZERO) > 0 || amount1.compareTo(ZERO) > 0) {
       position.tokensOwed0 = position.tokensOwed0.add(amount0);
       position.tokensOwed1 = position.tokensOwed1.add(amount1);
-      this.positions.set(positionKey, position);
+      this.positions.set(caller, tickLower, tickUpper, position);
     }
 
     this.Burn(caller, tickLower, tickUpper, amount, amount0, amount1);
 
-    this.unlock(true);
-    return new PairAmounts(amount0, amount1);
+    this.unlock();
+    return new PositionAmounts(amount0, amount1, position.feeGrowthInside0LastX128, position.feeGrowthInside1LastX128);
+  }
+
+  /**
+   * @notice Updates the fees owed to several positions of the caller in a single call
+   * 
+   * Access: Everyone
+   * 
+   * @dev Same as a `burn` of 0 liquidity for each position. The positions must have some liquidity.
+   * @param tickLowers The lower tick of each position
+   * @param tickUppers The upper tick of each position
+   * @return The fee growth snapshots of each position, with zero amounts
+   */
+  @External
+  public PositionAmounts[] poke (
+    int[] tickLowers,
+    int[] tickUppers
+  ) {
+    Slot0 _slot0 = this.lock();
+    final Address caller = Context.getCaller();
+
+    final int length = tickLowers.length;
+    Context.require(length > 0 && tickUppers.length == length,
+      "poke: invalid positions length");
+
+    PositionAmounts[] results = new PositionAmounts[length];
+
+    for (int i = 0; i < length; i++) {
+      int tickLower = tickLowers[i];
+      int tickUpper = tickUppers[i];
+      checkTicks(tickLower, tickUpper);
+
+      Position.Info position = _updatePosition(caller, tickLower, tickUpper, ZERO, _slot0.tick).position;
+      this.Burn(caller, tickLower, tickUpper, ZERO, ZERO, ZERO);
+
+      results[i] = new PositionAmounts(ZERO, ZERO, position.feeGrowthInside0LastX128, position.feeGrowthInside1LastX128);
+    }
+
+    this.unlock();
+    return results;
+  }
+
+  /**
+   * @notice Adds and removes liquidity for several positions of the caller in a single call
+   * 
+   * Access: Everyone
+   * 
+   * @dev The positions are owned by the caller. The token amounts of all the changes are netted: 
+   * the tokens released by the removed liquidity pay for the added liquidity, and aren't accounted 
+   * to the positions tokens owed. If tokens are still owed to the pool, the caller receives a single 
+   * callback in the form of convexusMintCallback in which they must pay them. The remaining released 
+   * tokens are sent to the recipient. The oracle is written at most once.
+   * @param recipient The address which should receive the tokens released by the batch, if any
+   * @param tickLowers The lower tick of each position
+   * @param tickUppers The upper tick of each position
+   * @param liquidityDeltas The liquidity to add to (positive) or remove from (negative) each position
+   * @param data Any data that should be passed through to the callback
+   * @return The token amounts owed to the pool for each position, negative if released by the pool,
+   * with the position fee growth snapshots
+   */
+  @External
+  public PositionAmounts[] modifyPositions (
+    Address recipient,
+    int[] tickLowers,
+    int[] tickUppers,
+    BigInteger[] liquidityDeltas,
+    byte[] data
+  ) {
+    Slot0 _slot0 = this.lock();
+    final Address caller = Context.getCaller();
+
+    final int length = liquidityDeltas.length;
+    Context.require(length > 0 && tickLowers.length == length && tickUppers.length == length,
+      "modifyPositions: invalid positions length");
+
+    PositionAmounts[] results = new PositionAmounts[length];
+    BigInteger amount0 = ZERO;
+    BigInteger amount1 = ZERO;
+    BigInteger inRangeLiquidityDelta = ZERO;
+    boolean inRange = false;
+
+    for (int i = 0; i < length; i++) {
+      int tickLower = tickLowers[i];
+      int tickUpper = tickUppers[i];
+      BigInteger liquidityDelta = liquidityDeltas[i];
+
+      Context.require(!liquidityDelta.equals(ZERO),
+        "modifyPositions: liquidityDelta must be different from zero");
+      checkTicks(tickLower, tickUpper);
+
+      Position.Info position = _updatePosition(caller, tickLower, tickUpper, liquidityDelta, _slot0.tick).position;
+      PairAmounts amounts = getAmountsForLiquidityDelta(_slot0, tickLower, tickUpper, liquidityDelta);
+
+      if (_slot0.tick >= tickLower && _slot0.tick < tickUpper) {
+        inRangeLiquidityDelta = inRangeLiquidityDelta.add(liquidityDelta);
+        inRange = true;
+      }
+
+      if (liquidityDelta.compareTo(ZERO) > 0) {
+        this.Mint(caller, tickLower, tickUpper, caller, liquidityDelta, amounts.amount0, amounts.amount1);
+      } else {
+        this.Burn(caller, tickLower, tickUpper, liquidityDelta.negate(), amounts.amount0.negate(), amounts.amount1.negate());
+      }
+
+      results[i] = new PositionAmounts(amounts.amount0, amounts.amount1, position.feeGrowthInside0LastX128, position.feeGrowthInside1LastX128);
+      amount0 = amount0.add(amounts.amount0);
+      amount1 = amount1.add(amounts.amount1);
+    }
+
+    // a single oracle entry and liquidity update for all the positions in range
+    if (inRange) {
+      updateInRangeLiquidity(_slot0, inRangeLiquidityDelta);
+    }
+
+    // send the released tokens remaining after netting
+    if (amount0.compareTo(ZERO) < 0) {
+      pay(this.settings.token0, recipient, amount0.negate());
+    }
+    if (amount1.compareTo(ZERO) < 0) {
+      pay(this.settings.token1, recipient, amount1.negate());
+    }
+
+    // charge the tokens still owed to the pool
+    if (amount0.compareTo(ZERO) > 0 || amount1.compareTo(ZERO) > 0) {
+      BigInteger amount0Owed = amount0.compareTo(ZERO) > 0 ? amount0 : ZERO;
+      BigInteger amount1Owed = amount1.compareTo(ZERO) > 0 ? amount1 : ZERO;
+      BigInteger balance0Before = amount0Owed.equals(ZERO) ? ZERO : balance0();
+      BigInteger balance1Before = amount1Owed.equals(ZERO) ? ZERO : balance1();
+
+      IConvexusPoolCallee.convexusMintCallback(caller, amount0Owed, amount1Owed, data);
+
+      if (!amount0Owed.equals(ZERO)) {
+        Context.require(balance0Before.add(amount0Owed).compareTo(balance0()) <= 0, 
+          "modifyPositions: callback didn't send enough of token0");
+      }
+      if (!amount1Owed.equals(ZERO)) {
+        Context.require(balance1Before.add(amount1Owed).compareTo(balance1()) <= 0, 
+          "modifyPositions: callback didn't send enough of token1");
+      }
+    }
+
+    this.unlock();
+    return results;
   }
 
   /**
@@ -622,13 +859,11 @@ public abstract class ConvexusPool
     BigInteger sqrtPriceLimitX96,
     byte[] data
   ) {
-    this.unlock(false);
+    Slot0 slot0Start = this.lock();
     final Address caller = Context.getCaller();
 
     Context.require(!amountSpecified.equals(ZERO),
       "swap: amountSpecified must be different from zero");
-    
-    Slot0 slot0Start = this.slot0.get();
 
     Context.require (
       zeroForOne
@@ -767,7 +1002,8 @@ public abstract class ConvexusPool
     }
 
     // update tick and write an oracle entry if the tick change
-    Slot0 _slot0 = this.slot0.get();
+    // Slot0 cannot have been modified since the lock, update the copy read by it
+    Slot0 _slot0 = slot0Start;
     if (state.tick != slot0Start.tick) {
       var result =
         this.observations.write(
@@ -847,7 +1083,7 @@ public abstract class ConvexusPool
 
     this.PoolIntrinsicsUpdate(state.sqrtPriceX96, state.tick, state.liquidity);
     this.Swap(caller, recipient, amount0, amount1, state.sqrtPriceX96, state.liquidity, state.tick);
-    this.unlock(true);
+    this.unlock();
 
     return new PairAmounts(amount0, amount1);
   }
@@ -872,7 +1108,7 @@ public abstract class ConvexusPool
     BigInteger amount1,
     byte[] data
   ) {
-    this.unlock(false);
+    Slot0 _slot0 = this.lock();
     final Address caller = Context.getCaller();
 
     BigInteger _liquidity = this.liquidity.get();
@@ -908,8 +1144,6 @@ public abstract class ConvexusPool
     BigInteger paid0 = balance0After.subtract(balance0Before);
     BigInteger paid1 = balance1After.subtract(balance1Before);
 
-    Slot0 _slot0 = this.slot0.get();
-
     if (paid0.compareTo(ZERO) > 0) {
       int feeProtocol0 = _slot0.feeProtocol % 16;
       BigInteger fees0 = feeProtocol0 == 0 ? ZERO : paid0.divide(BigInteger.valueOf(feeProtocol0));
@@ -933,7 +1167,7 @@ public abstract class ConvexusPool
 
     this.Flash(caller, recipient, amount0, amount1, paid0, paid1);
   
-    this.unlock(true);
+    this.unlock();
   }
 
   /**
@@ -949,7 +1183,7 @@ public abstract class ConvexusPool
     int feeProtocol0,
     int feeProtocol1
   ) {
-    this.unlock(false);
+    Slot0 _slot0 = this.lock();
 
     // Access control
     this.checkCallerIsFactoryOwner();
@@ -962,14 +1196,13 @@ public abstract class ConvexusPool
     );
 
     // OK
-    Slot0 _slot0 = this.slot0.get();
     int feeProtocolOld = _slot0.feeProtocol;
     _slot0.feeProtocol = feeProtocol0 + (feeProtocol1 << 4);
     this.slot0.set(_slot0);
 
     this.SetFeeProtocol(feeProtocolOld % 16, feeProtocolOld >> 4, feeProtocol0, feeProtocol1);
 
-    this.unlock(true);
+    this.unlock();
   }
 
   /**
@@ -989,7 +1222,7 @@ public abstract class ConvexusPool
     BigInteger amount0Requested,
     BigInteger amount1Requested
   ) {
-    this.unlock(false);
+    this.lock();
 
     // Access control
     this.checkCallerIsFactoryOwner();
@@ -1022,7 +1255,7 @@ public abstract class ConvexusPool
 
     this.CollectProtocol(caller, recipient, amount0, amount1);
     
-    this.unlock(true);
+    this.unlock();
     return new PairAmounts(amount0, amount1);
   }
 
@@ -1159,8 +1392,7 @@ public abstract class ConvexusPool
     BigInteger liquidityDelta,
     int tick
   ) {
-    byte[] positionKey = Positions.getKey(owner, tickLower, tickUpper);
-    Position.Info position = this.positions.get(positionKey);
+    Position.Info position = this.positions.get(owner, tickLower, tickUpper);
 
     BigInteger _feeGrowthGlobal0X128 = this.feeGrowthGlobal0X128.get();
     BigInteger _feeGrowthGlobal1X128 = this.feeGrowthGlobal1X128.get();
@@ -1169,6 +1401,9 @@ public abstract class ConvexusPool
     // if we need to update the ticks, do it
     boolean flippedLower = false;
     boolean flippedUpper = false;
+    BigInteger feeGrowthInside0X128;
+    BigInteger feeGrowthInside1X128;
+
     if (!liquidityDelta.equals(ZERO)) {
       BigInteger time = TimeUtils.now();
       var result = this.observations.observeSingle(
@@ -1183,22 +1418,9 @@ public abstract class ConvexusPool
       BigInteger tickCumulative = result.tickCumulative;
       BigInteger secondsPerLiquidityCumulativeX128 = result.secondsPerLiquidityCumulativeX128;
 
-      Ticks.UpdateResult resultLower  = this.ticks.update(
+      // the fee growth inside is computed from the updated ticks, no need to read them again
+      Ticks.UpdatePositionResult update = this.ticks.updatePosition(
         tickLower,
-        tick,
-        liquidityDelta,
-        _feeGrowthGlobal0X128,
-        _feeGrowthGlobal1X128,
-        secondsPerLiquidityCumulativeX128,
-        tickCumulative,
-        time,
-        false,
-        this.settings.maxLiquidityPerTick
-      );
-      flippedLower = resultLower.flipped;
-      this.onTickUpdate(tickLower, resultLower.info);
-      
-      Ticks.UpdateResult resultUpper = this.ticks.update(
         tickUpper,
         tick,
         liquidityDelta,
@@ -1207,11 +1429,14 @@ public abstract class ConvexusPool
         secondsPerLiquidityCumulativeX128,
         tickCumulative,
         time,
-        true,
         this.settings.maxLiquidityPerTick
       );
-      flippedUpper = resultUpper.flipped;
-      this.onTickUpdate(tickUpper, resultUpper.info);
+      flippedLower = update.lower.flipped;
+      flippedUpper = update.upper.flipped;
+      feeGrowthInside0X128 = update.feeGrowthInside0X128;
+      feeGrowthInside1X128 = update.feeGrowthInside1X128;
+      this.onTickUpdate(tickLower, update.lower.info);
+      this.onTickUpdate(tickUpper, update.upper.info);
       
       if (flippedLower) {
         this.tickBitmap.flipTick(tickLower, this.settings.tickSpacing);
@@ -1219,11 +1444,15 @@ public abstract class ConvexusPool
       if (flippedUpper) {
         this.tickBitmap.flipTick(tickUpper, this.settings.tickSpacing);
       }
+    } else {
+      var result = this.ticks.getFeeGrowthInside(tickLower, tickUpper, tick, _feeGrowthGlobal0X128, _feeGrowthGlobal1X128);
+      feeGrowthInside0X128 = result.feeGrowthInside0X128;
+      feeGrowthInside1X128 = result.feeGrowthInside1X128;
     }
 
-    var result = this.ticks.getFeeGrowthInside(tickLower, tickUpper, tick, _feeGrowthGlobal0X128, _feeGrowthGlobal1X128);
-    BigInteger feeGrowthInside0X128 = result.feeGrowthInside0X128;
-    BigInteger feeGrowthInside1X128 = result.feeGrowthInside1X128;
+    if (liquidityDelta.compareTo(ZERO) > 0 && position.liquidity.equals(ZERO)) {
+      this.positions.index(owner, tickLower, tickUpper);
+    }
 
     PositionLib.update(position, liquidityDelta, feeGrowthInside0X128, feeGrowthInside1X128);
 
@@ -1239,8 +1468,8 @@ public abstract class ConvexusPool
       }
     }
 
-    this.positions.set(positionKey, position);
-    return new PositionStorage(position, positionKey);
+    this.positions.set(owner, tickLower, tickUpper, position);
+    return new PositionStorage(position);
   }
 
   private void onTickUpdate (int index, Tick.Info info) {
@@ -1285,62 +1514,94 @@ public abstract class ConvexusPool
       _slot0.tick
     );
 
+    PairAmounts amounts = getAmountsForLiquidityDelta(_slot0, params.tickLower, params.tickUpper, params.liquidityDelta);
+
+    if (!params.liquidityDelta.equals(ZERO)
+      && _slot0.tick >= params.tickLower
+      && _slot0.tick < params.tickUpper
+    ) {
+      // current tick is inside the passed range
+      updateInRangeLiquidity(_slot0, params.liquidityDelta);
+    }
+
+    return new ModifyPositionResult(positionStorage, amounts.amount0, amounts.amount1);
+  }
+
+  /**
+   * @dev Computes the token amounts owed to the pool for a change of a position's liquidity, given the current price
+   * @return amount0 the amount of token0 owed to the pool, negative if the pool should pay the recipient
+   * @return amount1 the amount of token1 owed to the pool, negative if the pool should pay the recipient
+   */
+  private PairAmounts getAmountsForLiquidityDelta (
+    Slot0 _slot0,
+    int tickLower,
+    int tickUpper,
+    BigInteger liquidityDelta
+  ) {
     BigInteger amount0 = ZERO;
     BigInteger amount1 = ZERO;
 
-    if (!params.liquidityDelta.equals(ZERO)) {
-      if (_slot0.tick < params.tickLower) {
+    if (!liquidityDelta.equals(ZERO)) {
+      if (_slot0.tick < tickLower) {
         // current tick is below the passed range; liquidity can only become in range by crossing from left to
         // right, when we'll need _more_ token0 (it's becoming more valuable) so user must provide it
         amount0 = SqrtPriceMath.getAmount0Delta(
-          TickMath.getSqrtRatioAtTick(params.tickLower),
-          TickMath.getSqrtRatioAtTick(params.tickUpper),
-          params.liquidityDelta
+          TickMath.getSqrtRatioAtTick(tickLower),
+          TickMath.getSqrtRatioAtTick(tickUpper),
+          liquidityDelta
         );
-      } else if (_slot0.tick < params.tickUpper) {
+      } else if (_slot0.tick < tickUpper) {
         // current tick is inside the passed range
-        BigInteger liquidityBefore = this.liquidity.get();
-
-        // write an oracle entry
-        var writeResult = this.observations.write(
-          _slot0.observationIndex,
-          TimeUtils.now(),
-          _slot0.tick,
-          liquidityBefore,
-          _slot0.observationCardinality,
-          _slot0.observationCardinalityNext
-        );
-
-        _slot0.observationIndex = writeResult.observationIndex;
-        _slot0.observationCardinality = writeResult.observationCardinality;
-        this.slot0.set(_slot0);
-
         amount0 = SqrtPriceMath.getAmount0Delta(
           _slot0.sqrtPriceX96,
-          TickMath.getSqrtRatioAtTick(params.tickUpper),
-          params.liquidityDelta
+          TickMath.getSqrtRatioAtTick(tickUpper),
+          liquidityDelta
         );
         amount1 = SqrtPriceMath.getAmount1Delta(
-          TickMath.getSqrtRatioAtTick(params.tickLower),
+          TickMath.getSqrtRatioAtTick(tickLower),
           _slot0.sqrtPriceX96,
-          params.liquidityDelta
+          liquidityDelta
         );
-
-        BigInteger newLiquidity = LiquidityMath.addDelta(liquidityBefore, params.liquidityDelta);
-        this.liquidity.set(newLiquidity);
-        this.PoolIntrinsicsUpdate(_slot0.sqrtPriceX96, _slot0.tick, newLiquidity);
       } else {
         // current tick is above the passed range; liquidity can only become in range by crossing from right to
         // left, when we'll need _more_ token1 (it's becoming more valuable) so user must provide it
         amount1 = SqrtPriceMath.getAmount1Delta(
-          TickMath.getSqrtRatioAtTick(params.tickLower),
-          TickMath.getSqrtRatioAtTick(params.tickUpper),
-          params.liquidityDelta
+          TickMath.getSqrtRatioAtTick(tickLower),
+          TickMath.getSqrtRatioAtTick(tickUpper),
+          liquidityDelta
         );
       }
     }
 
-    return new ModifyPositionResult(positionStorage, amount0, amount1);
+    return new PairAmounts(amount0, amount1);
+  }
+
+  /**
+   * @dev Writes an oracle entry and applies a change of the in-range liquidity
+   * @param _slot0 The current slot0, written back with the new observation index and cardinality
+   * @param liquidityDelta The change of the in-range liquidity
+   */
+  private void updateInRangeLiquidity (Slot0 _slot0, BigInteger liquidityDelta) {
+    BigInteger liquidityBefore = this.liquidity.get();
+
+    // write an oracle entry
+    var writeResult = this.observations.write(
+      _slot0.observationIndex,
+      TimeUtils.now(),
+      _slot0.tick,
+      liquidityBefore,
+      _slot0.observationCardinality,
+      _slot0.observationCardinalityNext
+    );
+
+    _slot0.observationIndex = writeResult.observationIndex;
+    _slot0.observationCardinality = writeResult.observationCardinality;
+    this.slot0.set(_slot0);
+
+    BigInteger newLiquidity = LiquidityMath.addDelta(liquidityBefore, liquidityDelta);
+    this.liquidity.set(newLiquidity);
+    this.PoolIntrinsicsUpdate(_slot0.sqrtPriceX96, _slot0.tick, newLiquidity);
+
   }
 
   /**
@@ -1480,6 +1741,11 @@ public abstract class ConvexusPool
     return this.positions.get(key);
   }
 
+  @External(readonly = true)
+  public Position.Info positionOf (Address owner, int tickLower, int tickUpper) {
+    return this.positions.get(owner, tickLower, tickUpper);
+  }
+
   // --- Observations --- 
   @External(readonly = true)
   public Oracle.Observation observations (int index) {
@@ -20,8 +20,12 @@ package exchange.convexus.core.pool.contracts.models;
 import exchange.convexus.pool.Position;
 import exchange.convexus.utils.BytesUtils;
 import score.Address;
+import score.BranchDB;
+import score.ByteArrayObjectWriter;
 import score.Context;
 import score.DictDB;
+import score.ObjectReader;
+import score.VarDB;
 
 public class Positions {
   // ================================================
@@ -30,18 +34,108 @@ public class Positions {
   // Contract class name
   private static final String NAME = "PositionsDB";
 
-  // Returns the information about a position by the position's key
-  private final DictDB<byte[], Position.Info> positions = Context.newDictDB(NAME + "_positions", Position.Info.class);
+  // Returns the information about a position by the position's owner, lower tick and upper tick
+  private final BranchDB<Address, BranchDB<Integer, DictDB<Integer, Position.Info>>> positions = Context.newBranchDB(NAME + "_ownerPositions", Position.Info.class);
+  // Positions stored before the positions were indexed by owner and ticks, by the position's hashed key
+  private final DictDB<byte[], Position.Info> legacyPositions = Context.newDictDB(NAME + "_positions", Position.Info.class);
+  // Owner and ticks of the positions by the position's hashed key, encoded as `[owner, tickLower, tickUpper]`
+  private final DictDB<byte[], byte[]> positionKeys = Context.newDictDB(NAME + "_positionKeys", byte[].class);
+  // Whether the pool was deployed before the positions were indexed by owner and ticks
+  private final VarDB<Boolean> hasLegacyPositions = Context.newVarDB(NAME + "_hasLegacyPositions", Boolean.class);
+  // Value of hasLegacyPositions, kept with the contract instance so it isn't read on each access
+  private boolean legacy = false;
 
+  /**
+   * @notice Records once whether the pool may hold positions stored by their hashed key
+   * @dev Called by the pool constructor, which also runs when the pool is updated
+   * @param existingPool True if the pool has been deployed before
+   */
+  public void initialize (boolean existingPool) {
+    if (this.hasLegacyPositions.get() == null) {
+      this.hasLegacyPositions.set(existingPool);
+    }
+    this.legacy = this.hasLegacyPositions.get();
+  }
+
+  /**
+   * @notice Returns the information about a position
+   * @dev A position that hasn't been written since the positions are indexed by owner and ticks
+   * is read from its legacy hashed key, and migrated on its next write. Pools deployed with the
+   * current layout never compute the legacy key.
+   * @param owner The address of the position owner
+   * @param tickLower The lower tick boundary of the position
+   * @param tickUpper The upper tick boundary of the position
+   */
+  public Position.Info get (Address owner, int tickLower, int tickUpper) {
+    var position = this.positions.at(owner).at(tickLower).get(tickUpper);
+    if (position == null && this.legacy) {
+      position = this.legacyPositions.get(getKey(owner, tickLower, tickUpper));
+    }
+    return position == null ? Position.Info.empty() : position;
+  }
+
+  /**
+   * @notice Returns the information about a position by the position's hashed key
+   * @dev Only used by the `positions` endpoint, the pool itself never computes the key
+   * @param key The position key, see `getKey`
+   */
   public Position.Info get (byte[] key) {
-    var position = this.positions.get(key);
+    byte[] encoded = this.positionKeys.get(key);
+    if (encoded != null) {
+      ObjectReader reader = Context.newByteArrayObjectReader("RLPn", encoded);
+      reader.beginList();
+      Address owner = reader.readAddress();
+      int tickLower = reader.readInt();
+      int tickUpper = reader.readInt();
+      reader.end();
+      return get(owner, tickLower, tickUpper);
+    }
+
+    var position = this.legacy ? this.legacyPositions.get(key) : null;
     return position == null ? Position.Info.empty() : position;
   }
 
-  public void set (byte[] key, Position.Info value) {
-    this.positions.set(key, value);
+  /**
+   * @notice Writes a position
+   * @dev The legacy entry of the position is cleared, so it is never read again
+   */
+  public void set (Address owner, int tickLower, int tickUpper, Position.Info value) {
+    this.positions.at(owner).at(tickLower).set(tickUpper, value);
+    if (this.legacy) {
+      byte[] key = getKey(owner, tickLower, tickUpper);
+      if (this.legacyPositions.get(key) != null) {
+        this.legacyPositions.set(key, null);
+        this.index(key, owner, tickLower, tickUpper);
+      }
+    }
+  }
+
+  /**
+   * @notice Records the hashed key of a position, so it can still be queried by key
+   * @dev Called when a position receives liquidity while it had none, which includes its creation
+   */
+  public void index (Address owner, int tickLower, int tickUpper) {
+    byte[] key = getKey(owner, tickLower, tickUpper);
+    if (this.positionKeys.get(key) == null) {
+      this.index(key, owner, tickLower, tickUpper);
+    }
+  }
+
+  private void index (byte[] key, Address owner, int tickLower, int tickUpper) {
+    ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+    writer.beginList(3);
+    writer.write(owner);
+    writer.write(tickLower);
+    writer.write(tickUpper);
+    writer.end();
+    this.positionKeys.set(key, writer.toByteArray());
   }
 
+  /**
+   * @notice Returns the hashed key of a position
+   * @dev Only used for the positions queried by key, and the positions stored before they were indexed 
+   * by owner and ticks
+   */
   public static byte[] getKey (
       Address owner,
       int tickLower,
@@ -149,9 +149,27 @@ public class Ticks {
     BigInteger feeGrowthGlobal0X128,
     BigInteger feeGrowthGlobal1X128
   ) {
-    Tick.Info lower = this.get(tickLower);
-    Tick.Info upper = this.get(tickUpper);
-    
+    return getFeeGrowthInside(
+      tickLower, this.get(tickLower), 
+      tickUpper, this.get(tickUpper), 
+      tickCurrent, 
+      feeGrowthGlobal0X128, 
+      feeGrowthGlobal1X128
+    );
+  }
+
+  /**
+   * @notice Same as `getFeeGrowthInside`, using tick records already loaded in memory
+   */
+  private GetFeeGrowthInsideResult getFeeGrowthInside (
+    int tickLower, 
+    Tick.Info lower,
+    int tickUpper, 
+    Tick.Info upper,
+    int tickCurrent, 
+    BigInteger feeGrowthGlobal0X128,
+    BigInteger feeGrowthGlobal1X128
+  ) {
     // calculate fee growth below
     BigInteger feeGrowthBelow0X128;
     BigInteger feeGrowthBelow1X128;
@@ -182,6 +200,69 @@ public class Ticks {
     );
   }
 
+  public class UpdatePositionResult {
+    public UpdateResult lower;
+    public UpdateResult upper;
+    public BigInteger feeGrowthInside0X128;
+    public BigInteger feeGrowthInside1X128;
+    public UpdatePositionResult (UpdateResult lower, UpdateResult upper, GetFeeGrowthInsideResult feeGrowthInside) {
+      this.lower = lower;
+      this.upper = upper;
+      this.feeGrowthInside0X128 = feeGrowthInside.feeGrowthInside0X128;
+      this.feeGrowthInside1X128 = feeGrowthInside.feeGrowthInside1X128;
+    }
+  }
+
+  /**
+   * @notice Updates both ticks of a position and returns the fee growth inside them
+   * @dev The fee growth inside is computed from the tick records that have just been written,
+   * so the ticks aren't read again from the storage
+   * @param tickLower The lower tick of the position
+   * @param tickUpper The upper tick of the position
+   * @param tickCurrent The current tick
+   * @param liquidityDelta A new amount of liquidity to be added (subtracted) to the position
+   * @param feeGrowthGlobal0X128 The all-time global fee growth, per unit of liquidity, in token0
+   * @param feeGrowthGlobal1X128 The all-time global fee growth, per unit of liquidity, in token1
+   * @param secondsPerLiquidityCumulativeX128 The all-time seconds per max(1, liquidity) of the pool
+   * @param tickCumulative The tick * time elapsed since the pool was first initialized
+   * @param time The current block timestamp cast to a uint32
+   * @param maxLiquidity The maximum liquidity allocation for a single tick
+   * @return The update result of both ticks, and the fee growth inside the position
+   */
+  public UpdatePositionResult updatePosition (
+    int tickLower,
+    int tickUpper,
+    int tickCurrent,
+    BigInteger liquidityDelta,
+    BigInteger feeGrowthGlobal0X128,
+    BigInteger feeGrowthGlobal1X128,
+    BigInteger secondsPerLiquidityCumulativeX128,
+    BigInteger tickCumulative,
+    BigInteger time,
+    BigInteger maxLiquidity
+  ) {
+    UpdateResult lower = this.update(
+      tickLower, tickCurrent, liquidityDelta, 
+      feeGrowthGlobal0X128, feeGrowthGlobal1X128, 
+      secondsPerLiquidityCumulativeX128, tickCumulative, time, 
+      false, maxLiquidity
+    );
+    UpdateResult upper = this.update(
+      tickUpper, tickCurrent, liquidityDelta, 
+      feeGrowthGlobal0X128, feeGrowthGlobal1X128, 
+      secondsPerLiquidityCumulativeX128, tickCumulative, time, 
+      true, maxLiquidity
+    );
+
+    return new UpdatePositionResult(lower, upper, getFeeGrowthInside(
+      tickLower, lower.info, 
+      tickUpper, upper.info, 
+      tickCurrent, 
+      feeGrowthGlobal0X128, 
+      feeGrowthGlobal1X128
+    ));
+  }
+
   /**
    * @notice Clears tick data
    * @param tick The tick that will be cleared
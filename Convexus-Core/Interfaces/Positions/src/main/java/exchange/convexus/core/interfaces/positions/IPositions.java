@@ -17,6 +17,7 @@
 package exchange.convexus.core.interfaces.positions;
 
 import exchange.convexus.pool.Position;
+import score.Address;
 import score.annotation.External;
 
 public interface IPositions {
@@ -24,6 +25,16 @@ public interface IPositions {
   // ================================================
   // Methods
   // ================================================
+  /**
+   * @notice Returns the information about a position by the position's key
+   * @param key The hash of the position composite key, `owner | tickLower | tickUpper`
+   */
   @External(readonly = true)
   public Position.Info positions (byte[] key);
+
+  /**
+   * @notice Returns the information about a position by the position's owner, lower tick and upper tick
+   */
+  @External(readonly = true)
+  public Position.Info positionOf (Address owner, int tickLower, int tickUpper);
 }
@@ -14,69 +14,59 @@
  * limitations under the License.
  */
 
-package exchange.convexus.periphery.poolreadonly;
+package exchange.convexus.core.librairies;
 
 import static exchange.convexus.utils.IntUtils.uint8;
 import static java.math.BigInteger.ONE;
 import static java.math.BigInteger.ZERO;
 
 import java.math.BigInteger;
-import exchange.convexus.core.librairies.BitMath;
-import exchange.convexus.pool.IConvexusPool;
+import exchange.convexus.pool.NextInitializedTickWithinOneWordResult;
 import exchange.convexus.utils.IntUtils;
-import score.Address;
 
-public class TickBitmapReadOnly {
-
-  public final Address pool;
-  
-  // ================================================
-  // Methods 
-  // ================================================
-  public class PositionResult {
-    public int wordPos;
-    public int bitPos;
-    
-    public PositionResult (int wordPos, int bitPos) {
-      this.wordPos = wordPos;
-      this.bitPos = bitPos;
-    }
-  }
-
-  public TickBitmapReadOnly (Address pool) {
-    this.pool = pool;
-  }
+/**
+ * @title Packed tick initialized state library
+ * @notice Computes the next initialized tick from the 256 packed tick initialized boolean values of a word
+ * @dev Shared by the pool tick bitmap and the periphery swap simulations, so they always walk the ticks the same way
+ */
+public class TickBitmapLib {
 
-  public BigInteger get (int index) {
-    return IConvexusPool.tickBitmap(this.pool, index);
+  /**
+   * @notice Source of the tick bitmap words, from the pool storage or from another contract
+   */
+  public interface Words {
+    /**
+     * @return The 256 packed tick initialized boolean values of the word, zero if no tick is initialized
+     */
+    public BigInteger get (int wordPos);
   }
 
   /**
-   * @notice Computes the position in the mapping where the initialized bit for a tick lives
-   * @param tick The tick for which to compute the position
-   * @return wordPos The key in the mapping containing the word in which the bit is stored
-   * @return bitPos The bit position in the word where the flag is stored
+   * @notice Returns the key in the mapping containing the word in which the initialized bit of a tick is stored
    */
-  private PositionResult position (int tick) {
-    int wordPos = tick >> 8;
-    int bitPos = uint8(tick % 256);
-    return new PositionResult(wordPos, bitPos);
+  public static int wordPos (int tick) {
+    return tick >> 8;
   }
 
-  public class NextInitializedTickWithinOneWordResult {
-    public int tickNext;
-    public boolean initialized;
-
-    public NextInitializedTickWithinOneWordResult (
-      int tickNext,
-      boolean initialized
-    ) {
-      this.tickNext = tickNext;
-      this.initialized = initialized;
-    }
+  /**
+   * @notice Returns the bit position in the word where the initialized bit of a tick is stored
+   */
+  public static int bitPos (int tick) {
+    return uint8(tick % 256);
   }
 
-  public NextInitializedTickWithinOneWordResult nextInitializedTickWithinOneWord (
+  /**
+   * @notice Returns the next initialized tick contained in the same word (or adjacent word) as the tick that is either
+   * to the left (less than or equal to) or right (greater than) of the given tick
+   * @param words The tick bitmap words
+   * @param tick The starting tick
+   * @param tickSpacing The spacing between usable ticks
+   * @param lte Whether to search for the next initialized tick to the left (less than or equal to the starting tick)
+   * @return tickNext The next initialized or uninitialized tick up to 256 ticks away from the current tick
+   * @return initialized Whether the next tick is initialized, as the function only searches within up to 256 ticks
+   */
+  public static NextInitializedTickWithinOneWordResult nextInitializedTickWithinOneWord (
+    Words words,
     int tick, 
     int tickSpacing, 
     boolean lte
@@ -88,14 +78,13 @@ public class TickBitmapReadOnly {
     }
 
     if (lte) {
-      var position = position(compressed);
-      int wordPos = position.wordPos;
-      int bitPos  = position.bitPos;
+      int wordPos = wordPos(compressed);
+      int bitPos  = bitPos(compressed);
 
       var oneShifted = ONE.shiftLeft(bitPos);
       // all the 1s at or to the right of the current bitPos
       BigInteger mask = oneShifted.subtract(ONE).add(oneShifted);
-      BigInteger masked = this.get(wordPos).and(mask);
+      BigInteger masked = words.get(wordPos).and(mask);
 
       // if there are no initialized ticks to the right of or at the current tick, return rightmost in the word
       boolean initialized = !masked.equals(ZERO);
@@ -107,12 +96,11 @@ public class TickBitmapReadOnly {
       return new NextInitializedTickWithinOneWordResult (tickNext, initialized);
     } else {
       // start from the word of the next tick, since the current tick state doesn't matter
-      var position = position(compressed + 1);
-      int wordPos = position.wordPos;
-      int bitPos  = position.bitPos;
+      int wordPos = wordPos(compressed + 1);
+      int bitPos  = bitPos(compressed + 1);
       // all the 1s at or to the left of the bitPos
       BigInteger mask = ONE.shiftLeft(bitPos).subtract(ONE).not();
-      BigInteger masked = this.get(wordPos).and(mask);
+      BigInteger masked = words.get(wordPos).and(mask);
 
       // if there are no initialized ticks to the left of the current tick, return leftmost in the word
       boolean initialized = !masked.equals(ZERO);
@@ -16,6 +16,8 @@
 
 package exchange.convexus.core.factory;
 
+import java.math.BigInteger;
+
 import score.Address;
 import score.Context;
 
@@ -35,6 +37,13 @@ public class IConvexusFactory {
     return (Address) Context.call(factory, "getPool", token0, token1, fee);
   }
 
+  public static int feeAmountTickSpacing (
+    Address factory,
+    int fee
+  ) {
+    return ((BigInteger) Context.call(factory, "feeAmountTickSpacing", fee)).intValue();
+  }
+
   public static Address createPool (
     Address factory,
     Address token0,
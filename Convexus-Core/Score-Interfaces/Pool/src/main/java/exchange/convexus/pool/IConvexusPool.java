@@ -17,15 +17,20 @@
 package exchange.convexus.pool;
 
 import java.math.BigInteger;
+import java.util.List;
 import exchange.convexus.factory.Parameters;
 import exchange.convexus.pool.Oracle.Observation;
+import exchange.convexus.utils.BytesUtils;
 import score.Address;
 import score.Context;
 
 public class IConvexusPool {
 
   // Write methods
-  public static PairAmounts mint (
+  /**
+   * @dev Pools that don't report the position's fee growth snapshot are queried for it
+   */
+  public static PositionAmounts mint (
     Address pool, 
     Address recipient, 
     int tickLower, 
@@ -33,9 +38,9 @@ public class IConvexusPool {
     BigInteger amount, 
     byte[] data
   ) {
-    return PairAmounts.fromMap (
+    return withFeeGrowthInside(pool, recipient, tickLower, tickUpper, PositionAmounts.fromMap (
       Context.call(pool, "mint", recipient, tickLower, tickUpper, amount, data)
-    );
+    ));
   }
 
   public static void flash (
@@ -96,15 +101,85 @@ public class IConvexusPool {
     Context.call(pool, "collectProtocol", recipient, amount0Requested, amount1Requested);
   }
 
-  public static PairAmounts burn (
+  /**
+   * @dev Pools that don't report the position's fee growth snapshot are queried for it
+   */
+  public static PositionAmounts burn (
     Address pool,
     int tickLower,
     int tickUpper,
     BigInteger amount
   ) {
-    return PairAmounts.fromMap (
+    return withFeeGrowthInside(pool, Context.getAddress(), tickLower, tickUpper, PositionAmounts.fromMap (
       Context.call(pool, "burn", tickLower, tickUpper, amount)
-    );
+    ));
+  }
+
+  private static PositionAmounts withFeeGrowthInside (
+    Address pool,
+    Address owner,
+    int tickLower,
+    int tickUpper,
+    PositionAmounts amounts
+  ) {
+    if (!amounts.hasFeeGrowthInside()) {
+      // these pools don't have the `positionOf` endpoint
+      byte[] positionKey = Context.hash("sha3-256", 
+        BytesUtils.concat(owner.toByteArray(), BytesUtils.intToBytes(tickLower), BytesUtils.intToBytes(tickUpper))
+      );
+      Position.Info position = positions(pool, positionKey);
+      amounts.feeGrowthInside0LastX128 = position.feeGrowthInside0LastX128;
+      amounts.feeGrowthInside1LastX128 = position.feeGrowthInside1LastX128;
+    }
+    return amounts;
+  }
+
+  public static PositionAmounts[] poke (
+    Address pool,
+    int[] tickLowers,
+    int[] tickUppers
+  ) {
+    @SuppressWarnings("unchecked")
+    List<Object> result = (List<Object>) Context.call(pool, "poke", tickLowers, tickUppers);
+    PositionAmounts[] amounts = new PositionAmounts[result.size()];
+    for (int i = 0; i < amounts.length; i++) {
+      amounts[i] = PositionAmounts.fromMap(result.get(i));
+    }
+    return amounts;
+  }
+
+  public static PairAmounts[] collectMany (
+    Address pool,
+    Address recipient,
+    int[] tickLowers,
+    int[] tickUppers,
+    BigInteger[] amount0Requested,
+    BigInteger[] amount1Requested
+  ) {
+    @SuppressWarnings("unchecked")
+    List<Object> result = (List<Object>) Context.call(pool, "collectMany", recipient, tickLowers, tickUppers, amount0Requested, amount1Requested);
+    PairAmounts[] amounts = new PairAmounts[result.size()];
+    for (int i = 0; i < amounts.length; i++) {
+      amounts[i] = PairAmounts.fromMap(result.get(i));
+    }
+    return amounts;
+  }
+
+  public static PositionAmounts[] modifyPositions (
+    Address pool,
+    Address recipient,
+    int[] tickLowers,
+    int[] tickUppers,
+    BigInteger[] liquidityDeltas,
+    byte[] data
+  ) {
+    @SuppressWarnings("unchecked")
+    List<Object> result = (List<Object>) Context.call(pool, "modifyPositions", recipient, tickLowers, tickUppers, liquidityDeltas, data);
+    PositionAmounts[] amounts = new PositionAmounts[result.size()];
+    for (int i = 0; i < amounts.length; i++) {
+      amounts[i] = PositionAmounts.fromMap(result.get(i));
+    }
+    return amounts;
   }
 
   public static void initialize (
@@ -135,6 +210,10 @@ public class IConvexusPool {
     return Position.Info.fromMap(Context.call(pool, "positions", positionKey));
   }
 
+  public static Position.Info positionOf(Address pool, Address owner, int tickLower, int tickUpper) {
+    return Position.Info.fromMap(Context.call(pool, "positionOf", owner, tickLower, tickUpper));
+  }
+
   public static int tickSpacing (Address pool) {
     return ((BigInteger) Context.call(pool, "tickSpacing")).intValue();
   }
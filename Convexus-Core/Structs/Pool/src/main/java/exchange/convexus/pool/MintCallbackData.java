@@ -16,6 +16,8 @@
 
 package exchange.convexus.pool;
 
+import java.math.BigInteger;
+
 import score.Address;
 import score.ObjectReader;
 import score.ObjectWriter;
@@ -23,20 +25,41 @@ import score.ObjectWriter;
 public class MintCallbackData {
     public PoolAddress.PoolKey poolKey;
     public Address payer;
+    // Token sent by the payer along with the transaction, spent before their deposited funds, or null
+    public Address tokenSent;
+    // Amount of `tokenSent` sent along with the transaction
+    public BigInteger amountSent;
 
     public MintCallbackData (PoolAddress.PoolKey poolKey, Address payer) {
+        this(poolKey, payer, null, BigInteger.ZERO);
+    }
+
+    public MintCallbackData (PoolAddress.PoolKey poolKey, Address payer, Address tokenSent, BigInteger amountSent) {
         this.poolKey = poolKey;
         this.payer = payer;
+        this.tokenSent = tokenSent;
+        this.amountSent = amountSent;
+    }
+
+    /**
+     * Returns the amount of `token` sent along with the transaction
+     */
+    public BigInteger amountSent (Address token) {
+        return token.equals(this.tokenSent) ? this.amountSent : BigInteger.ZERO;
     }
 
     public static MintCallbackData readObject(ObjectReader reader) {
         PoolAddress.PoolKey poolKey = reader.read(PoolAddress.PoolKey.class);
         Address payer = reader.readAddress();
-        return new MintCallbackData(poolKey, payer);
+        Address tokenSent = reader.readNullable(Address.class);
+        BigInteger amountSent = reader.readBigInteger();
+        return new MintCallbackData(poolKey, payer, tokenSent, amountSent);
     }
 
     public static void writeObject(ObjectWriter w, MintCallbackData obj) {
         w.write(obj.poolKey);
         w.write(obj.payer);
+        w.writeNullable(obj.tokenSent);
+        w.write(obj.amountSent);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.pool;
+
+import java.math.BigInteger;
+import java.util.Map;
+
+public class PositionAmounts {
+    // Amount of token0
+    public BigInteger amount0;
+    // Amount of token1
+    public BigInteger amount1;
+    // The fee growth of token0 inside the position's tick range as of the liquidity change
+    public BigInteger feeGrowthInside0LastX128;
+    // The fee growth of token1 inside the position's tick range as of the liquidity change
+    public BigInteger feeGrowthInside1LastX128;
+
+    public PositionAmounts (
+        BigInteger amount0, 
+        BigInteger amount1, 
+        BigInteger feeGrowthInside0LastX128, 
+        BigInteger feeGrowthInside1LastX128
+    ) {
+        this.amount0 = amount0;
+        this.amount1 = amount1;
+        this.feeGrowthInside0LastX128 = feeGrowthInside0LastX128;
+        this.feeGrowthInside1LastX128 = feeGrowthInside1LastX128;
+    }
+
+    /**
+     * @notice Returns true if the pool reported the position's fee growth snapshot
+     */
+    public boolean hasFeeGrowthInside () {
+        return this.feeGrowthInside0LastX128 != null && this.feeGrowthInside1LastX128 != null;
+    }
+
+    public static PositionAmounts fromMap (Object call) {
+        @SuppressWarnings("unchecked")
+        Map<String,Object> map = (Map<String,Object>) call;
+        // pools built against `PairAmounts` only report the amounts
+        return new PositionAmounts (
+          (BigInteger) map.get("amount0"),
+          (BigInteger) map.get("amount1"),
+          (BigInteger) map.get("feeGrowthInside0LastX128"),
+          (BigInteger) map.get("feeGrowthInside1LastX128")
+        );
+    }
+}
@@ -18,10 +18,8 @@ package exchange.convexus.pool;
 
 public class PositionStorage {
     public Position.Info position;
-    public byte[] key;
     
-    public PositionStorage(Position.Info position, byte[] positionKey) {
+    public PositionStorage(Position.Info position) {
         this.position = position;
-        this.key = positionKey;
     }
 }
\ No newline at end of file
@@ -38,7 +38,7 @@ public class Slot0 {
     // Encoded as two 4 bit values, where the protocol fee of token1 is shifted 4 bits and the protocol fee of token0
     // is the lower 4 bits. Used as the denominator of a fraction of the swap fee, e.g. 4 means 1/4th of the swap fee.
     public int feeProtocol;
-    // Whether the pool is locked
+    // Whether the pool is initialized and unlocked. The reentrancy lock itself is stored apart from Slot0 by the pool
     public boolean unlocked;
 
     public static void writeObject (ObjectWriter w, Slot0 obj) {
@@ -78,6 +78,17 @@ public class ConvexusPoolCallee
     IConvexusPool.mint(pool, recipient, tickLower, tickUpper, amount, Context.getCaller().toByteArray());
   }
 
+  @External
+  public void modifyPositions (
+    Address pool,
+    Address recipient,
+    int[] tickLowers,
+    int[] tickUppers,
+    BigInteger[] liquidityDeltas
+  ) {
+    IConvexusPool.modifyPositions(pool, recipient, tickLowers, tickUppers, liquidityDeltas, Context.getCaller().toByteArray());
+  }
+
   @External
   public void convexusMintCallback (
     BigInteger amount0Owed,
@@ -23,6 +23,7 @@ import java.math.BigInteger;
 import com.eclipsesource.json.Json;
 import com.eclipsesource.json.JsonObject;
 import com.eclipsesource.json.JsonValue;
+import exchange.convexus.core.interfaces.callback.IConvexusMintCallback;
 import exchange.convexus.core.interfaces.callback.IConvexusSwapCallback;
 import exchange.convexus.interfaces.irc2.IIRC2ICX;
 import exchange.convexus.pool.IConvexusPool;
@@ -40,7 +41,8 @@ import scorex.io.Reader;
 import scorex.io.StringReader;
 
 public class ConvexusSwapPay 
-  implements IConvexusSwapCallback
+  implements IConvexusSwapCallback,
+             IConvexusMintCallback
 {
   // ================================================
   // Consts
@@ -90,6 +92,43 @@ public class ConvexusSwapPay
     }
   }
 
+  @External
+  public void modifyPositions (
+    Address pool,
+    Address recipient,
+    int[] tickLowers,
+    int[] tickUppers,
+    BigInteger[] liquidityDeltas,
+    BigInteger pay0,
+    BigInteger pay1
+  ) {
+    ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+    writer.write(Context.getCaller().toByteArray());
+    writer.write(pay0);
+    writer.write(pay1);
+    IConvexusPool.modifyPositions(pool, recipient, tickLowers, tickUppers, liquidityDeltas, writer.toByteArray());
+  }
+
+  @External
+  public void convexusMintCallback (
+    BigInteger amount0Owed,
+    BigInteger amount1Owed,
+    byte[] data
+  ) {
+    ObjectReader reader = Context.newByteArrayObjectReader("RLPn", data);
+    Address sender = reader.readAddress();
+    BigInteger pay0 = reader.readBigInteger();
+    BigInteger pay1 = reader.readBigInteger();
+    final Address caller = Context.getCaller();
+
+    if (pay0.compareTo(ZERO) > 0) {
+      pay(sender, IConvexusPool.token0(caller), caller, pay0);
+    }
+    if (pay1.compareTo(ZERO) > 0) {
+      pay(sender, IConvexusPool.token1(caller), caller, pay1);
+    }
+  }
+
   private void pay (Address payer, Address token, Address destination, BigInteger owed) {
     checkEnoughDeposited(payer, token, owed);
 
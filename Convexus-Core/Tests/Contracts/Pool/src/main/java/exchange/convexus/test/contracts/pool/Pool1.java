@@ -518,20 +518,19 @@ abstract class ConvexusPool1
     BigInteger amount1;
 
     // we don't need to checkTicks here, because invalid positions will never have non-zero tokensOwed{0,1}
-    byte[] key = Positions.getKey(caller, tickLower, tickUpper);
-    Position.Info position = this.positions.get(key);
+    Position.Info position = this.positions.get(caller, tickLower, tickUpper);
 
     amount0 = amount0Requested.compareTo(position.tokensOwed0) > 0 ? position.tokensOwed0 : amount0Requested;
     amount1 = amount1Requested.compareTo(position.tokensOwed1) > 0 ? position.tokensOwed1 : amount1Requested;
 
     if (amount0.compareTo(ZERO) > 0) {
       position.tokensOwed0 = position.tokensOwed0.subtract(amount0);
-      this.positions.set(key, position);
+      this.positions.set(caller, tickLower, tickUpper, position);
       pay(this.settings.token0, recipient, amount0);
     }
     if (amount1.compareTo(ZERO) > 0) {
       position.tokensOwed1 = position.tokensOwed1.subtract(amount1);
-      this.positions.set(key, position);
+      this.positions.set(caller, tickLower, tickUpper, position);
       pay(this.settings.token1, recipient, amount1);
     }
 
@@ -573,12 +572,11 @@ abstract class ConvexusPool1
     BigInteger amount0 = result.amount0.negate();
     BigInteger amount1 = result.amount1.negate();
     Position.Info position = result.positionStorage.position;
-    byte[] positionKey = result.positionStorage.key;
 
     if (amount0.compareTo(ZERO) > 0 || amount1.compareTo(ZERO) > 0) {
       position.tokensOwed0 = position.tokensOwed0.add(amount0);
       position.tokensOwed1 = position.tokensOwed1.add(amount1);
-      this.positions.set(positionKey, position);
+      this.positions.set(caller, tickLower, tickUpper, position);
     }
 
     this.Burn(caller, tickLower, tickUpper, amount, amount0, amount1);
@@ -1147,8 +1145,7 @@ abstract class ConvexusPool1
     BigInteger liquidityDelta,
     int tick
   ) {
-    byte[] positionKey = Positions.getKey(owner, tickLower, tickUpper);
-    Position.Info position = this.positions.get(positionKey);
+    Position.Info position = this.positions.get(owner, tickLower, tickUpper);
 
     BigInteger _feeGrowthGlobal0X128 = this.feeGrowthGlobal0X128.get();
     BigInteger _feeGrowthGlobal1X128 = this.feeGrowthGlobal1X128.get();
@@ -1213,6 +1210,10 @@ abstract class ConvexusPool1
     BigInteger feeGrowthInside0X128 = result.feeGrowthInside0X128;
     BigInteger feeGrowthInside1X128 = result.feeGrowthInside1X128;
 
+    if (liquidityDelta.compareTo(ZERO) > 0 && position.liquidity.equals(ZERO)) {
+      this.positions.index(owner, tickLower, tickUpper);
+    }
+
     PositionLib.update(position, liquidityDelta, feeGrowthInside0X128, feeGrowthInside1X128);
 
     // clear any tick data that is no longer needed
@@ -1227,8 +1228,8 @@ abstract class ConvexusPool1
       }
     }
 
-    this.positions.set(positionKey, position);
-    return new PositionStorage(position, positionKey);
+    this.positions.set(owner, tickLower, tickUpper, position);
+    return new PositionStorage(position);
   }
 
   private void onTickUpdate (int index, Tick.Info info) {
@@ -1466,6 +1467,11 @@ abstract class ConvexusPool1
     return this.positions.get(key);
   }
 
+  @External(readonly = true)
+  public Position.Info positionOf (Address owner, int tickLower, int tickUpper) {
+    return this.positions.get(owner, tickLower, tickUpper);
+  }
+
   // --- Observations --- 
   @External(readonly = true)
   public Oracle.Observation observations (int index) {
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.pool;
+
+import static java.math.BigInteger.ONE;
+import static java.math.BigInteger.ZERO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigInteger;
+
+import com.iconloop.score.test.ServiceManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import exchange.convexus.test.factory.ConvexusFactoryUtils;
+import exchange.convexus.utils.AssertUtils;
+
+public class CollectManyTest extends ConvexusPoolTest {
+
+  final int FEE = 500;
+  final int tickSpacing = 10;
+
+  int minTick = getMinTick(tickSpacing);
+  int maxTick = getMaxTick(tickSpacing);
+
+  BigInteger tokensOwed0Position0;
+  BigInteger tokensOwed1Position0;
+  BigInteger tokensOwed0Position1;
+  BigInteger tokensOwed1Position1;
+
+  @BeforeEach
+  void setup() throws Exception {
+    ServiceManager.Block.resetInstance();
+    setup_factory();
+    reset(factory.spy);
+    setup_tokens();
+    setup_pool(factory.getAddress(), FEE, tickSpacing);
+    reset(pool.spy);
+
+    ConvexusFactoryUtils.createPool(factory, alice, sicx.getAddress(), usdc.getAddress(), FEE, pool.getAddress());
+    pool.invoke(alice, "initialize", encodePriceSqrt(ONE, ONE));
+
+    mint(alice, minTick, maxTick, expandTo18Decimals(1), "1000000000000000000", "1000000000000000000");
+    mint(alice, minTick + tickSpacing, maxTick - tickSpacing, expandTo18Decimals(2), "2000000000000000000", "2000000000000000000");
+
+    // fees in both tokens
+    swapExact0For1(expandTo18Decimals(1), alice);
+    swapExact1For0(expandTo18Decimals(1), alice);
+
+    // poke positions
+    burn(minTick, maxTick, ZERO);
+    burn(minTick + tickSpacing, maxTick - tickSpacing, ZERO);
+
+    var position = positions(alice, minTick, maxTick);
+    tokensOwed0Position0 = position.tokensOwed0;
+    tokensOwed1Position0 = position.tokensOwed1;
+    position = positions(alice, minTick + tickSpacing, maxTick - tickSpacing);
+    tokensOwed0Position1 = position.tokensOwed0;
+    tokensOwed1Position1 = position.tokensOwed1;
+
+    assertTrue(tokensOwed0Position0.signum() > 0);
+    assertTrue(tokensOwed1Position0.signum() > 0);
+  }
+
+  private void collectMany (BigInteger[] amount0Requested, BigInteger[] amount1Requested) {
+    pool.invoke(alice, "collectMany", 
+      alice.getAddress(), 
+      new int[] {minTick, minTick + tickSpacing}, 
+      new int[] {maxTick, maxTick - tickSpacing}, 
+      amount0Requested, 
+      amount1Requested
+    );
+  }
+
+  @Test
+  void testCollectsWithASingleTransferPerToken () {
+    reset(sicx.spy);
+    reset(usdc.spy);
+
+    collectMany(
+      new BigInteger[] {tokensOwed0Position0, tokensOwed0Position1}, 
+      new BigInteger[] {tokensOwed1Position0, tokensOwed1Position1}
+    );
+
+    verify(sicx.spy).Transfer(pool.getAddress(), alice.getAddress(), tokensOwed0Position0.add(tokensOwed0Position1), "{\"method\": \"deposit\"}".getBytes());
+    verify(usdc.spy).Transfer(pool.getAddress(), alice.getAddress(), tokensOwed1Position0.add(tokensOwed1Position1), "{\"method\": \"deposit\"}".getBytes());
+
+    assertEquals(ZERO, positions(alice, minTick, maxTick).tokensOwed0);
+    assertEquals(ZERO, positions(alice, minTick + tickSpacing, maxTick - tickSpacing).tokensOwed1);
+  }
+
+  @Test
+  void testOnlyCollectsTheTokensRequested () {
+    collectMany(
+      new BigInteger[] {ZERO, ZERO}, 
+      new BigInteger[] {tokensOwed1Position0, ONE}
+    );
+
+    var position = positions(alice, minTick, maxTick);
+    assertEquals(tokensOwed0Position0, position.tokensOwed0);
+    assertEquals(ZERO, position.tokensOwed1);
+
+    position = positions(alice, minTick + tickSpacing, maxTick - tickSpacing);
+    assertEquals(tokensOwed0Position1, position.tokensOwed0);
+    assertEquals(tokensOwed1Position1.subtract(ONE), position.tokensOwed1);
+  }
+
+  @Test
+  void testCannotRequestNegativeAmounts () {
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      collectMany(
+        new BigInteger[] {ZERO, BigInteger.valueOf(-1000)}, 
+        new BigInteger[] {ZERO, ONE}
+      ),
+      "collectMany: invalid amount requested");
+
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      collectMany(
+        new BigInteger[] {ONE, ZERO}, 
+        new BigInteger[] {BigInteger.valueOf(-1000), ZERO}
+      ),
+      "collectMany: invalid amount requested");
+
+    assertEquals(tokensOwed0Position1, positions(alice, minTick + tickSpacing, maxTick - tickSpacing).tokensOwed0);
+  }
+
+  @Test
+  void testChecksThePositionsLength () {
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      pool.invoke(alice, "collectMany", alice.getAddress(), new int[] {minTick}, new int[] {maxTick}, new BigInteger[] {ONE}, new BigInteger[0]),
+      "collectMany: invalid positions length");
+  }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.pool;
+
+import static exchange.convexus.utils.SleepUtils.sleep;
+import static java.math.BigInteger.TEN;
+import static java.math.BigInteger.TWO;
+import static java.math.BigInteger.ZERO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigInteger;
+
+import com.iconloop.score.test.ServiceManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import exchange.convexus.test.factory.ConvexusFactoryUtils;
+import exchange.convexus.test.liquidity.ConvexusLiquidityUtils;
+import exchange.convexus.utils.AssertUtils;
+import exchange.convexus.utils.ScoreSpy;
+import score.Address;
+
+public class ModifyPositionsTest extends ConvexusPoolTest {
+
+  final int FEE = 3000;
+  final int tickSpacing = 60;
+
+  final BigInteger liquidity = TEN.pow(18);
+  final BigInteger deposit = TEN.pow(18);
+
+  @BeforeEach
+  void setup() throws Exception {
+    ServiceManager.Block.resetInstance();
+    setup_factory();
+    reset(factory.spy);
+    setup_tokens();
+    setup_pool(factory.getAddress(), FEE, tickSpacing);
+    reset(pool.spy);
+
+    ConvexusFactoryUtils.createPool(factory, alice, sicx.getAddress(), usdc.getAddress(), FEE, pool.getAddress());
+
+    // initialize at zero tick
+    initializeAtZeroTick();
+
+    // positions owned by the callee, in range, below and above the current tick
+    ConvexusLiquidityUtils.deposit(alice, callee.getAddress(), sicx.score, deposit);
+    ConvexusLiquidityUtils.deposit(alice, callee.getAddress(), usdc.score, deposit);
+    callee.invoke(alice, "mint", pool.getAddress(), callee.getAddress(), -tickSpacing, tickSpacing, liquidity);
+    callee.invoke(alice, "mint", pool.getAddress(), callee.getAddress(), -3 * tickSpacing, -tickSpacing, liquidity);
+    callee.invoke(alice, "mint", pool.getAddress(), callee.getAddress(), tickSpacing, 3 * tickSpacing, liquidity);
+  }
+
+  private void modifyPositions (int[] tickLowers, int[] tickUppers, BigInteger[] liquidityDeltas) {
+    callee.invoke(alice, "modifyPositions", pool.getAddress(), alice.getAddress(), tickLowers, tickUppers, liquidityDeltas);
+  }
+
+  private Position.Info positionOf (Address owner, int tickLower, int tickUpper) {
+    return Position.Info.fromMap(pool.call("positionOf", owner, tickLower, tickUpper));
+  }
+
+  private BigInteger balanceOf (ScoreSpy<?> token, Address owner) {
+    return (BigInteger) token.call("balanceOf", owner);
+  }
+
+  @Test
+  void testNetsTheReleasedTokensIntoTheAddedLiquidity () {
+    var pool0Before = balanceOf(sicx, pool.getAddress());
+    var pool1Before = balanceOf(usdc, pool.getAddress());
+    var alice0Before = balanceOf(sicx, alice.getAddress());
+    var alice1Before = balanceOf(usdc, alice.getAddress());
+    var liquidityBefore = (BigInteger) pool.call("liquidity");
+
+    reset(sicx.spy);
+    reset(usdc.spy);
+
+    modifyPositions(
+      new int[] {-tickSpacing, -2 * tickSpacing},
+      new int[] {tickSpacing, 2 * tickSpacing},
+      new BigInteger[] {liquidity.negate(), liquidity.divide(TWO)}
+    );
+
+    var released0 = pool0Before.subtract(balanceOf(sicx, pool.getAddress()));
+    var released1 = pool1Before.subtract(balanceOf(usdc, pool.getAddress()));
+    assertTrue(released0.signum() > 0);
+    assertTrue(released1.signum() > 0);
+
+    // only the remaining released tokens are sent, nothing is charged through the callback
+    verify(sicx.spy, times(1)).Transfer(pool.getAddress(), alice.getAddress(), released0, "{\"method\": \"deposit\"}".getBytes());
+    verify(usdc.spy, times(1)).Transfer(pool.getAddress(), alice.getAddress(), released1, "{\"method\": \"deposit\"}".getBytes());
+    assertEquals(alice0Before.add(released0), balanceOf(sicx, alice.getAddress()));
+    assertEquals(alice1Before.add(released1), balanceOf(usdc, alice.getAddress()));
+
+    // the released tokens aren't accounted to the positions
+    var position = positionOf(callee.getAddress(), -tickSpacing, tickSpacing);
+    assertEquals(ZERO, position.liquidity);
+    assertEquals(ZERO, position.tokensOwed0);
+    assertEquals(ZERO, position.tokensOwed1);
+    assertEquals(liquidity.divide(TWO), positionOf(callee.getAddress(), -2 * tickSpacing, 2 * tickSpacing).liquidity);
+    assertEquals(liquidityBefore.subtract(liquidity.divide(TWO)), pool.call("liquidity"));
+  }
+
+  @Test
+  void testChargesTheNetDebtInASingleCallback () {
+    var pool0Before = balanceOf(sicx, pool.getAddress());
+    var pool1Before = balanceOf(usdc, pool.getAddress());
+    var alice0Before = balanceOf(sicx, alice.getAddress());
+    var alice1Before = balanceOf(usdc, alice.getAddress());
+
+    reset(sicx.spy);
+    reset(usdc.spy);
+
+    modifyPositions(
+      new int[] {-tickSpacing, -2 * tickSpacing},
+      new int[] {tickSpacing, 2 * tickSpacing},
+      new BigInteger[] {liquidity.divide(TWO).negate(), liquidity}
+    );
+
+    var owed0 = balanceOf(sicx, pool.getAddress()).subtract(pool0Before);
+    var owed1 = balanceOf(usdc, pool.getAddress()).subtract(pool1Before);
+    assertTrue(owed0.signum() > 0);
+    assertTrue(owed1.signum() > 0);
+
+    // a single payment per token, nothing is sent back
+    verify(sicx.spy, times(1)).Transfer(callee.getAddress(), pool.getAddress(), owed0, "{\"method\": \"deposit\"}".getBytes());
+    verify(usdc.spy, times(1)).Transfer(callee.getAddress(), pool.getAddress(), owed1, "{\"method\": \"deposit\"}".getBytes());
+    assertEquals(alice0Before, balanceOf(sicx, alice.getAddress()));
+    assertEquals(alice1Before, balanceOf(usdc, alice.getAddress()));
+
+    assertEquals(liquidity.divide(TWO), positionOf(callee.getAddress(), -tickSpacing, tickSpacing).liquidity);
+    assertEquals(liquidity, positionOf(callee.getAddress(), -2 * tickSpacing, 2 * tickSpacing).liquidity);
+  }
+
+  @Test
+  void testNetsEachTokenOnItsOwn () {
+    var pool0Before = balanceOf(sicx, pool.getAddress());
+    var pool1Before = balanceOf(usdc, pool.getAddress());
+    var alice0Before = balanceOf(sicx, alice.getAddress());
+    var alice1Before = balanceOf(usdc, alice.getAddress());
+
+    reset(sicx.spy);
+    reset(usdc.spy);
+
+    // the position below the current tick only releases token1, the one above only needs token0
+    modifyPositions(
+      new int[] {-3 * tickSpacing, tickSpacing},
+      new int[] {-tickSpacing, 3 * tickSpacing},
+      new BigInteger[] {liquidity.negate(), liquidity.divide(TWO)}
+    );
+
+    var owed0 = balanceOf(sicx, pool.getAddress()).subtract(pool0Before);
+    var released1 = pool1Before.subtract(balanceOf(usdc, pool.getAddress()));
+    assertTrue(owed0.signum() > 0);
+    assertTrue(released1.signum() > 0);
+
+    verify(sicx.spy, times(1)).Transfer(callee.getAddress(), pool.getAddress(), owed0, "{\"method\": \"deposit\"}".getBytes());
+    verify(usdc.spy, times(1)).Transfer(pool.getAddress(), alice.getAddress(), released1, "{\"method\": \"deposit\"}".getBytes());
+    assertEquals(alice0Before, balanceOf(sicx, alice.getAddress()));
+    assertEquals(alice1Before.add(released1), balanceOf(usdc, alice.getAddress()));
+  }
+
+  private void underpay (BigInteger pay0, BigInteger pay1) {
+    ConvexusLiquidityUtils.deposit(alice, underpay.getAddress(), sicx.score, deposit);
+    ConvexusLiquidityUtils.deposit(alice, underpay.getAddress(), usdc.score, deposit);
+
+    underpay.invoke(alice, "modifyPositions", pool.getAddress(), alice.getAddress(),
+      new int[] {-tickSpacing}, new int[] {tickSpacing}, new BigInteger[] {liquidity},
+      pay0, pay1
+    );
+  }
+
+  @Test
+  void testUnderpayToken0 () {
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      underpay(BigInteger.ONE, deposit),
+      "modifyPositions: callback didn't send enough of token0");
+  }
+
+  @Test
+  void testUnderpayToken1 () {
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      underpay(deposit, BigInteger.ONE),
+      "modifyPositions: callback didn't send enough of token1");
+  }
+
+  @Test
+  void testWritesTheOracleOnce () {
+    sleep(10);
+    var slot0Before = Slot0.fromMap(pool.call("slot0"));
+    reset(pool.spy);
+
+    modifyPositions(
+      new int[] {-tickSpacing, -2 * tickSpacing, -3 * tickSpacing},
+      new int[] {tickSpacing, 2 * tickSpacing, -tickSpacing},
+      new BigInteger[] {liquidity.divide(TWO).negate(), liquidity, liquidity.divide(TWO).negate()}
+    );
+
+    var slot0After = Slot0.fromMap(pool.call("slot0"));
+    assertEquals(slot0Before.observationIndex + 1, slot0After.observationIndex);
+    verify(pool.spy, times(1)).PoolIntrinsicsUpdate(any(), anyInt(), any());
+  }
+
+  @Test
+  void testChecksTheLiquidityDeltas () {
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      modifyPositions(new int[] {-tickSpacing}, new int[] {tickSpacing}, new BigInteger[] {ZERO}),
+      "modifyPositions: liquidityDelta must be different from zero");
+
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      modifyPositions(new int[] {-tickSpacing}, new int[] {tickSpacing, 2 * tickSpacing}, new BigInteger[] {liquidity}),
+      "modifyPositions: invalid positions length");
+  }
+
+  @Test
+  void testPokeAccountsTheFees () {
+    swapExact0For1(expandTo18Decimals(1).divide(TEN), alice);
+
+    pool.invoke(callee.score.getAccount(), "poke", new int[] {-tickSpacing, -3 * tickSpacing}, new int[] {tickSpacing, -tickSpacing});
+
+    assertTrue(positionOf(callee.getAddress(), -tickSpacing, tickSpacing).tokensOwed0.signum() > 0);
+  }
+
+  @Test
+  void testCannotPokeAZeroLiquidityRange () {
+    // alice only owns the full range position
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      pool.invoke(alice, "poke", new int[] {-tickSpacing}, new int[] {tickSpacing}),
+      "update: pokes aren't allowed for 0 liquidity positions");
+
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      pool.invoke(alice, "poke", new int[] {getMinTick(tickSpacing), -tickSpacing}, new int[] {getMaxTick(tickSpacing), tickSpacing}),
+      "update: pokes aren't allowed for 0 liquidity positions");
+  }
+}
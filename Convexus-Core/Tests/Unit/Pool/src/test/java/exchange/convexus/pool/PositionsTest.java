@@ -18,16 +18,44 @@ package exchange.convexus.pool;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import com.iconloop.score.test.ServiceManager;
 import exchange.convexus.core.pool.contracts.models.Positions;
+import exchange.convexus.mocks.pool.ConvexusPoolMock;
+import exchange.convexus.test.factory.ConvexusFactoryUtils;
 import exchange.convexus.utils.StringUtils;
 import score.Address;
+import score.Context;
+import score.DictDB;
+import score.VarDB;
 
+import static java.math.BigInteger.ZERO;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.reset;
+
+import java.math.BigInteger;
 
 public class PositionsTest extends ConvexusPoolTest {
 
+  final int FEE = 3000;
+  final int tickSpacing = 60;
+
   @BeforeEach
   void setup() throws Exception {
+    ServiceManager.Block.resetInstance();
+    setup_factory();
+    reset(factory.spy);
+    setup_tokens();
+    setup_pool(factory.getAddress(), FEE, tickSpacing);
+    reset(pool.spy);
+
+    ConvexusFactoryUtils.createPool(factory, alice, sicx.getAddress(), usdc.getAddress(), FEE, pool.getAddress());
+
+    initializeAtZeroTick();
+  }
+
+  private DictDB<byte[], Position.Info> legacyPositions () {
+    return Context.newDictDB("PositionsDB_positions", Position.Info.class);
   }
 
   @Test
@@ -41,4 +69,56 @@ public class PositionsTest extends ConvexusPoolTest {
       )
     );
   }
-}
\ No newline at end of file
+
+  @Test
+  void testLegacyPositionReadsBackAndMigrates () throws Exception {
+    final byte[] key = Positions.getKey(bob.getAddress(), -tickSpacing, tickSpacing);
+    final BigInteger liquidity = BigInteger.valueOf(1000);
+
+    // a pool deployed before the positions were indexed by owner and ticks
+    sm.pushFrame(owner, pool.score.getAccount(), false, "legacy", ZERO);
+    legacyPositions().set(key, new Position.Info(liquidity, ZERO, ZERO, BigInteger.valueOf(5), BigInteger.valueOf(7)));
+    VarDB<Boolean> hasLegacyPositions = Context.newVarDB("PositionsDB_hasLegacyPositions", Boolean.class);
+    hasLegacyPositions.set(null);
+    sm.popFrame();
+
+    // updated to the current layout
+    sm.update(pool.score, ConvexusPoolMock.class, sicx.getAddress(), usdc.getAddress(), factory.getAddress(), FEE, tickSpacing);
+
+    var position = Position.Info.fromMap(pool.call("positionOf", bob.getAddress(), -tickSpacing, tickSpacing));
+    assertEquals(liquidity, position.liquidity);
+    assertEquals(BigInteger.valueOf(5), position.tokensOwed0);
+    assertEquals(BigInteger.valueOf(7), position.tokensOwed1);
+
+    // the next write moves the position to the new storage
+    pool.invoke(bob, "collect", bob.getAddress(), -tickSpacing, tickSpacing, BigInteger.valueOf(5), ZERO);
+
+    position = Position.Info.fromMap(pool.call("positionOf", bob.getAddress(), -tickSpacing, tickSpacing));
+    assertEquals(liquidity, position.liquidity);
+    assertEquals(ZERO, position.tokensOwed0);
+    assertEquals(BigInteger.valueOf(7), position.tokensOwed1);
+
+    sm.pushFrame(owner, pool.score.getAccount(), true, "legacy", ZERO);
+    assertNull(legacyPositions().get(key));
+    sm.popFrame();
+    // still queried by key once migrated
+    position = Position.Info.fromMap(pool.call("positions", key));
+    assertEquals(liquidity, position.liquidity);
+    assertEquals(BigInteger.valueOf(7), position.tokensOwed1);
+  }
+
+  @Test
+  void testNewPoolIgnoresLegacyPositions () throws Exception {
+    final byte[] key = Positions.getKey(bob.getAddress(), -tickSpacing, tickSpacing);
+
+    sm.pushFrame(owner, pool.score.getAccount(), false, "legacy", ZERO);
+    legacyPositions().set(key, new Position.Info(BigInteger.valueOf(1000), ZERO, ZERO, ZERO, ZERO));
+    sm.popFrame();
+
+    // the pool has been deployed with the current layout, even once updated
+    sm.update(pool.score, ConvexusPoolMock.class, sicx.getAddress(), usdc.getAddress(), factory.getAddress(), FEE, tickSpacing);
+
+    var position = Position.Info.fromMap(pool.call("positionOf", bob.getAddress(), -tickSpacing, tickSpacing));
+    assertEquals(ZERO, position.liquidity);
+  }
+}
@@ -0,0 +1,419 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.periphery.compounder;
+
+import static exchange.convexus.utils.AddressUtils.ZERO_ADDRESS;
+import static exchange.convexus.utils.TimeUtils.now;
+import static java.math.BigInteger.ONE;
+import static java.math.BigInteger.ZERO;
+
+import java.math.BigInteger;
+
+import com.eclipsesource.json.Json;
+import com.eclipsesource.json.JsonObject;
+import com.eclipsesource.json.JsonValue;
+import exchange.convexus.core.librairies.SqrtPriceMath;
+import exchange.convexus.interfaces.irc2.IIRC2ICX;
+import exchange.convexus.interfaces.irc721.IIRC721;
+import exchange.convexus.librairies.TickMath;
+import exchange.convexus.periphery.librairies.LiquidityAmounts;
+import exchange.convexus.periphery.librairies.PoolAddressCache;
+import exchange.convexus.pool.IConvexusPool;
+import exchange.convexus.pool.PairAmounts;
+import exchange.convexus.pool.Slot0;
+import exchange.convexus.positionmgr.INonFungiblePositionManager;
+import exchange.convexus.positionmgr.ModifyPositionsParams;
+import exchange.convexus.positionmgr.PositionInformation;
+import exchange.convexus.utils.TransientVarDB;
+import score.Address;
+import score.Context;
+import score.DictDB;
+import score.annotation.EventLog;
+import score.annotation.External;
+import score.annotation.Optional;
+import score.annotation.Payable;
+import scorex.io.Reader;
+import scorex.io.StringReader;
+import team.iconation.standards.token.irc721.IRC721Receiver;
+
+/**
+ * @title Convexus positions auto-compounder
+ * @notice Holds Convexus LP tokens and compounds the fees they earned back into their liquidity
+ * @dev The fees of all the positions compounded in a call are collected with a single position manager call
+ * straight to the funds deposited by this contract in the position manager, each pool sending each of its
+ * tokens once. The liquidity of the positions of a same pool is then increased with a single pool call.
+ * The fees that can't be added to the liquidity at the current price are kept deposited in the position
+ * manager, and accounted to the position for its next compounding.
+ */
+public class ConvexusCompounder implements IRC721Receiver {
+
+  // ================================================
+  // Consts
+  // ================================================
+  // Contract class name
+  private static final String NAME = "ConvexusCompounder";
+
+  // Contract name
+  private final String name;
+  // Convexus Factory
+  private final Address factory;
+  // The nonfungible position manager of the positions compounded
+  private final Address nonFungiblePositionManager;
+  // Pool addresses registry
+  private final PoolAddressCache pools;
+
+  // ================================================
+  // DB Variables
+  // ================================================
+  /// @dev owners[tokenId] => owner of the deposited position
+  private final DictDB<BigInteger, Address> owners = Context.newDictDB(NAME + "_owners", Address.class);
+
+  /// @dev leftovers0[tokenId] => fees of token0 not compounded yet, deposited in the position manager
+  private final DictDB<BigInteger, BigInteger> leftovers0 = Context.newDictDB(NAME + "_leftovers0", BigInteger.class);
+  /// @dev leftovers1[tokenId] => fees of token1 not compounded yet, deposited in the position manager
+  private final DictDB<BigInteger, BigInteger> leftovers1 = Context.newDictDB(NAME + "_leftovers1", BigInteger.class);
+
+  /// @dev Set while the contract expects tokens from the position manager
+  private final TransientVarDB<Boolean> receiving = new TransientVarDB<>(NAME + "_transientReceiving", Boolean.class);
+
+  // ================================================
+  // Event Logs
+  // ================================================
+  /// @notice Emitted when ownership of a deposited position changes
+  /// @param tokenId The ID of the position token
+  /// @param oldOwner The owner before the deposit was transferred
+  /// @param newOwner The owner after the deposit was transferred
+  @EventLog
+  public void DepositTransferred (
+    BigInteger tokenId,
+    Address oldOwner,
+    Address newOwner
+  ) {}
+
+  /// @notice Emitted when the fees of a position are compounded into its liquidity
+  /// @param tokenId The ID of the position token
+  /// @param liquidity The amount of liquidity added to the position
+  /// @param amount0 The amount of token0 fees compounded
+  /// @param amount1 The amount of token1 fees compounded
+  @EventLog
+  public void Compound (
+    BigInteger tokenId,
+    BigInteger liquidity,
+    BigInteger amount0,
+    BigInteger amount1
+  ) {}
+
+  // ================================================
+  // Methods
+  // ================================================
+  /**
+   * @notice Contract constructor
+   * @param factory The Convexus factory
+   * @param nonFungiblePositionManager The NFT position manager contract address
+   */
+  public ConvexusCompounder (
+    Address factory,
+    Address nonFungiblePositionManager
+  ) {
+    this.name = "Convexus Compounder";
+    this.factory = factory;
+    this.nonFungiblePositionManager = nonFungiblePositionManager;
+    this.pools = new PoolAddressCache(factory);
+  }
+
+  /**
+   * @notice Upon receiving a Convexus LP token, creates the token deposit setting owner to `from`
+   */
+  @External
+  public void onIRC721Received (Address caller, Address from, BigInteger tokenId, byte[] data) {
+    Context.require(Context.getCaller().equals(this.nonFungiblePositionManager),
+      "onIRC721Received: not a Convexus NFT");
+
+    this.owners.set(tokenId, from);
+    this.DepositTransferred(tokenId, ZERO_ADDRESS, from);
+  }
+
+  /**
+   * @notice Compounds the fees earned by many positions into their liquidity
+   *
+   * Access: Owner of all the positions
+   *
+   * @param tokenIds The IDs of the deposited positions tokens, sorted in ascending order
+   * @param liquidityMins The minimum liquidity added to each position, which bounds the price the fees are
+   * compounded at
+   */
+  @External
+  public void compound (BigInteger[] tokenIds, BigInteger[] liquidityMins) {
+    final Address caller = Context.getCaller();
+    final int length = tokenIds.length;
+    Context.require(length > 0, "compound: no positions");
+    Context.require(liquidityMins.length == length, "compound: invalid liquidity minimums");
+
+    PositionInformation[] positions = new PositionInformation[length];
+    for (int i = 0; i < length; i++) {
+      Context.require(caller.equals(this.owners.get(tokenIds[i])),
+        "compound: only owner can compound");
+      positions[i] = INonFungiblePositionManager.positions(this.nonFungiblePositionManager, tokenIds[i]);
+    }
+
+    // collect the fees of all the positions to the funds deposited by this contract in the position manager,
+    // each pool sends each of its tokens once
+    PairAmounts[] fees = INonFungiblePositionManager.collectMany(this.nonFungiblePositionManager, tokenIds, ZERO_ADDRESS);
+
+    // increase the liquidity of the positions, once per pool
+    boolean[] grouped = new boolean[length];
+    int[] group = new int[length];
+
+    for (int i = 0; i < length; i++) {
+      if (grouped[i]) {
+        continue;
+      }
+
+      // the positions of the same pool
+      int groupSize = 0;
+      for (int j = i; j < length; j++) {
+        if (!grouped[j] && samePool(positions[i], positions[j])) {
+          grouped[j] = true;
+          group[groupSize++] = j;
+        }
+      }
+
+      compoundPool(tokenIds, liquidityMins, positions, fees, group, groupSize);
+    }
+  }
+
+  /// @dev Adds the fees collected to the liquidity of the positions `group[0..size]` of a same pool
+  private void compoundPool (
+    BigInteger[] tokenIds,
+    BigInteger[] liquidityMins,
+    PositionInformation[] positions,
+    PairAmounts[] fees,
+    int[] group,
+    int size
+  ) {
+    PositionInformation first = positions[group[0]];
+    Address pool = this.pools.getPool(first.token0, first.token1, first.fee);
+    Slot0 slot0 = IConvexusPool.slot0(pool);
+
+    BigInteger[] increased = new BigInteger[size];
+    BigInteger[] liquidityDeltas = new BigInteger[size];
+    int count = 0;
+    BigInteger amount0Max = ZERO;
+    BigInteger amount1Max = ZERO;
+
+    for (int k = 0; k < size; k++) {
+      BigInteger tokenId = tokenIds[group[k]];
+      PositionInformation position = positions[group[k]];
+      BigInteger leftover0 = this.leftovers0.getOrDefault(tokenId, ZERO);
+      BigInteger leftover1 = this.leftovers1.getOrDefault(tokenId, ZERO);
+      BigInteger available0 = fees[group[k]].amount0.add(leftover0);
+      BigInteger available1 = fees[group[k]].amount1.add(leftover1);
+
+      BigInteger sqrtRatioAX96 = TickMath.getSqrtRatioAtTick(position.tickLower);
+      BigInteger sqrtRatioBX96 = TickMath.getSqrtRatioAtTick(position.tickUpper);
+      BigInteger liquidity = LiquidityAmounts.getLiquidityForAmounts(slot0.sqrtPriceX96, sqrtRatioAX96, sqrtRatioBX96, available0, available1);
+      PairAmounts paid = amountsForLiquidity(slot0, position.tickLower, position.tickUpper, sqrtRatioAX96, sqrtRatioBX96, liquidity);
+
+      if (paid.amount0.compareTo(available0) > 0 || paid.amount1.compareTo(available1) > 0) {
+        // the pool rounds the amounts owed up, which may exceed the amounts available by one unit
+        liquidity = LiquidityAmounts.getLiquidityForAmounts(slot0.sqrtPriceX96, sqrtRatioAX96, sqrtRatioBX96,
+          available0.subtract(ONE).max(ZERO), available1.subtract(ONE).max(ZERO));
+        paid = amountsForLiquidity(slot0, position.tickLower, position.tickUpper, sqrtRatioAX96, sqrtRatioBX96, liquidity);
+      }
+
+      Context.require(liquidity.compareTo(liquidityMins[group[k]]) >= 0,
+        "compoundPool: Price slippage check");
+
+      if (liquidity.compareTo(ZERO) > 0) {
+        increased[count] = tokenId;
+        liquidityDeltas[count] = liquidity;
+        count++;
+        amount0Max = amount0Max.add(paid.amount0);
+        amount1Max = amount1Max.add(paid.amount1);
+        this.Compound(tokenId, liquidity, paid.amount0, paid.amount1);
+      } else {
+        paid = new PairAmounts(ZERO, ZERO);
+      }
+
+      setLeftover(this.leftovers0, tokenId, leftover0, available0.subtract(paid.amount0));
+      setLeftover(this.leftovers1, tokenId, leftover1, available1.subtract(paid.amount1));
+    }
+
+    if (count == 0) {
+      return;
+    }
+
+    BigInteger[] modifiedIds = new BigInteger[count];
+    BigInteger[] modifiedDeltas = new BigInteger[count];
+    System.arraycopy(increased, 0, modifiedIds, 0, count);
+    System.arraycopy(liquidityDeltas, 0, modifiedDeltas, 0, count);
+
+    // paid with the fees deposited by this contract
+    INonFungiblePositionManager.modifyPositions(this.nonFungiblePositionManager,
+      new ModifyPositionsParams(modifiedIds, modifiedDeltas, amount0Max, amount1Max, now()));
+  }
+
+  /// @dev Same amounts as the ones owed to the pool when minting `liquidity`
+  private static PairAmounts amountsForLiquidity (
+    Slot0 slot0,
+    int tickLower,
+    int tickUpper,
+    BigInteger sqrtRatioAX96,
+    BigInteger sqrtRatioBX96,
+    BigInteger liquidity
+  ) {
+    if (slot0.tick < tickLower) {
+      return new PairAmounts(SqrtPriceMath.getAmount0Delta(sqrtRatioAX96, sqrtRatioBX96, liquidity, true), ZERO);
+    } else if (slot0.tick < tickUpper) {
+      return new PairAmounts(
+        SqrtPriceMath.getAmount0Delta(slot0.sqrtPriceX96, sqrtRatioBX96, liquidity, true),
+        SqrtPriceMath.getAmount1Delta(sqrtRatioAX96, slot0.sqrtPriceX96, liquidity, true)
+      );
+    } else {
+      return new PairAmounts(ZERO, SqrtPriceMath.getAmount1Delta(sqrtRatioAX96, sqrtRatioBX96, liquidity, true));
+    }
+  }
+
+  private static boolean samePool (PositionInformation a, PositionInformation b) {
+    return a.token0.equals(b.token0) && a.token1.equals(b.token1) && a.fee == b.fee;
+  }
+
+  private static void setLeftover (DictDB<BigInteger, BigInteger> leftovers, BigInteger tokenId, BigInteger oldLeftover, BigInteger newLeftover) {
+    if (!newLeftover.equals(oldLeftover)) {
+      leftovers.set(tokenId, newLeftover.equals(ZERO) ? null : newLeftover);
+    }
+  }
+
+  /// @notice Withdraws a Convexus LP token `tokenId` from this contract to the recipient `to`,
+  /// along with its fees not compounded yet
+  /// @param tokenId The unique identifier of a Convexus LP token
+  /// @param to The address where the LP token and its fees will be sent
+  /// @param data An optional data array that will be passed along to the `to` address via the NFT safeTransferFrom
+  @External
+  public void withdrawToken (
+    BigInteger tokenId,
+    Address to,
+    byte[] data
+  ) {
+    final Address thisAddress = Context.getAddress();
+    final Address caller = Context.getCaller();
+
+    Context.require(!to.equals(thisAddress),
+      "withdrawToken: cannot withdraw to compounder");
+
+    Address owner = this.owners.get(tokenId);
+    Context.require(owner != null,
+      "withdrawToken: invalid token ID");
+
+    Context.require(owner.equals(caller),
+      "withdrawToken: only owner can withdraw token");
+
+    BigInteger leftover0 = this.leftovers0.getOrDefault(tokenId, ZERO);
+    BigInteger leftover1 = this.leftovers1.getOrDefault(tokenId, ZERO);
+
+    this.owners.set(tokenId, null);
+    this.leftovers0.set(tokenId, null);
+    this.leftovers1.set(tokenId, null);
+    this.DepositTransferred(tokenId, owner, ZERO_ADDRESS);
+
+    if (leftover0.compareTo(ZERO) > 0 || leftover1.compareTo(ZERO) > 0) {
+      PositionInformation position = INonFungiblePositionManager.positions(this.nonFungiblePositionManager, tokenId);
+      release(position.token0, to, leftover0);
+      release(position.token1, to, leftover1);
+    }
+
+    IIRC721.safeTransferFrom(this.nonFungiblePositionManager, thisAddress, to, tokenId, data);
+  }
+
+  /// @dev Sends `amount` of the tokens deposited in the position manager to `to`, the funds of the other
+  /// positions stay deposited
+  private void release (Address token, Address to, BigInteger amount) {
+    if (amount.compareTo(ZERO) == 0) {
+      return;
+    }
+
+    this.receiving.set(true);
+    INonFungiblePositionManager.withdraw(this.nonFungiblePositionManager, token, amount);
+    this.receiving.set(null);
+
+    IIRC2ICX.transfer(token, to, amount);
+  }
+
+  /// @dev Only accepts the funds withdrawn from the position manager on this contract request
+  private void checkReceiving () {
+    Context.require(this.receiving.getOrDefault(false),
+      "checkReceiving: unexpected funds");
+  }
+
+  @External
+  public void tokenFallback (Address _from, BigInteger _value, @Optional byte[] _data) throws Exception {
+    Reader reader = new StringReader(new String(_data));
+    JsonValue input = Json.parse(reader);
+    JsonObject root = input.asObject();
+    String method = root.get("method").asString();
+
+    switch (method)
+    {
+      // funds withdrawn from the position manager
+      case "withdraw": {
+        checkReceiving();
+        break;
+      }
+
+      default:
+        Context.revert("tokenFallback: Unimplemented tokenFallback action");
+    }
+  }
+
+  @External
+  @Payable
+  public void withdrawIcx () {
+    checkReceiving();
+  }
+
+  // ================================================
+  // Public variable getters
+  // ================================================
+  @External(readonly = true)
+  public String name() {
+    return this.name;
+  }
+
+  @External(readonly = true)
+  public Address factory() {
+    return this.factory;
+  }
+
+  @External(readonly = true)
+  public Address nonfungiblePositionManager() {
+    return this.nonFungiblePositionManager;
+  }
+
+  @External(readonly = true)
+  public Address owners (BigInteger tokenId) {
+    return this.owners.get(tokenId);
+  }
+
+  /// @notice Returns the fees of a position not compounded yet
+  @External(readonly = true)
+  public PairAmounts leftovers (BigInteger tokenId) {
+    return new PairAmounts(
+      this.leftovers0.getOrDefault(tokenId, ZERO),
+      this.leftovers1.getOrDefault(tokenId, ZERO)
+    );
+  }
+}
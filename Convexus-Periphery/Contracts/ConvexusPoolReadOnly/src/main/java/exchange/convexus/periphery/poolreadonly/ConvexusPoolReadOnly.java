@@ -24,11 +24,8 @@ import exchange.convexus.core.interfaces.poolcallee.IConvexusPoolCalleeReadOnly;
 import exchange.convexus.core.librairies.LiquidityMath;
 import exchange.convexus.core.librairies.PositionLib;
 import exchange.convexus.core.librairies.SqrtPriceMath;
-import exchange.convexus.core.librairies.SwapMath;
-import exchange.convexus.core.pool.contracts.models.Positions;
-import exchange.convexus.librairies.FixedPoint128;
-import exchange.convexus.librairies.FullMath;
 import exchange.convexus.librairies.TickMath;
+import exchange.convexus.periphery.librairies.PoolSimulator;
 import exchange.convexus.periphery.poolreadonly.cache.VarDBCache;
 import exchange.convexus.periphery.poolreadonly.poolcache.ObservationsCache;
 import exchange.convexus.periphery.poolreadonly.poolcache.PositionsCache;
@@ -41,9 +38,6 @@ import exchange.convexus.pool.PairAmounts;
 import exchange.convexus.pool.Position;
 import exchange.convexus.pool.PositionStorage;
 import exchange.convexus.pool.Slot0;
-import exchange.convexus.pool.StepComputations;
-import exchange.convexus.pool.SwapCache;
-import exchange.convexus.pool.SwapState;
 import exchange.convexus.utils.IntUtils;
 import exchange.convexus.utils.TimeUtils;
 import score.Address;
@@ -72,6 +66,9 @@ public class ConvexusPoolReadOnly
    * @param data Any data to be passed through to the callback
    * @return amount0 The delta of the balance of token0 of the pool, exact when negative, minimum when positive
    * @return amount1 The delta of the balance of token1 of the pool, exact when negative, minimum when positive
+   * @return initializedTicksCrossed The number of initialized ticks crossed by the swap
+   * @return wordsCrossed The number of tick bitmap words crossed by the swap
+   * @return amountConsumed The absolute part of amountSpecified swapped before reaching sqrtPriceLimitX96
    */
   @External(readonly = true)
   public SwapResult swap (
@@ -84,182 +81,15 @@ public class ConvexusPoolReadOnly
   ) {
     final Address caller = Context.getCaller();
 
-    Context.require(!amountSpecified.equals(ZERO),
-      "swap: amountSpecified must be different from zero");
-    
-    Slot0 slot0Start = IConvexusPool.slot0(pool);
-
-    Context.require (
-      zeroForOne
-        ? sqrtPriceLimitX96.compareTo(slot0Start.sqrtPriceX96) < 0 && sqrtPriceLimitX96.compareTo(TickMath.MIN_SQRT_RATIO) > 0
-        : sqrtPriceLimitX96.compareTo(slot0Start.sqrtPriceX96) > 0 && sqrtPriceLimitX96.compareTo(TickMath.MAX_SQRT_RATIO) < 0,
-      "swap: Wrong sqrtPriceLimitX96"
-    );
-
-    SwapCache cache = new SwapCache(
-      IConvexusPool.liquidity(pool),
-      TimeUtils.now(),
-      zeroForOne ? (slot0Start.feeProtocol % 16) : (slot0Start.feeProtocol >> 4),
-      ZERO,
-      ZERO,
-      false
-    );
-
-    boolean exactInput = amountSpecified.compareTo(ZERO) > 0;
-
-    SwapState state = new SwapState(
-      amountSpecified,
-      ZERO,
-      slot0Start.sqrtPriceX96,
-      slot0Start.tick,
-      zeroForOne ? IConvexusPool.feeGrowthGlobal0X128(pool) : IConvexusPool.feeGrowthGlobal1X128(pool),
-      ZERO,
-      cache.liquidityStart
-    );
-    
-    // continue swapping as long as we haven't used the entire input/output and haven't reached the price limit
-    while (
-      !state.amountSpecifiedRemaining.equals(ZERO) 
-     && !state.sqrtPriceX96.equals(sqrtPriceLimitX96)
-    ) {
-
-      StepComputations step = new StepComputations();
-      step.sqrtPriceStartX96 = state.sqrtPriceX96;
-
-      var next = new TickBitmapReadOnly(pool).nextInitializedTickWithinOneWord(
-        state.tick,
-        IConvexusPool.settings(pool).tickSpacing,
-        zeroForOne
-      );
-      
-      step.tickNext = next.tickNext;
-      step.initialized = next.initialized;
-      
-      // ensure that we do not overshoot the min/max tick, as the tick bitmap is not aware of these bounds
-      if (step.tickNext < TickMath.MIN_TICK) {
-        step.tickNext = TickMath.MIN_TICK;
-      } else if (step.tickNext > TickMath.MAX_TICK) {
-        step.tickNext = TickMath.MAX_TICK;
-      }
-
-      // get the price for the next tick
-      step.sqrtPriceNextX96 = TickMath.getSqrtRatioAtTick(step.tickNext);
-
-      // compute values to swap to the target tick, price limit, or point where input/output amount is exhausted
-      var swapStep = SwapMath.computeSwapStep(
-        state.sqrtPriceX96,
-        (zeroForOne ? step.sqrtPriceNextX96.compareTo(sqrtPriceLimitX96) < 0 : step.sqrtPriceNextX96.compareTo(sqrtPriceLimitX96) > 0)
-          ? sqrtPriceLimitX96
-          : step.sqrtPriceNextX96,
-        state.liquidity,
-        state.amountSpecifiedRemaining,
-        IConvexusPool.settings(pool).fee
-      );
-
-      state.sqrtPriceX96 = swapStep.sqrtRatioNextX96;
-      step.amountIn = swapStep.amountIn;
-      step.amountOut = swapStep.amountOut;
-      step.feeAmount = swapStep.feeAmount;
-
-      if (exactInput) {
-        state.amountSpecifiedRemaining = state.amountSpecifiedRemaining.subtract(step.amountIn.add(step.feeAmount));
-        state.amountCalculated = state.amountCalculated.subtract(step.amountOut);
-      } else {
-        state.amountSpecifiedRemaining = state.amountSpecifiedRemaining.add(step.amountOut);
-        state.amountCalculated = state.amountCalculated.add((step.amountIn.add(step.feeAmount)));
-      }
-      
-      // if the protocol fee is on, calculate how much is owed, decrement feeAmount, and increment protocolFee
-      if (cache.feeProtocol > 0) {
-        BigInteger delta = step.feeAmount.divide(BigInteger.valueOf(cache.feeProtocol));
-        step.feeAmount = step.feeAmount.subtract(delta);
-        state.protocolFee = state.protocolFee.add(delta);
-      }
-
-      // update global fee tracker
-      if (state.liquidity.compareTo(ZERO) > 0) {
-        state.feeGrowthGlobalX128 = state.feeGrowthGlobalX128.add(FullMath.mulDiv(step.feeAmount, FixedPoint128.Q128, state.liquidity));
-      }
-      
-      // shift tick if we reached the next price
-      if (state.sqrtPriceX96.equals(step.sqrtPriceNextX96)) {
-        // if the tick is initialized, run the tick transition
-        if (step.initialized) {
-          // check for the placeholder value, which we replace with the actual value the first time the swap
-          // crosses an initialized tick
-          if (!cache.computedLatestObservation) {
-            var result = new ObservationsReadOnly(pool).observeSingle(
-              cache.blockTimestamp,
-              ZERO,
-              slot0Start.tick,
-              slot0Start.observationIndex,
-              cache.liquidityStart,
-              slot0Start.observationCardinality
-            );
-            cache.tickCumulative = result.tickCumulative;
-            cache.secondsPerLiquidityCumulativeX128 = result.secondsPerLiquidityCumulativeX128;
-            cache.computedLatestObservation = true;
-          }
-          BigInteger liquidityNet = new TicksReadOnly(pool).cross(
-            step.tickNext,
-            (zeroForOne ? state.feeGrowthGlobalX128 : IConvexusPool.feeGrowthGlobal0X128(pool)),
-            (zeroForOne ? IConvexusPool.feeGrowthGlobal1X128(pool) : state.feeGrowthGlobalX128),
-            cache.secondsPerLiquidityCumulativeX128,
-            cache.tickCumulative,
-            cache.blockTimestamp
-          );
-          // if we're moving leftward, we interpret liquidityNet as the opposite sign
-          // safe because liquidityNet cannot be type(int128).min
-          if (zeroForOne) liquidityNet = liquidityNet.negate();
-
-          state.liquidity = LiquidityMath.addDelta(state.liquidity, liquidityNet);
-        }
-
-        state.tick = zeroForOne ? step.tickNext - 1 : step.tickNext;
-      } else if (state.sqrtPriceX96 != step.sqrtPriceStartX96) {
-        // recompute unless we're on a lower tick boundary (i.e. already transitioned ticks), and haven't moved
-        state.tick = TickMath.getTickAtSqrtRatio(state.sqrtPriceX96);
-      }
-    }
-
-    // update tick and write an oracle entry if the tick change
-    Slot0 _slot0 = IConvexusPool.slot0(pool);
-    if (state.tick != slot0Start.tick) {
-      var result =
-        new ObservationsReadOnly(pool).write(
-          slot0Start.observationIndex,
-          cache.blockTimestamp,
-          slot0Start.tick,
-          cache.liquidityStart,
-          slot0Start.observationCardinality,
-          slot0Start.observationCardinalityNext
-        );
-      _slot0.sqrtPriceX96 = state.sqrtPriceX96;
-      _slot0.tick = state.tick;
-      _slot0.observationIndex = result.indexUpdated;
-      _slot0.observationCardinality = result.cardinalityUpdated;
-    } else {
-      // otherwise just update the price
-      _slot0.sqrtPriceX96 = state.sqrtPriceX96;
-    }
-
-    BigInteger amount0;
-    BigInteger amount1;
-
-    if (zeroForOne == exactInput) {
-      amount0 = amountSpecified.subtract(state.amountSpecifiedRemaining);
-      amount1 = state.amountCalculated;
-    } else {
-      amount0 = state.amountCalculated;
-      amount1 = amountSpecified.subtract(state.amountSpecifiedRemaining);
-    }
+    // the swap loop is shared with the other periphery simulations
+    var simulation = new PoolSimulator(pool).swap(zeroForOne, amountSpecified, sqrtPriceLimitX96);
 
     // do the transfers and collect payment
-    if (zeroForOne) {
-      return IConvexusPoolCalleeReadOnly.convexusSwapCallbackReadonly(caller, amount0, amount1, data, _slot0.sqrtPriceX96, _slot0.tick);
-    } else {
-      return IConvexusPoolCalleeReadOnly.convexusSwapCallbackReadonly(caller, amount0, amount1, data, _slot0.sqrtPriceX96, _slot0.tick);
-    }
+    SwapResult result = IConvexusPoolCalleeReadOnly.convexusSwapCallbackReadonly(caller, simulation.amount0, simulation.amount1, data, simulation.sqrtPriceX96After, simulation.tickAfter);
+    result.initializedTicksCrossed = simulation.initializedTicksCrossed;
+    result.wordsCrossed = simulation.wordsCrossed;
+    result.amountConsumed = simulation.amountConsumed;
+    return result;
   }
 
   interface ConvexusPoolContract {
@@ -368,8 +198,7 @@ public class ConvexusPoolReadOnly
     TicksCache this_ticks = new TicksCache(pool);
     TickBitmapCache this_ticksBitmap = new TickBitmapCache(pool);
     
-    byte[] positionKey = Positions.getKey(user, tickLower, tickUpper);
-    Position.Info position = this_positions.get(positionKey);
+    Position.Info position = this_positions.get(user, tickLower, tickUpper);
     BigInteger liquidity = position.liquidity;
 
     ConvexusPoolContract contract = new ConvexusPoolContract() {
@@ -381,8 +210,7 @@ public class ConvexusPoolReadOnly
         BigInteger liquidityDelta,
         int tick
       ) {
-        byte[] positionKey = Positions.getKey(owner, tickLower, tickUpper);
-        Position.Info position = this_positions.get(positionKey);
+        Position.Info position = this_positions.get(owner, tickLower, tickUpper);
     
         BigInteger _feeGrowthGlobal0X128 = this_feeGrowthGlobal0X128.get();
         BigInteger _feeGrowthGlobal1X128 = this_feeGrowthGlobal1X128.get();
@@ -457,8 +285,8 @@ public class ConvexusPoolReadOnly
           }
         }
     
-        this_positions.set(positionKey, position);
-        return new PositionStorage(position, positionKey);
+        this_positions.set(owner, tickLower, tickUpper, position);
+        return new PositionStorage(position);
       }
 
       @Override
@@ -552,12 +380,11 @@ public class ConvexusPoolReadOnly
         BigInteger amount1 = result.amount1.negate();
         
         Position.Info position = result.positionStorage.position;
-        byte[] positionKey = result.positionStorage.key;
 
         if (amount0.compareTo(ZERO) > 0 || amount1.compareTo(ZERO) > 0) {
           position.tokensOwed0 = position.tokensOwed0.add(amount0);
           position.tokensOwed1 = position.tokensOwed1.add(amount1);
-          this_positions.set(positionKey, position);
+          this_positions.set(user, tickLower, tickUpper, position);
         }
 
         return new PairAmounts(amount0, amount1);
@@ -572,19 +399,18 @@ public class ConvexusPoolReadOnly
         BigInteger amount1Requested
       ) {
         // we don't need to checkTicks here, because invalid positions will never have non-zero tokensOwed{0,1}
-        byte[] key = Positions.getKey(caller, tickLower, tickUpper);
-        Position.Info position = this_positions.get(key);
+        Position.Info position = this_positions.get(caller, tickLower, tickUpper);
 
         BigInteger amount0 = amount0Requested.compareTo(position.tokensOwed0) > 0 ? position.tokensOwed0 : amount0Requested;
         BigInteger amount1 = amount1Requested.compareTo(position.tokensOwed1) > 0 ? position.tokensOwed1 : amount1Requested;
 
         if (amount0.compareTo(ZERO) > 0) {
           position.tokensOwed0 = position.tokensOwed0.subtract(amount0);
-          this_positions.set(key, position);
+          this_positions.set(caller, tickLower, tickUpper, position);
         }
         if (amount1.compareTo(ZERO) > 0) {
           position.tokensOwed1 = position.tokensOwed1.subtract(amount1);
-          this_positions.set(key, position);
+          this_positions.set(caller, tickLower, tickUpper, position);
         }
 
         return new PairAmounts(amount0, amount1);
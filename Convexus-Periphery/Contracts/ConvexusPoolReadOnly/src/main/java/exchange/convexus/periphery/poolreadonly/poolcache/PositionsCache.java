@@ -22,15 +22,32 @@ import exchange.convexus.pool.Position;
 import score.Address;
 import exchange.convexus.periphery.poolreadonly.cache.DictDBCache;
 
-class PositionsDB extends DictDBCache<byte[], Position.Info> {
+class PositionKey {
+  public Address owner;
+  public int tickLower;
+  public int tickUpper;
+
+  public PositionKey (Address owner, int tickLower, int tickUpper) {
+    this.owner = owner;
+    this.tickLower = tickLower;
+    this.tickUpper = tickUpper;
+  }
+
+  @Override
+  public String toString () {
+    return this.owner + "/" + this.tickLower + "/" + this.tickUpper;
+  }
+}
+
+class PositionsDB extends DictDBCache<PositionKey, Position.Info> {
 
   public PositionsDB(Address target) {
     super(target);
   }
 
   @Override
-  public Position.Info getExternal(byte[] positionsKey) {
-    return IConvexusPool.positions(this.target, positionsKey);
+  public Position.Info getExternal(PositionKey key) {
+    return IConvexusPool.positionOf(this.target, key.owner, key.tickLower, key.tickUpper);
   }
 }
 
@@ -38,19 +55,19 @@ public class PositionsCache {
   // ================================================
   // Consts
   // ================================================
-  // Returns the information about a position by the position's key
+  // Returns the information about a position by the position's owner, lower tick and upper tick
   private final PositionsDB positions;
 
   public PositionsCache (Address target) {
     this.positions = new PositionsDB(target);
   }
 
-  public Position.Info get (byte[] key) {
-    var position = this.positions.get(key);
+  public Position.Info get (Address owner, int tickLower, int tickUpper) {
+    var position = this.positions.get(new PositionKey(owner, tickLower, tickUpper));
     return position == null ? Position.Info.empty() : position;
   }
 
-  public void set (byte[] key, Position.Info value) {
-    this.positions.set(key, value);
+  public void set (Address owner, int tickLower, int tickUpper, Position.Info value) {
+    this.positions.set(new PositionKey(owner, tickLower, tickUpper), value);
   }
 }
@@ -16,16 +16,14 @@
 
 package exchange.convexus.periphery.poolreadonly.poolcache;
 
-import static exchange.convexus.utils.IntUtils.uint8;
 import static java.math.BigInteger.ONE;
 import static java.math.BigInteger.ZERO;
 
 import java.math.BigInteger;
-import exchange.convexus.core.librairies.BitMath;
+import exchange.convexus.core.librairies.TickBitmapLib;
 import exchange.convexus.periphery.poolreadonly.cache.DictDBCache;
 import exchange.convexus.pool.IConvexusPool;
 import exchange.convexus.pool.NextInitializedTickWithinOneWordResult;
-import exchange.convexus.utils.IntUtils;
 import score.Address;
 import score.Context;
 
@@ -41,7 +39,7 @@ class TickBitmapDB extends DictDBCache<Integer, BigInteger> {
   }
 }
 
-public class TickBitmapCache {
+public class TickBitmapCache implements TickBitmapLib.Words {
   
   // ================================================
   // Consts
@@ -81,9 +79,7 @@ public class TickBitmapCache {
    * @return bitPos The bit position in the word where the flag is stored
    */
   private PositionResult position (int tick) {
-    int wordPos = tick >> 8;
-    int bitPos = uint8(tick % 256);
-    return new PositionResult(wordPos, bitPos);
+    return new PositionResult(TickBitmapLib.wordPos(tick), TickBitmapLib.bitPos(tick));
   }
 
   /**
@@ -114,48 +110,6 @@ public class TickBitmapCache {
     int tickSpacing, 
     boolean lte
   ) {
-
-    int compressed = tick / tickSpacing;
-
-    if (tick < 0 && tick % tickSpacing != 0) {
-      compressed--; // round towards negative infinity
-    }
-
-    if (lte) {
-      var position = position(compressed);
-      int wordPos = position.wordPos;
-      int bitPos  = position.bitPos;
-
-      var oneShifted = ONE.shiftLeft(bitPos);
-      // all the 1s at or to the right of the current bitPos
-      BigInteger mask = oneShifted.subtract(ONE).add(oneShifted);
-      BigInteger masked = this.get(wordPos).and(mask);
-
-      // if there are no initialized ticks to the right of or at the current tick, return rightmost in the word
-      boolean initialized = !masked.equals(ZERO);
-      // overflow/underflow is possible, but prevented externally by limiting both tickSpacing and tick
-      int tickNext = initialized
-        ? (compressed - (bitPos - BitMath.mostSignificantBit(masked))) * tickSpacing
-        : (compressed - bitPos) * tickSpacing;
-
-      return new NextInitializedTickWithinOneWordResult (tickNext, initialized);
-    } else {
-      // start from the word of the next tick, since the current tick state doesn't matter
-      var position = position(compressed + 1);
-      int wordPos = position.wordPos;
-      int bitPos  = position.bitPos;
-      // all the 1s at or to the left of the bitPos
-      BigInteger mask = ONE.shiftLeft(bitPos).subtract(ONE).not();
-      BigInteger masked = this.get(wordPos).and(mask);
-
-      // if there are no initialized ticks to the left of the current tick, return leftmost in the word
-      boolean initialized = !masked.equals(ZERO);
-      // overflow/underflow is possible, but prevented externally by limiting both tickSpacing and tick
-      int tickNext = initialized
-        ? (compressed + 1 + BitMath.leastSignificantBit(masked) - bitPos) * tickSpacing
-        : (compressed + 1 + IntUtils.MAX_UINT8.intValue() - bitPos) * tickSpacing;
-      
-      return new NextInitializedTickWithinOneWordResult (tickNext, initialized);
-    }
+    return TickBitmapLib.nextInitializedTickWithinOneWord(this, tick, tickSpacing, lte);
   }
 }
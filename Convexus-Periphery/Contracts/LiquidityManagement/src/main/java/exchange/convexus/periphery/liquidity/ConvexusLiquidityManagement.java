@@ -23,14 +23,16 @@ import exchange.convexus.periphery.interfaces.callback.IConvexusLiquidityManagem
 import exchange.convexus.periphery.librairies.CallbackValidation;
 import exchange.convexus.periphery.librairies.LiquidityAmounts;
 import exchange.convexus.periphery.librairies.PeripheryPayments;
-import exchange.convexus.periphery.librairies.PoolAddressLib;
+import exchange.convexus.periphery.librairies.PoolAddressCache;
 import score.Address;
+import score.BranchDB;
 import score.ByteArrayObjectWriter;
 import score.Context;
+import score.DictDB;
 import score.ObjectReader;
 import exchange.convexus.pool.IConvexusPool;
 import exchange.convexus.pool.MintCallbackData;
-import exchange.convexus.pool.PairAmounts;
+import exchange.convexus.pool.PositionAmounts;
 import exchange.convexus.pool.PoolAddress.PoolKey;
 import exchange.convexus.utils.EnumerableMap;
 import exchange.convexus.utils.ICX;
@@ -48,14 +50,19 @@ public class ConvexusLiquidityManagement
   // Contract class name
   private static final String NAME = "ConvexusLiquidityManagement";
 
-  // address of the Convexus factory
-  private final Address factory;
+  // Pool addresses registry, resolved through the Convexus factory
+  private final PoolAddressCache pools;
 
   // ================================================
   // DB Variables
   // ================================================
   // User => Token => Amount
-  private EnumerableMap<Address, BigInteger> depositedMap (Address user) {
+  private final BranchDB<Address, DictDB<Address, BigInteger>> balances = Context.newBranchDB(NAME + "_balances", BigInteger.class);
+  // User => RLP encoded list of the tokens with a balance in `balances`
+  private final DictDB<Address, byte[]> tokenIndex = Context.newDictDB(NAME + "_tokenIndex", byte[].class);
+
+  // User => Token => Amount, deposits recorded before the `balances` ledger. Only read and emptied
+  private EnumerableMap<Address, BigInteger> legacyDepositedMap (Address user) {
     return new EnumerableMap<>(NAME + "_deposited_" + user, Address.class, BigInteger.class);
   }
 
@@ -72,7 +79,15 @@ public class ConvexusLiquidityManagement
   public ConvexusLiquidityManagement(
     Address _factory
   ) {
-    this.factory = _factory;
+    this.pools = new PoolAddressCache(_factory);
+  }
+
+  /**
+   * @notice Returns the pool addresses registry of the liquidity manager
+   * @dev Contracts embedding the liquidity manager share it instead of creating another one on the same storage
+   */
+  public PoolAddressCache getPools () {
+    return this.pools;
   }
 
   /**
@@ -91,45 +106,85 @@ public class ConvexusLiquidityManagement
   ) {
     ObjectReader reader = Context.newByteArrayObjectReader("RLPn", data);
     MintCallbackData decoded = reader.read(MintCallbackData.class);
-    CallbackValidation.verifyCallback(this.factory, decoded.poolKey);
+    CallbackValidation.verifyCallback(this.pools, decoded.poolKey);
 
     if (amount0Owed.compareTo(ZERO) > 0) {
-      pay(decoded.payer, decoded.poolKey.token0, amount0Owed);
+      pay(decoded.payer, decoded.poolKey.token0, amount0Owed, decoded.amountSent(decoded.poolKey.token0));
     }
 
     if (amount1Owed.compareTo(ZERO) > 0) {
-      pay(decoded.payer, decoded.poolKey.token1, amount1Owed);
+      pay(decoded.payer, decoded.poolKey.token1, amount1Owed, decoded.amountSent(decoded.poolKey.token1));
     }
   }
 
-  private void pay (Address payer, Address token, BigInteger owed) {
+  private void pay (Address payer, Address token, BigInteger owed, BigInteger sent) {
     final Address caller = Context.getCaller();
-    checkEnoughDeposited(payer, token, owed);
-    
-    // Remove funds from deposited
-    var depositedUser = this.depositedMap(payer);
-    BigInteger oldBalance = depositedUser.getOrDefault(token, ZERO);
-    if (oldBalance.equals(owed)) {
-      // All funds were payed
-      depositedUser.remove(token);
-    } else {
-      // Only a portion of the deposit funds were payed
-      depositedUser.set(token, oldBalance.subtract(owed));
+
+    // Funds sent along with the transaction are spent first, then the deposited funds
+    BigInteger fromDeposit = owed.subtract(sent.min(owed));
+    if (fromDeposit.compareTo(ZERO) > 0) {
+      spend(payer, token, fromDeposit);
     }
     
     // Actually transfer the tokens
     PeripheryPayments.pay(token, caller, owed);
   }
 
+  /**
+   * @notice Remove `amount` of `token` from the funds deposited by `user`, the tokens stay in the contract
+   * @dev Used by the contract to spend the deposited funds itself, such as in a multicall
+   */
+  public void spend (Address user, Address token, BigInteger amount) {
+    DictDB<Address, BigInteger> userBalances = this.balances.at(user);
+    BigInteger oldBalance = userBalances.get(token);
+    boolean indexed = oldBalance != null;
+    if (!indexed) {
+      oldBalance = takeLegacyDeposit(user, token);
+    }
+
+    checkEnoughDeposited(oldBalance, amount);
+    setBalance(user, token, userBalances, indexed, oldBalance.subtract(amount));
+  }
+
   /**
    * @notice Add liquidity to an initialized pool
    * @dev Liquidity must have been provided beforehand
    */
   public AddLiquidityResult addLiquidity (AddLiquidityParams params) {
-    PoolKey poolKey = new PoolKey(params.token0, params.token1, params.fee);
+    return addLiquidity(Context.getCaller(), params);
+  }
+
+  /**
+   * @notice Add liquidity to an initialized pool, paid with the funds of `payer`
+   * @dev Liquidity must have been provided beforehand, either deposited or sent along with the transaction
+   */
+  public AddLiquidityResult addLiquidity (Address payer, AddLiquidityParams params) {
+    Address pool = this.pools.getPool(new PoolKey(params.token0, params.token1, params.fee));
+    return addLiquidity(payer, pool, params);
+  }
+
+  /**
+   * @notice Add liquidity to an initialized pool already resolved by the caller, paid with the funds of `payer`
+   * @dev `pool` must be the pool of `params` tokens and fee
+   */
+  public AddLiquidityResult addLiquidity (Address payer, Address pool, AddLiquidityParams params) {
+    return addLiquidity(payer, pool, params, null, ZERO);
+  }
 
-    Address pool = PoolAddressLib.getPool(this.factory, poolKey);
+  /**
+   * @notice Add liquidity to an initialized pool already resolved by the caller, paid with `amountSent` of 
+   * `tokenSent` sent along with the transaction first, then with the funds deposited by `payer`
+   * @dev The funds sent along with the transaction aren't recorded: the caller must send back the unspent ones
+   */
+  public AddLiquidityResult addLiquidity (
+    Address payer, 
+    Address pool, 
+    AddLiquidityParams params, 
+    Address tokenSent, 
+    BigInteger amountSent
+  ) {
     Context.require(pool != null, "addLiquidity: pool doesn't exist");
+    PoolKey poolKey = new PoolKey(params.token0, params.token1, params.fee);
 
     // compute the liquidity amount
     BigInteger sqrtPriceX96 = IConvexusPool.slot0(pool).sqrtPriceX96;
@@ -145,9 +200,9 @@ public class ConvexusLiquidityManagement
     );
 
     ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
-    writer.write(new MintCallbackData(poolKey, Context.getCaller()));
+    writer.write(new MintCallbackData(poolKey, payer, tokenSent, amountSent));
 
-    PairAmounts amounts = IConvexusPool.mint (
+    PositionAmounts amounts = IConvexusPool.mint (
       pool, 
       params.recipient, 
       params.tickLower, 
@@ -162,7 +217,14 @@ public class ConvexusLiquidityManagement
       "addLiquidity: Price slippage check"
     );
 
-    return new AddLiquidityResult (liquidity, amounts.amount0, amounts.amount1, pool);
+    return new AddLiquidityResult (
+      liquidity,
+      amounts.amount0,
+      amounts.amount1,
+      pool,
+      amounts.feeGrowthInside0LastX128,
+      amounts.feeGrowthInside1LastX128
+    );
   }
 
   
@@ -186,9 +248,39 @@ public class ConvexusLiquidityManagement
       "deposit: Deposit amount cannot be less or equal to 0");
 
     // --- OK from here ---
-    var depositedUser = this.depositedMap(caller);
-    BigInteger oldBalance = depositedUser.getOrDefault(tokenIn, ZERO);
-    depositedUser.set(tokenIn, oldBalance.add(amountIn));
+    DictDB<Address, BigInteger> userBalances = this.balances.at(caller);
+    BigInteger oldBalance = userBalances.get(tokenIn);
+    boolean indexed = oldBalance != null;
+    if (!indexed) {
+      oldBalance = takeLegacyDeposit(caller, tokenIn);
+    }
+
+    setBalance(caller, tokenIn, userBalances, indexed, oldBalance.add(amountIn));
+  }
+
+  /**
+   * @notice Send back to `user` an `amount` of `token` held by the contract, and up to `fromDeposit` of their deposited funds
+   * @dev Used to send back the funds sent along with the transaction that weren't spent
+   */
+  public void refund (Address user, Address token, BigInteger amount, BigInteger fromDeposit) {
+    if (fromDeposit.compareTo(ZERO) > 0) {
+      DictDB<Address, BigInteger> userBalances = this.balances.at(user);
+      BigInteger oldBalance = userBalances.get(token);
+      boolean indexed = oldBalance != null;
+      if (!indexed) {
+        oldBalance = takeLegacyDeposit(user, token);
+      }
+
+      BigInteger taken = oldBalance.min(fromDeposit);
+      if (indexed || oldBalance.compareTo(ZERO) > 0) {
+        setBalance(user, token, userBalances, indexed, oldBalance.subtract(taken));
+      }
+      amount = amount.add(taken);
+    }
+
+    if (amount.compareTo(ZERO) > 0) {
+      IIRC2ICX.transfer(token, user, amount, "withdraw");
+    }
   }
 
   /**
@@ -198,15 +290,27 @@ public class ConvexusLiquidityManagement
   public void withdraw (Address token) {
     final Address caller = Context.getCaller();
 
-    var depositedUser = this.depositedMap(caller);
-    BigInteger amount = depositedUser.getOrDefault(token, ZERO);
-    depositedUser.remove(token);
+    BigInteger amount = takeDeposit(caller, token);
 
     if (amount.compareTo(ZERO) > 0) {
       IIRC2ICX.transfer(token, caller, amount, "withdraw");
     }
   }
 
+  /**
+   * @notice Remove an `amount` of funds from the liquidity manager
+   */
+  // @External
+  public void withdraw (Address token, BigInteger amount) {
+    final Address caller = Context.getCaller();
+
+    Context.require(amount.compareTo(ZERO) > 0,
+      "withdraw: Withdraw amount cannot be less or equal to 0");
+
+    spend(caller, token, amount);
+    IIRC2ICX.transfer(token, caller, amount, "withdraw");
+  }
+
   /**
    * @notice Remove all funds from the liquidity manager
    */
@@ -214,13 +318,26 @@ public class ConvexusLiquidityManagement
   public void withdraw_all () {
     final Address caller = Context.getCaller();
 
-    var depositedUser = this.depositedMap(caller);
-    int size = depositedUser.size();
+    DictDB<Address, BigInteger> userBalances = this.balances.at(caller);
+    Address[] tokens = this.tokens(caller);
+    if (tokens.length > 0) {
+      this.tokenIndex.set(caller, null);
+    }
+
+    for (Address token : tokens) {
+      BigInteger amount = userBalances.get(token);
+      userBalances.set(token, null);
+      IIRC2ICX.transfer(token, caller, amount, "withdraw");
+    }
+
+    // Deposits recorded before the balances ledger
+    var legacyDeposited = this.legacyDepositedMap(caller);
+    int size = legacyDeposited.size();
 
     for (int i = 0; i < size; i++) {
-      Address token = depositedUser.getKey(0);
-      BigInteger amount = depositedUser.getOrDefault(token, ZERO);
-      depositedUser.remove(token);
+      Address token = legacyDeposited.getKey(0);
+      BigInteger amount = legacyDeposited.getOrDefault(token, ZERO);
+      legacyDeposited.remove(token);
   
       if (amount.compareTo(ZERO) > 0) {
         IIRC2ICX.transfer(token, caller, amount, "withdraw");
@@ -228,11 +345,120 @@ public class ConvexusLiquidityManagement
     }
   }
 
+  // ================================================
+  // Ledger
+  // ================================================
+  /**
+   * @notice Remove all the funds of `token` deposited by `user`, and return their amount
+   */
+  private BigInteger takeDeposit (Address user, Address token) {
+    DictDB<Address, BigInteger> userBalances = this.balances.at(user);
+    BigInteger amount = userBalances.get(token);
+    if (amount == null) {
+      return takeLegacyDeposit(user, token);
+    }
+
+    setBalance(user, token, userBalances, true, ZERO);
+    return amount;
+  }
+
+  /**
+   * @notice Remove the funds of `token` deposited by `user` before the balances ledger, and return their amount
+   * @dev Only called when `user` has no `token` balance in the ledger
+   */
+  private BigInteger takeLegacyDeposit (Address user, Address token) {
+    var legacyDeposited = this.legacyDepositedMap(user);
+    BigInteger amount = legacyDeposited.get(token);
+    if (amount == null) {
+      return ZERO;
+    }
+
+    legacyDeposited.remove(token);
+    return amount;
+  }
+
+  /**
+   * @notice Write the `token` balance of `user`, and keep its token index in sync
+   * @param indexed True if the token already has a balance in the ledger
+   */
+  private void setBalance (
+    Address user, 
+    Address token, 
+    DictDB<Address, BigInteger> userBalances, 
+    boolean indexed, 
+    BigInteger newBalance
+  ) {
+    if (newBalance.equals(ZERO)) {
+      userBalances.set(token, null);
+      if (indexed) {
+        removeToken(user, token);
+      }
+    } else {
+      userBalances.set(token, newBalance);
+      if (!indexed) {
+        addToken(user, token);
+      }
+    }
+  }
+
+  private Address[] tokens (Address user) {
+    byte[] encoded = this.tokenIndex.get(user);
+    if (encoded == null) {
+      return new Address[0];
+    }
+
+    ObjectReader reader = Context.newByteArrayObjectReader("RLPn", encoded);
+    reader.beginList();
+    int size = reader.readInt();
+    Address[] tokens = new Address[size];
+    for (int i = 0; i < size; i++) {
+      tokens[i] = reader.readAddress();
+    }
+    reader.end();
+    return tokens;
+  }
+
+  private void setTokens (Address user, Address[] tokens, int size) {
+    if (size == 0) {
+      this.tokenIndex.set(user, null);
+      return;
+    }
+
+    ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+    writer.beginList(size + 1);
+    writer.write(size);
+    for (int i = 0; i < size; i++) {
+      writer.write(tokens[i]);
+    }
+    writer.end();
+    this.tokenIndex.set(user, writer.toByteArray());
+  }
+
+  private void addToken (Address user, Address token) {
+    Address[] tokens = this.tokens(user);
+    Address[] newTokens = new Address[tokens.length + 1];
+    System.arraycopy(tokens, 0, newTokens, 0, tokens.length);
+    newTokens[tokens.length] = token;
+    setTokens(user, newTokens, newTokens.length);
+  }
+
+  private void removeToken (Address user, Address token) {
+    Address[] tokens = this.tokens(user);
+    int last = tokens.length - 1;
+    for (int i = 0; i <= last; i++) {
+      if (tokens[i].equals(token)) {
+        // move the last token to the removed token slot
+        tokens[i] = tokens[last];
+        setTokens(user, tokens, last);
+        return;
+      }
+    }
+  }
+
   // ================================================
   // Checks
   // ================================================
-  private void checkEnoughDeposited (Address address, Address token, BigInteger amount) {
-    var userBalance = this.deposited(address, token);
+  private void checkEnoughDeposited (BigInteger userBalance, BigInteger amount) {
     // Context.println("[Callee][checkEnoughDeposited][" + IIRC2ICX.symbol(token) + "] " + userBalance + " / " + amount);
     Context.require(userBalance.compareTo(amount) >= 0,
       NAME + "::checkEnoughDeposited: user didn't deposit enough funds (" + userBalance + " / " + amount + ")");
@@ -249,7 +475,10 @@ public class ConvexusLiquidityManagement
    */
   // @External(readonly = true)
   public BigInteger deposited (Address user, Address token) {
-    return this.depositedMap(user).getOrDefault(token, ZERO);
+    BigInteger balance = this.balances.at(user).get(token);
+    return balance != null 
+      ? balance 
+      : this.legacyDepositedMap(user).getOrDefault(token, ZERO);
   }
 
   /**
@@ -259,7 +488,7 @@ public class ConvexusLiquidityManagement
    */
   // @External(readonly = true)
   public int depositedTokensSize (Address user) {
-    return this.depositedMap(user).size();
+    return this.tokens(user).length + this.legacyDepositedMap(user).size();
   }
 
   /**
@@ -270,6 +499,9 @@ public class ConvexusLiquidityManagement
    */
   // @External(readonly = true)
   public Address depositedToken (Address user, int index) {
-    return this.depositedMap(user).getKey(index);
+    Address[] tokens = this.tokens(user);
+    return index < tokens.length
+      ? tokens[index]
+      : this.legacyDepositedMap(user).getKey(index - tokens.length);
   }
 }
\ No newline at end of file
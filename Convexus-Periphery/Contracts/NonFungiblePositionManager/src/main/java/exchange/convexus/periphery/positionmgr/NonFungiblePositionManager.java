@@ -20,18 +20,20 @@ import static java.math.BigInteger.ONE;
 import static java.math.BigInteger.ZERO;
 
 import java.math.BigInteger;
+import java.util.Map;
 
 import com.eclipsesource.json.Json;
 import com.eclipsesource.json.JsonObject;
 import com.eclipsesource.json.JsonValue;
 import exchange.convexus.core.interfaces.callback.IConvexusMintCallback;
-import exchange.convexus.core.pool.contracts.models.Positions;
 import exchange.convexus.librairies.FixedPoint128;
 import exchange.convexus.librairies.FullMath;
 import team.iconation.standards.token.irc721.IRC721Enumerable;
 
 import score.Address;
+import score.ByteArrayObjectWriter;
 import score.Context;
+import score.ObjectReader;
 import score.DictDB;
 import score.VarDB;
 import score.annotation.EventLog;
@@ -40,26 +42,32 @@ import score.annotation.Optional;
 import score.annotation.Payable;
 import scorex.io.Reader;
 import scorex.io.StringReader;
+import scorex.util.HashMap;
 
 import static exchange.convexus.utils.IntUtils.uint128;
 import exchange.convexus.periphery.interfaces.callback.IConvexusLiquidityManagement;
+import exchange.convexus.periphery.librairies.PoolAddressCache;
 import exchange.convexus.periphery.librairies.PoolAddressLib;
 import exchange.convexus.periphery.liquidity.AddLiquidityParams;
 import exchange.convexus.periphery.liquidity.ConvexusLiquidityManagement;
 import exchange.convexus.pool.IConvexusPool;
+import exchange.convexus.pool.MintCallbackData;
 import exchange.convexus.pool.PairAmounts;
-import exchange.convexus.pool.Position;
 import exchange.convexus.pool.PoolAddress.PoolKey;
+import exchange.convexus.pool.PositionAmounts;
 import exchange.convexus.positiondescriptor.INonfungibleTokenPositionDescriptor;
 import exchange.convexus.positionmgr.CollectParams;
 import exchange.convexus.positionmgr.DecreaseLiquidityParams;
 import exchange.convexus.positionmgr.IncreaseLiquidityParams;
 import exchange.convexus.positionmgr.IncreaseLiquidityResult;
 import exchange.convexus.positionmgr.MintParams;
+import exchange.convexus.positionmgr.ModifyPositionsParams;
 import exchange.convexus.positionmgr.MintResult;
 import exchange.convexus.positionmgr.NFTPosition;
 import exchange.convexus.positionmgr.PositionInformation;
+import exchange.convexus.utils.ICX;
 import exchange.convexus.utils.TimeUtils;
+import exchange.convexus.utils.TransientVarDB;
 
 // @title NFT positions
 // @notice Wraps Convexus positions in the IRC non-fungible token interface
@@ -73,6 +81,12 @@ public class NonFungiblePositionManager extends IRC721Enumerable
   // Contract class name
   public static final String NAME = "NonFungiblePositionManager";
 
+  // Maximum number of positions returned by `positionsOfOwner`
+  public static final int MAX_POSITIONS_PAGE = 100;
+
+  // Maximum number of positions collected by `collectMany`, which groups them by pool and tick range
+  public static final int MAX_COLLECT_POSITIONS = 50;
+
   // Contract name
   private final String name;
 
@@ -82,6 +96,9 @@ public class NonFungiblePositionManager extends IRC721Enumerable
   // Liquidity Manager
   private final ConvexusLiquidityManagement liquidityMgr;
 
+  // Pool addresses registry, shared with the liquidity manager
+  private final PoolAddressCache pools;
+
   // ================================================
   // DB Variables
   // ================================================
@@ -91,8 +108,13 @@ public class NonFungiblePositionManager extends IRC721Enumerable
   /// @dev Pool keys by pool ID, to save on SSTOREs for position data
   private final DictDB<BigInteger, PoolKey> poolIdToPoolKey = Context.newDictDB(NAME + "_poolIdToPoolKey", PoolKey.class);
 
-  /// @dev The token ID position data
-  private final DictDB<BigInteger, NFTPosition> positions = Context.newDictDB(NAME + "_positions", NFTPosition.class);
+  /// @dev Pool addresses by pool ID, so operations on a position don't need to resolve its pool key
+  private final DictDB<BigInteger, Address> poolIdToPool = Context.newDictDB(NAME + "_poolIdToPool", Address.class);
+
+  /// @dev The token ID position data, encoded with `NFTPosition.toBytes`
+  private final DictDB<BigInteger, byte[]> compactPositions = Context.newDictDB(NAME + "_compactPositions", byte[].class);
+  /// @dev The token ID position data written before the compact encoding, moved to `compactPositions` on the next write
+  private final DictDB<BigInteger, NFTPosition> legacyPositions = Context.newDictDB(NAME + "_positions", NFTPosition.class);
 
   /// @dev The ID of the next token that will be minted. Skips 0
   private final VarDB<BigInteger> nextId = Context.newVarDB(NAME + "_nextId", BigInteger.class);
@@ -102,6 +124,9 @@ public class NonFungiblePositionManager extends IRC721Enumerable
   /// @dev The address of the token descriptor contract, which handles generating token URIs for position tokens
   private final Address tokenDescriptor;
 
+  /// @dev Set by `collectMany` while the fees it collects are credited to the deposits of its caller
+  private final TransientVarDB<Address> collectingFor = new TransientVarDB<>(NAME + "_transientCollectingFor", Address.class);
+
   // ================================================
   // Event Logs
   // ================================================ 
@@ -159,6 +184,7 @@ public class NonFungiblePositionManager extends IRC721Enumerable
     super("Convexus Positions NFT-V1", "CXS-POS");
 
     this.liquidityMgr = new ConvexusLiquidityManagement(factory);
+    this.pools = this.liquidityMgr.getPools();
     this.name = "Convexus NFT Position Manager";
     this.factory = factory;
     this.tokenDescriptor = tokenDescriptor;
@@ -184,12 +210,54 @@ public class NonFungiblePositionManager extends IRC721Enumerable
   public PositionInformation positions (
     BigInteger tokenId
   ) {
-    NFTPosition position = this.positions.getOrDefault(tokenId, NFTPosition.empty());
+    NFTPosition position = this.getPositionOrDefault(tokenId, NFTPosition.empty());
     Context.require(!position.poolId.equals(ZERO),
       "positions: Invalid token ID");
 
-    PoolKey poolKey = this.poolIdToPoolKey.get(position.poolId);
+    return positionInformation(tokenId, position, this.poolIdToPoolKey.get(position.poolId));
+  }
+
+  /**
+   * @notice Returns the position information of a range of the tokens owned by an address
+   * 
+   * Access: Everyone
+   * 
+   * @dev Same as calling `positions` with `tokenOfOwnerByIndex(owner, offset + i)` for each token of the range
+   * @param owner The address owning the positions
+   * @param offset The index of the first token in the owner tokens list
+   * @param limit The maximum number of positions returned, up to `MAX_POSITIONS_PAGE`
+   * @return the positions, fewer than `limit` if the end of the owner tokens list is reached
+   */
+  @External(readonly = true)
+  public PositionInformation[] positionsOfOwner (
+    Address owner,
+    int offset,
+    int limit
+  ) {
+    Context.require(limit <= MAX_POSITIONS_PAGE,
+      "positionsOfOwner: limit too high");
+
+    BigInteger[] tokenIds = this._tokensOfOwner(owner, offset, limit);
+    PositionInformation[] result = new PositionInformation[tokenIds.length];
+
+    // the positions of a same owner usually share a few pools
+    Map<BigInteger, PoolKey> poolKeys = new HashMap<>();
+    for (int i = 0; i < tokenIds.length; i++) {
+      NFTPosition position = this.getPosition(tokenIds[i]);
+      PoolKey poolKey = poolKeys.get(position.poolId);
+      if (poolKey == null) {
+        poolKey = this.poolIdToPoolKey.get(position.poolId);
+        poolKeys.put(position.poolId, poolKey);
+      }
+      result[i] = positionInformation(tokenIds[i], position, poolKey);
+    }
+
+    return result;
+  }
+
+  private PositionInformation positionInformation (BigInteger tokenId, NFTPosition position, PoolKey poolKey) {
     return new PositionInformation(
+      tokenId,
       position.nonce,
       position.operator,
       poolKey.token0,
@@ -215,11 +283,63 @@ public class NonFungiblePositionManager extends IRC721Enumerable
 
       this.poolIds.set(pool, poolId);
       this.poolIdToPoolKey.set(poolId, poolKey);
+      this.poolIdToPool.set(poolId, pool);
     }
 
     return poolId;
   }
 
+  /// @dev Returns the data of a position, or `defaultValue` if the token doesn't exist
+  private NFTPosition getPositionOrDefault (BigInteger tokenId, NFTPosition defaultValue) {
+    byte[] data = this.compactPositions.get(tokenId);
+    if (data != null) {
+      return NFTPosition.fromBytes(data);
+    }
+
+    NFTPosition position = this.legacyPositions.get(tokenId);
+    if (position != null) {
+      position.legacy = true;
+      return position;
+    }
+
+    return defaultValue;
+  }
+
+  private NFTPosition getPosition (BigInteger tokenId) {
+    return this.getPositionOrDefault(tokenId, null);
+  }
+
+  /// @dev Writes the data of a position read with `getPosition`, moving it out of the legacy storage if it came from there
+  private void setPosition (BigInteger tokenId, NFTPosition position) {
+    if (position.legacy) {
+      this.legacyPositions.set(tokenId, null);
+      position.legacy = false;
+    }
+
+    this.compactPositions.set(tokenId, NFTPosition.toBytes(position));
+  }
+
+  /// @dev Deletes the data of a position read with `getPosition`
+  private void deletePosition (BigInteger tokenId, NFTPosition position) {
+    if (position.legacy) {
+      this.legacyPositions.set(tokenId, null);
+    } else {
+      this.compactPositions.set(tokenId, null);
+    }
+  }
+
+  /// @dev Returns the address of a cached pool
+  private Address getPool (BigInteger poolId) {
+    Address pool = this.poolIdToPool.get(poolId);
+    if (pool == null) {
+      // pool IDs assigned before the pool addresses were cached
+      pool = this.pools.getPool(this.poolIdToPoolKey.get(poolId));
+      this.poolIdToPool.set(poolId, pool);
+    }
+
+    return pool;
+  }
+
   /**
    * @notice Creates a new position wrapped in a NFT
    * 
@@ -235,9 +355,27 @@ public class NonFungiblePositionManager extends IRC721Enumerable
   @External
   public MintResult mint (
     MintParams params
+  ) {
+    return mint(Context.getCaller(), params);
+  }
+
+  private MintResult mint (
+    Address payer,
+    MintParams params
+  ) {
+    return mint(payer, params, null, ZERO);
+  }
+
+  /// @dev Mints a position paid with `amountSent` of `tokenSent` first, then with the funds deposited by `payer`
+  private MintResult mint (
+    Address payer,
+    MintParams params,
+    Address tokenSent,
+    BigInteger amountSent
   ) {
     this.checkDeadline(params.deadline);
-    var result = this.liquidityMgr.addLiquidity(new AddLiquidityParams(
+    Address pool = this.liquidityMgr.getPools().getPool(params.token0, params.token1, params.fee);
+    var result = this.liquidityMgr.addLiquidity(payer, pool, new AddLiquidityParams(
       params.token0,
       params.token1,
       params.fee,
@@ -248,33 +386,29 @@ public class NonFungiblePositionManager extends IRC721Enumerable
       params.amount1Desired,
       params.amount0Min,
       params.amount1Min
-    ));
+    ), tokenSent, amountSent);
 
     BigInteger liquidity = result.liquidity;
     BigInteger amount0 = result.amount0;
     BigInteger amount1 = result.amount1;
-    Address pool = result.pool;
 
     // increment ID
     BigInteger tokenId = this.nextId.get();
     this.nextId.set(tokenId.add(ONE));
     this._mint(params.recipient, tokenId);
 
-    byte[] positionKey = Positions.getKey(Context.getAddress(), params.tickLower, params.tickUpper);
-    Position.Info poolPos = IConvexusPool.positions(pool, positionKey);
-    
     // idempotent set
     BigInteger poolId = cachePoolKey(pool, PoolAddressLib.getPoolKey(params.token0, params.token1, params.fee));
 
-    this.positions.set(tokenId, new NFTPosition(
+    this.setPosition(tokenId, new NFTPosition(
       ZERO,
       ZERO_ADDRESS,
       poolId,
       params.tickLower,
       params.tickUpper,
       liquidity,
-      poolPos.feeGrowthInside0LastX128,
-      poolPos.feeGrowthInside1LastX128,
+      result.feeGrowthInside0LastX128,
+      result.feeGrowthInside1LastX128,
       ZERO,
       ZERO
     ));
@@ -309,10 +443,11 @@ public class NonFungiblePositionManager extends IRC721Enumerable
     this.checkDeadline(params.deadline);
 
     // OK
-    NFTPosition positionStorage = this.positions.get(params.tokenId);
+    NFTPosition positionStorage = this.getPosition(params.tokenId);
     PoolKey poolKey = this.poolIdToPoolKey.get(positionStorage.poolId);
+    Address pool = this.getPool(positionStorage.poolId);
 
-    var result = this.liquidityMgr.addLiquidity(new AddLiquidityParams(
+    var result = this.liquidityMgr.addLiquidity(Context.getCaller(), pool, new AddLiquidityParams(
       poolKey.token0,
       poolKey.token1,
       poolKey.fee,
@@ -328,15 +463,10 @@ public class NonFungiblePositionManager extends IRC721Enumerable
     BigInteger liquidity = result.liquidity;
     BigInteger amount0 = result.amount0;
     BigInteger amount1 = result.amount1;
-    Address pool = result.pool;
-
-    byte[] positionKey = Positions.getKey(Context.getAddress(), positionStorage.tickLower, positionStorage.tickUpper);
 
     // this is now updated to the current transaction
-    Position.Info poolPos = IConvexusPool.positions(pool, positionKey);
-
-    BigInteger feeGrowthInside0LastX128 = poolPos.feeGrowthInside0LastX128;
-    BigInteger feeGrowthInside1LastX128 = poolPos.feeGrowthInside1LastX128;
+    BigInteger feeGrowthInside0LastX128 = result.feeGrowthInside0LastX128;
+    BigInteger feeGrowthInside1LastX128 = result.feeGrowthInside1LastX128;
 
     // calculate accumulated fees
     BigInteger tokensOwed0 = uint128(FullMath.mulDiv(feeGrowthInside0LastX128.subtract(positionStorage.feeGrowthInside0LastX128), positionStorage.liquidity, FixedPoint128.Q128));
@@ -349,7 +479,7 @@ public class NonFungiblePositionManager extends IRC721Enumerable
     positionStorage.feeGrowthInside1LastX128 = feeGrowthInside1LastX128;
     positionStorage.liquidity = positionStorage.liquidity.add(liquidity);
 
-    this.positions.set(params.tokenId, positionStorage);
+    this.setPosition(params.tokenId, positionStorage);
     this.IncreaseLiquidity(params.tokenId, liquidity, amount0, amount1);
 
     return new IncreaseLiquidityResult(liquidity, amount0, amount1);
@@ -376,27 +506,23 @@ public class NonFungiblePositionManager extends IRC721Enumerable
     Context.require(params.liquidity.compareTo(ZERO) > 0, 
       "decreaseLiquidity: liquidity must be superior to zero");
 
-    NFTPosition positionStorage = this.positions.get(params.tokenId);
+    NFTPosition positionStorage = this.getPosition(params.tokenId);
     BigInteger positionLiquidity = positionStorage.liquidity;
     Context.require(positionLiquidity.compareTo(params.liquidity) >= 0,
       "decreaseLiquidity: invalid liquidity");
 
-    PoolKey poolKey = this.poolIdToPoolKey.get(positionStorage.poolId);
-    Address pool = PoolAddressLib.getPool(this.factory, poolKey);
+    Address pool = this.getPool(positionStorage.poolId);
 
-    PairAmounts pairAmounts = IConvexusPool.burn(pool, positionStorage.tickLower, positionStorage.tickUpper, params.liquidity);
-    BigInteger amount0 = pairAmounts.amount0;
-    BigInteger amount1 = pairAmounts.amount1;
+    PositionAmounts burned = IConvexusPool.burn(pool, positionStorage.tickLower, positionStorage.tickUpper, params.liquidity);
+    BigInteger amount0 = burned.amount0;
+    BigInteger amount1 = burned.amount1;
 
     Context.require(amount0.compareTo(params.amount0Min) >= 0 && amount1.compareTo(params.amount1Min) >= 0,
       "decreaseLiquidity: Price slippage check");
 
-    byte[] positionKey = Positions.getKey(Context.getAddress(), positionStorage.tickLower, positionStorage.tickUpper);
     // this is now updated to the current transaction
-    Position.Info poolPos = IConvexusPool.positions(pool, positionKey);
-
-    BigInteger feeGrowthInside0LastX128 = poolPos.feeGrowthInside0LastX128;
-    BigInteger feeGrowthInside1LastX128 = poolPos.feeGrowthInside1LastX128;
+    BigInteger feeGrowthInside0LastX128 = burned.feeGrowthInside0LastX128;
+    BigInteger feeGrowthInside1LastX128 = burned.feeGrowthInside1LastX128;
 
     // calculate accumulated fees
     BigInteger tokensOwed0 = uint128(amount0).add(uint128(FullMath.mulDiv(feeGrowthInside0LastX128.subtract(positionStorage.feeGrowthInside0LastX128), positionLiquidity, FixedPoint128.Q128)));
@@ -412,7 +538,110 @@ public class NonFungiblePositionManager extends IRC721Enumerable
 
     this.DecreaseLiquidity(params.tokenId, params.liquidity, amount0, amount1);
 
-    this.positions.set(params.tokenId, positionStorage);
+    this.setPosition(params.tokenId, positionStorage);
+    return new PairAmounts(amount0, amount1);
+  }
+
+  /**
+   * @notice Increases and decreases the liquidity of several positions of a same pool in a single pool call
+   * @dev The tokens released by the decreased positions pay for the increased positions, they aren't
+   * accounted to the positions tokens owed. The remaining tokens owed to the pool are paid with the funds 
+   * deposited by `Context.getCaller()`, and the remaining released tokens are sent to `Context.getCaller()`.
+   * The fees earned by the positions are accounted to their tokens owed.
+   * @param params tokenIds The IDs of the tokens for which liquidity is being modified, all in the same pool
+   * and sorted in ascending order,
+   * liquidityDeltas The liquidity to add to (positive) or remove from (negative) each token position,
+   * amount0Max The maximum net amount of token0 to pay, negative to require a minimum amount of token0 to receive,
+   * amount1Max The maximum net amount of token1 to pay, negative to require a minimum amount of token1 to receive,
+   * deadline The time by which the transaction must be included to effect the change
+   * @return amount0 The net amount of token0 paid, negative if received
+   * @return amount1 The net amount of token1 paid, negative if received
+   */
+  @External
+  public PairAmounts modifyPositions (
+    ModifyPositionsParams params
+  ) {
+    this.checkDeadline(params.deadline);
+    final Address caller = Context.getCaller();
+
+    final int length = params.tokenIds.length;
+    Context.require(length > 0 && params.liquidityDeltas.length == length,
+      "modifyPositions: invalid positions length");
+
+    NFTPosition[] positionsStorage = new NFTPosition[length];
+    BigInteger poolId = null;
+    int[] tickLowers = new int[length];
+    int[] tickUppers = new int[length];
+
+    for (int i = 0; i < length; i++) {
+      BigInteger tokenId = params.tokenIds[i];
+      BigInteger liquidityDelta = params.liquidityDeltas[i];
+      // sorted token IDs can't be modified twice
+      Context.require(i == 0 || tokenId.compareTo(params.tokenIds[i - 1]) > 0,
+        "modifyPositions: token IDs must be sorted and unique");
+
+      NFTPosition positionStorage = this.getPosition(tokenId);
+      Context.require(positionStorage != null, 
+        "modifyPositions: Invalid token ID");
+      if (poolId == null) {
+        poolId = positionStorage.poolId;
+      }
+      Context.require(positionStorage.poolId.equals(poolId),
+        "modifyPositions: positions must be in the same pool");
+
+      if (liquidityDelta.compareTo(ZERO) < 0) {
+        this.isAuthorizedForToken(tokenId);
+        Context.require(positionStorage.liquidity.compareTo(liquidityDelta.negate()) >= 0,
+          "modifyPositions: invalid liquidity");
+      }
+
+      positionsStorage[i] = positionStorage;
+      tickLowers[i] = positionStorage.tickLower;
+      tickUppers[i] = positionStorage.tickUpper;
+    }
+
+    PoolKey poolKey = this.poolIdToPoolKey.get(poolId);
+    Address pool = this.getPool(poolId);
+
+    ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+    writer.write(new MintCallbackData(poolKey, caller));
+
+    PositionAmounts[] amounts = IConvexusPool.modifyPositions(pool, caller, tickLowers, tickUppers, params.liquidityDeltas, writer.toByteArray());
+
+    BigInteger amount0 = ZERO;
+    BigInteger amount1 = ZERO;
+
+    for (int i = 0; i < length; i++) {
+      NFTPosition positionStorage = positionsStorage[i];
+      BigInteger liquidityDelta = params.liquidityDeltas[i];
+
+      // this is now updated to the current transaction
+      BigInteger feeGrowthInside0LastX128 = amounts[i].feeGrowthInside0LastX128;
+      BigInteger feeGrowthInside1LastX128 = amounts[i].feeGrowthInside1LastX128;
+
+      // calculate accumulated fees, the released tokens have already been netted by the pool
+      positionStorage.tokensOwed0 = positionStorage.tokensOwed0.add(uint128(FullMath.mulDiv(feeGrowthInside0LastX128.subtract(positionStorage.feeGrowthInside0LastX128), positionStorage.liquidity, FixedPoint128.Q128)));
+      positionStorage.tokensOwed1 = positionStorage.tokensOwed1.add(uint128(FullMath.mulDiv(feeGrowthInside1LastX128.subtract(positionStorage.feeGrowthInside1LastX128), positionStorage.liquidity, FixedPoint128.Q128)));
+
+      positionStorage.feeGrowthInside0LastX128 = feeGrowthInside0LastX128;
+      positionStorage.feeGrowthInside1LastX128 = feeGrowthInside1LastX128;
+      positionStorage.liquidity = positionStorage.liquidity.add(liquidityDelta);
+
+      this.setPosition(params.tokenIds[i], positionStorage);
+
+      if (liquidityDelta.compareTo(ZERO) > 0) {
+        this.IncreaseLiquidity(params.tokenIds[i], liquidityDelta, amounts[i].amount0, amounts[i].amount1);
+      } else {
+        this.DecreaseLiquidity(params.tokenIds[i], liquidityDelta.negate(), amounts[i].amount0.negate(), amounts[i].amount1.negate());
+      }
+
+      amount0 = amount0.add(amounts[i].amount0);
+      amount1 = amount1.add(amounts[i].amount1);
+    }
+
+    Context.require(amount0.compareTo(params.amount0Max) <= 0 && amount1.compareTo(params.amount1Max) <= 0,
+      "modifyPositions: Price slippage check");
+
     return new PairAmounts(amount0, amount1);
   }
 
@@ -435,20 +664,17 @@ public class NonFungiblePositionManager extends IRC721Enumerable
     // allow collecting to the nft position manager address with address 0
     Address recipient = params.recipient.equals(ZERO_ADDRESS) ? Context.getAddress() : params.recipient;
 
-    NFTPosition positionStorage = this.positions.get(params.tokenId);
-    PoolKey poolKey = this.poolIdToPoolKey.get(positionStorage.poolId);
-    Address pool = PoolAddressLib.getPool(this.factory, poolKey);
+    NFTPosition positionStorage = this.getPosition(params.tokenId);
+    Address pool = this.getPool(positionStorage.poolId);
 
     BigInteger tokensOwed0 = positionStorage.tokensOwed0;
     BigInteger tokensOwed1 = positionStorage.tokensOwed1;
 
     // trigger an update of the position fees owed and fee growth snapshots if it has any liquidity
     if (positionStorage.liquidity.compareTo(ZERO) > 0) {
-      IConvexusPool.burn(pool, positionStorage.tickLower, positionStorage.tickUpper, ZERO);
-      var positionKey = Positions.getKey(Context.getAddress(), positionStorage.tickLower, positionStorage.tickUpper);
-      Position.Info poolPos = IConvexusPool.positions(pool, positionKey);
-      BigInteger feeGrowthInside0LastX128 = poolPos.feeGrowthInside0LastX128;
-      BigInteger feeGrowthInside1LastX128 = poolPos.feeGrowthInside1LastX128;
+      PositionAmounts poked = IConvexusPool.burn(pool, positionStorage.tickLower, positionStorage.tickUpper, ZERO);
+      BigInteger feeGrowthInside0LastX128 = poked.feeGrowthInside0LastX128;
+      BigInteger feeGrowthInside1LastX128 = poked.feeGrowthInside1LastX128;
 
       // calculate accumulated fees
       tokensOwed0 = tokensOwed0.add(uint128(FullMath.mulDiv(feeGrowthInside0LastX128.subtract(positionStorage.feeGrowthInside0LastX128), positionStorage.liquidity, FixedPoint128.Q128)));
@@ -482,10 +708,210 @@ public class NonFungiblePositionManager extends IRC721Enumerable
 
     this.Collect(params.tokenId, recipient, amount0Collect, amount1Collect);
     
-    this.positions.set(params.tokenId, positionStorage);
+    this.setPosition(params.tokenId, positionStorage);
     return new PairAmounts(amount0, amount1);
   }
 
+  /**
+   * @notice Collects all the fees owed to many positions to the recipient
+   * @dev The positions are grouped by pool: the fees of all the positions of a pool are updated with a single 
+   * pool call, and collected with another one sending each pool token to the recipient with a single transfer
+   * @param tokenIds The IDs of the NFTs for which tokens are being collected, sorted in ascending order,
+   * up to `MAX_COLLECT_POSITIONS`
+   * @param recipient The account that should receive the tokens, or the zero address to credit them to the
+   * funds deposited by the caller in the liquidity manager
+   * @return The amounts of fees collected for each token ID
+   */
+  @External
+  public PairAmounts[] collectMany (BigInteger[] tokenIds, Address recipient) {
+    final int length = tokenIds.length;
+    Context.require(length > 0, "collectMany: no positions");
+    Context.require(length <= MAX_COLLECT_POSITIONS, "collectMany: too many positions");
+
+    // allow collecting to the caller deposits with address 0
+    final boolean toDeposit = recipient.equals(ZERO_ADDRESS);
+    Address to = toDeposit ? Context.getAddress() : recipient;
+
+    NFTPosition[] positionsStorage = new NFTPosition[length];
+    for (int i = 0; i < length; i++) {
+      // sorted token IDs can't be collected twice
+      Context.require(i == 0 || tokenIds[i].compareTo(tokenIds[i - 1]) > 0,
+        "collectMany: token IDs must be sorted and unique");
+      isAuthorizedForToken(tokenIds[i]);
+      positionsStorage[i] = this.getPosition(tokenIds[i]);
+    }
+
+    PairAmounts[] collected = new PairAmounts[length];
+    boolean[] grouped = new boolean[length];
+    int[] group = new int[length];
+
+    if (toDeposit) {
+      this.collectingFor.set(Context.getCaller());
+    }
+
+    for (int i = 0; i < length; i++) {
+      if (grouped[i]) {
+        continue;
+      }
+
+      // the positions of the same pool
+      BigInteger poolId = positionsStorage[i].poolId;
+      int size = 0;
+      for (int j = i; j < length; j++) {
+        if (!grouped[j] && positionsStorage[j].poolId.equals(poolId)) {
+          grouped[j] = true;
+          group[size++] = j;
+        }
+      }
+
+      collectPool(this.getPool(poolId), to, tokenIds, positionsStorage, group, size, collected);
+    }
+
+    if (toDeposit) {
+      this.collectingFor.set(null);
+    }
+
+    return collected;
+  }
+
+  /// @dev Collects all the fees owed to the positions `group[0..size]` of a same pool, the amounts collected
+  /// for each position are written to `collected`
+  private void collectPool (
+    Address pool,
+    Address recipient,
+    BigInteger[] tokenIds,
+    NFTPosition[] positionsStorage,
+    int[] group,
+    int size,
+    PairAmounts[] collected
+  ) {
+    // the distinct tick ranges of the positions, as several positions may share the same pool position
+    int[] tickLowers = new int[size];
+    int[] tickUppers = new int[size];
+    boolean[] hasLiquidity = new boolean[size];
+    int[] rangeOf = new int[size];
+    int ranges = 0;
+    int pokes = 0;
+
+    for (int k = 0; k < size; k++) {
+      NFTPosition position = positionsStorage[group[k]];
+      int r = 0;
+      while (r < ranges && (tickLowers[r] != position.tickLower || tickUppers[r] != position.tickUpper)) {
+        r++;
+      }
+      if (r == ranges) {
+        tickLowers[r] = position.tickLower;
+        tickUppers[r] = position.tickUpper;
+        ranges++;
+      }
+      if (!hasLiquidity[r] && position.liquidity.compareTo(ZERO) > 0) {
+        hasLiquidity[r] = true;
+        pokes++;
+      }
+      rangeOf[k] = r;
+    }
+
+    // trigger an update of the fees owed and fee growth snapshots of the ranges with any liquidity
+    PositionAmounts[] poked = new PositionAmounts[ranges];
+    if (pokes > 0) {
+      int[] pokeLowers = new int[pokes];
+      int[] pokeUppers = new int[pokes];
+      for (int r = 0, p = 0; r < ranges; r++) {
+        if (hasLiquidity[r]) {
+          pokeLowers[p] = tickLowers[r];
+          pokeUppers[p] = tickUppers[r];
+          p++;
+        }
+      }
+
+      PositionAmounts[] result = IConvexusPool.poke(pool, pokeLowers, pokeUppers);
+      for (int r = 0, p = 0; r < ranges; r++) {
+        if (hasLiquidity[r]) {
+          poked[r] = result[p++];
+        }
+      }
+    }
+
+    // calculate accumulated fees, all requested
+    BigInteger[] amount0Requested = new BigInteger[ranges];
+    BigInteger[] amount1Requested = new BigInteger[ranges];
+    for (int r = 0; r < ranges; r++) {
+      amount0Requested[r] = ZERO;
+      amount1Requested[r] = ZERO;
+    }
+
+    BigInteger[] tokensOwed0 = new BigInteger[size];
+    BigInteger[] tokensOwed1 = new BigInteger[size];
+
+    for (int k = 0; k < size; k++) {
+      NFTPosition positionStorage = positionsStorage[group[k]];
+      int r = rangeOf[k];
+
+      tokensOwed0[k] = positionStorage.tokensOwed0;
+      tokensOwed1[k] = positionStorage.tokensOwed1;
+
+      if (positionStorage.liquidity.compareTo(ZERO) > 0) {
+        BigInteger feeGrowthInside0LastX128 = poked[r].feeGrowthInside0LastX128;
+        BigInteger feeGrowthInside1LastX128 = poked[r].feeGrowthInside1LastX128;
+
+        tokensOwed0[k] = tokensOwed0[k].add(uint128(FullMath.mulDiv(feeGrowthInside0LastX128.subtract(positionStorage.feeGrowthInside0LastX128), positionStorage.liquidity, FixedPoint128.Q128)));
+        tokensOwed1[k] = tokensOwed1[k].add(uint128(FullMath.mulDiv(feeGrowthInside1LastX128.subtract(positionStorage.feeGrowthInside1LastX128), positionStorage.liquidity, FixedPoint128.Q128)));
+
+        positionStorage.feeGrowthInside0LastX128 = feeGrowthInside0LastX128;
+        positionStorage.feeGrowthInside1LastX128 = feeGrowthInside1LastX128;
+      }
+
+      amount0Requested[r] = amount0Requested[r].add(tokensOwed0[k]);
+      amount1Requested[r] = amount1Requested[r].add(tokensOwed1[k]);
+    }
+
+    int[] collectLowers = new int[ranges];
+    int[] collectUppers = new int[ranges];
+    System.arraycopy(tickLowers, 0, collectLowers, 0, ranges);
+    System.arraycopy(tickUppers, 0, collectUppers, 0, ranges);
+
+    // the actual amounts collected for each range are returned
+    PairAmounts[] rangeCollected = IConvexusPool.collectMany(pool, recipient, collectLowers, collectUppers, amount0Requested, amount1Requested);
+
+    // the amount collected for a range is split across its positions in proportion of their fees,
+    // the last position of the range receiving the rounding remainder
+    BigInteger[] remaining0 = new BigInteger[ranges];
+    BigInteger[] remaining1 = new BigInteger[ranges];
+    int[] remainingPositions = new int[ranges];
+    for (int r = 0; r < ranges; r++) {
+      remaining0[r] = rangeCollected[r].amount0;
+      remaining1[r] = rangeCollected[r].amount1;
+    }
+    for (int k = 0; k < size; k++) {
+      remainingPositions[rangeOf[k]]++;
+    }
+
+    for (int k = 0; k < size; k++) {
+      NFTPosition positionStorage = positionsStorage[group[k]];
+      int r = rangeOf[k];
+
+      BigInteger amount0;
+      BigInteger amount1;
+      if (--remainingPositions[r] == 0) {
+        amount0 = remaining0[r];
+        amount1 = remaining1[r];
+      } else {
+        amount0 = amount0Requested[r].equals(ZERO) ? ZERO : FullMath.mulDiv(rangeCollected[r].amount0, tokensOwed0[k], amount0Requested[r]);
+        amount1 = amount1Requested[r].equals(ZERO) ? ZERO : FullMath.mulDiv(rangeCollected[r].amount1, tokensOwed1[k], amount1Requested[r]);
+      }
+      remaining0[r] = remaining0[r].subtract(amount0);
+      remaining1[r] = remaining1[r].subtract(amount1);
+
+      // as in `collect`, the full amounts requested are subtracted so the token can be burnt
+      positionStorage.tokensOwed0 = ZERO;
+      positionStorage.tokensOwed1 = ZERO;
+
+      collected[group[k]] = new PairAmounts(amount0, amount1);
+      this.Collect(tokenIds[group[k]], recipient, amount0, amount1);
+      this.setPosition(tokenIds[group[k]], positionStorage);
+    }
+  }
+
   /**
    * @notice Burns a token ID, which deletes it from the NFT contract. 
    * The token must have 0 liquidity and all tokens must be collected first.
@@ -495,7 +921,7 @@ public class NonFungiblePositionManager extends IRC721Enumerable
   public void burn (BigInteger tokenId) {
     isAuthorizedForToken(tokenId);
 
-    NFTPosition positionStorage = this.positions.get(tokenId);
+    NFTPosition positionStorage = this.getPosition(tokenId);
 
     Context.require(
        positionStorage.liquidity.equals(ZERO) 
@@ -504,10 +930,60 @@ public class NonFungiblePositionManager extends IRC721Enumerable
       "burn: Not cleared"
     );
 
-    this.positions.set(tokenId, null);
+    this.deletePosition(tokenId, positionStorage);
     this._burn(tokenId);
   }
 
+  /**
+   * @notice Executes several calls in a single transaction, such as collecting the fees of many positions
+   * 
+   * Access: Everyone - each call checks the caller authorization like the corresponding method
+   * 
+   * @dev Each call is the RLP encoded list `[method, argument]`, where `method` is one of `mint`, `increaseLiquidity`,
+   * `decreaseLiquidity` and `collect` with the params encoded with the `writeObject` method of the params class,
+   * or `burn` with a token ID, or `withdraw` with a token address. The minted liquidity is paid with the funds 
+   * previously deposited by the caller, so several mints can share the same deposits.
+   * @param calls The encoded calls, executed in order
+   */
+  @External
+  public void multicall (byte[][] calls) {
+    for (byte[] call : calls) {
+      ObjectReader reader = Context.newByteArrayObjectReader("RLPn", call);
+      reader.beginList();
+      String method = reader.readString();
+
+      switch (method)
+      {
+        case "mint":
+          mint(MintParams.readObject(reader));
+          break;
+
+        case "increaseLiquidity":
+          increaseLiquidity(IncreaseLiquidityParams.readObject(reader));
+          break;
+
+        case "decreaseLiquidity":
+          decreaseLiquidity(DecreaseLiquidityParams.readObject(reader));
+          break;
+
+        case "collect":
+          collect(CollectParams.readObject(reader));
+          break;
+
+        case "burn":
+          burn(reader.readBigInteger());
+          break;
+
+        case "withdraw":
+          withdraw(reader.readAddress(), null);
+          break;
+
+        default:
+          Context.revert("multicall: Unimplemented method " + method);
+      }
+    }
+  }
+
   // ================================================
   // Implements LiquidityManager
   // ================================================
@@ -533,10 +1009,19 @@ public class NonFungiblePositionManager extends IRC721Enumerable
    * @notice Remove funds from the liquidity manager previously deposited by `Context.getCaller`
    * 
    * @param token The token address to withdraw
+   * @param amount The amount to withdraw, all the funds deposited if omitted
    */
   @External
+  public void withdraw (Address token, @Optional BigInteger amount) {
+    if (amount == null) {
+      this.liquidityMgr.withdraw(token);
+    } else {
+      this.liquidityMgr.withdraw(token, amount);
+    }
+  }
+
   public void withdraw (Address token) {
-    this.liquidityMgr.withdraw(token);
+    this.withdraw(token, null);
   }
 
   /**
@@ -553,7 +1038,7 @@ public class NonFungiblePositionManager extends IRC721Enumerable
   @External
   @Payable
   public void depositIcx () {
-    this.liquidityMgr.depositIcx();
+    this.liquidityMgr.deposit(this.depositor(Context.getCaller()), ICX.getAddress(), Context.getValue());
   }
   
   @External
@@ -570,7 +1055,13 @@ public class NonFungiblePositionManager extends IRC721Enumerable
        * @notice Add IRC2 funds to the liquidity manager
        */
       case "deposit": {
-        deposit(_from, token, _value);
+        deposit(this.depositor(_from), token, _value);
+        break;
+      }
+
+      case "depositAndMint": {
+        JsonObject params = root.get("params").asObject();
+        depositAndMint(_from, token, _value, MintParams.fromJson(params));
         break;
       }
 
@@ -584,6 +1075,66 @@ public class NonFungiblePositionManager extends IRC721Enumerable
     this.liquidityMgr.deposit(caller, tokenIn, amountIn);
   }
 
+  /// @dev The account credited with the funds sent by `from`: the pools send the fees collected by `collectMany`
+  /// for the deposits of its caller
+  private Address depositor (Address from) {
+    Address collectingFor = this.collectingFor.get();
+    return collectingFor != null ? collectingFor : from;
+  }
+
+  /**
+   * @notice Creates a new position wrapped in a NFT with the tokens sent, and sends back the unspent funds
+   * 
+   * Access: Everyone
+   * 
+   * @dev The other token of the pool must have been deposited beforehand. The tokens sent are never
+   * recorded as a deposit: the unspent ones are sent back to the caller, along with the deposited funds
+   * that the mint could have spent up to the desired amounts but didn't. The rest of the deposits is kept.
+   * @param caller The method caller. This field is handled by tokenFallback
+   * @param tokenIn The token address sent. This field is handled by tokenFallback
+   * @param amountIn The token amount sent. This field is handled by tokenFallback
+   * @param params The params necessary to mint a position, encoded as `MintParams`
+   */
+  // @External - this method is external through tokenFallback
+  private void depositAndMint (
+    Address caller, 
+    Address tokenIn, 
+    BigInteger amountIn, 
+    MintParams params
+  ) {
+    Context.require(tokenIn.equals(params.token0) || tokenIn.equals(params.token1),
+      "depositAndMint: Token sent isn't one of the pool tokens");
+
+    Context.require(amountIn.compareTo(ZERO) > 0, 
+      "depositAndMint: Deposit amount cannot be less or equal to 0");
+
+    MintResult result = mint(caller, params, tokenIn, amountIn);
+
+    refundUnspent(caller, params.token0, params.amount0Desired, result.amount0, tokenIn, amountIn);
+    refundUnspent(caller, params.token1, params.amount1Desired, result.amount1, tokenIn, amountIn);
+  }
+
+  /**
+   * @dev Sends back the part of the `amountIn` of `tokenIn` sent that a mint didn't spend, and the deposited
+   * funds of `token` it could have spent up to `desired` but didn't
+   */
+  private void refundUnspent (
+    Address caller,
+    Address token,
+    BigInteger desired,
+    BigInteger spent,
+    Address tokenIn,
+    BigInteger amountIn
+  ) {
+    BigInteger sent = token.equals(tokenIn) ? amountIn : ZERO;
+    BigInteger spentFromSent = sent.min(spent);
+    // the part of the desired amount expected from the deposit, and the part actually spent from it
+    BigInteger depositShare = desired.subtract(sent.min(desired));
+    BigInteger spentFromDeposit = spent.subtract(spentFromSent).min(depositShare);
+
+    this.liquidityMgr.refund(caller, token, sent.subtract(spentFromSent), depositShare.subtract(spentFromDeposit));
+  }
+
   // ReadOnly methods
   @External(readonly = true)
   public BigInteger deposited(Address user, Address token) {
@@ -606,9 +1157,12 @@ public class NonFungiblePositionManager extends IRC721Enumerable
   /// @dev Overrides _approve to use the operator in the position, which is packed with the position permit nonce
   @Override
   protected void _approve (Address to, BigInteger tokenId) {
-    var position = this.positions.getOrDefault(tokenId, NFTPosition.empty());
-    position.operator = to;
-    this.positions.set(tokenId, position);
+    var position = this.getPositionOrDefault(tokenId, NFTPosition.empty());
+    // Transfers clear the approval, which is most of the time already cleared
+    if (!to.equals(position.operator)) {
+      position.operator = to;
+      this.setPosition(tokenId, position);
+    }
     this.Approval(ownerOf(tokenId), to, tokenId);
   }
 
@@ -617,7 +1171,7 @@ public class NonFungiblePositionManager extends IRC721Enumerable
   public Address getApproved(BigInteger tokenId) {
     Context.require(this._exists(tokenId), 
       "getApproved: approved query for nonexistent token");
-    return this.positions.get(tokenId).operator;
+    return this.getPosition(tokenId).operator;
   }
 
   // ================================================
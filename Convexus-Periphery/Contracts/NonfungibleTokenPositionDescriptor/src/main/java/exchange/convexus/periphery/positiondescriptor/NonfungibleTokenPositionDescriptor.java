@@ -22,6 +22,9 @@ import exchange.convexus.pool.PoolAddress.PoolKey;
 import exchange.convexus.positionmgr.INonFungiblePositionManager;
 import exchange.convexus.positionmgr.PositionInformation;
 import score.Address;
+import score.BranchDB;
+import score.Context;
+import score.DictDB;
 import score.annotation.External;
 
 import com.eclipsesource.json.Json;
@@ -31,12 +34,74 @@ import exchange.convexus.periphery.librairies.PoolAddressLib;
 
 /// @title Describes NFT token positions
 /// @notice Produces a string containing the data URI for a JSON metadata string
+/// @dev The data of a position that never changes (factory, pool, tick spacing, tokens symbol and decimals)
+/// can be cached with `cacheMetadata`, so `tokenURI` only reads the position and the pool slot0
 public class NonfungibleTokenPositionDescriptor {
 
+  // ================================================
+  // Consts
+  // ================================================
+  // Contract class name
+  private static final String NAME = "NonfungibleTokenPositionDescriptor";
+
+  // ================================================
+  // DB Variables
+  // ================================================
+  // position manager => factory
+  private final DictDB<Address, Address> factories = Context.newDictDB(NAME + "_factories", Address.class);
+  // factory => token0 => token1 => fee => pool address
+  private final BranchDB<Address, BranchDB<Address, BranchDB<Address, DictDB<Integer, Address>>>> pools = Context.newBranchDB(NAME + "_pools", Address.class);
+  // pool => tick spacing
+  private final DictDB<Address, Integer> tickSpacings = Context.newDictDB(NAME + "_tickSpacings", Integer.class);
+  // token => symbol
+  private final DictDB<Address, String> symbols = Context.newDictDB(NAME + "_symbols", String.class);
+  // token => decimals
+  private final DictDB<Address, Integer> decimals = Context.newDictDB(NAME + "_decimals", Integer.class);
+
   public NonfungibleTokenPositionDescriptor () {
     // Nothing to do
   }
 
+  /**
+   * @notice Caches the data of a position that never changes, so the next `tokenURI` calls for the positions 
+   * of the same pool don't need to query it anymore
+   * 
+   * Access: Everyone
+   * 
+   * @param positionManager The position manager of the position
+   * @param tokenId The ID of the position token
+   */
+  @External
+  public void cacheMetadata (Address positionManager, BigInteger tokenId) {
+    PositionInformation position = INonFungiblePositionManager.positions(positionManager, tokenId);
+
+    Address factory = this.factories.get(positionManager);
+    if (factory == null) {
+      factory = INonFungiblePositionManager.factory(positionManager);
+      this.factories.set(positionManager, factory);
+    }
+
+    var pools = this.pools.at(factory).at(position.token0).at(position.token1);
+    Address pool = pools.get(position.fee);
+    if (pool == null) {
+      pool = PoolAddressLib.getPool(factory, new PoolKey(position.token0, position.token1, position.fee));
+      Context.require(pool != null, 
+        "cacheMetadata: pool not found");
+      pools.set(position.fee, pool);
+    }
+
+    if (this.tickSpacings.get(pool) == null) {
+      this.tickSpacings.set(pool, IConvexusPool.tickSpacing(pool));
+    }
+
+    for (Address token : new Address[] {position.token0, position.token1}) {
+      if (this.symbols.get(token) == null) {
+        this.symbols.set(token, IIRC2ICX.symbol(token));
+        this.decimals.set(token, IIRC2ICX.decimals(token));
+      }
+    }
+  }
+
   /**
    * Returns a tokenURI for a given tokenID
    * @param positionManager
@@ -46,10 +111,7 @@ public class NonfungibleTokenPositionDescriptor {
   @External(readonly = true)
   public String tokenURI (Address positionManager, BigInteger tokenId) {
     PositionInformation position = INonFungiblePositionManager.positions(positionManager, tokenId);
-    Address factory = INonFungiblePositionManager.factory(positionManager);
-
-    PoolKey poolKey = new PoolKey(position.token0, position.token1, position.fee);
-    Address pool = PoolAddressLib.getPool(factory, poolKey);
+    Address pool = getPool(positionManager, position);
 
     Boolean _flipRatio = false; // TODO: flipRatio implementation
     Address quoteTokenAddress = !_flipRatio ? position.token1 : position.token0;
@@ -60,19 +122,52 @@ public class NonfungibleTokenPositionDescriptor {
       .add("tokenId", tokenId.toString(10))
       .add("quoteTokenAddress", quoteTokenAddress.toString())
       .add("baseTokenAddress", baseTokenAddress.toString())
-      .add("quoteTokenSymbol", IIRC2ICX.symbol(quoteTokenAddress))
-      .add("baseTokenSymbol", IIRC2ICX.symbol(baseTokenAddress))
-      .add("quoteTokenDecimals", Integer.toString(IIRC2ICX.decimals(quoteTokenAddress)))
-      .add("baseTokenDecimals", Integer.toString(IIRC2ICX.decimals(baseTokenAddress)))
+      .add("quoteTokenSymbol", symbol(quoteTokenAddress))
+      .add("baseTokenSymbol", symbol(baseTokenAddress))
+      .add("quoteTokenDecimals", Integer.toString(decimals(quoteTokenAddress)))
+      .add("baseTokenDecimals", Integer.toString(decimals(baseTokenAddress)))
       .add("flipRatio", _flipRatio.toString())
       .add("tickLower", Integer.toString(position.tickLower))
       .add("tickUpper", Integer.toString(position.tickUpper))
       .add("tickCurrent", Integer.toString(slot0.tick))
-      .add("tickSpacing", Integer.toString(IConvexusPool.tickSpacing(pool)))
+      .add("tickSpacing", Integer.toString(tickSpacing(pool)))
       .add("fee",       Integer.toString(position.fee))
       .add("poolAddress", pool.toString())
     ;
 
     return tokenURI.toString();
   }
+
+  // ================================================
+  // Private methods
+  // ================================================
+  // The getters below read the cached data, or query it if it hasn't been cached with `cacheMetadata`
+  private Address getPool (Address positionManager, PositionInformation position) {
+    Address factory = this.factories.get(positionManager);
+    if (factory == null) {
+      factory = INonFungiblePositionManager.factory(positionManager);
+    }
+
+    Address pool = this.pools.at(factory).at(position.token0).at(position.token1).get(position.fee);
+    if (pool == null) {
+      pool = PoolAddressLib.getPool(factory, new PoolKey(position.token0, position.token1, position.fee));
+    }
+
+    return pool;
+  }
+
+  private int tickSpacing (Address pool) {
+    Integer tickSpacing = this.tickSpacings.get(pool);
+    return tickSpacing != null ? tickSpacing : IConvexusPool.tickSpacing(pool);
+  }
+
+  private String symbol (Address token) {
+    String symbol = this.symbols.get(token);
+    return symbol != null ? symbol : IIRC2ICX.symbol(token);
+  }
+
+  private int decimals (Address token) {
+    Integer decimals = this.decimals.get(token);
+    return decimals != null ? decimals : IIRC2ICX.decimals(token);
+  }
 }
@@ -39,7 +39,7 @@ import exchange.convexus.periphery.interfaces.callback.IConvexusLiquidityManagem
 import exchange.convexus.periphery.interfaces.callback.IConvexusLiquidityManagementAddLiquidity;
 import exchange.convexus.periphery.librairies.CallbackValidation;
 import exchange.convexus.periphery.librairies.PeripheryPayments;
-import exchange.convexus.periphery.librairies.PoolAddressLib;
+import exchange.convexus.periphery.librairies.PoolAddressCache;
 import exchange.convexus.periphery.liquidity.AddLiquidityParams;
 import exchange.convexus.periphery.liquidity.AddLiquidityResult;
 import exchange.convexus.periphery.liquidity.ConvexusLiquidityManagement;
@@ -68,6 +68,9 @@ public class PairFlash
   // Implement Liquidity Manager
   private final ConvexusLiquidityManagement liquidityMgr;
 
+  // Pool addresses registry, shared with the liquidity manager
+  private final PoolAddressCache pools;
+
   // ================================================
   // DB Variables
   // ================================================
@@ -87,6 +90,7 @@ public class PairFlash
     this.factory = factory;
     
     this.liquidityMgr = new ConvexusLiquidityManagement(factory);
+    this.pools = this.liquidityMgr.getPools();
   }
 
   private BigInteger routerExactInputSingle (Address tokenIn, BigInteger amountIn, Address tokenOut, BigInteger amountOutMinimum, int poolFee) {
@@ -128,7 +132,7 @@ public class PairFlash
   ) {
     ObjectReader reader = Context.newByteArrayObjectReader("RLPn", data);
     FlashCallbackData decoded = reader.read(FlashCallbackData.class);
-    CallbackValidation.verifyCallback(this.factory, decoded.poolKey);
+    CallbackValidation.verifyCallback(this.pools, decoded.poolKey);
 
     final Address caller = Context.getCaller();
 
@@ -173,7 +177,7 @@ public class PairFlash
   @External
   public void initFlash (FlashParams params) {
     PoolKey poolKey = new PoolKey(params.token0, params.token1, params.fee1);
-    Address pool = PoolAddressLib.getPool(this.factory, poolKey);
+    Address pool = this.pools.getPool(poolKey);
 
     Context.require(pool != null,
       "initFlash: Pool doesn't exist");
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.periphery.quoter;
+
+import java.util.Map;
+
+import exchange.convexus.periphery.librairies.PoolAddressLib;
+import exchange.convexus.periphery.librairies.PoolSimulator;
+import exchange.convexus.pool.PoolAddress.PoolKey;
+import score.Address;
+import scorex.util.HashMap;
+
+/**
+ * @title The pool simulators of a readonly call
+ * @dev Resolves each pool address once and shares its simulator between all the quotes of the call
+ */
+class PoolSimulators {
+
+    // ================================================
+    // Consts
+    // ================================================
+    private final Address factory;
+
+    // ================================================
+    // Cache
+    // ================================================
+    // Simulators indexed by pool key, null if the pool doesn't exist
+    private final Map<String, PoolSimulator> simulators = new HashMap<>();
+
+    public PoolSimulators (Address factory) {
+        this.factory = factory;
+    }
+
+    // ================================================
+    // Methods
+    // ================================================
+    /**
+     * @notice Returns the simulator of the pool for the given token pair and fee
+     * @param tokenA The first token of a pool, unsorted
+     * @param tokenB The second token of a pool, unsorted
+     * @param fee The fee level of the pool
+     * @return The pool simulator, or null if the pool doesn't exist
+     */
+    public PoolSimulator get (
+        Address tokenA,
+        Address tokenB,
+        int fee
+    ) {
+        PoolKey key = PoolAddressLib.getPoolKey(tokenA, tokenB, fee);
+        String id = key.token0 + "/" + key.token1 + "/" + key.fee;
+
+        if (!this.simulators.containsKey(id)) {
+            Address pool = PoolAddressLib.getPool(this.factory, key);
+            this.simulators.put(id, pool != null ? new PoolSimulator(pool) : null);
+        }
+
+        return this.simulators.get(id);
+    }
+}
@@ -16,19 +16,20 @@
 
 package exchange.convexus.periphery.quoter;
 
-import static exchange.convexus.utils.IntUtils.MAX_UINT256;
 import static java.math.BigInteger.ONE;
 import static java.math.BigInteger.ZERO;
 
 import java.math.BigInteger;
 
+import exchange.convexus.core.factory.IConvexusFactory;
 import exchange.convexus.librairies.TickMath;
 import exchange.convexus.periphery.librairies.Path;
 import exchange.convexus.periphery.librairies.PoolAddressLib;
+import exchange.convexus.periphery.librairies.PoolSimulator;
+import exchange.convexus.periphery.librairies.SimulationResult;
 import exchange.convexus.periphery.poolreadonly.SwapResult;
 import exchange.convexus.utils.AddressUtils;
 import exchange.convexus.utils.BytesUtils;
-import exchange.convexus.pool.IConvexusPool;
 import exchange.convexus.pool.PoolData;
 import exchange.convexus.poolreadonly.IConvexusPoolReadOnly;
 import score.Address;
@@ -48,6 +49,32 @@ public class Quoter {
     // ================================================
     // Contract name
     private final String name;
+    // Route search bounds
+    private static final int MAX_HOPS = 3;
+    private static final int MAX_INTERMEDIATES = 8;
+    // Step costs of the ICON step schedule (icx_getStepCosts): default (per transaction),
+    // contractCall, getBase and setBase
+    private static final long STEP_DEFAULT = 100_000;
+    private static final long STEP_CONTRACT_CALL = 25_000;
+    private static final long STEP_GET_BASE = 3_000;
+    private static final long STEP_SET_BASE = 10_000;
+    // Inter-SCORE calls, storage reads and storage writes of a swap through the router, measured on
+    // quoteExactInputSingleTest: the swap itself (token transfers and callback included), then each
+    // initialized tick crossed (tick read and update, oracle observation) and each tick bitmap word crossed
+    private static final long SWAP_CALLS = 8;
+    private static final long SWAP_READS = 23;
+    private static final long SWAP_WRITES = 12;
+    private static final long TICK_CROSSED_READS = 8;
+    private static final long TICK_CROSSED_WRITES = 2;
+    private static final long WORD_CROSSED_READS = 1;
+    // The estimate only prices these operations at their base cost: the per-byte storage costs
+    // and the JVM execution steps come on top
+    private static final BigInteger SWAP_BASE_STEP_COST = BigInteger.valueOf(
+        STEP_DEFAULT + SWAP_CALLS * STEP_CONTRACT_CALL + SWAP_READS * STEP_GET_BASE + SWAP_WRITES * STEP_SET_BASE);
+    private static final BigInteger TICK_CROSSED_STEP_COST = BigInteger.valueOf(
+        TICK_CROSSED_READS * STEP_GET_BASE + TICK_CROSSED_WRITES * STEP_SET_BASE);
+    private static final BigInteger WORD_CROSSED_STEP_COST = BigInteger.valueOf(
+        WORD_CROSSED_READS * STEP_GET_BASE);
     private final Address factory;
     private final Address readOnlyPool;
 
@@ -113,138 +140,113 @@ public class Quoter {
         return new SwapResult(amountOut, sqrtPriceX96After, tickAfter);
     }
 
-    private QuoteResult handleResult (
-        SwapResult swapResult,
-        Address pool
-    ) {
-        var slot0 = IConvexusPool.slot0(pool);
-        int tickBefore = slot0.tick;
-        int initializedTicksCrossed = countInitializedTicksCrossed(pool, tickBefore, swapResult.tickAfter);
-        
-        return new QuoteResult(swapResult.amount, swapResult.sqrtPriceX96After, initializedTicksCrossed);
+    /**
+     * @dev Estimates the steps consumed by the execution of a simulated swap
+     */
+    private static BigInteger stepCostEstimate (SwapResult result) {
+        return SWAP_BASE_STEP_COST
+            .add(TICK_CROSSED_STEP_COST.multiply(BigInteger.valueOf(result.initializedTicksCrossed)))
+            .add(WORD_CROSSED_STEP_COST.multiply(BigInteger.valueOf(result.wordsCrossed)));
     }
 
-    private BigInteger tickBitmap (Address pool, int pos) {
-        return IConvexusPool.tickBitmap(pool, pos);
+    private static QuoteResult toQuoteResult (SwapResult result) {
+        return new QuoteResult(
+            result.amount, 
+            result.sqrtPriceX96After, 
+            result.initializedTicksCrossed,
+            result.amountConsumed,
+            stepCostEstimate(result)
+        );
     }
 
     /**
-     * @dev This function counts the number of initialized ticks that would incur a gas cost between tickBefore and tickAfter.
-     * When tickBefore and/or tickAfter themselves are initialized, the logic over whether we should count them depends on the
-     * direction of the swap. If we are swapping upwards (tickAfter > tickBefore) we don't want to count tickBefore but we do
-     * want to count tickAfter. The opposite is true if we are swapping downwards.
+     * @dev Simulates an exact input swap against an already resolved pool.
+     * The number of initialized ticks crossed is reported by the read-only pool during the simulation.
+     * @param path The encoded pool data (tokenIn, fee, tokenOut) forwarded to the swap callback
      */
-    private int countInitializedTicksCrossed(Address pool, int tickBefore, int tickAfter) {
-        int initializedTicksCrossed = 0;
-
-        // Get the key and offset in the tick bitmap of the active tick before and after the swap.
-        int tickSpacing = IConvexusPool.tickSpacing(pool);
-        int wordPos = (tickBefore / tickSpacing) >> 8;
-        int bitPos = (tickBefore / tickSpacing) % 256;
-
-        int wordPosAfter = (tickAfter / tickSpacing) >> 8;
-        int bitPosAfter = (tickAfter / tickSpacing) % 256;
-
-        int wordPosLower;
-        int wordPosHigher;
-        int bitPosLower;
-        int bitPosHigher;
-
-        // In the case where tickAfter is initialized, we only want to count it if we are swapping downwards.
-        // If the initializable tick after the swap is initialized, our original tickAfter is a
-        // multiple of tick spacing, and we are swapping downwards we know that tickAfter is initialized
-        // and we shouldn't count it.
-        boolean tickAfterInitialized =
-            ((this.tickBitmap(pool, wordPosAfter).and(ONE.shiftLeft(bitPosAfter))).compareTo(ZERO) > 0) &&
-            ((tickAfter % tickSpacing) == 0) &&
-            (tickBefore > tickAfter);
-
-        // In the case where tickBefore is initialized, we only want to count it if we are swapping upwards.
-        // Use the same logic as above to decide whether we should count tickBefore or not.
-        boolean tickBeforeInitialized =
-            ((this.tickBitmap(pool, wordPos).and(ONE.shiftLeft(bitPos))).compareTo(ZERO) > 0) &&
-            ((tickBefore % tickSpacing) == 0) &&
-            (tickBefore < tickAfter);
-
-        if (wordPos < wordPosAfter || (wordPos == wordPosAfter && bitPos <= bitPosAfter)) {
-            wordPosLower = wordPos;
-            bitPosLower = bitPos;
-            wordPosHigher = wordPosAfter;
-            bitPosHigher = bitPosAfter;
-        } else {
-            wordPosLower = wordPosAfter;
-            bitPosLower = bitPosAfter;
-            wordPosHigher = wordPos;
-            bitPosHigher = bitPos;
-        }
-
-        // Count the number of initialized ticks crossed by iterating through the tick bitmap.
-        // Our first mask should include the lower tick and everything to its left.
-        // @dev: No int overflowing in Java-SCORE.
-        BigInteger mask = MAX_UINT256.subtract(ONE.shiftLeft(bitPosLower).subtract(ONE));
-
-        while (wordPosLower <= wordPosHigher) {
-            // If we're on the final tick bitmap page, ensure we only count up to our
-            // ending tick.
-            if (wordPosLower == wordPosHigher) {
-                mask = mask.and(MAX_UINT256.shiftRight(255 - bitPosHigher));
-            }
+    private QuoteResult quoteExactInputSinglePool (
+        Address pool,
+        Address tokenIn,
+        Address tokenOut,
+        BigInteger amountIn,
+        BigInteger sqrtPriceLimitX96,
+        byte[] path
+    ) {
+        boolean zeroForOne = AddressUtils.compareTo(tokenIn, tokenOut) < 0;
 
-            BigInteger masked = tickBitmap(pool, wordPosLower).and(mask);
-            initializedTicksCrossed += countOneBits(masked);
-            wordPosLower++;
-            // Reset our mask so we consider all bits on the next iteration.
-            mask = MAX_UINT256;
-        }
+        var result = IConvexusPoolReadOnly.swap(this.readOnlyPool,
+            pool, 
+            Context.getAddress(), // ZERO_ADDRESS might cause issues with some tokens
+            zeroForOne, 
+            amountIn,
+            sqrtPriceLimitX96.equals(ZERO)
+                ? (zeroForOne ? TickMath.MIN_SQRT_RATIO.add(ONE) : TickMath.MAX_SQRT_RATIO.subtract(ONE))
+                : sqrtPriceLimitX96,
+            path
+        );
 
-        if (tickAfterInitialized) {
-            initializedTicksCrossed -= 1;
-        }
+        return toQuoteResult(result);
+    }
 
-        if (tickBeforeInitialized) {
-            initializedTicksCrossed -= 1;
-        }
+    /**
+     * @dev Simulates an exact output swap against an already resolved pool.
+     * @param path The encoded pool data (tokenOut, fee, tokenIn) forwarded to the swap callback
+     */
+    private QuoteResult quoteExactOutputSinglePool (
+        Address pool,
+        Address tokenIn,
+        Address tokenOut,
+        BigInteger amountOut,
+        BigInteger sqrtPriceLimitX96,
+        byte[] path
+    ) {
+        boolean zeroForOne = AddressUtils.compareTo(tokenIn, tokenOut) < 0;
 
-        return initializedTicksCrossed;
-    }
+        var result = IConvexusPoolReadOnly.swap(this.readOnlyPool,
+            pool, 
+            Context.getAddress(), // ZERO_ADDRESS might cause issues with some tokens
+            zeroForOne,
+            amountOut.negate(),
+            sqrtPriceLimitX96.equals(ZERO)
+                ? (zeroForOne ? TickMath.MIN_SQRT_RATIO.add(ONE) : TickMath.MAX_SQRT_RATIO.subtract(ONE))
+                : sqrtPriceLimitX96,
+            path
+        );
 
-    private int countOneBits(BigInteger x) {
-        int bits = 0;
-        while (!x.equals(ZERO)) {
-            bits++;
-            x = x.and(x.subtract(ONE));
-        }
-        return bits;
+        return toQuoteResult(result);
     }
 
     /**
      * @notice Returns the amount out received for a given exact input but for a swap of a single pool
+     * @dev If the price limit is reached before `amountIn` is swapped, the partial quote is returned, or the quote
+     * fails if `requireFullFill` is set
      * @param params The params for the quote, encoded as `QuoteExactInputSingleParams`
      * @return amountOut The amount of `tokenOut` that would be received
      * @return sqrtPriceX96After The sqrt price of the pool after the swap
      * @return initializedTicksCrossed The number of initialized ticks that the swap crossed
-     * @return gasEstimate The estimate of the gas that the swap consumes
+     * @return amountConsumed The part of `amountIn` swapped, lower than `amountIn` if the price limit is reached
+     * @return stepCostEstimate The estimate of the steps that the swap consumes
      */
     @External(readonly = true)
     public QuoteResult quoteExactInputSingle (QuoteExactInputSingleParams params) {
-        boolean zeroForOne = AddressUtils.compareTo(params.tokenIn, params.tokenOut) < 0;
         Address pool = getPool(params.tokenIn, params.tokenOut, params.fee);
 
         Context.require(pool != null, 
             "quoteExactInputSingle: Pool doesn't exist");
 
-        var result = IConvexusPoolReadOnly.swap(this.readOnlyPool,
-                pool, 
-                Context.getAddress(), // ZERO_ADDRESS might cause issues with some tokens
-                zeroForOne, 
-                params.amountIn,
-                params.sqrtPriceLimitX96.equals(ZERO)
-                    ? (zeroForOne ? TickMath.MIN_SQRT_RATIO.add(ONE) : TickMath.MAX_SQRT_RATIO.subtract(ONE))
-                    : params.sqrtPriceLimitX96,
-                Path.encodePath(new PoolData(params.tokenIn, params.tokenOut, params.fee))
-            );
-        
-        return handleResult(result, pool);
+        var result = quoteExactInputSinglePool(
+            pool,
+            params.tokenIn,
+            params.tokenOut,
+            params.amountIn,
+            params.sqrtPriceLimitX96,
+            Path.encodePath(new PoolData(params.tokenIn, params.tokenOut, params.fee))
+        );
+
+        Context.require(!params.requireFullFill || result.amountConsumed.equals(params.amountIn),
+            "quoteExactInputSingle: Price limit reached before amountIn is filled");
+
+        return result;
     }
 
     /// @notice Returns the amount out received for a given exact input swap without executing the swap
@@ -264,23 +266,19 @@ public class Quoter {
         int[] initializedTicksCrossedList = new int[numPools];
 
         int i = 0;
+        int offset = 0;
         while (true) {
-            var firstPool = Path.decodeFirstPool(path);
+            var firstPool = Path.decodePool(path, offset);
             Address tokenIn = firstPool.tokenA;
             Address tokenOut = firstPool.tokenB;
             int fee = firstPool.fee;
 
+            Address pool = getPool(tokenIn, tokenOut, fee);
+            Context.require(pool != null, 
+                "quoteExactInput: Pool doesn't exist");
+
             // the outputs of prior swaps become the inputs to subsequent ones
-            var result =
-                quoteExactInputSingle(
-                    new QuoteExactInputSingleParams(
-                        tokenIn,
-                        tokenOut,
-                        amountIn,
-                        fee,
-                        ZERO
-                    )
-                );
+            var result = quoteExactInputSinglePool(pool, tokenIn, tokenOut, amountIn, ZERO, Path.getPool(path, offset));
             
             BigInteger _amountOut = result.amountOut;
             BigInteger _sqrtPriceX96After = result.sqrtPriceX96After;
@@ -292,8 +290,8 @@ public class Quoter {
             i++;
             
             // decide whether to continue or terminate
-            if (Path.hasMultiplePools(path)) {
-                path = Path.skipToken(path);
+            if (Path.hasMultiplePools(path, offset)) {
+                offset = Path.skipToken(offset);
             } else {
                 return new QuoteMultiResult(amountIn, sqrtPriceX96AfterList, initializedTicksCrossedList);
             }
@@ -302,35 +300,38 @@ public class Quoter {
 
     /**
      * @notice Returns the amount in required to receive the given exact output amount but for a swap of a single pool
+     * @dev If the price limit is reached before `amount` is received, the partial quote is returned, or the quote
+     * fails if `requireFullFill` is set
      * @param params The params for the quote, encoded as `QuoteExactOutputSingleParams`
      * @return amountIn The amount required as the input for the swap in order to receive `amountOut`
      * @return sqrtPriceX96After The sqrt price of the pool after the swap
      * @return initializedTicksCrossed The number of initialized ticks that the swap crossed
-     * @return gasEstimate The estimate of the gas that the swap consumes
+     * @return amountConsumed The part of `amount` received, lower than `amount` if the price limit is reached
+     * @return stepCostEstimate The estimate of the steps that the swap consumes
      */
     @External(readonly = true)
     public QuoteResult quoteExactOutputSingle (QuoteExactOutputSingleParams params) {
-        boolean zeroForOne = AddressUtils.compareTo(params.tokenIn, params.tokenOut) < 0;
         Address pool = getPool(params.tokenIn, params.tokenOut, params.fee);
 
         Context.require(pool != null, 
             "quoteExactOutputSingle: Pool doesn't exist");
 
-        var result = IConvexusPoolReadOnly.swap(this.readOnlyPool,
-            pool, 
-            Context.getAddress(), // ZERO_ADDRESS might cause issues with some tokens
-            zeroForOne,
-            params.amount.negate(),
-            params.sqrtPriceLimitX96.equals(ZERO)
-                ? (zeroForOne ? TickMath.MIN_SQRT_RATIO.add(ONE) : TickMath.MAX_SQRT_RATIO.subtract(ONE))
-                : params.sqrtPriceLimitX96,
+        var result = quoteExactOutputSinglePool(
+            pool,
+            params.tokenIn,
+            params.tokenOut,
+            params.amount,
+            params.sqrtPriceLimitX96,
             BytesUtils.concat(
                 params.tokenOut.toByteArray(), 
                 BytesUtils.intToBytes(params.fee), 
                 params.tokenIn.toByteArray())
         );
 
-        return handleResult(result, pool);
+        Context.require(!params.requireFullFill || result.amountConsumed.equals(params.amount),
+            "quoteExactOutputSingle: Price limit reached before amount is filled");
+
+        return result;
     }
 
     /**
@@ -350,23 +351,20 @@ public class Quoter {
         int[] initializedTicksCrossedList = new int[numPools];
 
         int i = 0;
+        int offset = 0;
         while (true) {
-            var firstPool = Path.decodeFirstPool(path);
-            Address tokenIn = firstPool.tokenA;
-            Address tokenOut = firstPool.tokenB;
+            // the path is reversed: each hop is encoded as (tokenOut, fee, tokenIn)
+            var firstPool = Path.decodePool(path, offset);
+            Address tokenOut = firstPool.tokenA;
+            Address tokenIn = firstPool.tokenB;
             int fee = firstPool.fee;
+
+            Address pool = getPool(tokenIn, tokenOut, fee);
+            Context.require(pool != null, 
+                "quoteExactOutput: Pool doesn't exist");
             
             // the inputs of prior swaps become the outputs of subsequent ones
-            var result =
-            quoteExactOutputSingle(
-                    new QuoteExactOutputSingleParams(
-                        tokenIn,
-                        tokenOut,
-                        amountOut,
-                        fee,
-                        ZERO
-                    )
-                );
+            var result = quoteExactOutputSinglePool(pool, tokenIn, tokenOut, amountOut, ZERO, Path.getPool(path, offset));
             
             BigInteger _amountIn = result.amountOut;
             BigInteger _sqrtPriceX96After = result.sqrtPriceX96After;
@@ -378,14 +376,137 @@ public class Quoter {
             i++;
             
             // decide whether to continue or terminate
-            if (Path.hasMultiplePools(path)) {
-                path = Path.skipToken(path);
+            if (Path.hasMultiplePools(path, offset)) {
+                offset = Path.skipToken(offset);
             } else {
                 return new QuoteMultiResult(amountOut, sqrtPriceX96AfterList, initializedTicksCrossedList);
             }
         }
     }
 
+    /**
+     * @dev Simulates an exact input swap of `tokenIn` for `tokenOut` through a simulator
+     */
+    private SimulationResult simulateExactInput (
+        PoolSimulator simulator,
+        Address tokenIn,
+        Address tokenOut,
+        BigInteger amountIn
+    ) {
+        boolean zeroForOne = AddressUtils.compareTo(tokenIn, tokenOut) < 0;
+        var result = simulator.swap(zeroForOne, amountIn, PoolSimulator.noPriceLimit(zeroForOne));
+
+        Context.require(
+            result.amount0.compareTo(ZERO) > 0 
+        ||  result.amount1.compareTo(ZERO) > 0, 
+            "simulateExactInput: swaps entirely within 0-liquidity regions are not supported");
+
+        return result;
+    }
+
+    /**
+     * @notice Returns the amounts out received for many exact input amounts on the same path without executing the swaps
+     * @dev Every amount is quoted independently against the current state of the pools. The pools state read
+     * during the quote of an amount is reused by the next ones.
+     * @param params The params for the quotes, encoded as `QuoteExactInputBatchParams`
+     * @return For each amount, the amount of the last token that would be received, the sqrt price after the swap
+     * and the initialized ticks crossed for each pool in the path
+     */
+    @External(readonly = true)
+    public QuoteMultiResult[] quoteExactInputBatch (
+        QuoteExactInputBatchParams params
+    ) {
+        byte[] path = params.path;
+        int numPools = Path.numPools(path);
+        PoolSimulators simulators = new PoolSimulators(this.factory);
+
+        // decode the path only once for all the amounts
+        Address[] tokensIn = new Address[numPools];
+        Address[] tokensOut = new Address[numPools];
+        PoolSimulator[] pools = new PoolSimulator[numPools];
+
+        int offset = 0;
+        for (int i = 0; i < numPools; i++) {
+            var firstPool = Path.decodePool(path, offset);
+            tokensIn[i] = firstPool.tokenA;
+            tokensOut[i] = firstPool.tokenB;
+            pools[i] = simulators.get(firstPool.tokenA, firstPool.tokenB, firstPool.fee);
+            Context.require(pools[i] != null, 
+                "quoteExactInputBatch: Pool doesn't exist");
+            if (Path.hasMultiplePools(path, offset)) {
+                offset = Path.skipToken(offset);
+            }
+        }
+
+        QuoteMultiResult[] results = new QuoteMultiResult[params.amountsIn.length];
+
+        for (int j = 0; j < params.amountsIn.length; j++) {
+            BigInteger amountIn = params.amountsIn[j];
+            BigInteger[] sqrtPriceX96AfterList = new BigInteger[numPools];
+            int[] initializedTicksCrossedList = new int[numPools];
+
+            for (int i = 0; i < numPools; i++) {
+                var result = simulateExactInput(pools[i], tokensIn[i], tokensOut[i], amountIn);
+                boolean zeroForOne = AddressUtils.compareTo(tokensIn[i], tokensOut[i]) < 0;
+                sqrtPriceX96AfterList[i] = result.sqrtPriceX96After;
+                initializedTicksCrossedList[i] = result.initializedTicksCrossed;
+                // the outputs of prior swaps become the inputs to subsequent ones
+                amountIn = (zeroForOne ? result.amount1 : result.amount0).negate();
+            }
+
+            results[j] = new QuoteMultiResult(amountIn, sqrtPriceX96AfterList, initializedTicksCrossedList);
+        }
+
+        return results;
+    }
+
+    /**
+     * @notice Returns the best exact input route between two tokens without executing the swap
+     * @dev Every route going through the given intermediate tokens and fee tiers, up to `maxHops` pools,
+     * is quoted against the current state of the pools. The pools state is shared between all the routes.
+     * @param params The params for the route search, encoded as `QuoteBestRouteParams`
+     * @return path The encoded path of the best route
+     * @return amountOut The amount of `tokenOut` that would be received through the best route
+     * @return sqrtPriceX96AfterList List of the sqrt price after the swap for each pool in the path
+     * @return initializedTicksCrossedList List of the initialized ticks that the swap crossed for each pool in the path
+     */
+    @External(readonly = true)
+    public QuoteBestRouteResult quoteBestRoute (
+        QuoteBestRouteParams params
+    ) {
+        Context.require(params.maxHops > 0 && params.maxHops <= MAX_HOPS, 
+            "quoteBestRoute: Invalid maxHops");
+        Context.require(params.intermediates.length <= MAX_INTERMEDIATES, 
+            "quoteBestRoute: Too many intermediate tokens");
+        Context.require(params.amountIn.compareTo(ZERO) > 0, 
+            "quoteBestRoute: amountIn must be positive");
+
+        // only keep the fee tiers enabled in the factory
+        int enabled = 0;
+        int[] fees = new int[params.fees.length];
+        for (int fee : params.fees) {
+            if (IConvexusFactory.feeAmountTickSpacing(this.factory, fee) != 0) {
+                fees[enabled++] = fee;
+            }
+        }
+        int[] enabledFees = new int[enabled];
+        System.arraycopy(fees, 0, enabledFees, 0, enabled);
+
+        var result = new RouteFinder(
+            new PoolSimulators(this.factory),
+            params.tokenIn,
+            params.tokenOut,
+            params.intermediates,
+            enabledFees,
+            params.maxHops
+        ).find(params.amountIn);
+
+        Context.require(result != null, 
+            "quoteBestRoute: No route found");
+
+        return result;
+    }
+
     // ================================================
     // Public variable getters
     // ================================================
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.periphery.quoter;
+
+import static java.math.BigInteger.ZERO;
+
+import java.math.BigInteger;
+
+import exchange.convexus.periphery.librairies.Path;
+import exchange.convexus.periphery.librairies.PoolSimulator;
+import exchange.convexus.utils.AddressUtils;
+import score.Address;
+
+/**
+ * @title Exhaustive search of the best exact input route
+ * @notice Evaluates every route from tokenIn to tokenOut going through the intermediate tokens
+ * and fee tiers, up to a maximum number of hops, and keeps the one with the highest output
+ * @dev Routes are explored depth-first: the quote of a route prefix is computed once and shared
+ * by all the routes starting with it. Pools are simulated through shared `PoolSimulators`.
+ * A pool that cannot swap the whole amount within `MAX_WORDS_CROSSED` words isn't a candidate.
+ */
+class RouteFinder {
+
+    // ================================================
+    // Consts
+    // ================================================
+    // Tick bitmap words a candidate swap may walk through. A word spans 256 tick spacings:
+    // with the smallest spacing (10), 32 words move the price more than 3000 times, while
+    // a pool without liquidity in range would be read word by word up to the min or max tick
+    static final int MAX_WORDS_CROSSED = 32;
+    private final PoolSimulators simulators;
+    private final Address tokenOut;
+    private final Address[] intermediates;
+    private final int[] fees;
+    private final int maxHops;
+
+    // ================================================
+    // Search state
+    // ================================================
+    // The route being explored
+    private final Address[] tokens;
+    private final Integer[] routeFees;
+    private final BigInteger[] sqrtPriceX96AfterList;
+    private final int[] initializedTicksCrossedList;
+
+    // The best route found so far
+    private QuoteBestRouteResult best = null;
+
+    public RouteFinder (
+        PoolSimulators simulators,
+        Address tokenIn,
+        Address tokenOut,
+        Address[] intermediates,
+        int[] fees,
+        int maxHops
+    ) {
+        this.simulators = simulators;
+        this.tokenOut = tokenOut;
+        this.intermediates = intermediates;
+        this.fees = fees;
+        this.maxHops = maxHops;
+
+        this.tokens = new Address[maxHops + 1];
+        this.routeFees = new Integer[maxHops];
+        this.sqrtPriceX96AfterList = new BigInteger[maxHops];
+        this.initializedTicksCrossedList = new int[maxHops];
+        this.tokens[0] = tokenIn;
+    }
+
+    // ================================================
+    // Methods
+    // ================================================
+    /**
+     * @notice Search the best route for a given input amount
+     * @return The best route, or null if tokenOut cannot be reached
+     */
+    public QuoteBestRouteResult find (BigInteger amountIn) {
+        this.search(0, amountIn);
+        return this.best;
+    }
+
+    private boolean visited (Address token, int hops) {
+        for (int i = 0; i <= hops; i++) {
+            if (this.tokens[i].equals(token)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void search (int hops, BigInteger amountIn) {
+        // tokenOut is always tried first, so shorter routes win ties
+        explore(hops, this.tokenOut, amountIn);
+
+        // an intermediate token requires at least one more hop
+        if (hops + 2 <= this.maxHops) {
+            for (Address intermediate : this.intermediates) {
+                if (!intermediate.equals(this.tokenOut)) {
+                    explore(hops, intermediate, amountIn);
+                }
+            }
+        }
+    }
+
+    private void explore (int hops, Address next, BigInteger amountIn) {
+        Address current = this.tokens[hops];
+        if (visited(next, hops)) {
+            return;
+        }
+
+        boolean zeroForOne = AddressUtils.compareTo(current, next) < 0;
+
+        for (int fee : this.fees) {
+            PoolSimulator simulator = this.simulators.get(current, next, fee);
+            if (simulator == null || !simulator.isSwappable(zeroForOne)) {
+                continue;
+            }
+
+            var result = simulator.swap(zeroForOne, amountIn, PoolSimulator.noPriceLimit(zeroForOne), MAX_WORDS_CROSSED);
+            BigInteger amountOut = (zeroForOne ? result.amount1 : result.amount0).negate();
+            // the pool cannot fill the whole amount within the bound
+            if (amountOut.compareTo(ZERO) <= 0 || !result.amountConsumed.equals(amountIn)) {
+                continue;
+            }
+
+            this.tokens[hops + 1] = next;
+            this.routeFees[hops] = fee;
+            this.sqrtPriceX96AfterList[hops] = result.sqrtPriceX96After;
+            this.initializedTicksCrossedList[hops] = result.initializedTicksCrossed;
+
+            if (next.equals(this.tokenOut)) {
+                if (this.best == null || amountOut.compareTo(this.best.amountOut) > 0) {
+                    this.best = snapshot(hops + 1, amountOut);
+                }
+            } else {
+                search(hops + 1, amountOut);
+            }
+        }
+    }
+
+    private QuoteBestRouteResult snapshot (int hops, BigInteger amountOut) {
+        Address[] pathTokens = new Address[hops + 1];
+        Integer[] pathFees = new Integer[hops];
+        BigInteger[] sqrtPrices = new BigInteger[hops];
+        int[] ticksCrossed = new int[hops];
+
+        System.arraycopy(this.tokens, 0, pathTokens, 0, hops + 1);
+        System.arraycopy(this.routeFees, 0, pathFees, 0, hops);
+        System.arraycopy(this.sqrtPriceX96AfterList, 0, sqrtPrices, 0, hops);
+        System.arraycopy(this.initializedTicksCrossedList, 0, ticksCrossed, 0, hops);
+
+        return new QuoteBestRouteResult(
+            Path.encodePath(pathTokens, pathFees),
+            amountOut,
+            sqrtPrices,
+            ticksCrossed
+        );
+    }
+}
@@ -29,7 +29,7 @@ import exchange.convexus.periphery.interfaces.callback.IConvexusLiquidityManagem
 import exchange.convexus.periphery.librairies.CallbackValidation;
 import exchange.convexus.periphery.librairies.Path;
 import exchange.convexus.periphery.librairies.PeripheryPayments;
-import exchange.convexus.periphery.librairies.PoolAddressLib;
+import exchange.convexus.periphery.librairies.PoolAddressCache;
 import exchange.convexus.periphery.liquidity.ConvexusLiquidityManagement;
 import exchange.convexus.pool.IConvexusPool;
 import exchange.convexus.pool.PairAmounts;
@@ -41,11 +41,11 @@ import exchange.convexus.utils.ICX;
 import exchange.convexus.utils.IntUtils;
 import exchange.convexus.utils.ReentrancyLock;
 import exchange.convexus.utils.TimeUtils;
+import exchange.convexus.utils.TransientVarDB;
 import score.Address;
 import score.ByteArrayObjectWriter;
 import score.Context;
 import score.ObjectReader;
-import score.VarDB;
 import score.annotation.External;
 import score.annotation.Optional;
 import score.annotation.Payable;
@@ -73,16 +73,24 @@ public class SwapRouter
   /// can never actually be this value
   private BigInteger DEFAULT_AMOUNT_IN_CACHED = IntUtils.MAX_UINT256;
 
+  /// @dev First byte of the binary tokenFallback payloads. A JSON payload can't start with this byte,
+  /// so both encodings can be told apart without any parsing
+  public static final byte BINARY_PAYLOAD_VERSION = 0x01;
+
   // address of the Convexus factory
   public final Address factory;
 
   // Liquidity Manager
   private final ConvexusLiquidityManagement liquidityMgr;
 
+  // Pool addresses registry, shared with the liquidity manager
+  private final PoolAddressCache pools;
+
   // ================================================
   // DB Variables
   // ================================================
-  private final VarDB<BigInteger> amountInCached = Context.newVarDB(NAME + "_amountInCached", BigInteger.class);
+  // Only meaningful within the transaction of an exact output swap, so it never needs to be reset
+  private final TransientVarDB<BigInteger> amountInCached = new TransientVarDB<>(NAME + "_transientAmountInCached", BigInteger.class);
   private final ReentrancyLock reentreancy = new ReentrancyLock(NAME + "_reentreancy");
 
   // ================================================
@@ -99,6 +107,7 @@ public class SwapRouter
     this.name = "Convexus Swap Router";
     this.factory = factory;
     this.liquidityMgr = new ConvexusLiquidityManagement(factory);
+    this.pools = this.liquidityMgr.getPools();
   }
 
   /**
@@ -109,7 +118,7 @@ public class SwapRouter
     Address tokenB,
     int fee
   ) {
-    return PoolAddressLib.getPool(factory, PoolAddressLib.getPoolKey(tokenA, tokenB, fee));
+    return this.pools.getPool(tokenA, tokenB, fee);
   }
 
   /**
@@ -139,7 +148,7 @@ public class SwapRouter
     Address tokenOut = pool.tokenB;
     int fee = pool.fee;
 
-    CallbackValidation.verifyCallback(this.factory, tokenIn, tokenOut, fee);
+    CallbackValidation.verifyCallback(this.pools, tokenIn, tokenOut, fee);
 
     boolean isExactInput;
     BigInteger amountToPay;
@@ -215,9 +224,10 @@ public class SwapRouter
    * @param tokenIn: The tokenIn address. This field is handled by tokenFallback
    * @param amountInMaximum: The maximum amount of `token0` willing to be swapped for the specified amountOut of `token1`. This field is handled by tokenFallback.
    * @param params The parameters necessary for the swap, encoded as `ExactOutputSingleParams`
+   * @return amountIn The amount of `tokenIn` swapped, the excess is left to the caller of this method
    */
   // @External - this method is external through tokenFallback
-  private void exactOutputSingle (
+  private BigInteger exactOutputSingle (
     Address caller,
     Address tokenIn,
     BigInteger amountInMaximum,
@@ -244,16 +254,23 @@ public class SwapRouter
     Context.require(amountIn.compareTo(amountInMaximum) <= 0, 
       "exactOutputSingle: Too much requested");
 
-    // has to be reset even though we don't use it in the single hop case
-    this.amountInCached.set(DEFAULT_AMOUNT_IN_CACHED);
+    reentreancy.lock(false);
+    return amountIn;
+  }
 
-    // send back the tokens excess to the caller if there's any
+  /**
+   * @dev Sends back the `tokenIn` excess of an exact output swap to the caller if there's any
+   */
+  private void refundExcess (
+    Address caller,
+    Address tokenIn,
+    BigInteger amountInMaximum,
+    BigInteger amountIn
+  ) {
     BigInteger excess = amountInMaximum.subtract(amountIn);
     if (excess.compareTo(ZERO) > 0) {
       IIRC2ICX.transfer(tokenIn, caller, excess, "excess");
     }
-
-    reentreancy.lock(false);
   }
 
   /**
@@ -282,19 +299,85 @@ public class SwapRouter
     Context.require(pool.tokenA.equals(tokenIn), 
       "exactInput: Path doesn't match with the token sent");
 
+    BigInteger amountOut = exactInputPath(caller, amountIn, params.path, params.recipient);
+
+    Context.require(amountOut.compareTo(params.amountOutMinimum) >= 0, 
+      "exactInput: Too little received");
+
+    reentreancy.lock(false);
+  }
+
+  /**
+   * @notice Swaps `amountIn` of one token for as much as possible of another, split over several paths
+   * 
+   * Access: Everyone
+   * 
+   * @param caller: The method caller. This field is handled by tokenFallback
+   * @param tokenIn: The tokenIn address. This field is handled by tokenFallback
+   * @param amountIn The token amount sent. This field is handled by tokenFallback
+   * @param params The parameters necessary for the split swap, encoded as `ExactInputSplitParams`
+   */
+  // @External - this method is external through tokenFallback
+  private void exactInputSplit (
+    Address caller,
+    Address tokenIn,
+    BigInteger amountIn,
+    ExactInputSplitParams params
+  ) {
+    reentreancy.lock(true);
+    this.checkDeadline(params.deadline);
+
+    Context.require(params.paths.length > 0 && params.paths.length == params.amountsIn.length, 
+      "exactInputSplit: Invalid legs");
+
+    Address tokenOut = Path.decodeLastPool(params.paths[0]).tokenB;
+    BigInteger amountInTotal = ZERO;
     BigInteger amountOut = ZERO;
-    Address payer = caller; // caller pays for the first hop
+
+    for (int i = 0; i < params.paths.length; i++) {
+      byte[] path = params.paths[i];
+      Context.require(Path.decodeFirstPool(path).tokenA.equals(tokenIn),
+        "exactInputSplit: Path doesn't match with the token sent");
+      Context.require(Path.decodeLastPool(path).tokenB.equals(tokenOut),
+        "exactInputSplit: Paths don't end with the same token");
+      Context.require(params.amountsIn[i].compareTo(ZERO) > 0,
+        "exactInputSplit: Invalid leg amount");
+
+      amountInTotal = amountInTotal.add(params.amountsIn[i]);
+      amountOut = amountOut.add(exactInputPath(caller, params.amountsIn[i], path, params.recipient));
+    }
+
+    Context.require(amountInTotal.equals(amountIn), 
+      "exactInputSplit: Legs amounts don't match with the amount sent");
+
+    Context.require(amountOut.compareTo(params.amountOutMinimum) >= 0, 
+      "exactInputSplit: Too little received");
+
+    reentreancy.lock(false);
+  }
+
+  /**
+   * @dev Swaps `amountIn` along `path`, hop by hop
+   * @return amountOut The amount of the last token of the path sent to `recipient`
+   */
+  private BigInteger exactInputPath (
+    Address payer,
+    BigInteger amountIn,
+    byte[] path,
+    Address recipient
+  ) {
+    int offset = 0; // the hops are decoded in place from the path
 
     while (true) {
-      boolean hasMultiplePools = Path.hasMultiplePools(params.path);
+      boolean hasMultiplePools = Path.hasMultiplePools(path, offset);
 
       // the outputs of prior swaps become the inputs to subsequent ones
       amountIn = exactInputInternal(
         amountIn, 
-        hasMultiplePools ? Context.getAddress() : params.recipient, // for intermediate swaps, this contract custodies
+        hasMultiplePools ? Context.getAddress() : recipient, // for intermediate swaps, this contract custodies
         ZERO, 
         new SwapCallbackData(
-          Path.getFirstPool(params.path), // only the first pool in the path is necessary
+          Path.getPool(path, offset), // only the pool of the current hop is necessary
           payer
         )
       );
@@ -302,17 +385,11 @@ public class SwapRouter
       // decide whether to continue or terminate
       if (hasMultiplePools) {
         payer = Context.getAddress(); // at this point, the caller has paid
-        params.path = Path.skipToken(params.path);
+        offset = Path.skipToken(offset);
       } else {
-        amountOut = amountIn;
-        break;
+        return amountIn;
       }
     }
-
-    Context.require(amountOut.compareTo(params.amountOutMinimum) >= 0, 
-      "exactInput: Too little received");
-
-    reentreancy.lock(false);
   }
 
   /**
@@ -324,9 +401,10 @@ public class SwapRouter
    * @param tokenIn: The tokenIn address. This field is handled by tokenFallback
    * @param amountInMaximum: The maximum amount of `token0` willing to be swapped for the specified amountOut of `token1`. This field is handled by tokenFallback.
    * @param params The parameters necessary for the swap, encoded as `ExactOutputParams`
+   * @return amountIn The amount of `tokenIn` swapped
    */
   // @External - this method is external through tokenFallback
-  private void exactOutput (
+  private BigInteger exactOutput (
     Address caller, 
     Address tokenIn, 
     BigInteger amountInMaximum, 
@@ -349,13 +427,13 @@ public class SwapRouter
       new SwapCallbackData(params.path, caller)
     );
 
-    BigInteger amountIn = this.amountInCached.get();
+    BigInteger amountIn = this.amountInCached.getOrDefault(DEFAULT_AMOUNT_IN_CACHED);
 
     Context.require(amountIn.compareTo(amountInMaximum) <= 0, 
       "exactOutput: Too much requested");
 
-    amountInCached.set(DEFAULT_AMOUNT_IN_CACHED);
     reentreancy.lock(false);
+    return amountIn;
   }
 
   /**
@@ -473,7 +551,9 @@ public class SwapRouter
   @External
   @Payable
   public void exactOutputSingleIcx (ExactOutputSingleParams params) {
-    exactOutputSingle(Context.getCaller(), ICX.getAddress(), Context.getValue(), params);
+    final Address caller = Context.getCaller();
+    final BigInteger value = Context.getValue();
+    refundExcess(caller, ICX.getAddress(), value, exactOutputSingle(caller, ICX.getAddress(), value, params));
   }
 
   @External
@@ -482,6 +562,12 @@ public class SwapRouter
     exactInput(Context.getCaller(), ICX.getAddress(), Context.getValue(), params);
   }
 
+  @External
+  @Payable
+  public void exactInputSplitIcx (ExactInputSplitParams params) {
+    exactInputSplit(Context.getCaller(), ICX.getAddress(), Context.getValue(), params);
+  }
+
   @External
   @Payable
   public void exactOutputIcx (ExactOutputParams params) {
@@ -494,8 +580,19 @@ public class SwapRouter
     this.liquidityMgr.depositIcx();
   }
   
+  /**
+   * @notice Entrypoint of the IRC2 token transfers
+   * @dev `_data` is either a JSON object `{"method": ..., "params": {"params": {...}}}`, or a binary payload:
+   * the `BINARY_PAYLOAD_VERSION` byte followed by the RLP encoded list `[method, params]`, where `params` is
+   * encoded with the `writeObject` method of the params class. The binary payload is cheaper to decode.
+   */
   @External
   public void tokenFallback (Address _from, BigInteger _value, @Optional byte[] _data) throws Exception {
+    if (_data != null && _data.length > 0 && _data[0] == BINARY_PAYLOAD_VERSION) {
+      binaryTokenFallback(_from, _value, _data);
+      return;
+    }
+
     Reader reader = new StringReader(new String(_data));
     JsonValue input = Json.parse(reader);
     JsonObject root = input.asObject();
@@ -512,7 +609,7 @@ public class SwapRouter
 
       case "exactOutputSingle": {
         JsonObject params = root.get("params").asObject().get("params").asObject();
-        exactOutputSingle(_from, token, _value, ExactOutputSingleParams.fromJson(params));
+        refundExcess(_from, token, _value, exactOutputSingle(_from, token, _value, ExactOutputSingleParams.fromJson(params)));
         break;
       }
 
@@ -528,6 +625,12 @@ public class SwapRouter
         break;
       }
 
+      case "exactInputSplit": {
+        JsonObject params = root.get("params").asObject().get("params").asObject();
+        exactInputSplit(_from, token, _value, ExactInputSplitParams.fromJson(params));
+        break;
+      }
+
       // "deposit" is coming from the Pool
       case "deposit": {
         // Accept the incoming token transfer
@@ -540,6 +643,101 @@ public class SwapRouter
     }
   }
 
+  private void binaryTokenFallback (Address _from, BigInteger _value, byte[] _data) {
+    byte[] payload = new byte[_data.length - 1];
+    System.arraycopy(_data, 1, payload, 0, payload.length);
+
+    ObjectReader reader = Context.newByteArrayObjectReader("RLPn", payload);
+    reader.beginList();
+    String method = reader.readString();
+    Address token = Context.getCaller();
+
+    if (method.equals("deposit")) {
+      deposit(_from, token, _value);
+    } else {
+      BigInteger amountIn = binarySwap(method, _from, token, _value, reader, "tokenFallback: Unimplemented tokenFallback action");
+      if (method.equals("exactOutputSingle")) {
+        refundExcess(_from, token, _value, amountIn);
+      }
+    }
+  }
+
+  /**
+   * @dev Executes the swap `method`, decoding its params from `reader`
+   * @return amountIn The amount of `tokenIn` swapped, less than `amount` for the exact output swaps
+   */
+  private BigInteger binarySwap (
+    String method, 
+    Address caller, 
+    Address tokenIn, 
+    BigInteger amount, 
+    ObjectReader reader, 
+    String unimplementedMessage
+  ) {
+    switch (method)
+    {
+      case "exactInputSingle":
+        exactInputSingle(caller, tokenIn, amount, ExactInputSingleParams.readObject(reader));
+        return amount;
+
+      case "exactOutputSingle":
+        return exactOutputSingle(caller, tokenIn, amount, ExactOutputSingleParams.readObject(reader));
+
+      case "exactInput":
+        exactInput(caller, tokenIn, amount, ExactInputParams.readObject(reader));
+        return amount;
+
+      case "exactOutput":
+        return exactOutput(caller, tokenIn, amount, ExactOutputParams.readObject(reader));
+
+      case "exactInputSplit":
+        exactInputSplit(caller, tokenIn, amount, ExactInputSplitParams.readObject(reader));
+        return amount;
+
+      default:
+        Context.revert(unimplementedMessage);
+        return null;
+    }
+  }
+
+  /**
+   * @notice Executes several calls in a single transaction
+   * 
+   * Access: Everyone
+   * 
+   * @dev Each call is the RLP encoded list `[method, ...arguments]`:
+   *  - `[method, tokenIn, amount, params]` for the swap methods (`exactInputSingle`, `exactOutputSingle`, `exactInput`, 
+   *    `exactOutput` and `exactInputSplit`), where `params` is encoded with the `writeObject` method of the params class.
+   *    The `amount` of `tokenIn` - the amount in, or the maximum amount in for exact output swaps - is spent from the 
+   *    funds previously deposited by the caller, and the excess of the exact output swaps is deposited back
+   *  - `["withdraw", token]` to withdraw the funds deposited by the caller
+   * @param calls The encoded calls, executed in order
+   */
+  @External
+  public void multicall (byte[][] calls) {
+    final Address caller = Context.getCaller();
+
+    for (byte[] call : calls) {
+      ObjectReader reader = Context.newByteArrayObjectReader("RLPn", call);
+      reader.beginList();
+      String method = reader.readString();
+
+      if (method.equals("withdraw")) {
+        this.liquidityMgr.withdraw(reader.readAddress());
+      } else {
+        Address tokenIn = reader.readAddress();
+        BigInteger amount = reader.readBigInteger();
+        this.liquidityMgr.spend(caller, tokenIn, amount);
+        BigInteger amountIn = binarySwap(method, caller, tokenIn, amount, reader, "multicall: Unimplemented method " + method);
+
+        BigInteger excess = amount.subtract(amountIn);
+        if (excess.compareTo(ZERO) > 0) {
+          this.liquidityMgr.deposit(caller, tokenIn, excess);
+        }
+      }
+    }
+  }
+
   // ================================================
   // Implements LiquidityManager
   // ================================================
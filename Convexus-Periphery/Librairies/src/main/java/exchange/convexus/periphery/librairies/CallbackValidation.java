@@ -45,4 +45,28 @@ public class CallbackValidation {
     Context.require(Context.getCaller().equals(pool), "verifyCallback: failed");
     return pool;
   }
+
+  /**
+   * @notice Returns the address of a valid Convexus Pool, resolved through a pool addresses registry
+   * @param pools The pool addresses registry
+   * @param tokenA The contract address of either token0 or token1
+   * @param tokenB The contract address of the other token
+   * @param fee The fee collected upon every swap in the pool, denominated in hundredths of a bip
+   * @return pool The pool contract address
+   */
+  public static Address verifyCallback (PoolAddressCache pools, Address tokenA, Address tokenB, int fee) {
+    return verifyCallback (pools, PoolAddressLib.getPoolKey(tokenA, tokenB, fee));
+  }
+
+  /**
+   * @notice Returns the address of a valid Convexus Pool, resolved through a pool addresses registry
+   * @param pools The pool addresses registry
+   * @param poolKey The identifying key of the pool
+   * @return pool The pool contract address
+   */
+  public static Address verifyCallback (PoolAddressCache pools, PoolKey poolKey) {
+    Address pool = pools.getPool(poolKey);
+    Context.require(Context.getCaller().equals(pool), "verifyCallback: failed");
+    return pool;
+  }
 }
@@ -41,7 +41,17 @@ public class Path {
    * @return True if path contains two or more pools, otherwise false
    */
   public static boolean hasMultiplePools(byte[] path) {
-    return path.length >= MULTIPLE_POOLS_MIN_LENGTH;
+    return hasMultiplePools(path, 0);
+  }
+
+  /**
+   * @notice Returns true if the remainder of the path starting at `offset` contains two or more pools
+   * @param path The encoded swap path
+   * @param offset The offset of the current hop in the path
+   * @return True if the remainder of the path contains two or more pools, otherwise false
+   */
+  public static boolean hasMultiplePools(byte[] path, int offset) {
+    return path.length - offset >= MULTIPLE_POOLS_MIN_LENGTH;
   }
   
   /**
@@ -50,8 +60,18 @@ public class Path {
    * @return The number of pools in the path
    */
   public static int numPools(byte[] path) {
+    return numPools(path, 0);
+  }
+
+  /**
+   * @notice Returns the number of pools in the remainder of the path starting at `offset`
+   * @param path The encoded swap path
+   * @param offset The offset of the current hop in the path
+   * @return The number of pools in the remainder of the path
+   */
+  public static int numPools(byte[] path, int offset) {
     // Ignore the first token address. From then on every fee and token offset indicates a pool.
-    return ((path.length - ADDR_SIZE) / NEXT_OFFSET);
+    return ((path.length - offset - ADDR_SIZE) / NEXT_OFFSET);
   }
 
   /**
@@ -63,10 +83,24 @@ public class Path {
    *  fee The fee level of the pool
    */
   public static PoolData decodeFirstPool (byte[] path) {
+    return decodePool(path, 0);
+  }
+
+  /**
+   * @notice Decodes the pool starting at `offset` in path, without copying the remainder of the path
+   * @param path The bytes encoded swap path
+   * @param offset The offset of the pool in the path
+   * @return PoolData: 
+   *  tokenA The first token of the given pool
+   *  tokenB The second token of the given pool
+   *  fee The fee level of the pool
+   */
+  public static PoolData decodePool (byte[] path, int offset) {
+    Context.require(offset >= 0 && path.length - offset >= POP_OFFSET, "decodePool: Invalid path length");
     return new PoolData(
-      new Address(Arrays.copyOfRange(path, 0, ADDR_SIZE)),
-      new Address(Arrays.copyOfRange(path, NEXT_OFFSET, POP_OFFSET)),
-      BytesUtils.bytesToInt(Arrays.copyOfRange(path, ADDR_SIZE, NEXT_OFFSET))
+      readAddress(path, offset),
+      readAddress(path, offset + NEXT_OFFSET),
+      readFee(path, offset + ADDR_SIZE)
     );
   }
 
@@ -79,12 +113,21 @@ public class Path {
    *  fee The fee level of the pool
    */
   public static PoolData decodeLastPool (byte[] path) {
-    int start = path.length - POP_OFFSET;
-    return new PoolData(
-      new Address(Arrays.copyOfRange(path, start, start+ADDR_SIZE)),
-      new Address(Arrays.copyOfRange(path, start+NEXT_OFFSET, start+POP_OFFSET)),
-      BytesUtils.bytesToInt(Arrays.copyOfRange(path, start+ADDR_SIZE, start+NEXT_OFFSET))
-    );
+    return decodePool(path, path.length - POP_OFFSET);
+  }
+
+  private static Address readAddress (byte[] path, int offset) {
+    byte[] address = new byte[ADDR_SIZE];
+    System.arraycopy(path, offset, address, 0, ADDR_SIZE);
+    return new Address(address);
+  }
+
+  // Assume big endianess
+  private static int readFee (byte[] path, int offset) {
+    return ((path[offset] & 0xFF) << 24) 
+         | ((path[offset + 1] & 0xFF) << 16) 
+         | ((path[offset + 2] & 0xFF) << 8) 
+         | ((path[offset + 3] & 0xFF));
   }
 
   public static byte[] encodePath (PoolData obj) {
@@ -128,6 +171,17 @@ public class Path {
     return Arrays.copyOfRange(path, 0, POP_OFFSET);
   }
 
+  /**
+   * @notice Gets the segment corresponding to the pool starting at `offset` in the path
+   * @param path The bytes encoded swap path
+   * @param offset The offset of the pool in the path
+   * @return The segment containing all data necessary to target the pool
+   */
+  public static byte[] getPool(byte[] path, int offset) {
+    Context.require(offset >= 0 && path.length - offset >= POP_OFFSET, "getPool: Invalid path length");
+    return Arrays.copyOfRange(path, offset, offset + POP_OFFSET);
+  }
+
   /**
    * @notice Skips a token + fee element from the buffer and returns the remainder
    * @param path The swap path
@@ -137,4 +191,13 @@ public class Path {
     return Arrays.copyOfRange(path, NEXT_OFFSET, path.length);
   }
 
+  /**
+   * @notice Skips a token + fee element from the path without copying it
+   * @param offset The offset of the current hop in the path
+   * @return The offset of the next hop in the path
+   */
+  public static int skipToken(int offset) {
+    return offset + NEXT_OFFSET;
+  }
+
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package exchange.convexus.periphery.librairies;
+
+import exchange.convexus.pool.PoolAddress.PoolKey;
+import score.Address;
+import score.BranchDB;
+import score.Context;
+import score.DictDB;
+
+/**
+ * @title Pool addresses registry
+ * @notice Resolves the pool addresses through the factory, and keeps them in the contract storage
+ * @dev A pool address never changes once the pool is deployed, so it is stored on its first lookup and
+ * the following lookups don't call the factory anymore. Missing pools aren't stored. 
+ * The registry writes to the storage, so it cannot be used from a readonly method.
+ */
+public class PoolAddressCache {
+  // ================================================
+  // Consts
+  // ================================================
+  // Class name
+  private static final String NAME = "PoolAddressCache";
+
+  // address of the Convexus factory
+  private final Address factory;
+
+  // ================================================
+  // DB Variables
+  // ================================================
+  // token0 => token1 => fee => pool address
+  private final BranchDB<Address, BranchDB<Address, DictDB<Integer, Address>>> pools = Context.newBranchDB(NAME + "_pools", Address.class);
+
+  public PoolAddressCache (Address factory) {
+    this.factory = factory;
+  }
+
+  /**
+   * @notice Returns the pool address for a given pool key
+   * @param key The identifying key of the pool
+   * @return The pool address, or null if the pool doesn't exist
+   */
+  public Address getPool (PoolKey key) {
+    var pools = this.pools.at(key.token0).at(key.token1);
+    Address pool = pools.get(key.fee);
+
+    if (pool == null) {
+      pool = PoolAddressLib.getPool(this.factory, key);
+      if (pool != null) {
+        pools.set(key.fee, pool);
+      }
+    }
+
+    return pool;
+  }
+
+  /**
+   * @notice Returns the pool address for a given token pair and fee
+   * @param tokenA The first token of a pool, unsorted
+   * @param tokenB The second token of a pool, unsorted
+   * @param fee The fee level of the pool
+   * @return The pool address, or null if the pool doesn't exist
+   */
+  public Address getPool (Address tokenA, Address tokenB, int fee) {
+    return getPool(PoolAddressLib.getPoolKey(tokenA, tokenB, fee));
+  }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.periphery.librairies;
+
+import static java.math.BigInteger.ONE;
+import static java.math.BigInteger.ZERO;
+
+import java.math.BigInteger;
+import java.util.Map;
+
+import exchange.convexus.core.librairies.LiquidityMath;
+import exchange.convexus.core.librairies.SwapMath;
+import exchange.convexus.core.librairies.TickBitmapLib;
+import exchange.convexus.librairies.TickMath;
+import exchange.convexus.pool.IConvexusPool;
+import exchange.convexus.pool.PoolSettings;
+import exchange.convexus.pool.Slot0;
+import exchange.convexus.pool.Tick;
+import score.Address;
+import score.Context;
+import scorex.util.HashMap;
+
+/**
+ * @title In-memory swap simulation of a pool
+ * @notice Replays the pool swap loop against a snapshot of the pool state
+ * @dev The pool state (slot0, liquidity, settings, tick bitmap words and ticks liquidityNet)
+ * is read lazily and kept for the lifetime of the simulator, so successive simulations on
+ * the same pool within a readonly call only pay for the storage they haven't read yet.
+ * The simulator never writes to the pool: each simulation starts from the pool current state.
+ * This is the only copy of the swap loop in the periphery, the next initialized tick is looked up
+ * with the pool own `TickBitmapLib`.
+ */
+public class PoolSimulator implements TickBitmapLib.Words {
+
+    // ================================================
+    // Consts
+    // ================================================
+    // The simulated pool
+    public final Address pool;
+    // The pool state at the beginning of the simulations
+    private final Slot0 slot0;
+    private final BigInteger liquidity;
+    private final int fee;
+    private final int tickSpacing;
+
+    // ================================================
+    // Cache
+    // ================================================
+    // Tick bitmap words already read from the pool
+    private final Map<Integer, BigInteger> tickBitmap = new HashMap<>();
+    // Ticks liquidityNet already read from the pool
+    private final Map<Integer, BigInteger> liquidityNet = new HashMap<>();
+
+    public PoolSimulator (Address pool) {
+        this.pool = pool;
+        this.slot0 = IConvexusPool.slot0(pool);
+        this.liquidity = IConvexusPool.liquidity(pool);
+        PoolSettings settings = IConvexusPool.settings(pool);
+        this.fee = settings.fee;
+        this.tickSpacing = settings.tickSpacing;
+    }
+
+    // ================================================
+    // Methods
+    // ================================================
+    /**
+     * @notice Returns a tick bitmap word of the pool, read from the pool only once
+     */
+    public BigInteger get (int wordPos) {
+        BigInteger word = this.tickBitmap.get(wordPos);
+        if (word == null) {
+            word = IConvexusPool.tickBitmap(this.pool, wordPos);
+            this.tickBitmap.put(wordPos, word);
+        }
+        return word;
+    }
+
+    private BigInteger liquidityNet (int tick) {
+        BigInteger result = this.liquidityNet.get(tick);
+        if (result == null) {
+            Tick.Info info = IConvexusPool.ticks(this.pool, tick);
+            result = info == null ? ZERO : info.liquidityNet;
+            this.liquidityNet.put(tick, result);
+        }
+        return result;
+    }
+
+    public BigInteger sqrtPriceX96 () {
+        return this.slot0.sqrtPriceX96;
+    }
+
+    /**
+     * @notice Returns the widest price limit of a swap in a given direction
+     * @param zeroForOne The direction of the swap, true for token0 to token1, false for token1 to token0
+     */
+    public static BigInteger noPriceLimit (boolean zeroForOne) {
+        return zeroForOne ? TickMath.MIN_SQRT_RATIO.add(ONE) : TickMath.MAX_SQRT_RATIO.subtract(ONE);
+    }
+
+    /**
+     * @notice Returns true if the pool is initialized and its price can move in the swap direction
+     * @param zeroForOne The direction of the swap, true for token0 to token1, false for token1 to token0
+     */
+    public boolean isSwappable (boolean zeroForOne) {
+        BigInteger sqrtPriceX96 = this.slot0.sqrtPriceX96;
+        return !sqrtPriceX96.equals(ZERO)
+            && (zeroForOne
+                ? sqrtPriceX96.compareTo(TickMath.MIN_SQRT_RATIO.add(ONE)) > 0
+                : sqrtPriceX96.compareTo(TickMath.MAX_SQRT_RATIO.subtract(ONE)) < 0);
+    }
+
+    /**
+     * @notice Simulates a swap on the pool, without any callback
+     * @dev Same checks and same steps as `ConvexusPool::swap`. The fee growth, protocol fee and oracle
+     * updates of the pool swap don't change the swapped amounts, so they aren't simulated.
+     * @param zeroForOne The direction of the swap, true for token0 to token1, false for token1 to token0
+     * @param amountSpecified The amount of the swap, exact input (positive), or exact output (negative)
+     * @param sqrtPriceLimitX96 The Q64.96 sqrt price limit
+     */
+    public SimulationResult swap (
+        boolean zeroForOne,
+        BigInteger amountSpecified,
+        BigInteger sqrtPriceLimitX96
+    ) {
+        return swap(zeroForOne, amountSpecified, sqrtPriceLimitX96, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @notice Simulates a swap on the pool, reading at most `maxWordsCrossed` tick bitmap words past the first one
+     * @dev Without any initialized tick in range, a swap walks the bitmap word by word up to the min or max tick.
+     * When the bound is reached, the simulation stops there and `amountConsumed` is lower than the specified amount.
+     */
+    public SimulationResult swap (
+        boolean zeroForOne,
+        BigInteger amountSpecified,
+        BigInteger sqrtPriceLimitX96,
+        int maxWordsCrossed
+    ) {
+        Context.require(!amountSpecified.equals(ZERO),
+            "swap: amountSpecified must be different from zero");
+
+        Context.require (
+            zeroForOne
+                ? sqrtPriceLimitX96.compareTo(slot0.sqrtPriceX96) < 0 && sqrtPriceLimitX96.compareTo(TickMath.MIN_SQRT_RATIO) > 0
+                : sqrtPriceLimitX96.compareTo(slot0.sqrtPriceX96) > 0 && sqrtPriceLimitX96.compareTo(TickMath.MAX_SQRT_RATIO) < 0,
+            "swap: Wrong sqrtPriceLimitX96"
+        );
+
+        boolean exactInput = amountSpecified.compareTo(ZERO) > 0;
+
+        BigInteger amountSpecifiedRemaining = amountSpecified;
+        BigInteger amountCalculated = ZERO;
+        BigInteger sqrtPriceX96 = slot0.sqrtPriceX96;
+        int tick = slot0.tick;
+        BigInteger liquidity = this.liquidity;
+        int initializedTicksCrossed = 0;
+        int wordsCrossed = 0;
+
+        // continue swapping as long as we haven't used the entire input/output and haven't reached the price limit
+        while (
+            !amountSpecifiedRemaining.equals(ZERO)
+         && !sqrtPriceX96.equals(sqrtPriceLimitX96)
+         && wordsCrossed < maxWordsCrossed
+        ) {
+            BigInteger sqrtPriceStartX96 = sqrtPriceX96;
+
+            var next = TickBitmapLib.nextInitializedTickWithinOneWord(this, tick, this.tickSpacing, zeroForOne);
+            int tickNext = next.tickNext;
+
+            // ensure that we do not overshoot the min/max tick, as the tick bitmap is not aware of these bounds
+            if (tickNext < TickMath.MIN_TICK) {
+                tickNext = TickMath.MIN_TICK;
+            } else if (tickNext > TickMath.MAX_TICK) {
+                tickNext = TickMath.MAX_TICK;
+            }
+
+            // get the price for the next tick
+            BigInteger sqrtPriceNextX96 = TickMath.getSqrtRatioAtTick(tickNext);
+
+            // compute values to swap to the target tick, price limit, or point where input/output amount is exhausted
+            var swapStep = SwapMath.computeSwapStep(
+                sqrtPriceX96,
+                (zeroForOne ? sqrtPriceNextX96.compareTo(sqrtPriceLimitX96) < 0 : sqrtPriceNextX96.compareTo(sqrtPriceLimitX96) > 0)
+                    ? sqrtPriceLimitX96
+                    : sqrtPriceNextX96,
+                liquidity,
+                amountSpecifiedRemaining,
+                this.fee
+            );
+
+            sqrtPriceX96 = swapStep.sqrtRatioNextX96;
+
+            if (exactInput) {
+                amountSpecifiedRemaining = amountSpecifiedRemaining.subtract(swapStep.amountIn.add(swapStep.feeAmount));
+                amountCalculated = amountCalculated.subtract(swapStep.amountOut);
+            } else {
+                amountSpecifiedRemaining = amountSpecifiedRemaining.add(swapStep.amountOut);
+                amountCalculated = amountCalculated.add(swapStep.amountIn.add(swapStep.feeAmount));
+            }
+
+            // shift tick if we reached the next price
+            if (sqrtPriceX96.equals(sqrtPriceNextX96)) {
+                // if the tick is initialized, run the tick transition
+                if (next.initialized) {
+                    BigInteger liquidityNet = liquidityNet(tickNext);
+                    // if we're moving leftward, we interpret liquidityNet as the opposite sign
+                    if (zeroForOne) liquidityNet = liquidityNet.negate();
+
+                    liquidity = LiquidityMath.addDelta(liquidity, liquidityNet);
+                    initializedTicksCrossed++;
+                } else {
+                    // no initialized tick left in the word, the next step reads the following word
+                    wordsCrossed++;
+                }
+
+                tick = zeroForOne ? tickNext - 1 : tickNext;
+            } else if (sqrtPriceX96 != sqrtPriceStartX96) {
+                // recompute unless we're on a lower tick boundary (i.e. already transitioned ticks), and haven't moved
+                // the references are compared, the same way as the pool does
+                tick = TickMath.getTickAtSqrtRatio(sqrtPriceX96);
+            }
+        }
+
+        BigInteger amount0;
+        BigInteger amount1;
+
+        if (zeroForOne == exactInput) {
+            amount0 = amountSpecified.subtract(amountSpecifiedRemaining);
+            amount1 = amountCalculated;
+        } else {
+            amount0 = amountCalculated;
+            amount1 = amountSpecified.subtract(amountSpecifiedRemaining);
+        }
+
+        return new SimulationResult(
+            amount0, 
+            amount1, 
+            sqrtPriceX96, 
+            tick, 
+            initializedTicksCrossed, 
+            wordsCrossed, 
+            amountSpecified.subtract(amountSpecifiedRemaining).abs()
+        );
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.periphery.librairies;
+
+import java.math.BigInteger;
+
+public class SimulationResult {
+    // The delta of the balance of token0 of the pool
+    public BigInteger amount0;
+    // The delta of the balance of token1 of the pool
+    public BigInteger amount1;
+    // The sqrt price of the pool after the swap
+    public BigInteger sqrtPriceX96After;
+    // The tick of the pool after the swap
+    public int tickAfter;
+    // The number of initialized ticks crossed by the swap
+    public int initializedTicksCrossed;
+    // The number of tick bitmap words crossed by the swap
+    public int wordsCrossed;
+    // The absolute part of the specified amount swapped before reaching the price limit
+    public BigInteger amountConsumed;
+
+    public SimulationResult (
+        BigInteger amount0,
+        BigInteger amount1,
+        BigInteger sqrtPriceX96After,
+        int tickAfter,
+        int initializedTicksCrossed,
+        int wordsCrossed,
+        BigInteger amountConsumed
+    ) {
+        this.amount0 = amount0;
+        this.amount1 = amount1;
+        this.sqrtPriceX96After = sqrtPriceX96After;
+        this.tickAfter = tickAfter;
+        this.initializedTicksCrossed = initializedTicksCrossed;
+        this.wordsCrossed = wordsCrossed;
+        this.amountConsumed = amountConsumed;
+    }
+}
@@ -17,12 +17,45 @@
 package exchange.convexus.positionmgr;
 
 import java.math.BigInteger;
+import java.util.List;
+
+import exchange.convexus.pool.PairAmounts;
 import score.Address;
 import score.Context;
 
 public class INonFungiblePositionManager {
 
   // Write methods
+  public static PairAmounts[] collectMany (
+    Address positionManager, 
+    BigInteger[] tokenIds,
+    Address recipient
+  ) {
+    @SuppressWarnings("unchecked")
+    List<Object> result = (List<Object>) Context.call(positionManager, "collectMany", tokenIds, recipient);
+    PairAmounts[] amounts = new PairAmounts[result.size()];
+    for (int i = 0; i < amounts.length; i++) {
+      amounts[i] = PairAmounts.fromMap(result.get(i));
+    }
+    return amounts;
+  }
+
+  public static PairAmounts modifyPositions (
+    Address positionManager, 
+    ModifyPositionsParams params
+  ) {
+    return PairAmounts.fromMap(
+      Context.call(positionManager, "modifyPositions", params.toMap())
+    );
+  }
+
+  public static void withdraw (Address positionManager, Address token) {
+    Context.call(positionManager, "withdraw", token);
+  }
+
+  public static void withdraw (Address positionManager, Address token, BigInteger amount) {
+    Context.call(positionManager, "withdraw", token, amount);
+  }
 
   // ReadOnly methods
   public static PositionInformation positions (
@@ -38,6 +71,10 @@ public class INonFungiblePositionManager {
     return (Address) Context.call(positionManager, "factory");
   }
 
+  public static BigInteger deposited (Address positionManager, Address user, Address token) {
+    return (BigInteger) Context.call(positionManager, "deposited", user, token);
+  }
+
   public static MintResult mint (
     Address positionManager, 
     MintParams params
@@ -23,15 +23,44 @@ public class SwapResult {
   public BigInteger amount;
   public BigInteger sqrtPriceX96After;
   public int tickAfter;
+  // The number of initialized ticks crossed during the swap simulation
+  public int initializedTicksCrossed;
+  // The number of tick bitmap words crossed during the swap simulation
+  public int wordsCrossed;
+  // The part of the specified amount actually swapped, lower than the specified amount if the price limit is reached
+  public BigInteger amountConsumed;
 
   public SwapResult (
     BigInteger amount,
     BigInteger sqrtPriceX96After,
     int tickAfter
+  ) {
+    this(amount, sqrtPriceX96After, tickAfter, 0);
+  }
+
+  public SwapResult (
+    BigInteger amount,
+    BigInteger sqrtPriceX96After,
+    int tickAfter,
+    int initializedTicksCrossed
+  ) {
+    this(amount, sqrtPriceX96After, tickAfter, initializedTicksCrossed, 0, null);
+  }
+
+  public SwapResult (
+    BigInteger amount,
+    BigInteger sqrtPriceX96After,
+    int tickAfter,
+    int initializedTicksCrossed,
+    int wordsCrossed,
+    BigInteger amountConsumed
   ) {
     this.amount = amount;
     this.sqrtPriceX96After = sqrtPriceX96After;
     this.tickAfter = tickAfter;
+    this.initializedTicksCrossed = initializedTicksCrossed;
+    this.wordsCrossed = wordsCrossed;
+    this.amountConsumed = amountConsumed;
   }
 
   public SwapResult () {}
@@ -39,10 +68,16 @@ public class SwapResult {
   public static SwapResult fromMap (Object call) {
     @SuppressWarnings("unchecked")
     Map<String,Object> map = (Map<String,Object>) call;
+    // callees built against an older SwapResult don't report the swap statistics
+    BigInteger initializedTicksCrossed = (BigInteger) map.get("initializedTicksCrossed");
+    BigInteger wordsCrossed = (BigInteger) map.get("wordsCrossed");
     return new SwapResult (
       (BigInteger) map.get("amount"),
       (BigInteger) map.get("sqrtPriceX96After"),
-      ((BigInteger) map.get("tickAfter")).intValue()
+      ((BigInteger) map.get("tickAfter")).intValue(),
+      initializedTicksCrossed != null ? initializedTicksCrossed.intValue() : 0,
+      wordsCrossed != null ? wordsCrossed.intValue() : 0,
+      (BigInteger) map.get("amountConsumed")
     );
   }
 }
\ No newline at end of file
@@ -25,16 +25,32 @@ public class AddLiquidityResult {
     public BigInteger amount0;
     public BigInteger amount1;
     public Address pool;
+    // The fee growth inside the position's tick range, as of the liquidity addition
+    public BigInteger feeGrowthInside0LastX128;
+    public BigInteger feeGrowthInside1LastX128;
 
     public AddLiquidityResult (
         BigInteger liquidity,
         BigInteger amount0,
         BigInteger amount1,
         Address pool
+    ) {
+        this(liquidity, amount0, amount1, pool, null, null);
+    }
+
+    public AddLiquidityResult (
+        BigInteger liquidity,
+        BigInteger amount0,
+        BigInteger amount1,
+        Address pool,
+        BigInteger feeGrowthInside0LastX128,
+        BigInteger feeGrowthInside1LastX128
     ) {
         this.liquidity = liquidity;
         this.amount0 = amount0;
         this.amount1 = amount1;
         this.pool = pool;
+        this.feeGrowthInside0LastX128 = feeGrowthInside0LastX128;
+        this.feeGrowthInside1LastX128 = feeGrowthInside1LastX128;
     }
 }
\ No newline at end of file
@@ -19,6 +19,8 @@ package exchange.convexus.positionmgr;
 import java.math.BigInteger;
 
 import score.Address;
+import score.ObjectReader;
+import score.ObjectWriter;
 
 public class CollectParams {
     // The ID of the NFT for which tokens are being collected
@@ -43,4 +45,23 @@ public class CollectParams {
         this.amount0Max = amount0Max;
         this.amount1Max = amount1Max;
     }
+
+    public static CollectParams readObject (ObjectReader reader) {
+        reader.beginList();
+        BigInteger tokenId = reader.readBigInteger();
+        Address recipient = reader.readAddress();
+        BigInteger amount0Max = reader.readBigInteger();
+        BigInteger amount1Max = reader.readBigInteger();
+        reader.end();
+        return new CollectParams(tokenId, recipient, amount0Max, amount1Max);
+    }
+
+    public static void writeObject (ObjectWriter writer, CollectParams obj) {
+        writer.beginList(4);
+        writer.write(obj.tokenId);
+        writer.write(obj.recipient);
+        writer.write(obj.amount0Max);
+        writer.write(obj.amount1Max);
+        writer.end();
+    }
 }
\ No newline at end of file
@@ -18,6 +18,9 @@ package exchange.convexus.positionmgr;
 
 import java.math.BigInteger;
 
+import score.ObjectReader;
+import score.ObjectWriter;
+
 public class DecreaseLiquidityParams {
   // The ID of the token for which liquidity is being decreased
   public BigInteger tokenId;
@@ -45,4 +48,25 @@ public class DecreaseLiquidityParams {
     this.amount1Min = amount1Min;
     this.deadline = deadline;
   }
+
+  public static DecreaseLiquidityParams readObject (ObjectReader reader) {
+    reader.beginList();
+    BigInteger tokenId = reader.readBigInteger();
+    BigInteger liquidity = reader.readBigInteger();
+    BigInteger amount0Min = reader.readBigInteger();
+    BigInteger amount1Min = reader.readBigInteger();
+    BigInteger deadline = reader.readBigInteger();
+    reader.end();
+    return new DecreaseLiquidityParams(tokenId, liquidity, amount0Min, amount1Min, deadline);
+  }
+
+  public static void writeObject (ObjectWriter writer, DecreaseLiquidityParams obj) {
+    writer.beginList(5);
+    writer.write(obj.tokenId);
+    writer.write(obj.liquidity);
+    writer.write(obj.amount0Min);
+    writer.write(obj.amount1Min);
+    writer.write(obj.deadline);
+    writer.end();
+  }
 }
\ No newline at end of file
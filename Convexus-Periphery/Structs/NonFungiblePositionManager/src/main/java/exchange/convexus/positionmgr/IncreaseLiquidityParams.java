@@ -18,6 +18,9 @@ package exchange.convexus.positionmgr;
 
 import java.math.BigInteger;
 
+import score.ObjectReader;
+import score.ObjectWriter;
+
 public class IncreaseLiquidityParams {
     // The ID of the token for which liquidity is being increased
     public BigInteger tokenId;
@@ -49,4 +52,27 @@ public class IncreaseLiquidityParams {
         this.amount1Min = amount1Min;
         this.deadline = deadline;
     }
+
+    public static IncreaseLiquidityParams readObject (ObjectReader reader) {
+        reader.beginList();
+        BigInteger tokenId = reader.readBigInteger();
+        BigInteger amount0Desired = reader.readBigInteger();
+        BigInteger amount1Desired = reader.readBigInteger();
+        BigInteger amount0Min = reader.readBigInteger();
+        BigInteger amount1Min = reader.readBigInteger();
+        BigInteger deadline = reader.readBigInteger();
+        reader.end();
+        return new IncreaseLiquidityParams(tokenId, amount0Desired, amount1Desired, amount0Min, amount1Min, deadline);
+    }
+
+    public static void writeObject (ObjectWriter writer, IncreaseLiquidityParams obj) {
+        writer.beginList(6);
+        writer.write(obj.tokenId);
+        writer.write(obj.amount0Desired);
+        writer.write(obj.amount1Desired);
+        writer.write(obj.amount0Min);
+        writer.write(obj.amount1Min);
+        writer.write(obj.deadline);
+        writer.end();
+    }
 }
\ No newline at end of file
@@ -18,7 +18,13 @@ package exchange.convexus.positionmgr;
 
 import java.math.BigInteger;
 import java.util.Map;
+
+import com.eclipsesource.json.Json;
+import com.eclipsesource.json.JsonObject;
+import exchange.convexus.utils.StringUtils;
 import score.Address;
+import score.ObjectReader;
+import score.ObjectWriter;
 
 public class MintParams {
     // The first token of a pool, unsorted
@@ -87,4 +93,80 @@ public class MintParams {
             Map.entry("deadline", this.deadline)
         );
     }
+
+    public static MintParams fromJson (JsonObject params) {
+        return new MintParams(
+            Address.fromString(params.get("token0").asString()),
+            Address.fromString(params.get("token1").asString()),
+            StringUtils.toBigInt(params.get("fee").asString()).intValue(),
+            StringUtils.toBigInt(params.get("tickLower").asString()).intValue(),
+            StringUtils.toBigInt(params.get("tickUpper").asString()).intValue(),
+            StringUtils.toBigInt(params.get("amount0Desired").asString()),
+            StringUtils.toBigInt(params.get("amount1Desired").asString()),
+            StringUtils.toBigInt(params.get("amount0Min").asString()),
+            StringUtils.toBigInt(params.get("amount1Min").asString()),
+            Address.fromString(params.get("recipient").asString()),
+            StringUtils.toBigInt(params.get("deadline").asString())
+        );
+    }
+
+    public JsonObject toJson () {
+        return Json.object()
+            .add("token0", token0.toString())
+            .add("token1", token1.toString())
+            .add("fee", Integer.toString(fee))
+            .add("tickLower", Integer.toString(tickLower))
+            .add("tickUpper", Integer.toString(tickUpper))
+            .add("amount0Desired", amount0Desired.toString())
+            .add("amount1Desired", amount1Desired.toString())
+            .add("amount0Min", amount0Min.toString())
+            .add("amount1Min", amount1Min.toString())
+            .add("recipient", recipient.toString())
+            .add("deadline", deadline.toString());
+    }
+
+    public static MintParams readObject (ObjectReader reader) {
+        reader.beginList();
+        Address token0 = reader.readAddress();
+        Address token1 = reader.readAddress();
+        int fee = reader.readInt();
+        int tickLower = reader.readInt();
+        int tickUpper = reader.readInt();
+        BigInteger amount0Desired = reader.readBigInteger();
+        BigInteger amount1Desired = reader.readBigInteger();
+        BigInteger amount0Min = reader.readBigInteger();
+        BigInteger amount1Min = reader.readBigInteger();
+        Address recipient = reader.readAddress();
+        BigInteger deadline = reader.readBigInteger();
+        reader.end();
+        return new MintParams(
+            token0,
+            token1,
+            fee,
+            tickLower,
+            tickUpper,
+            amount0Desired,
+            amount1Desired,
+            amount0Min,
+            amount1Min,
+            recipient,
+            deadline
+        );
+    }
+
+    public static void writeObject (ObjectWriter writer, MintParams obj) {
+        writer.beginList(11);
+        writer.write(obj.token0);
+        writer.write(obj.token1);
+        writer.write(obj.fee);
+        writer.write(obj.tickLower);
+        writer.write(obj.tickUpper);
+        writer.write(obj.amount0Desired);
+        writer.write(obj.amount1Desired);
+        writer.write(obj.amount0Min);
+        writer.write(obj.amount1Min);
+        writer.write(obj.recipient);
+        writer.write(obj.deadline);
+        writer.end();
+    }
 }
\ No newline at end of file
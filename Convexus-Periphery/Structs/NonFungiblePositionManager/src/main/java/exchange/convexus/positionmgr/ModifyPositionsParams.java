@@ -0,0 +1,60 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package exchange.convexus.positionmgr;
+
+import java.math.BigInteger;
+import java.util.Map;
+
+public class ModifyPositionsParams {
+  // The IDs of the tokens for which liquidity is being modified, all in the same pool, sorted in ascending order
+  public BigInteger[] tokenIds;
+  // The liquidity to add to (positive) or remove from (negative) each token position
+  public BigInteger[] liquidityDeltas;
+  // The maximum net amount of token0 to pay, negative to require a minimum amount of token0 to receive
+  public BigInteger amount0Max;
+  // The maximum net amount of token1 to pay, negative to require a minimum amount of token1 to receive
+  public BigInteger amount1Max;
+  // The time by which the transaction must be included to effect the change
+  public BigInteger deadline;
+
+  public ModifyPositionsParams () {}
+
+  public ModifyPositionsParams (
+    BigInteger[] tokenIds,
+    BigInteger[] liquidityDeltas,
+    BigInteger amount0Max,
+    BigInteger amount1Max,
+    BigInteger deadline
+  ) {
+    this.tokenIds = tokenIds;
+    this.liquidityDeltas = liquidityDeltas;
+    this.amount0Max = amount0Max;
+    this.amount1Max = amount1Max;
+    this.deadline = deadline;
+  }
+
+  public Map<String, ?> toMap() {
+    return Map.of(
+      "tokenIds", this.tokenIds,
+      "liquidityDeltas", this.liquidityDeltas,
+      "amount0Max", this.amount0Max,
+      "amount1Max", this.amount1Max,
+      "deadline", this.deadline
+    );
+  }
+}
@@ -22,11 +22,17 @@ import static java.math.BigInteger.ZERO;
 import java.math.BigInteger;
 
 import score.Address;
+import score.ByteArrayObjectWriter;
+import score.Context;
 import score.ObjectReader;
 import score.ObjectWriter;
 
 // details about the convexus position
 public class NFTPosition {
+    // mask of the ticks packed with the pool ID, each tick fits in 24 bits
+    private static final int TICK_MASK = 0xFFFFFF;
+    private static final BigInteger TICKS_MASK = BigInteger.ONE.shiftLeft(48).subtract(BigInteger.ONE);
+
     // the nonce for permits
     public BigInteger nonce;
     // the address that is approved for spending this token
@@ -44,6 +50,8 @@ public class NFTPosition {
     // how many uncollected tokens are owed to the position, as of the last computation
     public BigInteger tokensOwed0;
     public BigInteger tokensOwed1;
+    // whether the position was read from the storage written before the compact encoding, never persisted
+    public boolean legacy;
 
     public NFTPosition (
         BigInteger nonce,
@@ -97,6 +105,66 @@ public class NFTPosition {
         w.write(obj.tokensOwed1);
       }
 
+    /**
+     * @notice Compact encoding of a position
+     * @dev The pool ID and the ticks are packed in a single integer, the operator and the nonce are only 
+     * written if set: `[poolId << 48 | tickLower << 24 | tickUpper, liquidity, feeGrowthInside0LastX128, 
+     * feeGrowthInside1LastX128, tokensOwed0, tokensOwed1, (operator, (nonce))]`
+     */
+    public static byte[] toBytes (NFTPosition obj) {
+        boolean hasNonce = obj.nonce.signum() != 0;
+        boolean hasOperator = hasNonce || !ZERO_ADDRESS.equals(obj.operator);
+        long ticks = ((long) (obj.tickLower & TICK_MASK) << 24) | (obj.tickUpper & TICK_MASK);
+
+        ByteArrayObjectWriter w = Context.newByteArrayObjectWriter("RLPn");
+        w.beginList(6 + (hasOperator ? 1 : 0) + (hasNonce ? 1 : 0));
+        w.write(obj.poolId.shiftLeft(48).or(BigInteger.valueOf(ticks)));
+        w.write(obj.liquidity);
+        w.write(obj.feeGrowthInside0LastX128);
+        w.write(obj.feeGrowthInside1LastX128);
+        w.write(obj.tokensOwed0);
+        w.write(obj.tokensOwed1);
+        if (hasOperator) {
+            w.writeNullable(ZERO_ADDRESS.equals(obj.operator) ? null : obj.operator);
+        }
+        if (hasNonce) {
+            w.write(obj.nonce);
+        }
+        w.end();
+        return w.toByteArray();
+    }
+
+    public static NFTPosition fromBytes (byte[] data) {
+        ObjectReader r = Context.newByteArrayObjectReader("RLPn", data);
+        r.beginList();
+        BigInteger packed = r.readBigInteger();
+        long ticks = packed.and(TICKS_MASK).longValue();
+        // sign-extend the 24 bits ticks
+        int tickLower = ((int) (ticks >>> 24)) << 8 >> 8;
+        int tickUpper = ((int) ticks) << 8 >> 8;
+        BigInteger liquidity = r.readBigInteger();
+        BigInteger feeGrowthInside0LastX128 = r.readBigInteger();
+        BigInteger feeGrowthInside1LastX128 = r.readBigInteger();
+        BigInteger tokensOwed0 = r.readBigInteger();
+        BigInteger tokensOwed1 = r.readBigInteger();
+        Address operator = r.hasNext() ? r.readNullable(Address.class) : null;
+        BigInteger nonce = r.hasNext() ? r.readBigInteger() : ZERO;
+        r.end();
+
+        return new NFTPosition(
+            nonce,
+            operator != null ? operator : ZERO_ADDRESS,
+            packed.shiftRight(48),
+            tickLower,
+            tickUpper,
+            liquidity,
+            feeGrowthInside0LastX128,
+            feeGrowthInside1LastX128,
+            tokensOwed0,
+            tokensOwed1
+        );
+    }
+
     public static NFTPosition empty() {
         return new NFTPosition (
             ZERO,
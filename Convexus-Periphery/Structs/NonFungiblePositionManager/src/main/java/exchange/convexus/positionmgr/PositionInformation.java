@@ -22,6 +22,8 @@ import java.util.Map;
 import score.Address;
 
 public class PositionInformation {
+    // The ID of the token that represents the position
+    public BigInteger tokenId;
     // The nonce for permits
     public BigInteger nonce;
     // The address that is approved for spending
@@ -47,6 +49,26 @@ public class PositionInformation {
     // The uncollected amount of token1 owed to the position as of the last computation
     public BigInteger tokensOwed1;
 
+    public PositionInformation (
+      BigInteger tokenId,
+      BigInteger nonce,
+      Address operator,
+      Address token0,
+      Address token1,
+      int fee,
+      int tickLower,
+      int tickUpper,
+      BigInteger liquidity,
+      BigInteger feeGrowthInside0LastX128,
+      BigInteger feeGrowthInside1LastX128,
+      BigInteger tokensOwed0,
+      BigInteger tokensOwed1
+    ) {
+      this(nonce, operator, token0, token1, fee, tickLower, tickUpper, liquidity, 
+        feeGrowthInside0LastX128, feeGrowthInside1LastX128, tokensOwed0, tokensOwed1);
+      this.tokenId = tokenId;
+    }
+
     public PositionInformation (
       BigInteger nonce,
       Address operator,
@@ -79,6 +101,8 @@ public class PositionInformation {
       @SuppressWarnings("unchecked")
       Map<String,Object> map = (Map<String,Object>) call;
       return new PositionInformation(
+        // positions read from an older position manager don't report their token ID
+        (BigInteger) map.get("tokenId"),
         (BigInteger) map.get("nonce"),
         (Address) map.get("operator"),
         (Address) map.get("token0"),
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.periphery.quoter;
+
+import java.math.BigInteger;
+import score.Address;
+
+public class QuoteBestRouteParams {
+    // The token being swapped in
+    public Address tokenIn;
+    // The token being swapped out
+    public Address tokenOut;
+    // The desired input amount
+    public BigInteger amountIn;
+    // The tokens that may be used between tokenIn and tokenOut
+    public Address[] intermediates;
+    // The fee tiers to consider for each hop, the ones not enabled in the factory are ignored
+    public int[] fees;
+    // The maximum number of pools in the route
+    public int maxHops;
+
+    public QuoteBestRouteParams (
+        Address tokenIn,
+        Address tokenOut,
+        BigInteger amountIn,
+        Address[] intermediates,
+        int[] fees,
+        int maxHops
+    ) {
+        this.tokenIn = tokenIn;
+        this.tokenOut = tokenOut;
+        this.amountIn = amountIn;
+        this.intermediates = intermediates;
+        this.fees = fees;
+        this.maxHops = maxHops;
+    }
+
+    public QuoteBestRouteParams () {}
+}
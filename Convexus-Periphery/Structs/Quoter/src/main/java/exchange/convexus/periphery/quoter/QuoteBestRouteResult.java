@@ -0,0 +1,64 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.periphery.quoter;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+import exchange.convexus.utils.ArrayUtils;
+
+public class QuoteBestRouteResult {
+    // The encoded path of the best route, to be used with `quoteExactInput` or `exactInput`
+    public byte[] path;
+    // The amount of tokenOut that would be received through the best route
+    public BigInteger amountOut;
+    // List of the sqrt price after the swap for each pool in the path
+    public BigInteger[] sqrtPriceX96AfterList;
+    // List of the initialized ticks that the swap crossed for each pool in the path
+    public int[] initializedTicksCrossedList;
+
+    public QuoteBestRouteResult (
+        byte[] path,
+        BigInteger amountOut,
+        BigInteger[] sqrtPriceX96AfterList,
+        int[] initializedTicksCrossedList
+    ) {
+        this.path = path;
+        this.amountOut = amountOut;
+        this.sqrtPriceX96AfterList = sqrtPriceX96AfterList;
+        this.initializedTicksCrossedList = initializedTicksCrossedList;
+    }
+
+    public QuoteBestRouteResult () {}
+
+    @SuppressWarnings("unchecked")
+    public static QuoteBestRouteResult fromMap (Object call) {
+        Map<String, Object> map = (Map<String, Object>) call;
+        var initializedTicksCrossed = (List<BigInteger>) map.get("initializedTicksCrossedList");
+        int[] initializedTicksCrossedList = new int[initializedTicksCrossed.size()];
+        for (int i = 0; i < initializedTicksCrossedList.length; i++) {
+            initializedTicksCrossedList[i] = initializedTicksCrossed.get(i).intValue();
+        }
+
+        return new QuoteBestRouteResult (
+            (byte[]) map.get("path"),
+            (BigInteger) map.get("amountOut"),
+            ArrayUtils.fromList((List<BigInteger>) map.get("sqrtPriceX96AfterList")),
+            initializedTicksCrossedList
+        );
+    }
+}
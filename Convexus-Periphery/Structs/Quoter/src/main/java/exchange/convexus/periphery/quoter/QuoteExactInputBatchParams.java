@@ -0,0 +1,36 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.periphery.quoter;
+
+import java.math.BigInteger;
+
+public class QuoteExactInputBatchParams {
+    // The path of the swap, i.e. each token pair and the pool fee
+    public byte[] path;
+    // The amounts of the first token to swap, each one being quoted independently
+    public BigInteger[] amountsIn;
+
+    public QuoteExactInputBatchParams (
+        byte[] path,
+        BigInteger[] amountsIn
+    ) {
+        this.path = path;
+        this.amountsIn = amountsIn;
+    }
+
+    public QuoteExactInputBatchParams () {}
+}
@@ -31,6 +31,8 @@ public class QuoteExactInputSingleParams {
     public int fee;
     // The price limit of the pool that cannot be exceeded by the swap
     public BigInteger sqrtPriceLimitX96;
+    // Revert instead of returning a partial quote when the price limit is reached before the amount is filled
+    public boolean requireFullFill;
 
     public QuoteExactInputSingleParams (
         Address tokenIn,
@@ -38,12 +40,24 @@ public class QuoteExactInputSingleParams {
         BigInteger amountIn,
         int fee,
         BigInteger sqrtPriceLimitX96
+    ) {
+        this(tokenIn, tokenOut, amountIn, fee, sqrtPriceLimitX96, false);
+    }
+
+    public QuoteExactInputSingleParams (
+        Address tokenIn,
+        Address tokenOut,
+        BigInteger amountIn,
+        int fee,
+        BigInteger sqrtPriceLimitX96,
+        boolean requireFullFill
     ) {
         this.tokenIn = tokenIn;
         this.tokenOut = tokenOut;
         this.amountIn = amountIn;
         this.fee = fee;
         this.sqrtPriceLimitX96 = sqrtPriceLimitX96;
+        this.requireFullFill = requireFullFill;
     }
 
     public QuoteExactInputSingleParams () {}
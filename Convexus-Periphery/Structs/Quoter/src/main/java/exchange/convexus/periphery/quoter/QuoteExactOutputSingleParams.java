@@ -31,6 +31,8 @@ public class QuoteExactOutputSingleParams {
     public int fee;
     // The price limit of the pool that cannot be exceeded by the swap
     public BigInteger sqrtPriceLimitX96;
+    // Revert instead of returning a partial quote when the price limit is reached before the amount is filled
+    public boolean requireFullFill;
 
     public QuoteExactOutputSingleParams (
         Address tokenIn,
@@ -38,12 +40,24 @@ public class QuoteExactOutputSingleParams {
         BigInteger amount,
         int fee,
         BigInteger sqrtPriceLimitX96
+    ) {
+        this(tokenIn, tokenOut, amount, fee, sqrtPriceLimitX96, false);
+    }
+
+    public QuoteExactOutputSingleParams (
+        Address tokenIn,
+        Address tokenOut,
+        BigInteger amount,
+        int fee,
+        BigInteger sqrtPriceLimitX96,
+        boolean requireFullFill
     ) {
         this.tokenIn = tokenIn;
         this.tokenOut = tokenOut;
         this.amount = amount;
         this.fee = fee;
         this.sqrtPriceLimitX96 = sqrtPriceLimitX96;
+        this.requireFullFill = requireFullFill;
     }
 
     public QuoteExactOutputSingleParams () {}
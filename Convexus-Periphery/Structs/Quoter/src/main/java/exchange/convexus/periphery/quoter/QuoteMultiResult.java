@@ -17,6 +17,9 @@
 package exchange.convexus.periphery.quoter;
 
 import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+import exchange.convexus.utils.ArrayUtils;
 
 public class QuoteMultiResult {
     // The amount of the last token that would be received
@@ -35,4 +38,22 @@ public class QuoteMultiResult {
         this.sqrtPriceX96AfterList = sqrtPriceX96AfterList;
         this.initializedTicksCrossedList = initializedTicksCrossedList;
     }
+
+    public QuoteMultiResult () {}
+
+    @SuppressWarnings("unchecked")
+    public static QuoteMultiResult fromMap (Object call) {
+        Map<String, Object> map = (Map<String, Object>) call;
+        var initializedTicksCrossed = (List<BigInteger>) map.get("initializedTicksCrossedList");
+        int[] initializedTicksCrossedList = new int[initializedTicksCrossed.size()];
+        for (int i = 0; i < initializedTicksCrossedList.length; i++) {
+            initializedTicksCrossedList[i] = initializedTicksCrossed.get(i).intValue();
+        }
+
+        return new QuoteMultiResult (
+            (BigInteger) map.get("amountOut"),
+            ArrayUtils.fromList((List<BigInteger>) map.get("sqrtPriceX96AfterList")),
+            initializedTicksCrossedList
+        );
+    }
 }
\ No newline at end of file
@@ -23,15 +23,23 @@ public class QuoteResult {
     public BigInteger amountOut;
     public BigInteger sqrtPriceX96After;
     public int initializedTicksCrossed;
+    // The part of the quoted amount actually swapped before reaching the price limit
+    public BigInteger amountConsumed;
+    // The estimated storage and call steps of the swap through the router, execution steps excluded
+    public BigInteger stepCostEstimate;
 
     public QuoteResult (
         BigInteger amountOut,
         BigInteger sqrtPriceX96After,
-        int initializedTicksCrossed
+        int initializedTicksCrossed,
+        BigInteger amountConsumed,
+        BigInteger stepCostEstimate
     ) {
         this.amountOut = amountOut;
         this.sqrtPriceX96After = sqrtPriceX96After;
         this.initializedTicksCrossed = initializedTicksCrossed;
+        this.amountConsumed = amountConsumed;
+        this.stepCostEstimate = stepCostEstimate;
     }
 
     public static QuoteResult fromMap(Object call) {
@@ -40,7 +48,9 @@ public class QuoteResult {
         return new QuoteResult (
             (BigInteger) map.get("amountOut"),
             (BigInteger) map.get("sqrtPriceX96After"),
-            ((BigInteger) map.get("initializedTicksCrossed")).intValue()
+            ((BigInteger) map.get("initializedTicksCrossed")).intValue(),
+            (BigInteger) map.get("amountConsumed"),
+            (BigInteger) map.get("stepCostEstimate")
         );
     }
 }
\ No newline at end of file
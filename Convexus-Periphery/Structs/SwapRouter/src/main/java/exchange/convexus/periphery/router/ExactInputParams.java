@@ -23,6 +23,8 @@ import com.eclipsesource.json.JsonObject;
 import exchange.convexus.interfaces.irc2.IRC2ICXParam;
 import exchange.convexus.utils.StringUtils;
 import score.Address;
+import score.ObjectReader;
+import score.ObjectWriter;
 
 public class ExactInputParams implements IRC2ICXParam {
     // The `path` is a sequence of [`tokenAddress`, `fee`, `tokenAddress`], encoded in *reverse order*, which are the variables needed to compute each pool contract address in our sequence of swaps. The multihop swap router code will automatically find the correct pool with these variables, and execute the swap needed within each pool in our sequence.
@@ -48,6 +50,25 @@ public class ExactInputParams implements IRC2ICXParam {
         this.amountOutMinimum = amountOutMinimum;
     }
 
+    public static ExactInputParams readObject (ObjectReader reader) {
+        reader.beginList();
+        byte[] path = reader.readByteArray();
+        Address recipient = reader.readAddress();
+        BigInteger deadline = reader.readBigInteger();
+        BigInteger amountOutMinimum = reader.readBigInteger();
+        reader.end();
+        return new ExactInputParams(path, recipient, deadline, amountOutMinimum);
+    }
+
+    public static void writeObject (ObjectWriter writer, ExactInputParams obj) {
+        writer.beginList(4);
+        writer.write(obj.path);
+        writer.write(obj.recipient);
+        writer.write(obj.deadline);
+        writer.write(obj.amountOutMinimum);
+        writer.end();
+    }
+
     public static ExactInputParams fromJson(JsonObject params) {
       return new ExactInputParams(
           StringUtils.hexToByteArray(params.get("path").asString()),
@@ -23,6 +23,8 @@ import com.eclipsesource.json.JsonObject;
 import exchange.convexus.interfaces.irc2.IRC2ICXParam;
 import exchange.convexus.utils.StringUtils;
 import score.Address;
+import score.ObjectReader;
+import score.ObjectWriter;
 
 public class ExactInputSingleParams implements IRC2ICXParam {
     // The contract address of the outbound token
@@ -56,6 +58,29 @@ public class ExactInputSingleParams implements IRC2ICXParam {
         this.sqrtPriceLimitX96 = sqrtPriceLimitX96;
     }
 
+    public static ExactInputSingleParams readObject (ObjectReader reader) {
+        reader.beginList();
+        Address tokenOut = reader.readAddress();
+        int fee = reader.readInt();
+        Address recipient = reader.readAddress();
+        BigInteger deadline = reader.readBigInteger();
+        BigInteger amountOutMinimum = reader.readBigInteger();
+        BigInteger sqrtPriceLimitX96 = reader.readBigInteger();
+        reader.end();
+        return new ExactInputSingleParams(tokenOut, fee, recipient, deadline, amountOutMinimum, sqrtPriceLimitX96);
+    }
+
+    public static void writeObject (ObjectWriter writer, ExactInputSingleParams obj) {
+        writer.beginList(6);
+        writer.write(obj.tokenOut);
+        writer.write(obj.fee);
+        writer.write(obj.recipient);
+        writer.write(obj.deadline);
+        writer.write(obj.amountOutMinimum);
+        writer.write(obj.sqrtPriceLimitX96);
+        writer.end();
+    }
+
     public static ExactInputSingleParams fromJson(JsonObject params) {
       return new ExactInputSingleParams(
           Address.fromString(params.get("tokenOut").asString()),
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.periphery.router;
+
+import java.math.BigInteger;
+
+import com.eclipsesource.json.Json;
+import com.eclipsesource.json.JsonArray;
+import com.eclipsesource.json.JsonObject;
+import exchange.convexus.interfaces.irc2.IRC2ICXParam;
+import exchange.convexus.utils.StringUtils;
+import score.Address;
+import score.ObjectReader;
+import score.ObjectWriter;
+
+public class ExactInputSplitParams implements IRC2ICXParam {
+    // The paths of each leg of the swap, encoded like `ExactInputParams.path`. All paths must start with the token sent and end with the same token.
+    public byte[][] paths;
+    // The amount of the token sent swapped through each path. The amounts must sum up to the amount sent.
+    public BigInteger[] amountsIn;
+    // The destination address of the outbound asset
+    public Address recipient;
+    // The unix time after which a transaction will be reverted, to protect against long delays and the increased chance of large price swings therein
+    public BigInteger deadline;
+    // The minimum amount of the outbound token received over all the paths
+    public BigInteger amountOutMinimum;
+
+    public ExactInputSplitParams () {}
+
+    public ExactInputSplitParams (
+      byte[][] paths,
+      BigInteger[] amountsIn,
+      Address recipient,
+      BigInteger deadline,
+      BigInteger amountOutMinimum
+    ) {
+        this.paths = paths;
+        this.amountsIn = amountsIn;
+        this.recipient = recipient;
+        this.deadline = deadline;
+        this.amountOutMinimum = amountOutMinimum;
+    }
+
+    public static ExactInputSplitParams readObject (ObjectReader reader) {
+        reader.beginList();
+        reader.beginList();
+        int size = reader.readInt();
+        byte[][] paths = new byte[size][];
+        BigInteger[] amountsIn = new BigInteger[size];
+        for (int i = 0; i < size; i++) {
+            paths[i] = reader.readByteArray();
+            amountsIn[i] = reader.readBigInteger();
+        }
+        reader.end();
+        Address recipient = reader.readAddress();
+        BigInteger deadline = reader.readBigInteger();
+        BigInteger amountOutMinimum = reader.readBigInteger();
+        reader.end();
+        return new ExactInputSplitParams(paths, amountsIn, recipient, deadline, amountOutMinimum);
+    }
+
+    public static void writeObject (ObjectWriter writer, ExactInputSplitParams obj) {
+        writer.beginList(4);
+        // legs: [size, path0, amountIn0, path1, amountIn1, ...]
+        writer.beginList(1 + 2 * obj.paths.length);
+        writer.write(obj.paths.length);
+        for (int i = 0; i < obj.paths.length; i++) {
+            writer.write(obj.paths[i]);
+            writer.write(obj.amountsIn[i]);
+        }
+        writer.end();
+        writer.write(obj.recipient);
+        writer.write(obj.deadline);
+        writer.write(obj.amountOutMinimum);
+        writer.end();
+    }
+
+    public static ExactInputSplitParams fromJson(JsonObject params) {
+      JsonArray paths = params.get("paths").asArray();
+      JsonArray amountsIn = params.get("amountsIn").asArray();
+      byte[][] decodedPaths = new byte[paths.size()][];
+      BigInteger[] decodedAmountsIn = new BigInteger[amountsIn.size()];
+      for (int i = 0; i < decodedPaths.length; i++) {
+        decodedPaths[i] = StringUtils.hexToByteArray(paths.get(i).asString());
+      }
+      for (int i = 0; i < decodedAmountsIn.length; i++) {
+        decodedAmountsIn[i] = StringUtils.toBigInt(amountsIn.get(i).asString());
+      }
+
+      return new ExactInputSplitParams(
+          decodedPaths,
+          decodedAmountsIn,
+          Address.fromString(params.get("recipient").asString()),
+          StringUtils.toBigInt(params.get("deadline").asString()),
+          StringUtils.toBigInt(params.get("amountOutMinimum").asString())
+        );
+    }
+
+    public JsonObject toJson() {
+        JsonArray paths = Json.array();
+        JsonArray amountsIn = Json.array();
+        for (int i = 0; i < this.paths.length; i++) {
+          paths.add(StringUtils.byteArrayToHex(this.paths[i]));
+          amountsIn.add(this.amountsIn[i].toString());
+        }
+
+        return Json.object()
+          .add("params", Json.object()
+            .add("paths", paths)
+            .add("amountsIn", amountsIn)
+            .add("recipient", this.recipient.toString())
+            .add("deadline", this.deadline.toString())
+            .add("amountOutMinimum", this.amountOutMinimum.toString()));
+    }
+
+    @Override
+    public Object[] toRaw() {
+      return new Object[] {
+        this.paths,
+        this.amountsIn,
+        this.recipient,
+        this.deadline,
+        this.amountOutMinimum
+      };
+    }
+}
@@ -23,6 +23,8 @@ import com.eclipsesource.json.JsonObject;
 import exchange.convexus.interfaces.irc2.IRC2ICXParam;
 import exchange.convexus.utils.StringUtils;
 import score.Address;
+import score.ObjectReader;
+import score.ObjectWriter;
 
 public class ExactOutputParams implements IRC2ICXParam {
     public byte[] path;
@@ -44,6 +46,25 @@ public class ExactOutputParams implements IRC2ICXParam {
         this.amountOut = amountOut;
     }
 
+    public static ExactOutputParams readObject (ObjectReader reader) {
+        reader.beginList();
+        byte[] path = reader.readByteArray();
+        Address recipient = reader.readAddress();
+        BigInteger deadline = reader.readBigInteger();
+        BigInteger amountOut = reader.readBigInteger();
+        reader.end();
+        return new ExactOutputParams(path, recipient, deadline, amountOut);
+    }
+
+    public static void writeObject (ObjectWriter writer, ExactOutputParams obj) {
+        writer.beginList(4);
+        writer.write(obj.path);
+        writer.write(obj.recipient);
+        writer.write(obj.deadline);
+        writer.write(obj.amountOut);
+        writer.end();
+    }
+
     public static ExactOutputParams fromJson(JsonObject params) {
       return new ExactOutputParams(
           StringUtils.hexToByteArray(params.get("path").asString()),
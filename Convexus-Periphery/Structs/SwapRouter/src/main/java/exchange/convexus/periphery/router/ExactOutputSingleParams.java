@@ -23,6 +23,8 @@ import com.eclipsesource.json.JsonObject;
 import exchange.convexus.interfaces.irc2.IRC2ICXParam;
 import exchange.convexus.utils.StringUtils;
 import score.Address;
+import score.ObjectReader;
+import score.ObjectWriter;
 
 public class ExactOutputSingleParams implements IRC2ICXParam {
   // The contract address of the outbound token
@@ -56,6 +58,29 @@ public class ExactOutputSingleParams implements IRC2ICXParam {
     this.sqrtPriceLimitX96 = sqrtPriceLimitX96;
   }
 
+  public static ExactOutputSingleParams readObject (ObjectReader reader) {
+    reader.beginList();
+    Address tokenOut = reader.readAddress();
+    int fee = reader.readInt();
+    Address recipient = reader.readAddress();
+    BigInteger deadline = reader.readBigInteger();
+    BigInteger amountOut = reader.readBigInteger();
+    BigInteger sqrtPriceLimitX96 = reader.readBigInteger();
+    reader.end();
+    return new ExactOutputSingleParams(tokenOut, fee, recipient, deadline, amountOut, sqrtPriceLimitX96);
+  }
+
+  public static void writeObject (ObjectWriter writer, ExactOutputSingleParams obj) {
+    writer.beginList(6);
+    writer.write(obj.tokenOut);
+    writer.write(obj.fee);
+    writer.write(obj.recipient);
+    writer.write(obj.deadline);
+    writer.write(obj.amountOut);
+    writer.write(obj.sqrtPriceLimitX96);
+    writer.end();
+  }
+
   public JsonObject toJson() {
     return Json.object()
       .add("params", Json.object()
@@ -21,6 +21,7 @@ import score.ObjectReader;
 import score.ObjectWriter;
 
 public class SwapCallbackData {
+    // The remaining swap path, starting with the pool of the current hop
     public byte[] path;
     public Address payer;
 
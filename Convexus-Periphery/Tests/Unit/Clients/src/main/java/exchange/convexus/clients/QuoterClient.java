@@ -16,7 +16,16 @@
 
 package exchange.convexus.clients;
 
+import java.util.List;
+
+import exchange.convexus.periphery.quoter.QuoteBestRouteParams;
+import exchange.convexus.periphery.quoter.QuoteBestRouteResult;
+import exchange.convexus.periphery.quoter.QuoteExactInputBatchParams;
+import exchange.convexus.periphery.quoter.QuoteExactInputParams;
 import exchange.convexus.periphery.quoter.QuoteExactInputSingleParams;
+import exchange.convexus.periphery.quoter.QuoteExactOutputParams;
+import exchange.convexus.periphery.quoter.QuoteExactOutputSingleParams;
+import exchange.convexus.periphery.quoter.QuoteMultiResult;
 import exchange.convexus.periphery.quoter.QuoteResult;
 import exchange.convexus.periphery.quoter.Quoter;
 import exchange.convexus.utils.ScoreSpy;
@@ -29,4 +38,44 @@ public class QuoterClient {
   ) {
     return QuoteResult.fromMap(client.call("quoteExactInputSingle", params));
   }
-}
\ No newline at end of file
+
+  public static QuoteMultiResult[] quoteExactInputBatch (
+    ScoreSpy<Quoter> client,
+    QuoteExactInputBatchParams params
+  ) {
+    List<?> results = (List<?>) client.call("quoteExactInputBatch", params);
+    QuoteMultiResult[] quotes = new QuoteMultiResult[results.size()];
+    for (int i = 0; i < quotes.length; i++) {
+      quotes[i] = QuoteMultiResult.fromMap(results.get(i));
+    }
+    return quotes;
+  }
+
+  public static QuoteMultiResult quoteExactInput (
+    ScoreSpy<Quoter> client,
+    QuoteExactInputParams params
+  ) {
+    return QuoteMultiResult.fromMap(client.call("quoteExactInput", params));
+  }
+
+  public static QuoteResult quoteExactOutputSingle (
+    ScoreSpy<Quoter> client,
+    QuoteExactOutputSingleParams params
+  ) {
+    return QuoteResult.fromMap(client.call("quoteExactOutputSingle", params));
+  }
+
+  public static QuoteMultiResult quoteExactOutput (
+    ScoreSpy<Quoter> client,
+    QuoteExactOutputParams params
+  ) {
+    return QuoteMultiResult.fromMap(client.call("quoteExactOutput", params));
+  }
+
+  public static QuoteBestRouteResult quoteBestRoute (
+    ScoreSpy<Quoter> client,
+    QuoteBestRouteParams params
+  ) {
+    return QuoteBestRouteResult.fromMap(client.call("quoteBestRoute", params));
+  }
+}
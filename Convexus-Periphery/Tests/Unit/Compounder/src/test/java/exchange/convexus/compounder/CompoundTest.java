@@ -0,0 +1,226 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.compounder;
+
+import static exchange.convexus.test.nft.NFTUtils.mint;
+import static exchange.convexus.utils.TimeUtils.now;
+import static java.math.BigInteger.ONE;
+import static java.math.BigInteger.TWO;
+import static java.math.BigInteger.ZERO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigInteger;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.ServiceManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import exchange.convexus.mocks.factory.ConvexusFactoryMock;
+import exchange.convexus.mocks.pool.ConvexusPoolMock;
+import exchange.convexus.periphery.compounder.ConvexusCompounder;
+import exchange.convexus.periphery.librairies.Path;
+import exchange.convexus.periphery.positiondescriptor.NonfungibleTokenPositionDescriptor;
+import exchange.convexus.periphery.positionmgr.NonFungiblePositionManager;
+import exchange.convexus.periphery.router.SwapRouter;
+import exchange.convexus.pool.PairAmounts;
+import exchange.convexus.pool.PoolData;
+import exchange.convexus.positionmgr.PositionInformation;
+import exchange.convexus.test.ConvexusTest;
+import exchange.convexus.test.liquidity.ConvexusLiquidityUtils;
+import exchange.convexus.test.nft.NFTUtils;
+import exchange.convexus.test.swaprouter.SwapRouterUtils;
+import exchange.convexus.test.tokens.Sicx;
+import exchange.convexus.test.tokens.Usdc;
+import exchange.convexus.utils.AssertUtils;
+import exchange.convexus.utils.IntUtils;
+import exchange.convexus.utils.ScoreSpy;
+
+public class CompoundTest extends ConvexusTest {
+
+  ScoreSpy<ConvexusFactoryMock> factory;
+  ScoreSpy<SwapRouter> router;
+  ScoreSpy<NonfungibleTokenPositionDescriptor> positiondescriptor;
+  ScoreSpy<NonFungiblePositionManager> nft;
+  ScoreSpy<ConvexusCompounder> compounder;
+  ScoreSpy<Sicx> sicx;
+  ScoreSpy<Usdc> usdc;
+
+  final int FEE = 3000;
+  final int TICK_SPACING = 60;
+  final BigInteger tokenId1 = ONE;
+  final BigInteger tokenId2 = TWO;
+
+  @BeforeEach
+  void setup() throws Exception {
+    ServiceManager.Block.resetInstance();
+    sicx = deploy_sicx();
+    usdc = deploy_usdc();
+    sicx.invoke(owner, "mintTo", alice.getAddress(), IntUtils.MAX_UINT256);
+    usdc.invoke(owner, "mintTo", alice.getAddress(), IntUtils.MAX_UINT256);
+
+    factory = deploy_factory();
+    router = deploy_router(factory.getAddress());
+    positiondescriptor = deploy_positiondescriptor();
+    nft = deploy_nft(factory.getAddress(), positiondescriptor.getAddress());
+    compounder = deploy_compounder(factory.getAddress(), nft.getAddress());
+
+    ConvexusTest.createAndInitializePoolIfNecessary(ConvexusPoolMock.class, alice, factory, sicx.getAddress(), usdc.getAddress(), FEE, encodePriceSqrt(ONE, ONE), TICK_SPACING);
+
+    // nft 1 earns 25% of fees, nft 2 earns 75% of fees
+    for (BigInteger value : new BigInteger[] {EXA, EXA.multiply(BigInteger.valueOf(3))}) {
+      ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), sicx.score, value);
+      ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), usdc.score, value);
+      mint (
+        nft,
+        alice,
+        sicx.getAddress(),
+        usdc.getAddress(),
+        FEE,
+        getMinTick(TICK_SPACING),
+        getMaxTick(TICK_SPACING),
+        value,
+        value,
+        ZERO,
+        ZERO,
+        alice.getAddress(),
+        now().add(ONE)
+      );
+    }
+
+    NFTUtils.safeTransferFrom(nft, alice, compounder.getAddress(), tokenId1);
+    NFTUtils.safeTransferFrom(nft, alice, compounder.getAddress(), tokenId2);
+
+    // swap back and forth for fees in both tokens
+    swap(sicx, usdc);
+    swap(usdc, sicx);
+  }
+
+  private void swap (ScoreSpy<?> tokenIn, ScoreSpy<?> tokenOut) {
+    SwapRouterUtils.exactInput(
+      alice,
+      tokenIn.score,
+      router.getAddress(),
+      BigInteger.valueOf(1_000_000),
+      Path.encodePath(new PoolData(tokenIn.getAddress(), tokenOut.getAddress(), FEE)),
+      alice.getAddress(),
+      now().add(ONE),
+      ZERO
+    );
+  }
+
+  private void compound (Account from, BigInteger[] tokenIds, BigInteger[] liquidityMins) {
+    compounder.invoke(from, "compound", tokenIds, liquidityMins);
+  }
+
+  private PositionInformation position (BigInteger tokenId) {
+    return PositionInformation.fromMap(nft.call("positions", tokenId));
+  }
+
+  @Test
+  void testCompoundsFeesIntoLiquidity () {
+    BigInteger liquidity1 = position(tokenId1).liquidity;
+    BigInteger liquidity2 = position(tokenId2).liquidity;
+
+    compound(alice, new BigInteger[] {tokenId1, tokenId2}, new BigInteger[] {ZERO, ZERO});
+
+    verify(compounder.spy).Compound(eq(tokenId1), any(), any(), any());
+    verify(compounder.spy).Compound(eq(tokenId2), any(), any(), any());
+    assertTrue(position(tokenId1).liquidity.compareTo(liquidity1) > 0);
+    assertTrue(position(tokenId2).liquidity.compareTo(liquidity2) > 0);
+    assertEquals(ZERO, position(tokenId1).tokensOwed0);
+    assertEquals(ZERO, position(tokenId2).tokensOwed1);
+
+    // at most the rounding of the amounts is left
+    PairAmounts leftovers = PairAmounts.fromMap(compounder.call("leftovers", tokenId2));
+    assertTrue(leftovers.amount0.compareTo(BigInteger.TEN) < 0);
+    assertTrue(leftovers.amount1.compareTo(BigInteger.TEN) < 0);
+  }
+
+  @Test
+  void testTransfersEachTokenOncePerStep () {
+    reset(sicx.spy);
+    reset(usdc.spy);
+    compound(alice, new BigInteger[] {tokenId1, tokenId2}, new BigInteger[] {ZERO, ZERO});
+
+    // collected from the pool to the position manager, paid to the pool
+    verify(sicx.spy, times(2)).Transfer(any(), any(), any(), any());
+    verify(usdc.spy, times(2)).Transfer(any(), any(), any(), any());
+  }
+
+  @Test
+  void testKeepsTheLeftoversDeposited () {
+    BigInteger deposited0 = (BigInteger) nft.call("deposited", compounder.getAddress(), sicx.getAddress());
+    compound(alice, new BigInteger[] {tokenId1, tokenId2}, new BigInteger[] {ZERO, ZERO});
+
+    // the fees are collected to the compounder deposits, and what isn't compounded stays deposited
+    PairAmounts leftovers1 = PairAmounts.fromMap(compounder.call("leftovers", tokenId1));
+    PairAmounts leftovers2 = PairAmounts.fromMap(compounder.call("leftovers", tokenId2));
+    assertEquals(deposited0.add(leftovers1.amount0).add(leftovers2.amount0), nft.call("deposited", compounder.getAddress(), sicx.getAddress()));
+  }
+
+  @Test
+  void testChecksTheLiquidityMinimums () {
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      compound(alice, new BigInteger[] {tokenId1, tokenId2}, new BigInteger[] {ZERO, IntUtils.MAX_UINT128}),
+      "compoundPool: Price slippage check");
+
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      compound(alice, new BigInteger[] {tokenId1, tokenId2}, new BigInteger[] {ZERO}),
+      "compound: invalid liquidity minimums");
+  }
+
+  @Test
+  void testOnlyOwnerCanCompound () {
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      compound(bob, new BigInteger[] {tokenId1}, new BigInteger[] {ZERO}),
+      "compound: only owner can compound");
+  }
+
+  @Test
+  void testWithdrawTokenSendsLeftovers () {
+    compound(alice, new BigInteger[] {tokenId1, tokenId2}, new BigInteger[] {ZERO, ZERO});
+    PairAmounts leftovers = PairAmounts.fromMap(compounder.call("leftovers", tokenId1));
+
+    BigInteger before0 = (BigInteger) sicx.call("balanceOf", alice.getAddress());
+    BigInteger before1 = (BigInteger) usdc.call("balanceOf", alice.getAddress());
+    compounder.invoke(alice, "withdrawToken", tokenId1, alice.getAddress(), "".getBytes());
+
+    assertEquals(alice.getAddress(), nft.call("ownerOf", tokenId1));
+    assertEquals(leftovers.amount0, ((BigInteger) sicx.call("balanceOf", alice.getAddress())).subtract(before0));
+    assertEquals(leftovers.amount1, ((BigInteger) usdc.call("balanceOf", alice.getAddress())).subtract(before1));
+
+    // the leftovers of the other position are still deposited
+    PairAmounts leftovers2 = PairAmounts.fromMap(compounder.call("leftovers", tokenId2));
+    assertEquals(leftovers2.amount0, nft.call("deposited", compounder.getAddress(), sicx.getAddress()));
+    assertEquals(leftovers2.amount1, nft.call("deposited", compounder.getAddress(), usdc.getAddress()));
+  }
+
+  @Test
+  void testRejectsUnexpectedFunds () {
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      ConvexusLiquidityUtils.deposit(alice, compounder.getAddress(), sicx.score, ONE),
+      "Reverted(0): tokenFallback: Unimplemented tokenFallback action");
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.positionmgr;
+
+import static java.math.BigInteger.ZERO;
+import static java.math.BigInteger.ONE;
+import static java.math.BigInteger.TWO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static exchange.convexus.test.nft.NFTUtils.mint;
+import static exchange.convexus.utils.AddressUtils.ZERO_ADDRESS;
+
+import java.math.BigInteger;
+
+import com.iconloop.score.test.ServiceManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import exchange.convexus.test.ConvexusTest;
+import exchange.convexus.test.liquidity.ConvexusLiquidityUtils;
+import exchange.convexus.test.nft.NFTUtils;
+import exchange.convexus.periphery.librairies.Path;
+import exchange.convexus.periphery.positionmgr.NonFungiblePositionManager;
+import exchange.convexus.mocks.pool.ConvexusPoolMock;
+import exchange.convexus.pool.PoolData;
+import exchange.convexus.test.swaprouter.SwapRouterUtils;
+import exchange.convexus.utils.AssertUtils;
+import static exchange.convexus.utils.TimeUtils.now;
+import score.Address;
+
+public class CollectManyTest extends NonFungiblePositionManagerTest {
+
+  final BigInteger tokenId1 = ONE;
+  final BigInteger tokenId2 = TWO;
+
+  @BeforeEach
+  void setup() throws Exception {
+    ServiceManager.Block.resetInstance();
+    setup_tokens();
+    setup_nft();
+    setup_initializer();
+
+    ConvexusTest.createAndInitializePoolIfNecessary(ConvexusPoolMock.class, alice, factory, sicx.getAddress(), usdc.getAddress(), FEE_AMOUNTS[MEDIUM], encodePriceSqrt(ONE, ONE), tickSpacing);
+
+    // nft 1 earns 25% of fees, nft 2 earns 75% of fees
+    for (BigInteger value : new BigInteger[] {BigInteger.valueOf(100), BigInteger.valueOf(300)}) {
+      ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), sicx.score, value);
+      ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), usdc.score, value);
+      mint (
+        nft,
+        alice, 
+        sicx.getAddress(), 
+        usdc.getAddress(), 
+        FEE_AMOUNTS[MEDIUM], 
+        getMinTick(TICK_SPACINGS[MEDIUM]),
+        getMaxTick(TICK_SPACINGS[MEDIUM]),
+        value,
+        value,
+        ZERO, 
+        ZERO, 
+        alice.getAddress(),
+        now().add(ONE)
+      );
+    }
+
+    // swap for ~10k of fees
+    SwapRouterUtils.exactInput(
+      alice, 
+      sicx.score, 
+      router.getAddress(), 
+      BigInteger.valueOf(3_333_333),
+      Path.encodePath(new PoolData(sicx.getAddress(), usdc.getAddress(), FEE_AMOUNTS[MEDIUM])), 
+      alice.getAddress(), 
+      now().add(ONE), 
+      ZERO
+    );
+  }
+
+  @Test
+  void testCollectsWithASingleTransfer () {
+    Address pool = (Address) factory.call("getPool", sicx.getAddress(), usdc.getAddress(), FEE_AMOUNTS[MEDIUM]);
+
+    reset(sicx.spy);
+    reset(usdc.spy);
+    reset(nft.spy);
+    nft.invoke(alice, "collectMany", new BigInteger[] {tokenId1, tokenId2}, alice.getAddress());
+
+    // same amounts than collecting the positions one by one
+    verify(nft.spy).Collect(tokenId1, alice.getAddress(), BigInteger.valueOf(2501), ZERO);
+    verify(nft.spy).Collect(tokenId2, alice.getAddress(), BigInteger.valueOf(7503), ZERO);
+    verify(sicx.spy).Transfer(pool, alice.getAddress(), BigInteger.valueOf(2501 + 7503), "{\"method\": \"deposit\"}".getBytes());
+    verifyNoInteractions(usdc.spy);
+
+    PositionInformation position = PositionInformation.fromMap(nft.call("positions", tokenId1));
+    assertEquals(ZERO, position.tokensOwed0);
+    assertEquals(ZERO, position.tokensOwed1);
+  }
+
+  @Test
+  void testCollectsToTheCallerDeposits () {
+    Address pool = (Address) factory.call("getPool", sicx.getAddress(), usdc.getAddress(), FEE_AMOUNTS[MEDIUM]);
+    BigInteger deposited = (BigInteger) nft.call("deposited", alice.getAddress(), sicx.getAddress());
+
+    reset(sicx.spy);
+    nft.invoke(alice, "collectMany", new BigInteger[] {tokenId1, tokenId2}, ZERO_ADDRESS);
+
+    verify(sicx.spy).Transfer(pool, nft.getAddress(), BigInteger.valueOf(2501 + 7503), "{\"method\": \"deposit\"}".getBytes());
+    assertEquals(deposited.add(BigInteger.valueOf(2501 + 7503)), nft.call("deposited", alice.getAddress(), sicx.getAddress()));
+    assertEquals(ZERO, nft.call("deposited", pool, sicx.getAddress()));
+  }
+
+  @Test
+  void testCollectsPositionsWithoutLiquidity () {
+    NFTUtils.decreaseLiquidity(nft, alice, tokenId1, BigInteger.valueOf(100), ZERO, ZERO, now().add(ONE));
+    PositionInformation position = PositionInformation.fromMap(nft.call("positions", tokenId1));
+
+    BigInteger before = (BigInteger) sicx.call("balanceOf", alice.getAddress());
+    nft.invoke(alice, "collectMany", new BigInteger[] {tokenId1, tokenId2}, alice.getAddress());
+    BigInteger after = (BigInteger) sicx.call("balanceOf", alice.getAddress());
+
+    assertEquals(position.tokensOwed0.add(BigInteger.valueOf(7503)), after.subtract(before));
+    assertEquals(ZERO, PositionInformation.fromMap(nft.call("positions", tokenId1)).tokensOwed0);
+  }
+
+  @Test
+  void testCannotBeCalledByOtherAddresses () {
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      nft.invoke(bob, "collectMany", new BigInteger[] {tokenId1, tokenId2}, bob.getAddress()),
+      "checkAuthorizedForToken: Not approved");
+  }
+
+  @Test
+  void testCannotCollectTwice () {
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      nft.invoke(alice, "collectMany", new BigInteger[] {tokenId1, tokenId1}, alice.getAddress()),
+      "collectMany: token IDs must be sorted and unique");
+  }
+
+  @Test
+  void testCannotCollectTooManyPositions () {
+    BigInteger[] tokenIds = new BigInteger[NonFungiblePositionManager.MAX_COLLECT_POSITIONS + 1];
+    for (int i = 0; i < tokenIds.length; i++) {
+      tokenIds[i] = BigInteger.valueOf(i + 1);
+    }
+
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      nft.invoke(alice, "collectMany", tokenIds, alice.getAddress()),
+      "collectMany: too many positions");
+  }
+}
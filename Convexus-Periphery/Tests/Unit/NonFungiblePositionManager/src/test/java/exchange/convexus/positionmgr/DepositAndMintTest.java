@@ -0,0 +1,139 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.positionmgr;
+
+import static java.math.BigInteger.ZERO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static java.math.BigInteger.ONE;
+
+import java.math.BigInteger;
+
+import com.iconloop.score.test.ServiceManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import exchange.convexus.test.ConvexusTest;
+import exchange.convexus.test.liquidity.ConvexusLiquidityUtils;
+import exchange.convexus.test.nft.NFTUtils;
+import exchange.convexus.mocks.pool.ConvexusPoolMock;
+import exchange.convexus.utils.AssertUtils;
+import static exchange.convexus.utils.TimeUtils.now;
+
+public class DepositAndMintTest extends NonFungiblePositionManagerTest {
+
+  final BigInteger hundred = BigInteger.valueOf(100);
+  final BigInteger fifty = BigInteger.valueOf(50);
+
+  MintParams params;
+
+  @BeforeEach
+  void setup() throws Exception {
+    ServiceManager.Block.resetInstance();
+    setup_tokens();
+    setup_nft();
+    setup_initializer();
+
+    ConvexusTest.createAndInitializePoolIfNecessary(ConvexusPoolMock.class, alice, factory, sicx.getAddress(), usdc.getAddress(), FEE_AMOUNTS[MEDIUM], encodePriceSqrt(ONE, ONE), tickSpacing);
+
+    params = new MintParams(
+      sicx.getAddress(), 
+      usdc.getAddress(), 
+      FEE_AMOUNTS[MEDIUM], 
+      getMinTick(TICK_SPACINGS[MEDIUM]),
+      getMaxTick(TICK_SPACINGS[MEDIUM]),
+      hundred, 
+      hundred, 
+      ZERO, 
+      ZERO, 
+      alice.getAddress(),
+      now().add(ONE)
+    );
+  }
+
+  @Test
+  void testMintsWithTheTokensSent () {
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), sicx.score, hundred);
+    BigInteger balance1Before = (BigInteger) usdc.call("balanceOf", alice.getAddress());
+
+    NFTUtils.depositAndMint(nft, alice, usdc.score, hundred, params);
+
+    BigInteger balance1After = (BigInteger) usdc.call("balanceOf", alice.getAddress());
+    assertEquals(hundred, PositionInformation.fromMap(nft.call("positions", ONE)).liquidity);
+    assertEquals(hundred, balance1Before.subtract(balance1After));
+    assertEquals(ZERO, nft.call("deposited", alice.getAddress(), usdc.getAddress()));
+    assertEquals(ZERO, nft.call("depositedTokensSize", alice.getAddress()));
+  }
+
+  @Test
+  void testRefundsUnspentFunds () {
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), sicx.score, hundred);
+    BigInteger balance0Before = (BigInteger) sicx.call("balanceOf", alice.getAddress());
+    BigInteger balance1Before = (BigInteger) usdc.call("balanceOf", alice.getAddress());
+
+    // only 50 of each token are spent
+    params.amount1Desired = fifty;
+    NFTUtils.depositAndMint(nft, alice, usdc.score, hundred, params);
+
+    BigInteger balance0After = (BigInteger) sicx.call("balanceOf", alice.getAddress());
+    BigInteger balance1After = (BigInteger) usdc.call("balanceOf", alice.getAddress());
+    assertEquals(fifty, PositionInformation.fromMap(nft.call("positions", ONE)).liquidity);
+    // the deposit that the mint didn't spend up to the desired amount is sent back too
+    assertEquals(fifty, balance0After.subtract(balance0Before));
+    assertEquals(fifty, balance1Before.subtract(balance1After));
+    assertEquals(ZERO, nft.call("deposited", alice.getAddress(), sicx.getAddress()));
+    assertEquals(ZERO, sicx.call("balanceOf", nft.getAddress()));
+    assertEquals(ZERO, usdc.call("balanceOf", nft.getAddress()));
+  }
+
+  @Test
+  void testKeepsUnrelatedDeposits () {
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), sicx.score, hundred.add(fifty));
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), usdc.score, fifty);
+    BigInteger balance0Before = (BigInteger) sicx.call("balanceOf", alice.getAddress());
+    BigInteger balance1Before = (BigInteger) usdc.call("balanceOf", alice.getAddress());
+
+    NFTUtils.depositAndMint(nft, alice, usdc.score, hundred, params);
+
+    BigInteger balance0After = (BigInteger) sicx.call("balanceOf", alice.getAddress());
+    BigInteger balance1After = (BigInteger) usdc.call("balanceOf", alice.getAddress());
+    assertEquals(hundred, PositionInformation.fromMap(nft.call("positions", ONE)).liquidity);
+    // the deposits beyond the desired amounts stay deposited
+    assertEquals(ZERO, balance0After.subtract(balance0Before));
+    assertEquals(hundred, balance1Before.subtract(balance1After));
+    assertEquals(fifty, nft.call("deposited", alice.getAddress(), sicx.getAddress()));
+    assertEquals(fifty, nft.call("deposited", alice.getAddress(), usdc.getAddress()));
+  }
+
+  @Test
+  void testFailsIfOtherTokenNotDeposited () {
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      NFTUtils.depositAndMint(nft, alice, usdc.score, hundred, params),
+      "ConvexusLiquidityManagement::checkEnoughDeposited: user didn't deposit enough funds (0 / 100)"
+    );
+  }
+
+  @Test
+  void testFailsIfTokenSentNotInPool () {
+    params.token1 = sicx.getAddress();
+    params.token0 = nft.getAddress();
+
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      NFTUtils.depositAndMint(nft, alice, usdc.score, hundred, params),
+      "depositAndMint: Token sent isn't one of the pool tokens"
+    );
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.positionmgr;
+
+import static java.math.BigInteger.ONE;
+import static java.math.BigInteger.TWO;
+import static java.math.BigInteger.ZERO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigInteger;
+
+import com.iconloop.score.test.ServiceManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import exchange.convexus.test.liquidity.ConvexusLiquidityUtils;
+import exchange.convexus.utils.AssertUtils;
+
+public class DepositTest extends NonFungiblePositionManagerTest {
+
+  final BigInteger hundred = BigInteger.valueOf(100);
+
+  @BeforeEach
+  void setup() throws Exception {
+    ServiceManager.Block.resetInstance();
+    setup_tokens();
+    setup_nft();
+
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), sicx.score, hundred);
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), usdc.score, hundred);
+  }
+
+  @Test
+  void testIndexesDepositedTokens () {
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), sicx.score, hundred);
+
+    assertEquals(hundred.multiply(TWO), nft.call("deposited", alice.getAddress(), sicx.getAddress()));
+    assertEquals(hundred, nft.call("deposited", alice.getAddress(), usdc.getAddress()));
+    assertEquals(TWO, nft.call("depositedTokensSize", alice.getAddress()));
+    assertEquals(sicx.getAddress(), nft.call("depositedToken", alice.getAddress(), 0));
+    assertEquals(usdc.getAddress(), nft.call("depositedToken", alice.getAddress(), 1));
+  }
+
+  @Test
+  void testWithdrawRemovesTokenFromIndex () {
+    BigInteger balanceBefore = (BigInteger) sicx.call("balanceOf", alice.getAddress());
+    nft.invoke(alice, "withdraw", sicx.getAddress());
+    BigInteger balanceAfter = (BigInteger) sicx.call("balanceOf", alice.getAddress());
+
+    assertEquals(hundred, balanceAfter.subtract(balanceBefore));
+    assertEquals(ZERO, nft.call("deposited", alice.getAddress(), sicx.getAddress()));
+    assertEquals(ONE, nft.call("depositedTokensSize", alice.getAddress()));
+    assertEquals(usdc.getAddress(), nft.call("depositedToken", alice.getAddress(), 0));
+  }
+
+  @Test
+  void testWithdrawAnAmount () {
+    BigInteger balanceBefore = (BigInteger) sicx.call("balanceOf", alice.getAddress());
+    nft.invoke(alice, "withdraw", sicx.getAddress(), BigInteger.valueOf(40));
+    BigInteger balanceAfter = (BigInteger) sicx.call("balanceOf", alice.getAddress());
+
+    assertEquals(BigInteger.valueOf(40), balanceAfter.subtract(balanceBefore));
+    assertEquals(BigInteger.valueOf(60), nft.call("deposited", alice.getAddress(), sicx.getAddress()));
+    assertEquals(TWO, nft.call("depositedTokensSize", alice.getAddress()));
+
+    // withdrawing the rest removes the token from the index
+    nft.invoke(alice, "withdraw", sicx.getAddress(), BigInteger.valueOf(60));
+    assertEquals(ZERO, nft.call("deposited", alice.getAddress(), sicx.getAddress()));
+    assertEquals(ONE, nft.call("depositedTokensSize", alice.getAddress()));
+
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      nft.invoke(alice, "withdraw", usdc.getAddress(), hundred.add(ONE)),
+      "ConvexusLiquidityManagement::checkEnoughDeposited: user didn't deposit enough funds (100 / 101)");
+  }
+
+  @Test
+  void testWithdrawAll () {
+    BigInteger balance0Before = (BigInteger) sicx.call("balanceOf", alice.getAddress());
+    BigInteger balance1Before = (BigInteger) usdc.call("balanceOf", alice.getAddress());
+    nft.invoke(alice, "withdraw_all");
+    BigInteger balance0After = (BigInteger) sicx.call("balanceOf", alice.getAddress());
+    BigInteger balance1After = (BigInteger) usdc.call("balanceOf", alice.getAddress());
+
+    assertEquals(hundred, balance0After.subtract(balance0Before));
+    assertEquals(hundred, balance1After.subtract(balance1Before));
+    assertEquals(ZERO, nft.call("depositedTokensSize", alice.getAddress()));
+
+    // the ledger can be used again
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), usdc.score, hundred);
+    assertEquals(ONE, nft.call("depositedTokensSize", alice.getAddress()));
+    assertEquals(hundred, nft.call("deposited", alice.getAddress(), usdc.getAddress()));
+  }
+}
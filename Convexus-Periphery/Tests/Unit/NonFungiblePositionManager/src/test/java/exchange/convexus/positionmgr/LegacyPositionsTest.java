@@ -0,0 +1,138 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.positionmgr;
+
+import static java.math.BigInteger.ZERO;
+import static exchange.convexus.test.nft.NFTUtils.decreaseLiquidity;
+import static exchange.convexus.test.nft.NFTUtils.mint;
+import static exchange.convexus.utils.TimeUtils.now;
+import static java.math.BigInteger.ONE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigInteger;
+
+import com.iconloop.score.test.ServiceManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import exchange.convexus.test.ConvexusTest;
+import exchange.convexus.test.liquidity.ConvexusLiquidityUtils;
+import exchange.convexus.mocks.pool.ConvexusPoolMock;
+import exchange.convexus.periphery.positionmgr.NonFungiblePositionManager;
+import exchange.convexus.utils.AssertUtils;
+import exchange.convexus.utils.IntUtils;
+import score.Context;
+import score.DictDB;
+
+public class LegacyPositionsTest extends NonFungiblePositionManagerTest {
+
+  final BigInteger tokenId = ONE;
+
+  private DictDB<BigInteger, NFTPosition> legacyPositions () {
+    return Context.newDictDB(NonFungiblePositionManager.NAME + "_positions", NFTPosition.class);
+  }
+
+  private DictDB<BigInteger, byte[]> compactPositions () {
+    return Context.newDictDB(NonFungiblePositionManager.NAME + "_compactPositions", byte[].class);
+  }
+
+  @BeforeEach
+  void setup() throws Exception {
+    ServiceManager.Block.resetInstance();
+    setup_tokens();
+    setup_nft();
+    setup_initializer();
+
+    // create a position
+    ConvexusTest.createAndInitializePoolIfNecessary(ConvexusPoolMock.class, alice, factory, sicx.getAddress(), usdc.getAddress(), FEE_AMOUNTS[MEDIUM], encodePriceSqrt(ONE, ONE), tickSpacing);
+
+    final BigInteger hundred = BigInteger.valueOf(100);
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), sicx.score, hundred);
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), usdc.score, hundred);
+
+    mint (
+      nft,
+      alice, 
+      sicx.getAddress(), 
+      usdc.getAddress(), 
+      FEE_AMOUNTS[MEDIUM], 
+      getMinTick(TICK_SPACINGS[MEDIUM]),
+      getMaxTick(TICK_SPACINGS[MEDIUM]),
+      hundred, 
+      hundred, 
+      ZERO, 
+      ZERO, 
+      alice.getAddress(),
+      now().add(ONE)
+    );
+
+    moveToLegacyStorage();
+  }
+
+  // move the position back to the storage written before the compact encoding
+  private void moveToLegacyStorage () {
+    sm.pushFrame(owner, nft.score.getAccount(), false, "legacy", ZERO);
+    legacyPositions().set(tokenId, NFTPosition.fromBytes(compactPositions().get(tokenId)));
+    compactPositions().set(tokenId, null);
+    sm.popFrame();
+  }
+
+  @Test
+  void testReadsBackAndMigratesOnTheNextWrite () {
+    PositionInformation position = PositionInformation.fromMap(nft.call("positions", tokenId));
+    assertEquals(sicx.getAddress(), position.token0);
+    assertEquals(usdc.getAddress(), position.token1);
+    assertEquals(BigInteger.valueOf(100), position.liquidity);
+
+    nft.invoke(alice, "approve", bob.getAddress(), tokenId);
+
+    sm.pushFrame(owner, nft.score.getAccount(), true, "legacy", ZERO);
+    assertNull(legacyPositions().get(tokenId));
+    assertNotNull(compactPositions().get(tokenId));
+    sm.popFrame();
+
+    position = PositionInformation.fromMap(nft.call("positions", tokenId));
+    assertEquals(bob.getAddress(), position.operator);
+    assertEquals(BigInteger.valueOf(100), position.liquidity);
+  }
+
+  @Test
+  void testBurnDeletesTheLegacyPosition () {
+    decreaseLiquidity(nft, alice, tokenId, BigInteger.valueOf(100), ZERO, ZERO, now().add(ONE));
+    collect (
+      alice,
+      tokenId,
+      alice.getAddress(),
+      IntUtils.MAX_UINT128,
+      IntUtils.MAX_UINT128
+    );
+    moveToLegacyStorage();
+
+    burn (alice, tokenId);
+
+    sm.pushFrame(owner, nft.score.getAccount(), true, "legacy", ZERO);
+    assertNull(legacyPositions().get(tokenId));
+    assertNull(compactPositions().get(tokenId));
+    sm.popFrame();
+
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      PositionInformation.fromMap(nft.call("positions", tokenId)), 
+      "positions: Invalid token ID");
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package exchange.convexus.positionmgr;
+
+import static java.math.BigInteger.ZERO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static java.math.BigInteger.ONE;
+import static java.math.BigInteger.TWO;
+
+import java.math.BigInteger;
+
+import com.iconloop.score.test.ServiceManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import exchange.convexus.test.ConvexusTest;
+import exchange.convexus.test.liquidity.ConvexusLiquidityUtils;
+import exchange.convexus.mocks.pool.ConvexusPoolMock;
+import exchange.convexus.utils.AssertUtils;
+import exchange.convexus.utils.ScoreSpy;
+import static exchange.convexus.test.nft.NFTUtils.mint;
+import static exchange.convexus.utils.TimeUtils.now;
+
+public class ModifyPositionsTest extends NonFungiblePositionManagerTest {
+
+  final BigInteger hundred = BigInteger.valueOf(100);
+  final BigInteger MAX = BigInteger.valueOf(1000);
+  ScoreSpy<?> pool;
+
+  @BeforeEach
+  void setup() throws Exception {
+    ServiceManager.Block.resetInstance();
+    setup_tokens();
+    setup_nft();
+    setup_initializer();
+
+    pool = ConvexusTest.createAndInitializePoolIfNecessary(ConvexusPoolMock.class, alice, factory, sicx.getAddress(), usdc.getAddress(), FEE_AMOUNTS[MEDIUM], encodePriceSqrt(ONE, ONE), tickSpacing);
+
+    // create two positions
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), sicx.score, hundred.multiply(TWO));
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), usdc.score, hundred.multiply(TWO));
+
+    for (int i = 0; i < 2; i++) {
+      mint (
+        nft,
+        alice, 
+        sicx.getAddress(), 
+        usdc.getAddress(), 
+        FEE_AMOUNTS[MEDIUM], 
+        getMinTick(TICK_SPACINGS[MEDIUM]),
+        getMaxTick(TICK_SPACINGS[MEDIUM]),
+        hundred, 
+        hundred, 
+        ZERO, 
+        ZERO, 
+        alice.getAddress(),
+        now().add(ONE)
+      );
+    }
+  }
+
+  @Test
+  void testNetsDecreaseAndIncrease () {
+    BigInteger balance0Before = (BigInteger) sicx.call("balanceOf", alice.getAddress());
+    BigInteger poolBalance0Before = (BigInteger) sicx.call("balanceOf", pool.getAddress());
+
+    nft.invoke(alice, "modifyPositions", new ModifyPositionsParams(
+      new BigInteger[] {ONE, TWO},
+      new BigInteger[] {BigInteger.valueOf(-50), BigInteger.valueOf(25)},
+      MAX, MAX,
+      now().add(ONE)
+    ));
+
+    assertEquals(BigInteger.valueOf(50), PositionInformation.fromMap(nft.call("positions", ONE)).liquidity);
+    assertEquals(BigInteger.valueOf(125), PositionInformation.fromMap(nft.call("positions", TWO)).liquidity);
+
+    // the released tokens are netted, not accounted to the tokens owed
+    assertEquals(ZERO, PositionInformation.fromMap(nft.call("positions", ONE)).tokensOwed0);
+
+    BigInteger balance0After = (BigInteger) sicx.call("balanceOf", alice.getAddress());
+    BigInteger poolBalance0After = (BigInteger) sicx.call("balanceOf", pool.getAddress());
+    // 50 liquidity released (rounded down) minus 25 liquidity added (rounded up)
+    assertEquals(BigInteger.valueOf(24), balance0After.subtract(balance0Before));
+    assertEquals(BigInteger.valueOf(24), poolBalance0Before.subtract(poolBalance0After));
+  }
+
+  @Test
+  void testPaysTheNetAmountFromDeposits () {
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), sicx.score, hundred);
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), usdc.score, hundred);
+
+    BigInteger poolBalance0Before = (BigInteger) sicx.call("balanceOf", pool.getAddress());
+
+    nft.invoke(alice, "modifyPositions", new ModifyPositionsParams(
+      new BigInteger[] {ONE, TWO},
+      new BigInteger[] {BigInteger.valueOf(-25), BigInteger.valueOf(75)},
+      MAX, MAX,
+      now().add(ONE)
+    ));
+
+    // 75 liquidity added (rounded up) minus 25 liquidity released (rounded down)
+    BigInteger poolBalance0After = (BigInteger) sicx.call("balanceOf", pool.getAddress());
+    assertEquals(BigInteger.valueOf(51), poolBalance0After.subtract(poolBalance0Before));
+    assertEquals(BigInteger.valueOf(49), nft.call("deposited", alice.getAddress(), sicx.getAddress()));
+  }
+
+  @Test
+  void testCannotDecreaseOtherAddressesPositions () {
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      nft.invoke(bob, "modifyPositions", new ModifyPositionsParams(
+        new BigInteger[] {ONE},
+        new BigInteger[] {BigInteger.valueOf(-50)},
+        MAX, MAX,
+        now().add(ONE)
+      )),
+      "checkAuthorizedForToken: Not approved"
+    );
+  }
+
+  @Test
+  void testPriceSlippageCheck () {
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      nft.invoke(alice, "modifyPositions", new ModifyPositionsParams(
+        new BigInteger[] {ONE, TWO},
+        new BigInteger[] {BigInteger.valueOf(-50), BigInteger.valueOf(25)},
+        BigInteger.valueOf(-25), MAX,
+        now().add(ONE)
+      )),
+      "modifyPositions: Price slippage check"
+    );
+  }
+
+  @Test
+  void testTokenIdsMustBeSortedAndUnique () {
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      nft.invoke(alice, "modifyPositions", new ModifyPositionsParams(
+        new BigInteger[] {TWO, ONE},
+        new BigInteger[] {BigInteger.valueOf(25), BigInteger.valueOf(-50)},
+        MAX, MAX,
+        now().add(ONE)
+      )),
+      "modifyPositions: token IDs must be sorted and unique"
+    );
+  }
+}
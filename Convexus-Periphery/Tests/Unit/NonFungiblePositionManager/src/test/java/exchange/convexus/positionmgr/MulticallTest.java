@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.positionmgr;
+
+import static java.math.BigInteger.ZERO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static java.math.BigInteger.ONE;
+import static java.math.BigInteger.TWO;
+
+import java.math.BigInteger;
+
+import com.iconloop.score.test.ServiceManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import exchange.convexus.test.ConvexusTest;
+import exchange.convexus.test.liquidity.ConvexusLiquidityUtils;
+import exchange.convexus.mocks.pool.ConvexusPoolMock;
+import exchange.convexus.utils.AssertUtils;
+import exchange.convexus.utils.IntUtils;
+import static exchange.convexus.utils.TimeUtils.now;
+import score.ByteArrayObjectWriter;
+import score.Context;
+
+public class MulticallTest extends NonFungiblePositionManagerTest {
+
+  final BigInteger hundred = BigInteger.valueOf(100);
+
+  @BeforeEach
+  void setup() throws Exception {
+    ServiceManager.Block.resetInstance();
+    setup_tokens();
+    setup_nft();
+    setup_initializer();
+
+    ConvexusTest.createAndInitializePoolIfNecessary(ConvexusPoolMock.class, alice, factory, sicx.getAddress(), usdc.getAddress(), FEE_AMOUNTS[MEDIUM], encodePriceSqrt(ONE, ONE), tickSpacing);
+
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), sicx.score, hundred.multiply(TWO));
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), usdc.score, hundred.multiply(TWO));
+
+    // both mints are paid with the same deposits
+    MintParams params = new MintParams(
+      sicx.getAddress(), 
+      usdc.getAddress(), 
+      FEE_AMOUNTS[MEDIUM], 
+      getMinTick(TICK_SPACINGS[MEDIUM]),
+      getMaxTick(TICK_SPACINGS[MEDIUM]),
+      hundred, 
+      hundred, 
+      ZERO, 
+      ZERO, 
+      alice.getAddress(),
+      now().add(ONE)
+    );
+
+    byte[] mint = encode("mint", params);
+    nft.invoke(alice, "multicall", (Object) new byte[][] {mint, mint});
+  }
+
+  byte[] encode (String method, Object params) {
+    ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+    writer.beginList(2);
+    writer.write(method);
+    if (params instanceof MintParams) {
+      MintParams.writeObject(writer, (MintParams) params);
+    } else if (params instanceof DecreaseLiquidityParams) {
+      DecreaseLiquidityParams.writeObject(writer, (DecreaseLiquidityParams) params);
+    } else if (params instanceof CollectParams) {
+      CollectParams.writeObject(writer, (CollectParams) params);
+    } else {
+      writer.write(params);
+    }
+    writer.end();
+    return writer.toByteArray();
+  }
+
+  @Test
+  void testMintsFromDeposits () {
+    assertEquals(hundred, PositionInformation.fromMap(nft.call("positions", ONE)).liquidity);
+    assertEquals(hundred, PositionInformation.fromMap(nft.call("positions", TWO)).liquidity);
+    assertEquals(ZERO, nft.call("deposited", alice.getAddress(), sicx.getAddress()));
+    assertEquals(ZERO, nft.call("deposited", alice.getAddress(), usdc.getAddress()));
+  }
+
+  @Test
+  void testDecreasesAndCollectsManyPositions () {
+    BigInteger balance0Before = (BigInteger) sicx.call("balanceOf", alice.getAddress());
+
+    byte[][] calls = new byte[4][];
+    for (int i = 0; i < 2; i++) {
+      BigInteger tokenId = BigInteger.valueOf(i + 1);
+      calls[2 * i] = encode("decreaseLiquidity", new DecreaseLiquidityParams(tokenId, hundred, ZERO, ZERO, now().add(ONE)));
+      calls[2 * i + 1] = encode("collect", new CollectParams(tokenId, alice.getAddress(), IntUtils.MAX_UINT128, IntUtils.MAX_UINT128));
+    }
+
+    nft.invoke(alice, "multicall", (Object) calls);
+
+    BigInteger balance0After = (BigInteger) sicx.call("balanceOf", alice.getAddress());
+    assertEquals(ZERO, PositionInformation.fromMap(nft.call("positions", ONE)).liquidity);
+    assertEquals(ZERO, PositionInformation.fromMap(nft.call("positions", TWO)).liquidity);
+    // 100 liquidity released (rounded down) for each position
+    assertEquals(BigInteger.valueOf(198), balance0After.subtract(balance0Before));
+  }
+
+  @Test
+  void testCannotDecreaseOtherAddressesPositions () {
+    byte[] call = encode("decreaseLiquidity", new DecreaseLiquidityParams(ONE, hundred, ZERO, ZERO, now().add(ONE)));
+
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      nft.invoke(bob, "multicall", (Object) new byte[][] {call}),
+      "checkAuthorizedForToken: Not approved"
+    );
+  }
+}
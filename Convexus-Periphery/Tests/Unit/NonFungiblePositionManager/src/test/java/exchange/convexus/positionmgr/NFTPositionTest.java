@@ -0,0 +1,94 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.positionmgr;
+
+import static exchange.convexus.utils.AddressUtils.ZERO_ADDRESS;
+import static java.math.BigInteger.ONE;
+import static java.math.BigInteger.TWO;
+import static java.math.BigInteger.ZERO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+
+import org.junit.jupiter.api.Test;
+
+import exchange.convexus.librairies.TickMath;
+import score.Address;
+import score.ByteArrayObjectWriter;
+import score.Context;
+
+public class NFTPositionTest {
+
+  final BigInteger feeGrowth = ONE.shiftLeft(128).subtract(ONE);
+
+  private NFTPosition position (BigInteger nonce, Address operator, BigInteger poolId, int tickLower, int tickUpper) {
+    return new NFTPosition(nonce, operator, poolId, tickLower, tickUpper, BigInteger.valueOf(1000), feeGrowth, TWO, ONE, ZERO);
+  }
+
+  private void assertSamePosition (NFTPosition expected, NFTPosition actual) {
+    assertEquals(expected.nonce, actual.nonce);
+    assertEquals(expected.operator, actual.operator);
+    assertEquals(expected.poolId, actual.poolId);
+    assertEquals(expected.tickLower, actual.tickLower);
+    assertEquals(expected.tickUpper, actual.tickUpper);
+    assertEquals(expected.liquidity, actual.liquidity);
+    assertEquals(expected.feeGrowthInside0LastX128, actual.feeGrowthInside0LastX128);
+    assertEquals(expected.feeGrowthInside1LastX128, actual.feeGrowthInside1LastX128);
+    assertEquals(expected.tokensOwed0, actual.tokensOwed0);
+    assertEquals(expected.tokensOwed1, actual.tokensOwed1);
+  }
+
+  private int legacySize (NFTPosition position) {
+    ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+    NFTPosition.writeObject(writer, position);
+    return writer.toByteArray().length;
+  }
+
+  @Test
+  void testRoundTripsTheTicksBounds () {
+    NFTPosition expected = position(ZERO, ZERO_ADDRESS, ONE, TickMath.MIN_TICK, TickMath.MAX_TICK);
+    assertSamePosition(expected, NFTPosition.fromBytes(NFTPosition.toBytes(expected)));
+
+    expected = position(ZERO, ZERO_ADDRESS, BigInteger.valueOf(70000), -60, -1);
+    assertSamePosition(expected, NFTPosition.fromBytes(NFTPosition.toBytes(expected)));
+  }
+
+  @Test
+  void testRoundTripsTheOperatorAndNonce () {
+    Address operator = Address.fromString("hx0000000000000000000000000000000000000001");
+
+    NFTPosition expected = position(ZERO, operator, ONE, -120, 120);
+    assertSamePosition(expected, NFTPosition.fromBytes(NFTPosition.toBytes(expected)));
+
+    expected = position(TWO, ZERO_ADDRESS, ONE, -120, 120);
+    assertSamePosition(expected, NFTPosition.fromBytes(NFTPosition.toBytes(expected)));
+
+    expected = position(TWO, operator, ONE, -120, 120);
+    assertSamePosition(expected, NFTPosition.fromBytes(NFTPosition.toBytes(expected)));
+  }
+
+  @Test
+  void testSmallerThanTheLegacyEncoding () {
+    NFTPosition unset = position(ZERO, ZERO_ADDRESS, ONE, -887220, 887220);
+    // the unset operator alone takes 22 bytes in the legacy encoding
+    assertTrue(NFTPosition.toBytes(unset).length + 20 < legacySize(unset));
+
+    NFTPosition approved = position(ZERO, Address.fromString("hx0000000000000000000000000000000000000001"), ONE, -887220, 887220);
+    assertTrue(NFTPosition.toBytes(approved).length < legacySize(approved));
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.positionmgr;
+
+import static java.math.BigInteger.ZERO;
+import static java.math.BigInteger.ONE;
+import static java.math.BigInteger.TWO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static exchange.convexus.test.nft.NFTUtils.mint;
+import static exchange.convexus.utils.TimeUtils.now;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.ServiceManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import exchange.convexus.test.ConvexusTest;
+import exchange.convexus.test.liquidity.ConvexusLiquidityUtils;
+import exchange.convexus.mocks.pool.ConvexusPoolMock;
+import exchange.convexus.periphery.positionmgr.NonFungiblePositionManager;
+import exchange.convexus.utils.AssertUtils;
+
+public class PositionsOfOwnerTest extends NonFungiblePositionManagerTest {
+
+  final BigInteger hundred = BigInteger.valueOf(100);
+
+  void mintPosition (Account from, int tickLower, int tickUpper) {
+    ConvexusLiquidityUtils.deposit(from, nft.getAddress(), sicx.score, hundred);
+    ConvexusLiquidityUtils.deposit(from, nft.getAddress(), usdc.score, hundred);
+    mint (
+      nft,
+      from, 
+      sicx.getAddress(), 
+      usdc.getAddress(), 
+      FEE_AMOUNTS[MEDIUM], 
+      tickLower,
+      tickUpper,
+      hundred, 
+      hundred, 
+      ZERO, 
+      ZERO, 
+      from.getAddress(),
+      now().add(ONE)
+    );
+  }
+
+  @BeforeEach
+  void setup() throws Exception {
+    ServiceManager.Block.resetInstance();
+    setup_tokens();
+    setup_nft();
+    setup_initializer();
+
+    ConvexusTest.createAndInitializePoolIfNecessary(ConvexusPoolMock.class, alice, factory, sicx.getAddress(), usdc.getAddress(), FEE_AMOUNTS[MEDIUM], encodePriceSqrt(ONE, ONE), tickSpacing);
+
+    // token IDs 1, 3 and 4 are owned by alice, 2 by bob
+    mintPosition(alice, getMinTick(TICK_SPACINGS[MEDIUM]), getMaxTick(TICK_SPACINGS[MEDIUM]));
+    mintPosition(bob, getMinTick(TICK_SPACINGS[MEDIUM]), getMaxTick(TICK_SPACINGS[MEDIUM]));
+    mintPosition(alice, -TICK_SPACINGS[MEDIUM], TICK_SPACINGS[MEDIUM]);
+    mintPosition(alice, getMinTick(TICK_SPACINGS[MEDIUM]), getMaxTick(TICK_SPACINGS[MEDIUM]));
+  }
+
+  @SuppressWarnings("unchecked")
+  List<Object> positionsOfOwner (Account owner, int offset, int limit) {
+    Object result = nft.call("positionsOfOwner", owner.getAddress(), offset, limit);
+    // empty arrays are returned as is
+    return result instanceof Object[] ? List.of((Object[]) result) : (List<Object>) result;
+  }
+
+  @Test
+  void testReturnsSameAsPositions () {
+    List<Object> page = positionsOfOwner(alice, 0, 10);
+    assertEquals(3, page.size());
+
+    for (int i = 0; i < page.size(); i++) {
+      BigInteger tokenId = (BigInteger) nft.call("tokenOfOwnerByIndex", alice.getAddress(), BigInteger.valueOf(i));
+      PositionInformation expected = PositionInformation.fromMap(nft.call("positions", tokenId));
+      PositionInformation actual = PositionInformation.fromMap(page.get(i));
+
+      assertEquals(tokenId, actual.tokenId);
+      assertEquals(expected.token0, actual.token0);
+      assertEquals(expected.token1, actual.token1);
+      assertEquals(expected.fee, actual.fee);
+      assertEquals(expected.tickLower, actual.tickLower);
+      assertEquals(expected.tickUpper, actual.tickUpper);
+      assertEquals(expected.liquidity, actual.liquidity);
+    }
+  }
+
+  @Test
+  void testPaginates () {
+    List<Object> first = positionsOfOwner(alice, 0, 2);
+    List<Object> second = positionsOfOwner(alice, 2, 2);
+
+    assertEquals(2, first.size());
+    assertEquals(1, second.size());
+    assertEquals(ONE, PositionInformation.fromMap(first.get(0)).tokenId);
+    assertEquals(BigInteger.valueOf(3), PositionInformation.fromMap(first.get(1)).tokenId);
+    assertEquals(BigInteger.valueOf(4), PositionInformation.fromMap(second.get(0)).tokenId);
+    assertEquals(TWO, PositionInformation.fromMap(positionsOfOwner(bob, 0, 2).get(0)).tokenId);
+  }
+
+  @Test
+  void testOutOfBoundsOffset () {
+    assertEquals(0, positionsOfOwner(alice, 3, 2).size());
+    assertEquals(0, positionsOfOwner(owner, 0, 2).size());
+  }
+
+  @Test
+  void testLimitTooHigh () {
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      positionsOfOwner(alice, 0, NonFungiblePositionManager.MAX_POSITIONS_PAGE + 1),
+      "positionsOfOwner: limit too high");
+  }
+}
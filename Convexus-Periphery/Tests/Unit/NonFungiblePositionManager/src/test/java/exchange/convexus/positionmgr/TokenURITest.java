@@ -18,6 +18,9 @@ package exchange.convexus.positionmgr;
 
 import static java.math.BigInteger.ZERO;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
 import static java.math.BigInteger.ONE;
 
 import java.math.BigInteger;
@@ -84,4 +87,24 @@ public class TokenURITest extends NonFungiblePositionManagerTest {
     var tokenUri = Json.parse(tokenUriJson);
     assertEquals(tokenId, StringUtils.toBigInt(tokenUri.asObject().get("tokenId").asString()));
   }
+
+  @Test
+  void testCachedMetadataDoesntChangeContent () {
+    var tokenUriJson = (String) nft.call("tokenURI", tokenId);
+    positiondescriptor.invoke(alice, "cacheMetadata", nft.getAddress(), tokenId);
+    assertEquals(tokenUriJson, nft.call("tokenURI", tokenId));
+  }
+
+  @Test
+  void testCachedMetadataIsntQueried () {
+    positiondescriptor.invoke(alice, "cacheMetadata", nft.getAddress(), tokenId);
+
+    reset(sicx.spy);
+    reset(usdc.spy);
+    nft.call("tokenURI", tokenId);
+    verify(sicx.spy, never()).symbol();
+    verify(sicx.spy, never()).decimals();
+    verify(usdc.spy, never()).symbol();
+    verify(usdc.spy, never()).decimals();
+  }
 }
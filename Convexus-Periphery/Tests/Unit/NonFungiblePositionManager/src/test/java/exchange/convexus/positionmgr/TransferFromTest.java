@@ -90,4 +90,22 @@ public class TransferFromTest extends NonFungiblePositionManagerTest {
     assertEquals(ZERO_ADDRESS, nft.call("getApproved", tokenId));
   }
 
+  @Test
+  void testUpdatesTheOwnersEnumeration () {
+    transferFrom(bob, bob.getAddress(), alice.getAddress(), tokenId);
+    assertEquals(ZERO, nft.call("balanceOf", bob.getAddress()));
+    assertEquals(ONE, nft.call("balanceOf", alice.getAddress()));
+    assertEquals(tokenId, nft.call("tokenOfOwnerByIndex", alice.getAddress(), ZERO));
+    assertEquals(ONE, nft.call("totalSupply"));
+    assertEquals(tokenId, nft.call("tokenByIndex", ZERO));
+  }
+
+  @Test
+  void testStorageWrites () {
+    long writes = getServiceManager().getStorageWrites();
+    transferFrom(bob, bob.getAddress(), alice.getAddress(), tokenId);
+    // owner, both balances, the last slot of both owners lists and the token index in the owner list
+    assertEquals(6, getServiceManager().getStorageWrites() - writes);
+  }
+
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.quoter;
+
+import static java.math.BigInteger.ZERO;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static java.math.BigInteger.ONE;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigInteger;
+
+import com.iconloop.score.test.ServiceManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import exchange.convexus.clients.QuoterClient;
+import exchange.convexus.test.ConvexusTest;
+import exchange.convexus.test.liquidity.ConvexusLiquidityUtils;
+import exchange.convexus.test.nft.NFTUtils;
+import exchange.convexus.test.tokens.Baln;
+import exchange.convexus.periphery.librairies.Path;
+import exchange.convexus.periphery.quoter.QuoteBestRouteParams;
+import exchange.convexus.periphery.quoter.QuoteExactInputParams;
+import exchange.convexus.mocks.pool.ConvexusPoolMock;
+import exchange.convexus.utils.AssertUtils;
+import exchange.convexus.utils.IntUtils;
+import exchange.convexus.utils.ScoreSpy;
+import exchange.convexus.utils.TimeUtils;
+import score.Address;
+
+public class quoteBestRouteTest extends QuoterTest {
+
+  ScoreSpy<Baln> baln;
+
+  void createPoolWithLiquidity (Address token0, Address token1, int fee, int tickSpacing, BigInteger amount) throws Exception {
+    ConvexusTest.createAndInitializePoolIfNecessary(ConvexusPoolMock.class, alice, factory, token0, token1, fee, encodePriceSqrt(ONE, ONE), tickSpacing);
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), sicx.score, amount);
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), usdc.score, amount);
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), baln.score, amount);
+
+    NFTUtils.mint (
+      nft,
+      alice, 
+      token0, 
+      token1, 
+      fee, 
+      getMinTick(tickSpacing),
+      getMaxTick(tickSpacing),
+      amount, 
+      amount, 
+      ZERO, 
+      ZERO, 
+      alice.getAddress(),
+      TimeUtils.now().add(ONE)
+    );
+  }
+  
+  @BeforeEach
+  void setup() throws Exception {
+    ServiceManager.Block.resetInstance();
+    setup_quoter();
+    setup_tokens();
+    setup_nft();
+
+    baln = deploy_baln();
+    baln.invoke(owner, "mintTo", alice.getAddress(), IntUtils.MAX_UINT256);
+
+    final BigInteger thousand = EXA.multiply(BigInteger.valueOf(1000));
+
+    // A shallow direct pool, and a deep route through BALN
+    createPoolWithLiquidity(sicx.getAddress(), usdc.getAddress(), FEE_AMOUNTS[LOW], TICK_SPACINGS[LOW], EXA);
+    createPoolWithLiquidity(sicx.getAddress(), baln.getAddress(), FEE_AMOUNTS[MEDIUM], TICK_SPACINGS[MEDIUM], thousand);
+    createPoolWithLiquidity(usdc.getAddress(), baln.getAddress(), FEE_AMOUNTS[MEDIUM], TICK_SPACINGS[MEDIUM], thousand);
+  }
+
+  @Test
+  void testDirectRouteWithOneHop () {
+    var route = QuoterClient.quoteBestRoute(quoter, new QuoteBestRouteParams(
+      sicx.getAddress(),
+      usdc.getAddress(),
+      EXA.multiply(BigInteger.TEN),
+      new Address[] {baln.getAddress()},
+      FEE_AMOUNTS,
+      1
+    ));
+
+    assertArrayEquals(
+      Path.encodePath(new Address[] {sicx.getAddress(), usdc.getAddress()}, new Integer[] {FEE_AMOUNTS[LOW]}), 
+      route.path
+    );
+  }
+
+  @Test
+  void testBestRouteGoesThroughIntermediate () {
+    BigInteger amountIn = EXA.multiply(BigInteger.TEN);
+    var route = QuoterClient.quoteBestRoute(quoter, new QuoteBestRouteParams(
+      sicx.getAddress(),
+      usdc.getAddress(),
+      amountIn,
+      new Address[] {baln.getAddress()},
+      FEE_AMOUNTS,
+      2
+    ));
+
+    byte[] expectedPath = Path.encodePath(
+      new Address[] {sicx.getAddress(), baln.getAddress(), usdc.getAddress()}, 
+      new Integer[] {FEE_AMOUNTS[MEDIUM], FEE_AMOUNTS[MEDIUM]}
+    );
+    assertArrayEquals(expectedPath, route.path);
+    assertEquals(2, route.sqrtPriceX96AfterList.length);
+
+    // The route quote matches the regular multi-hop quote
+    var quote = QuoterClient.quoteExactInput(quoter, new QuoteExactInputParams(route.path, amountIn));
+    assertEquals(quote.amountOut, route.amountOut);
+    assertArrayEquals(quote.sqrtPriceX96AfterList, route.sqrtPriceX96AfterList);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testEmptyPoolSimulationIsBounded () throws Exception {
+    // a pool without any liquidity: a swap would walk the whole tick bitmap of the low fee tier
+    var empty = (ScoreSpy<ConvexusPoolMock>) ConvexusTest.createAndInitializePoolIfNecessary(ConvexusPoolMock.class, alice, factory, sicx.getAddress(), baln.getAddress(), FEE_AMOUNTS[LOW], encodePriceSqrt(ONE, ONE), TICK_SPACINGS[LOW]);
+
+    BigInteger amountIn = EXA.multiply(BigInteger.TEN);
+    var route = QuoterClient.quoteBestRoute(quoter, new QuoteBestRouteParams(
+      sicx.getAddress(),
+      usdc.getAddress(),
+      amountIn,
+      new Address[] {baln.getAddress()},
+      FEE_AMOUNTS,
+      2
+    ));
+
+    verify(empty.spy, atMost(32)).tickBitmap(anyInt());
+    assertArrayEquals(
+      Path.encodePath(
+        new Address[] {sicx.getAddress(), baln.getAddress(), usdc.getAddress()}, 
+        new Integer[] {FEE_AMOUNTS[MEDIUM], FEE_AMOUNTS[MEDIUM]}
+      ), 
+      route.path
+    );
+  }
+
+  @Test
+  void testInvalidMaxHops () {
+    AssertUtils.assertThrowsMessage(AssertionError.class, () -> 
+      QuoterClient.quoteBestRoute(quoter, new QuoteBestRouteParams(
+        sicx.getAddress(),
+        usdc.getAddress(),
+        EXA,
+        new Address[] {baln.getAddress()},
+        FEE_AMOUNTS,
+        4
+      )),
+      "quoteBestRoute: Invalid maxHops"
+    );
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.quoter;
+
+import static java.math.BigInteger.ZERO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static java.math.BigInteger.ONE;
+
+import java.math.BigInteger;
+
+import com.iconloop.score.test.ServiceManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import exchange.convexus.clients.QuoterClient;
+import exchange.convexus.test.ConvexusTest;
+import exchange.convexus.test.liquidity.ConvexusLiquidityUtils;
+import exchange.convexus.test.nft.NFTUtils;
+import exchange.convexus.periphery.librairies.Path;
+import exchange.convexus.periphery.quoter.QuoteExactInputBatchParams;
+import exchange.convexus.periphery.quoter.QuoteExactInputSingleParams;
+import exchange.convexus.mocks.pool.ConvexusPoolMock;
+import exchange.convexus.pool.PoolData;
+import exchange.convexus.utils.ScoreSpy;
+import exchange.convexus.utils.TimeUtils;
+
+public class quoteExactInputBatchTest extends QuoterTest {
+
+  ScoreSpy<ConvexusPoolMock> pool;
+  
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setup() throws Exception {
+    ServiceManager.Block.resetInstance();
+    setup_quoter();
+    
+    // create a position
+    setup_tokens();
+    setup_nft();
+    setup_router();
+    
+    pool = (ScoreSpy<ConvexusPoolMock>) ConvexusTest.createAndInitializePoolIfNecessary(ConvexusPoolMock.class, alice, factory, sicx.getAddress(), usdc.getAddress(), FEE_AMOUNTS[MEDIUM], encodePriceSqrt(ONE, ONE), tickSpacing);
+
+    // Mint a full range position and a narrow one around the current price
+    final BigInteger thousand = EXA.multiply(BigInteger.valueOf(1000));
+    final BigInteger hundred = EXA.multiply(BigInteger.valueOf(100));
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), sicx.score, thousand.add(hundred));
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), usdc.score, thousand.add(hundred));
+
+    NFTUtils.mint (
+      nft,
+      alice, 
+      sicx.getAddress(), 
+      usdc.getAddress(), 
+      FEE_AMOUNTS[MEDIUM], 
+      getMinTick(TICK_SPACINGS[MEDIUM]),
+      getMaxTick(TICK_SPACINGS[MEDIUM]),
+      thousand, 
+      thousand, 
+      ZERO, 
+      ZERO, 
+      alice.getAddress(),
+      TimeUtils.now().add(ONE)
+    );
+
+    NFTUtils.mint (
+      nft,
+      alice, 
+      sicx.getAddress(), 
+      usdc.getAddress(), 
+      FEE_AMOUNTS[MEDIUM], 
+      -tickSpacing,
+      tickSpacing,
+      hundred, 
+      hundred, 
+      ZERO, 
+      ZERO, 
+      alice.getAddress(),
+      TimeUtils.now().add(ONE)
+    );
+  }
+
+  @Test
+  void testQuoteExactInputBatchMatchesSingleQuotes () {
+    int fee = FEE_AMOUNTS[MEDIUM];
+    byte[] path = Path.encodePath(new PoolData(sicx.getAddress(), usdc.getAddress(), fee));
+    BigInteger[] amountsIn = {
+      BigInteger.valueOf(1000),
+      EXA,
+      EXA.multiply(BigInteger.valueOf(50)),
+      EXA.multiply(BigInteger.valueOf(200))
+    };
+
+    var quotes = QuoterClient.quoteExactInputBatch(quoter, new QuoteExactInputBatchParams(path, amountsIn));
+    assertEquals(amountsIn.length, quotes.length);
+
+    for (int i = 0; i < amountsIn.length; i++) {
+      var single = QuoterClient.quoteExactInputSingle(quoter, new QuoteExactInputSingleParams(
+        sicx.getAddress(),
+        usdc.getAddress(),
+        amountsIn[i],
+        fee,
+        ZERO
+      ));
+
+      assertEquals(single.amountOut, quotes[i].amountOut);
+      assertEquals(1, quotes[i].sqrtPriceX96AfterList.length);
+      assertEquals(single.sqrtPriceX96After, quotes[i].sqrtPriceX96AfterList[0]);
+      assertEquals(single.initializedTicksCrossed, quotes[i].initializedTicksCrossedList[0]);
+    }
+
+    // the biggest amount moves the price outside of the narrow position
+    assertEquals(1, quotes[amountsIn.length - 1].initializedTicksCrossedList[0]);
+  }
+}
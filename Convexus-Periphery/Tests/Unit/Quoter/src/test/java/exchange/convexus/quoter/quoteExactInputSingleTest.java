@@ -18,6 +18,7 @@ package exchange.convexus.quoter;
 
 import static java.math.BigInteger.ZERO;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static java.math.BigInteger.ONE;
 
 import java.math.BigInteger;
@@ -31,9 +32,11 @@ import exchange.convexus.test.ConvexusTest;
 import exchange.convexus.test.liquidity.ConvexusLiquidityUtils;
 import exchange.convexus.test.nft.NFTUtils;
 import exchange.convexus.periphery.quoter.QuoteExactInputSingleParams;
+import exchange.convexus.periphery.quoter.QuoteResult;
 import exchange.convexus.mocks.pool.ConvexusPoolMock;
 import exchange.convexus.pool.Slot0;
 import exchange.convexus.test.swaprouter.SwapRouterUtils;
+import exchange.convexus.utils.AssertUtils;
 import exchange.convexus.utils.ScoreSpy;
 import exchange.convexus.utils.TimeUtils;
 import score.Address;
@@ -106,4 +109,159 @@ public class quoteExactInputSingleTest extends QuoterTest {
     slot0 = Slot0.fromMap(pool.call("slot0"));
     assertEquals(slot0.sqrtPriceX96, quote.sqrtPriceX96After);
   }
-}
\ No newline at end of file
+
+  @Test
+  void testQuoteExactInputSingleCrossesInitializedTick () {
+    // Add a narrow position around the current price so the swap crosses its lower tick
+    final BigInteger hundred = EXA.multiply(BigInteger.valueOf(100));
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), sicx.score, hundred);
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), usdc.score, hundred);
+
+    NFTUtils.mint (
+      nft,
+      alice, 
+      sicx.getAddress(), 
+      usdc.getAddress(), 
+      FEE_AMOUNTS[MEDIUM], 
+      -tickSpacing,
+      tickSpacing,
+      hundred, 
+      hundred, 
+      ZERO, 
+      ZERO, 
+      alice.getAddress(),
+      TimeUtils.now().add(ONE)
+    );
+
+    Address tokenIn = sicx.getAddress();
+    Address tokenOut = usdc.getAddress();
+    BigInteger amountIn = hundred.multiply(BigInteger.TWO);
+    int fee = FEE_AMOUNTS[MEDIUM];
+    BigInteger sqrtPriceLimitX96 = encodePriceSqrt(ONE, BigInteger.TWO);
+
+    var quote = QuoterClient.quoteExactInputSingle(quoter, new QuoteExactInputSingleParams(
+      tokenIn,
+      tokenOut,
+      amountIn,
+      fee,
+      sqrtPriceLimitX96
+    ));
+    assertEquals(1, quote.initializedTicksCrossed);
+
+    // make sure it's working as expected
+    SwapRouterUtils.exactInputSingle(alice, sicx.score, router.getAddress(), amountIn, usdc.getAddress(), fee, alice.getAddress(), TimeUtils.now().add(TimeUtils.ONE_HOUR), quote.amountOut, quote.sqrtPriceX96After);
+    Slot0 slot0 = Slot0.fromMap(pool.call("slot0"));
+    assertEquals(slot0.sqrtPriceX96, quote.sqrtPriceX96After);
+    assertEquals(true, slot0.tick < -tickSpacing);
+  }
+
+  @Test
+  void testQuoteExactInputSinglePartialFill () {
+    Address tokenIn = sicx.getAddress();
+    Address tokenOut = usdc.getAddress();
+    BigInteger amountIn = EXA.multiply(BigInteger.valueOf(100));
+    int fee = FEE_AMOUNTS[MEDIUM];
+    // the price limit is reached way before the whole amount is swapped
+    BigInteger sqrtPriceLimitX96 = encodePriceSqrt(BigInteger.valueOf(99), BigInteger.valueOf(100));
+
+    // by default, the partial quote is returned
+    var quote = QuoterClient.quoteExactInputSingle(quoter, new QuoteExactInputSingleParams(
+      tokenIn,
+      tokenOut,
+      amountIn,
+      fee,
+      sqrtPriceLimitX96
+    ));
+    assertEquals(sqrtPriceLimitX96, quote.sqrtPriceX96After);
+    assertTrue(quote.amountConsumed.compareTo(amountIn) < 0);
+    assertTrue(quote.amountConsumed.compareTo(ZERO) > 0);
+
+    // the consumed amount can be quoted as a full fill, up to rounding
+    var full = QuoterClient.quoteExactInputSingle(quoter, new QuoteExactInputSingleParams(
+      tokenIn,
+      tokenOut,
+      quote.amountConsumed,
+      fee,
+      ZERO
+    ));
+    assertTrue(full.amountOut.subtract(quote.amountOut).abs().compareTo(ONE) <= 0);
+    assertEquals(quote.amountConsumed, full.amountConsumed);
+    assertEquals(quote.stepCostEstimate, full.stepCostEstimate);
+
+    // the quote fails instead if a full fill is required
+    AssertUtils.assertThrowsMessage(AssertionError.class, () -> 
+      QuoterClient.quoteExactInputSingle(quoter, new QuoteExactInputSingleParams(
+        tokenIn,
+        tokenOut,
+        amountIn,
+        fee,
+        sqrtPriceLimitX96,
+        true
+      )),
+      "quoteExactInputSingle: Price limit reached before amountIn is filled"
+    );
+  }
+
+  /**
+   * Prices the inter-SCORE calls, storage reads and storage writes of a swap through the router
+   * with the ICON step schedule, the same way as the quoter estimate does
+   */
+  private BigInteger swapSteps (BigInteger amountIn) {
+    long calls = sm.getScoreCalls();
+    long reads = sm.getStorageReads();
+    long writes = sm.getStorageWrites();
+
+    SwapRouterUtils.exactInputSingle(alice, sicx.score, router.getAddress(), amountIn, usdc.getAddress(), FEE_AMOUNTS[MEDIUM], alice.getAddress(), TimeUtils.now().add(TimeUtils.ONE_HOUR), ZERO, ZERO);
+
+    return BigInteger.valueOf(100_000
+      + (sm.getScoreCalls() - calls) * 25_000
+      + (sm.getStorageReads() - reads) * 3_000
+      + (sm.getStorageWrites() - writes) * 10_000);
+  }
+
+  private QuoteResult quote (BigInteger amountIn) {
+    return QuoterClient.quoteExactInputSingle(quoter, new QuoteExactInputSingleParams(
+      sicx.getAddress(),
+      usdc.getAddress(),
+      amountIn,
+      FEE_AMOUNTS[MEDIUM],
+      ZERO
+    ));
+  }
+
+  @Test
+  void testStepCostEstimateMatchesSwap () {
+    // the first swap of the router also caches the pool address
+    swapSteps(BigInteger.valueOf(1000));
+
+    BigInteger amountIn = BigInteger.valueOf(1000);
+    var quote = quote(amountIn);
+    assertEquals(0, quote.initializedTicksCrossed);
+    assertEquals(swapSteps(amountIn), quote.stepCostEstimate);
+
+    // a narrow position around the current price, so the swap crosses its lower tick
+    final BigInteger hundred = EXA.multiply(BigInteger.valueOf(100));
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), sicx.score, hundred);
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), usdc.score, hundred);
+    NFTUtils.mint (
+      nft,
+      alice, 
+      sicx.getAddress(), 
+      usdc.getAddress(), 
+      FEE_AMOUNTS[MEDIUM], 
+      -tickSpacing,
+      tickSpacing,
+      hundred, 
+      hundred, 
+      ZERO, 
+      ZERO, 
+      alice.getAddress(),
+      TimeUtils.now().add(ONE)
+    );
+
+    amountIn = hundred.multiply(BigInteger.TWO);
+    quote = quote(amountIn);
+    assertEquals(1, quote.initializedTicksCrossed);
+    assertEquals(swapSteps(amountIn), quote.stepCostEstimate);
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.quoter;
+
+import static java.math.BigInteger.ZERO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static java.math.BigInteger.ONE;
+
+import java.math.BigInteger;
+
+import com.iconloop.score.test.ServiceManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import exchange.convexus.clients.QuoterClient;
+import exchange.convexus.test.ConvexusTest;
+import exchange.convexus.test.liquidity.ConvexusLiquidityUtils;
+import exchange.convexus.test.nft.NFTUtils;
+import exchange.convexus.test.tokens.Baln;
+import exchange.convexus.periphery.librairies.Path;
+import exchange.convexus.periphery.quoter.QuoteExactOutputParams;
+import exchange.convexus.periphery.quoter.QuoteExactOutputSingleParams;
+import exchange.convexus.mocks.pool.ConvexusPoolMock;
+import exchange.convexus.utils.IntUtils;
+import exchange.convexus.utils.ScoreSpy;
+import exchange.convexus.utils.TimeUtils;
+import score.Address;
+
+public class quoteExactOutputTest extends QuoterTest {
+
+  ScoreSpy<Baln> baln;
+
+  void createPoolWithLiquidity (Address token0, Address token1, BigInteger amount) throws Exception {
+    // away from 1:1, so a hop quoted in the wrong direction gives a different amount
+    ConvexusTest.createAndInitializePoolIfNecessary(ConvexusPoolMock.class, alice, factory, token0, token1, FEE, encodePriceSqrt(ONE, BigInteger.TWO), tickSpacing);
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), sicx.score, amount);
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), usdc.score, amount);
+    ConvexusLiquidityUtils.deposit(alice, nft.getAddress(), baln.score, amount);
+
+    NFTUtils.mint (
+      nft,
+      alice, 
+      token0, 
+      token1, 
+      FEE, 
+      getMinTick(tickSpacing),
+      getMaxTick(tickSpacing),
+      amount, 
+      amount, 
+      ZERO, 
+      ZERO, 
+      alice.getAddress(),
+      TimeUtils.now().add(ONE)
+    );
+  }
+
+  @BeforeEach
+  void setup() throws Exception {
+    ServiceManager.Block.resetInstance();
+    setup_quoter();
+    setup_tokens();
+    setup_nft();
+
+    baln = deploy_baln();
+    baln.invoke(owner, "mintTo", alice.getAddress(), IntUtils.MAX_UINT256);
+
+    final BigInteger hundred = EXA.multiply(BigInteger.valueOf(100));
+    createPoolWithLiquidity(sicx.getAddress(), baln.getAddress(), hundred);
+    createPoolWithLiquidity(baln.getAddress(), usdc.getAddress(), hundred);
+  }
+
+  @Test
+  void testQuoteExactOutputMatchesSingleHopQuotes () {
+    BigInteger amountOut = EXA;
+
+    // exact output paths are encoded in reverse order: USDC <- BALN <- SICX
+    byte[] path = Path.encodePath(
+      new Address[] {usdc.getAddress(), baln.getAddress(), sicx.getAddress()}, 
+      new Integer[] {FEE, FEE}
+    );
+    var quote = QuoterClient.quoteExactOutput(quoter, new QuoteExactOutputParams(path, amountOut));
+
+    // the same quote hop by hop, from the last token received to the first token paid
+    var last = QuoterClient.quoteExactOutputSingle(quoter, new QuoteExactOutputSingleParams(
+      baln.getAddress(),
+      usdc.getAddress(),
+      amountOut,
+      FEE,
+      ZERO
+    ));
+    var first = QuoterClient.quoteExactOutputSingle(quoter, new QuoteExactOutputSingleParams(
+      sicx.getAddress(),
+      baln.getAddress(),
+      last.amountOut,
+      FEE,
+      ZERO
+    ));
+
+    assertEquals(first.amountOut, quote.amountOut);
+    assertEquals(2, quote.sqrtPriceX96AfterList.length);
+    assertEquals(last.sqrtPriceX96After, quote.sqrtPriceX96AfterList[0]);
+    assertEquals(first.sqrtPriceX96After, quote.sqrtPriceX96AfterList[1]);
+    assertEquals(last.initializedTicksCrossed, quote.initializedTicksCrossedList[0]);
+    assertEquals(first.initializedTicksCrossed, quote.initializedTicksCrossedList[1]);
+
+    // the opposite direction doesn't quote the same amount
+    var reversed = QuoterClient.quoteExactOutputSingle(quoter, new QuoteExactOutputSingleParams(
+      usdc.getAddress(),
+      baln.getAddress(),
+      amountOut,
+      FEE,
+      ZERO
+    ));
+    assertNotEquals(reversed.amountOut, last.amountOut);
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.router;
+
+import static java.math.BigInteger.ONE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+
+import com.eclipsesource.json.Json;
+import com.iconloop.score.test.ServiceManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import exchange.convexus.periphery.librairies.Path;
+import exchange.convexus.periphery.router.ExactInputSingleParams;
+import exchange.convexus.periphery.router.SwapRouter;
+import exchange.convexus.test.contracts.pool.Pool1;
+import exchange.convexus.test.contracts.pool.Pool2;
+import exchange.convexus.test.swaprouter.SwapRouterUtils;
+import exchange.convexus.utils.AssertUtils;
+import exchange.convexus.utils.BytesUtils;
+import exchange.convexus.utils.TimeUtils;
+import score.Address;
+import score.ByteArrayObjectWriter;
+import score.Context;
+
+public class BinaryPayloadTest extends SwapRouterTest {
+
+  @BeforeEach
+  void setup() throws Exception {
+    ServiceManager.Block.resetInstance();
+    setup_tokens();
+    setup_router();
+    setup_nft(factory.getAddress());
+      
+    createPool(Pool1.class, sicx.score, usdc.score);
+    createPool(Pool2.class, usdc.score, baln.score);
+  }
+
+  @Test
+  void testExactInputSingle () {
+    Address pool = (Address) factory.call("getPool", sicx.getAddress(), usdc.getAddress(), FEE_AMOUNTS[MEDIUM]);
+
+    // get balances before
+    var poolBefore = getBalances(pool);
+    var traderBefore = getBalances(trader.getAddress());
+
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      SwapRouterUtils.exactInputSingleBinary(
+        trader, sicx.score, router.getAddress(), BigInteger.valueOf(3),
+        usdc.getAddress(), FEE_AMOUNTS[MEDIUM], trader.getAddress(), TimeUtils.now().add(ONE), BigInteger.TWO,
+        new BigInteger("4295128740")
+      ),
+      "exactInputSingle: Too little received"
+    );
+
+    SwapRouterUtils.exactInputSingleBinary(
+      trader, sicx.score, router.getAddress(), BigInteger.valueOf(3),
+      usdc.getAddress(), FEE_AMOUNTS[MEDIUM], trader.getAddress(), TimeUtils.now().add(ONE), ONE,
+      new BigInteger("4295128740")
+    );
+
+    // get balances after
+    var poolAfter = getBalances(pool);
+    var traderAfter = getBalances(trader.getAddress());
+
+    assertEquals(traderAfter[0], traderBefore[0].subtract(BigInteger.valueOf(3)));
+    assertEquals(traderAfter[1], traderBefore[1].add(BigInteger.valueOf(1)));
+    assertEquals(poolAfter[0], poolBefore[0].add(BigInteger.valueOf(3)));
+    assertEquals(poolAfter[1], poolBefore[1].subtract(BigInteger.valueOf(1)));
+  }
+
+  @Test
+  void testExactInputMultiPool () {
+    var traderBefore = getBalances(trader.getAddress());
+
+    Address[] tokens = {sicx.getAddress(), usdc.getAddress(), baln.getAddress()};
+    SwapRouterUtils.exactInputBinary(
+      trader, sicx.score, router.getAddress(), BigInteger.valueOf(5),
+      Path.encodePath(tokens, new Integer[] {FEE_AMOUNTS[MEDIUM], FEE_AMOUNTS[MEDIUM]}),
+      trader.getAddress(), TimeUtils.now().add(ONE), ONE
+    );
+
+    var traderAfter = getBalances(trader.getAddress());
+
+    assertEquals(traderAfter[0], traderBefore[0].subtract(BigInteger.valueOf(5)));
+    assertEquals(traderAfter[2], traderBefore[2].add(BigInteger.valueOf(1)));
+  }
+
+  @Test
+  void testBinaryPayloadIsSmallerThanJson () {
+    var params = new ExactInputSingleParams(
+      usdc.getAddress(), FEE_AMOUNTS[MEDIUM], trader.getAddress(), TimeUtils.now().add(ONE),
+      ONE, new BigInteger("4295128740")
+    );
+
+    byte[] json = Json.object()
+      .add("method", "exactInputSingle")
+      .add("params", params.toJson())
+      .toString().getBytes();
+    byte[] binary = SwapRouterUtils.binaryPayload("exactInputSingle", params);
+
+    assertEquals(SwapRouter.BINARY_PAYLOAD_VERSION, binary[0]);
+    assertTrue(binary.length < json.length);
+  }
+
+  @Test
+  void testBinaryPayloadRecipient () {
+    var traderBefore = getBalances(trader.getAddress());
+    var bobBefore = getBalances(bob.getAddress());
+
+    SwapRouterUtils.exactInputSingleBinary(
+      trader, sicx.score, router.getAddress(), BigInteger.valueOf(3),
+      usdc.getAddress(), FEE_AMOUNTS[MEDIUM], bob.getAddress(), TimeUtils.now().add(ONE), ONE,
+      new BigInteger("4295128740")
+    );
+
+    // the output goes to the decoded recipient, not to the sender
+    assertEquals(traderBefore[0].subtract(BigInteger.valueOf(3)), getBalances(trader.getAddress())[0]);
+    assertEquals(traderBefore[1], getBalances(trader.getAddress())[1]);
+    assertEquals(bobBefore[1].add(ONE), getBalances(bob.getAddress())[1]);
+  }
+
+  @Test
+  void testBinaryPayloadDeadline () {
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      SwapRouterUtils.exactInputSingleBinary(
+        trader, sicx.score, router.getAddress(), BigInteger.valueOf(3),
+        usdc.getAddress(), FEE_AMOUNTS[MEDIUM], trader.getAddress(), TimeUtils.now().subtract(ONE), ONE,
+        new BigInteger("4295128740")
+      ),
+      "checkDeadline: Transaction too old"
+    );
+  }
+
+  @Test
+  void testBinaryPayloadDeposit () {
+    ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+    writer.beginList(1);
+    writer.write("deposit");
+    writer.end();
+    byte[] payload = BytesUtils.concat(new byte[] {SwapRouter.BINARY_PAYLOAD_VERSION}, writer.toByteArray());
+
+    sicx.invoke(trader, "transfer", router.getAddress(), BigInteger.valueOf(3), payload);
+
+    assertEquals(BigInteger.valueOf(3), router.call("deposited", trader.getAddress(), sicx.getAddress()));
+  }
+
+  @Test
+  void testBinaryPayloadUnknownMethod () {
+    ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+    writer.beginList(1);
+    writer.write("unknown");
+    writer.end();
+    byte[] payload = BytesUtils.concat(new byte[] {SwapRouter.BINARY_PAYLOAD_VERSION}, writer.toByteArray());
+
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      sicx.invoke(trader, "transfer", router.getAddress(), BigInteger.valueOf(3), payload),
+      "Reverted(0): tokenFallback: Unimplemented tokenFallback action"
+    );
+  }
+}
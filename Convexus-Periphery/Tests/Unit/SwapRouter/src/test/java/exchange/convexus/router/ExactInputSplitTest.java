@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.router;
+
+import static java.math.BigInteger.ONE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigInteger;
+
+import com.iconloop.score.test.ServiceManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import exchange.convexus.periphery.librairies.Path;
+import exchange.convexus.test.contracts.pool.Pool1;
+import exchange.convexus.test.contracts.pool.Pool2;
+import exchange.convexus.test.contracts.pool.Pool3;
+import exchange.convexus.test.swaprouter.SwapRouterUtils;
+import exchange.convexus.utils.AssertUtils;
+import exchange.convexus.utils.TimeUtils;
+import score.Address;
+
+public class ExactInputSplitTest extends SwapRouterTest {
+
+  byte[] direct;
+  byte[] viaUsdc;
+
+  @BeforeEach
+  void setup() throws Exception {
+    ServiceManager.Block.resetInstance();
+    setup_tokens();
+    setup_router();
+    setup_nft(factory.getAddress());
+      
+    createPool(Pool1.class, sicx.score, usdc.score);
+    createPool(Pool2.class, usdc.score, baln.score);
+    createPool(Pool3.class, sicx.score, baln.score);
+
+    direct = Path.encodePath(
+      new Address[] {sicx.getAddress(), baln.getAddress()}, 
+      new Integer[] {FEE_AMOUNTS[MEDIUM]});
+    viaUsdc = Path.encodePath(
+      new Address[] {sicx.getAddress(), usdc.getAddress(), baln.getAddress()}, 
+      new Integer[] {FEE_AMOUNTS[MEDIUM], FEE_AMOUNTS[MEDIUM]});
+  }
+
+  void exactInputSplit (BigInteger value, BigInteger[] amountsIn, BigInteger amountOutMinimum) {
+    SwapRouterUtils.exactInputSplit(
+      trader, sicx.score, router.getAddress(), value,
+      new byte[][] {direct, viaUsdc}, amountsIn,
+      trader.getAddress(), TimeUtils.now().add(ONE), amountOutMinimum
+    );
+  }
+
+  @Test
+  void testSplit () {
+    var traderBefore = getBalances(trader.getAddress());
+
+    exactInputSplit(BigInteger.valueOf(10), new BigInteger[] {BigInteger.valueOf(5), BigInteger.valueOf(5)}, BigInteger.valueOf(4));
+
+    var traderAfter = getBalances(trader.getAddress());
+
+    // 3 through the direct pool, 1 through the usdc hop
+    assertEquals(traderAfter[0], traderBefore[0].subtract(BigInteger.valueOf(10)));
+    assertEquals(traderAfter[1], traderBefore[1]);
+    assertEquals(traderAfter[2], traderBefore[2].add(BigInteger.valueOf(4)));
+  }
+
+  @Test
+  void testSplitBinary () {
+    var traderBefore = getBalances(trader.getAddress());
+
+    SwapRouterUtils.exactInputSplitBinary(
+      trader, sicx.score, router.getAddress(), BigInteger.valueOf(10),
+      new byte[][] {direct, viaUsdc}, new BigInteger[] {BigInteger.valueOf(5), BigInteger.valueOf(5)},
+      trader.getAddress(), TimeUtils.now().add(ONE), BigInteger.valueOf(4)
+    );
+
+    var traderAfter = getBalances(trader.getAddress());
+
+    assertEquals(traderAfter[0], traderBefore[0].subtract(BigInteger.valueOf(10)));
+    assertEquals(traderAfter[2], traderBefore[2].add(BigInteger.valueOf(4)));
+  }
+
+  @Test
+  void testTooLittleReceived () {
+    // the amountOutMinimum applies to the sum of the legs outputs
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      exactInputSplit(BigInteger.valueOf(10), new BigInteger[] {BigInteger.valueOf(5), BigInteger.valueOf(5)}, BigInteger.valueOf(5)),
+      "exactInputSplit: Too little received"
+    );
+  }
+
+  @Test
+  void testAmountsMustMatchValue () {
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      exactInputSplit(BigInteger.valueOf(10), new BigInteger[] {BigInteger.valueOf(5), BigInteger.valueOf(4)}, ONE),
+      "exactInputSplit: Legs amounts don't match with the amount sent"
+    );
+  }
+
+  @Test
+  void testPathsMustEndWithSameToken () {
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      SwapRouterUtils.exactInputSplit(
+        trader, sicx.score, router.getAddress(), BigInteger.valueOf(10),
+        new byte[][] {direct, Path.encodePath(new Address[] {sicx.getAddress(), usdc.getAddress()}, new Integer[] {FEE_AMOUNTS[MEDIUM]})},
+        new BigInteger[] {BigInteger.valueOf(5), BigInteger.valueOf(5)},
+        trader.getAddress(), TimeUtils.now().add(ONE), ONE
+      ),
+      "exactInputSplit: Paths don't end with the same token"
+    );
+  }
+}
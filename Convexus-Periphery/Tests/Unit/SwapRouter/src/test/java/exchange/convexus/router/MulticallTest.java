@@ -0,0 +1,170 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package exchange.convexus.router;
+
+import static java.math.BigInteger.ONE;
+import static java.math.BigInteger.ZERO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigInteger;
+
+import com.iconloop.score.test.ServiceManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import exchange.convexus.periphery.librairies.Path;
+import exchange.convexus.periphery.router.ExactInputSingleParams;
+import exchange.convexus.periphery.router.ExactOutputParams;
+import exchange.convexus.periphery.router.ExactOutputSingleParams;
+import exchange.convexus.test.contracts.pool.Pool1;
+import exchange.convexus.test.contracts.pool.Pool2;
+import exchange.convexus.test.liquidity.ConvexusLiquidityUtils;
+import exchange.convexus.utils.AssertUtils;
+import exchange.convexus.utils.TimeUtils;
+import score.Address;
+import score.ByteArrayObjectWriter;
+import score.Context;
+
+public class MulticallTest extends SwapRouterTest {
+
+  @BeforeEach
+  void setup() throws Exception {
+    ServiceManager.Block.resetInstance();
+    setup_tokens();
+    setup_router();
+    setup_nft(factory.getAddress());
+      
+    createPool(Pool1.class, sicx.score, usdc.score);
+    createPool(Pool2.class, usdc.score, baln.score);
+  }
+
+  byte[] exactInputSingle (Address tokenIn, BigInteger amountIn, Address tokenOut) {
+    ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+    writer.beginList(4);
+    writer.write("exactInputSingle");
+    writer.write(tokenIn);
+    writer.write(amountIn);
+    ExactInputSingleParams.writeObject(writer, new ExactInputSingleParams(
+      tokenOut, FEE_AMOUNTS[MEDIUM], trader.getAddress(), TimeUtils.now().add(ONE), ONE, ZERO
+    ));
+    writer.end();
+    return writer.toByteArray();
+  }
+
+  byte[] exactOutputSingle (Address tokenIn, BigInteger amountInMaximum, Address tokenOut, BigInteger amountOut) {
+    ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+    writer.beginList(4);
+    writer.write("exactOutputSingle");
+    writer.write(tokenIn);
+    writer.write(amountInMaximum);
+    ExactOutputSingleParams.writeObject(writer, new ExactOutputSingleParams(
+      tokenOut, FEE_AMOUNTS[MEDIUM], trader.getAddress(), TimeUtils.now().add(ONE), amountOut, ZERO
+    ));
+    writer.end();
+    return writer.toByteArray();
+  }
+
+  byte[] exactOutput (Address tokenIn, BigInteger amountInMaximum, Address tokenOut, BigInteger amountOut) {
+    ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+    writer.beginList(4);
+    writer.write("exactOutput");
+    writer.write(tokenIn);
+    writer.write(amountInMaximum);
+    ExactOutputParams.writeObject(writer, new ExactOutputParams(
+      Path.encodePath(new Address[] {tokenOut, tokenIn}, new Integer[] {FEE_AMOUNTS[MEDIUM]}), 
+      trader.getAddress(), TimeUtils.now().add(ONE), amountOut
+    ));
+    writer.end();
+    return writer.toByteArray();
+  }
+
+  byte[] withdraw (Address token) {
+    ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+    writer.beginList(2);
+    writer.write("withdraw");
+    writer.write(token);
+    writer.end();
+    return writer.toByteArray();
+  }
+
+  @Test
+  void testSwapsFromDeposits () {
+    ConvexusLiquidityUtils.deposit(trader, router.getAddress(), sicx.score, BigInteger.valueOf(8));
+    var traderBefore = getBalances(trader.getAddress());
+
+    router.invoke(trader, "multicall", (Object) new byte[][] {
+      exactInputSingle(sicx.getAddress(), BigInteger.valueOf(3), usdc.getAddress()),
+      exactInputSingle(sicx.getAddress(), BigInteger.valueOf(3), usdc.getAddress()),
+      withdraw(sicx.getAddress())
+    });
+
+    var traderAfter = getBalances(trader.getAddress());
+
+    // the remaining deposit is withdrawn
+    assertEquals(traderAfter[0], traderBefore[0].add(BigInteger.valueOf(2)));
+    assertEquals(traderAfter[1], traderBefore[1].add(BigInteger.valueOf(2)));
+    assertEquals(ZERO, router.call("deposited", trader.getAddress(), sicx.getAddress()));
+  }
+
+  @Test
+  void testNotEnoughDeposited () {
+    ConvexusLiquidityUtils.deposit(trader, router.getAddress(), sicx.score, BigInteger.valueOf(5));
+
+    AssertUtils.assertThrowsMessage(AssertionError.class, () ->
+      router.invoke(trader, "multicall", (Object) new byte[][] {
+        exactInputSingle(sicx.getAddress(), BigInteger.valueOf(3), usdc.getAddress()),
+        exactInputSingle(sicx.getAddress(), BigInteger.valueOf(3), usdc.getAddress())
+      }),
+      "ConvexusLiquidityManagement::checkEnoughDeposited: user didn't deposit enough funds (2 / 3)"
+    );
+  }
+
+  @Test
+  void testDepositsBackTheExactOutputSingleExcess () {
+    ConvexusLiquidityUtils.deposit(trader, router.getAddress(), sicx.score, BigInteger.valueOf(8));
+    var traderBefore = getBalances(trader.getAddress());
+
+    router.invoke(trader, "multicall", (Object) new byte[][] {
+      exactOutputSingle(sicx.getAddress(), BigInteger.valueOf(5), usdc.getAddress(), ONE)
+    });
+
+    var traderAfter = getBalances(trader.getAddress());
+
+    // 3 sicx are swapped, the 2 left from the maximum in are deposited back instead of being transferred
+    assertEquals(traderAfter[0], traderBefore[0]);
+    assertEquals(traderAfter[1], traderBefore[1].add(ONE));
+    assertEquals(BigInteger.valueOf(5), router.call("deposited", trader.getAddress(), sicx.getAddress()));
+  }
+
+  @Test
+  void testDepositsBackTheExactOutputExcess () {
+    ConvexusLiquidityUtils.deposit(trader, router.getAddress(), sicx.score, BigInteger.valueOf(8));
+    var traderBefore = getBalances(trader.getAddress());
+
+    router.invoke(trader, "multicall", (Object) new byte[][] {
+      exactOutput(sicx.getAddress(), BigInteger.valueOf(5), usdc.getAddress(), ONE),
+      withdraw(sicx.getAddress())
+    });
+
+    var traderAfter = getBalances(trader.getAddress());
+
+    // 3 sicx are swapped, the 2 left from the maximum in are deposited back and withdrawn
+    assertEquals(traderAfter[0], traderBefore[0].add(BigInteger.valueOf(5)));
+    assertEquals(traderAfter[1], traderBefore[1].add(ONE));
+    assertEquals(ZERO, router.call("deposited", trader.getAddress(), sicx.getAddress()));
+  }
+}
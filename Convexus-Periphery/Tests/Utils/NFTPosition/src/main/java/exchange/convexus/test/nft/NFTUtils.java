@@ -21,7 +21,10 @@ import static org.mockito.Mockito.verify;
 
 import java.math.BigInteger;
 
+import com.eclipsesource.json.Json;
+import com.eclipsesource.json.JsonObject;
 import com.iconloop.score.test.Account;
+import com.iconloop.score.test.Score;
 
 import org.mockito.ArgumentCaptor;
 import exchange.convexus.periphery.positionmgr.NonFungiblePositionManager;
@@ -62,6 +65,20 @@ public class NFTUtils {
     nft.invoke(from, "mint", params);
   }
 
+  public static void depositAndMint (
+    ScoreSpy<NonFungiblePositionManager> nft,
+    Account from,
+    Score token,
+    BigInteger value,
+    MintParams params
+  ) {
+    JsonObject data = Json.object()
+      .add("method", "depositAndMint")
+      .add("params", params.toJson());
+
+    token.invoke(from, "transfer", nft.getAddress(), value, data.toString().getBytes());
+  }
+
   public static BigInteger mintPosition (
     ScoreSpy<NonFungiblePositionManager> nft,
     Account from,
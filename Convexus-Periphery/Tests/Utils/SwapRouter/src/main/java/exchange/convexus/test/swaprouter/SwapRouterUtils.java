@@ -24,11 +24,82 @@ import com.iconloop.score.test.Account;
 import com.iconloop.score.test.Score;
 import exchange.convexus.periphery.router.ExactInputParams;
 import exchange.convexus.periphery.router.ExactInputSingleParams;
+import exchange.convexus.periphery.router.ExactInputSplitParams;
 import exchange.convexus.periphery.router.ExactOutputParams;
 import exchange.convexus.periphery.router.ExactOutputSingleParams;
+import exchange.convexus.periphery.router.SwapRouter;
+import exchange.convexus.utils.BytesUtils;
 import score.Address;
+import score.ByteArrayObjectWriter;
+import score.Context;
 
 public class SwapRouterUtils {
+
+  /**
+   * @notice Builds a binary tokenFallback payload: the version byte followed by the RLP encoded `[method, params]`
+   */
+  public static byte[] binaryPayload (String method, ExactInputSingleParams params) {
+    ByteArrayObjectWriter writer = beginBinaryPayload(method, 2);
+    ExactInputSingleParams.writeObject(writer, params);
+    return endBinaryPayload(writer);
+  }
+
+  public static byte[] binaryPayload (String method, ExactOutputSingleParams params) {
+    ByteArrayObjectWriter writer = beginBinaryPayload(method, 2);
+    ExactOutputSingleParams.writeObject(writer, params);
+    return endBinaryPayload(writer);
+  }
+
+  public static byte[] binaryPayload (String method, ExactInputParams params) {
+    ByteArrayObjectWriter writer = beginBinaryPayload(method, 2);
+    ExactInputParams.writeObject(writer, params);
+    return endBinaryPayload(writer);
+  }
+
+  public static byte[] binaryPayload (String method, ExactOutputParams params) {
+    ByteArrayObjectWriter writer = beginBinaryPayload(method, 2);
+    ExactOutputParams.writeObject(writer, params);
+    return endBinaryPayload(writer);
+  }
+
+  private static ByteArrayObjectWriter beginBinaryPayload (String method, int size) {
+    ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+    writer.beginList(size);
+    writer.write(method);
+    return writer;
+  }
+
+  private static byte[] endBinaryPayload (ByteArrayObjectWriter writer) {
+    writer.end();
+    return BytesUtils.concat(new byte[] {SwapRouter.BINARY_PAYLOAD_VERSION}, writer.toByteArray());
+  }
+
+  public static byte[] binaryPayload (String method, ExactInputSplitParams params) {
+    ByteArrayObjectWriter writer = beginBinaryPayload(method, 2);
+    ExactInputSplitParams.writeObject(writer, params);
+    return endBinaryPayload(writer);
+  }
+
+  public static void exactInputBinary (Account from, Score token, Address router, BigInteger _value, byte[] path, Address recipient, BigInteger deadline, BigInteger amountOutMinimum) {
+    var params = new ExactInputParams(path, recipient, deadline, amountOutMinimum);
+    token.invoke(from, "transfer", router, _value, binaryPayload("exactInput", params));
+  }
+
+  public static void exactInputSingleBinary (
+    Account from, Score tokenIn, Address router, BigInteger _value, 
+    Address tokenOut, int fee, Address recipient, BigInteger deadline, BigInteger amountOutMinimum, BigInteger sqrtPriceLimitX96) {
+
+    var params = new ExactInputSingleParams(
+      tokenOut,
+      fee,
+      recipient,
+      deadline,
+      amountOutMinimum,
+      sqrtPriceLimitX96
+    );
+
+    tokenIn.invoke(from, "transfer", router, _value, binaryPayload("exactInputSingle", params));
+  }
   
   public static void exactInput (Account from, Score token, Address router, BigInteger _value, byte[] path, Address recipient, BigInteger deadline, BigInteger amountOutMinimum) {
 
@@ -49,6 +120,28 @@ public class SwapRouterUtils {
     );
   }
   
+  public static void exactInputSplit (Account from, Score token, Address router, BigInteger _value, byte[][] paths, BigInteger[] amountsIn, Address recipient, BigInteger deadline, BigInteger amountOutMinimum) {
+
+    ExactInputSplitParams params = new ExactInputSplitParams(paths, amountsIn, recipient, deadline, amountOutMinimum);
+
+    JsonObject data = Json.object()
+      .add("method", "exactInputSplit")
+      .add("params", params.toJson());
+
+    token.invoke(
+      from, 
+      "transfer", 
+      router, 
+      _value, 
+      data.toString().getBytes()
+    );
+  }
+
+  public static void exactInputSplitBinary (Account from, Score token, Address router, BigInteger _value, byte[][] paths, BigInteger[] amountsIn, Address recipient, BigInteger deadline, BigInteger amountOutMinimum) {
+    var params = new ExactInputSplitParams(paths, amountsIn, recipient, deadline, amountOutMinimum);
+    token.invoke(from, "transfer", router, _value, binaryPayload("exactInputSplit", params));
+  }
+  
   public static void exactInputSingle (
     Account from, Score tokenIn, Address router, BigInteger _value, 
     Address tokenOut, int fee, Address recipient, BigInteger deadline, BigInteger amountOutMinimum, BigInteger sqrtPriceLimitX96) {
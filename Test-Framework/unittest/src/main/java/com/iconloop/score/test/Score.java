@@ -18,10 +18,13 @@ package com.iconloop.score.test;
 
 import score.Address;
 import score.Context;
+import score.annotation.External;
+import score.annotation.Optional;
 import score.struct.Property;
 import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EmptyStackException;
 import java.util.HashMap;
@@ -156,6 +159,225 @@ public class Score extends TestBase {
         return returnMap;
     }
 
+    // Parameters sent by other SCOREs aren't typed as the method parameters: structs are encoded as a Map,
+    // integers as BigInteger, arrays as a List, and the optional parameters may be omitted.
+    // The overloads are resolved deterministically: only the compatible ones are considered, the external ones
+    // are preferred, then the one matching the parameters types exactly, and any remaining ambiguity fails
+    private static java.lang.reflect.Method getMethod(Class<?> clazz, String method, Class<?>[] paramClasses, Object[] params)
+        throws NoSuchMethodException {
+        List<java.lang.reflect.Method> candidates = new ArrayList<>();
+        for (var m : clazz.getMethods()) {
+            if (m.getName().equals(method) && !m.isBridge() && isCompatible(m, params)) {
+                candidates.add(m);
+            }
+        }
+
+        List<java.lang.reflect.Method> externals = new ArrayList<>();
+        for (var m : candidates) {
+            if (isExternal(m)) {
+                externals.add(m);
+            }
+        }
+        if (!externals.isEmpty()) {
+            candidates = externals;
+        }
+
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        for (var m : candidates) {
+            if (Arrays.equals(m.getParameterTypes(), paramClasses)) {
+                return m;
+            }
+        }
+        if (candidates.isEmpty()) {
+            throw new NoSuchMethodException(clazz.getName() + "." + method + Arrays.toString(paramClasses));
+        }
+        throw new NoSuchMethodException("Ambiguous call to " + clazz.getName() + "." + method + ": " + candidates);
+    }
+
+    // The annotations of a method overridden by a spy are looked up in its superclasses
+    private static java.lang.reflect.Method[] getDeclarations(java.lang.reflect.Method m) {
+        List<java.lang.reflect.Method> declarations = new ArrayList<>();
+        for (Class<?> c = m.getDeclaringClass(); c != null; c = c.getSuperclass()) {
+            try {
+                declarations.add(c.getDeclaredMethod(m.getName(), m.getParameterTypes()));
+            } catch (NoSuchMethodException e) {
+                // Not declared at this level, pass
+            }
+        }
+        return declarations.toArray(new java.lang.reflect.Method[0]);
+    }
+
+    private static boolean isExternal(java.lang.reflect.Method m) {
+        for (var declaration : getDeclarations(m)) {
+            if (declaration.isAnnotationPresent(External.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isCompatible(java.lang.reflect.Method m, Object[] params) {
+        Class<?>[] types = m.getParameterTypes();
+        if (params.length > types.length) {
+            return false;
+        }
+
+        for (int i = params.length; i < types.length; i++) {
+            if (!isOptional(m, i)) {
+                return false;
+            }
+        }
+
+        for (int i = 0; i < params.length; i++) {
+            if (!isConvertible(types[i], params[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isOptional(java.lang.reflect.Method m, int index) {
+        for (var declaration : getDeclarations(m)) {
+            for (var annotation : declaration.getParameterAnnotations()[index]) {
+                if (annotation instanceof Optional) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isConvertible(Class<?> type, Object value) {
+        if (value == null) {
+            return !type.isPrimitive();
+        }
+        if (type.isInstance(value) || wrap(type).isInstance(value)) {
+            return true;
+        }
+        if (value instanceof Number) {
+            return isInteger(type);
+        }
+        if (value instanceof List<?> || value.getClass().isArray()) {
+            return type.isArray();
+        }
+        return value instanceof Map<?,?> && !type.isPrimitive() && !type.isArray();
+    }
+
+    // Returns the arguments of `m` converted from `params`, without modifying them
+    private static Object[] getArguments(java.lang.reflect.Method m, Object[] params) throws IllegalAccessException {
+        Class<?>[] types = m.getParameterTypes();
+        Object[] args = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            args[i] = i < params.length ? convert(types[i], params[i]) : defaultValue(types[i]);
+        }
+        return args;
+    }
+
+    private static Object convert(Class<?> type, Object value) throws IllegalAccessException {
+        if (value == null) {
+            return defaultValue(type);
+        }
+        if (type.isInstance(value) || wrap(type).isInstance(value)) {
+            return value;
+        }
+
+        if (value instanceof Number && isInteger(type)) {
+            return convertInteger(type, value instanceof BigInteger ? (BigInteger) value : BigInteger.valueOf(((Number) value).longValue()));
+        }
+
+        if (type.isArray()) {
+            Object[] items = value instanceof List<?> ? ((List<?>) value).toArray() : toObjectArray(value);
+            Class<?> itemType = type.getComponentType();
+            Object array = Array.newInstance(itemType, items.length);
+            for (int i = 0; i < items.length; i++) {
+                Array.set(array, i, convert(itemType, items[i]));
+            }
+            return array;
+        }
+
+        if (value instanceof Map<?,?>) {
+            return toStruct(type, (Map<?,?>) value);
+        }
+
+        throw new IllegalArgumentException("Cannot convert " + value.getClass().getName() + " to " + type.getName());
+    }
+
+    // Struct parameters sent by other SCOREs are encoded as a Map, decode them to the struct class
+    private static Object toStruct(Class<?> type, Map<?,?> map) throws IllegalAccessException {
+        try {
+            Object struct = type.getDeclaredConstructor().newInstance();
+            for (var entry : map.entrySet()) {
+                var field = type.getField((String) entry.getKey());
+                field.set(struct, convert(field.getType(), entry.getValue()));
+            }
+            return struct;
+        } catch (NoSuchMethodException | NoSuchFieldException | InstantiationException | InvocationTargetException e) {
+            throw new IllegalArgumentException("Cannot decode " + type.getName() + ": " + e.getMessage());
+        }
+    }
+
+    private static Object[] toObjectArray(Object array) {
+        Object[] items = new Object[Array.getLength(array)];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = Array.get(array, i);
+        }
+        return items;
+    }
+
+    private static boolean isInteger(Class<?> type) {
+        Class<?> wrapped = wrap(type);
+        return wrapped == BigInteger.class || wrapped == Long.class || wrapped == Integer.class
+            || wrapped == Short.class || wrapped == Character.class || wrapped == Byte.class;
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        } else if (type == Integer.TYPE) {
+            return Integer.class;
+        } else if (type == Long.TYPE) {
+            return Long.class;
+        } else if (type == Short.TYPE) {
+            return Short.class;
+        } else if (type == Character.TYPE) {
+            return Character.class;
+        } else if (type == Byte.TYPE) {
+            return Byte.class;
+        } else if (type == Boolean.TYPE) {
+            return Boolean.class;
+        }
+        return type;
+    }
+
+    private static Object convertInteger(Class<?> type, BigInteger number) {
+        Class<?> wrapped = wrap(type);
+        if (wrapped == BigInteger.class) {
+            return number;
+        } else if (wrapped == Long.class) {
+            return number.longValue();
+        } else if (wrapped == Integer.class) {
+            return number.intValue();
+        } else if (wrapped == Short.class) {
+            return number.shortValue();
+        } else if (wrapped == Character.class) {
+            return (char) number.intValue();
+        } else {
+            return number.byteValue();
+        }
+    }
+
+    // The value of an omitted optional parameter
+    private static Object defaultValue(Class<?> type) {
+        if (type == Boolean.TYPE) {
+            return false;
+        } else if (type.isPrimitive()) {
+            return convertInteger(type, BigInteger.ZERO);
+        }
+        return null;
+    }
+
     Object call(Account from, boolean readonly, BigInteger value, String method, Object... params) {
 
         try {
@@ -190,8 +412,8 @@ public class Score extends TestBase {
         }
         try {
             Class<?> clazz = instance.getClass();
-            var m = clazz.getMethod(method, paramClasses);
-            var result = m.invoke(instance, params);
+            var m = getMethod(clazz, method, paramClasses, params);
+            var result = m.invoke(instance, getArguments(m, params));
             return getReturnValue(result);
         } catch (NoSuchMethodException | IllegalAccessException e) {
             Context.println("========================================");
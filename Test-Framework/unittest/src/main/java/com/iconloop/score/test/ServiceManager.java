@@ -38,6 +38,12 @@ public class ServiceManager {
     private final Map<Long, Frame> frames = new HashMap<>();
     private final Map<Long, List<Long>> frameTree = new HashMap<>();
     private final Map<String, Class<?>> storageClassMap = new HashMap<>();
+    // Number of storage writes done by the SCOREs, reverted writes included
+    private long storageWrites = 0;
+    // Number of storage reads done by the SCOREs
+    private long storageReads = 0;
+    // Number of calls done by the SCOREs to other SCOREs or accounts
+    private long scoreCalls = 0;
     private int nextCount = 1;
     private long frameId = -1;
     private long frameParentId = -1;
@@ -64,6 +70,24 @@ public class ServiceManager {
         return score;
     }
 
+    public void update(Score score, Class<?> mainClass, Object... params) throws Exception {
+        getBlock().increase();
+        pushFrame(score.getOwner(), score.getAccount(), false, "<init>", BigInteger.ZERO);
+        try {
+            Constructor<?>[] ctor = mainClass.getConstructors();
+            if (ctor.length != 1) {
+                // User SCORE should only have one public constructor
+                throw new AssertionError("multiple public constructors found");
+            }
+            score.setInstance(ctor[0].newInstance(params));
+        } catch (InstantiationException | InvocationTargetException | IllegalAccessException e) {
+            e.printStackTrace();
+            throw e;
+        } finally {
+            popFrame();
+        }
+    }
+
     public Account createAccount() {
         return createAccount(0);
     }
@@ -124,6 +148,7 @@ public class ServiceManager {
 
     public Object call(Class<?> caller, BigInteger value, Address targetAddress, String method, Object... params) {
         Score from = getScoreFromClass(caller);
+        scoreCalls++;
         if ("fallback".equals(method) || "".equals(method)) {
             getBlock().increase();
             if (targetAddress.isContract()) {
@@ -172,14 +197,27 @@ public class ServiceManager {
         }
         if (curFrameMemory.get(varKey) == null) {
             // Only write the old value in the storage memory if it's the first time we write in the current frame
-            curFrameMemory.put(varKey, getStorage(key));
+            curFrameMemory.put(varKey, storageMap.get(varKey));
             frameMemoryStorage.put(getCurrentFrame().getId(), curFrameMemory);
         }
 
         // Do the actual DB writes
+        storageWrites++;
         writeStorage(varKey, value, clazz);
     }
 
+    public long getStorageWrites() {
+        return storageWrites;
+    }
+
+    public long getStorageReads() {
+        return storageReads;
+    }
+
+    public long getScoreCalls() {
+        return scoreCalls;
+    }
+
     private void writeStorage (String varKey, Object value, Class<?> clazz) {
         storageMap.put(varKey, value);
         storageClassMap.put(varKey, clazz);
@@ -227,6 +265,7 @@ public class ServiceManager {
     }
 
     public Object getStorage(String key) {
+        storageReads++;
         return storageMap.get(getAddress().toString() + key);
     }
 
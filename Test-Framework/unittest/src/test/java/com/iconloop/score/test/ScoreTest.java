@@ -0,0 +1,147 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iconloop.score.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import score.Address;
+import score.annotation.External;
+import score.annotation.Optional;
+
+class ScoreTest extends TestBase {
+  private static final ServiceManager sm = getServiceManager();
+  private static final Account owner = sm.createAccount();
+
+  private Score score;
+
+  public static class Params {
+    public Address owner;
+    public int tick;
+    public BigInteger[] amounts;
+  }
+
+  public static class CalledScore {
+    public CalledScore () {}
+
+    @External(readonly = true)
+    public String params (Params params) {
+      return params.owner + " " + params.tick + " " + params.amounts[0].add(params.amounts[1]);
+    }
+
+    @External(readonly = true)
+    public BigInteger add (int a, long b, BigInteger c) {
+      return BigInteger.valueOf(a + b).add(c);
+    }
+
+    @External(readonly = true)
+    public String optional (String value, @Optional BigInteger amount, @Optional boolean flag) {
+      return value + " " + amount + " " + flag;
+    }
+
+    @External
+    public String withdraw (Address token, @Optional BigInteger amount) {
+      return "external";
+    }
+
+    public String withdraw (Address token) {
+      return "internal";
+    }
+
+    public String overloaded (BigInteger value) {
+      return "BigInteger";
+    }
+
+    public String overloaded (long value) {
+      return "long";
+    }
+
+    public String overloaded (Address value) {
+      return "Address";
+    }
+  }
+
+  @BeforeEach
+  void setup() throws Exception {
+    score = sm.deploy(owner, CalledScore.class);
+  }
+
+  @Test
+  void testDecodesStructsFromMaps () {
+    Map<String, Object> params = new HashMap<>();
+    params.put("owner", owner.getAddress());
+    params.put("tick", BigInteger.valueOf(-60));
+    params.put("amounts", List.of(BigInteger.ONE, BigInteger.TWO));
+
+    assertEquals(owner.getAddress() + " -60 3", score.call("params", params));
+  }
+
+  @Test
+  void testConvertsIntegers () {
+    assertEquals(BigInteger.valueOf(6), score.call("add", BigInteger.ONE, BigInteger.TWO, 3));
+  }
+
+  @Test
+  void testFillsTheOmittedOptionalParameters () {
+    assertEquals("value null false", score.call("optional", "value"));
+    assertEquals("value 1 false", score.call("optional", "value", BigInteger.ONE));
+  }
+
+  @Test
+  void testDoesNotModifyTheParameters () {
+    Map<String, Object> params = new HashMap<>();
+    params.put("owner", owner.getAddress());
+    params.put("tick", BigInteger.valueOf(-60));
+    List<BigInteger> amounts = List.of(BigInteger.ONE, BigInteger.TWO);
+    params.put("amounts", amounts);
+    Object[] args = new Object[] {params};
+
+    score.call("params", args);
+
+    assertSame(params, args[0]);
+    assertEquals(BigInteger.valueOf(-60), params.get("tick"));
+    assertSame(amounts, params.get("amounts"));
+  }
+
+  @Test
+  void testPrefersTheExternalOverloads () {
+    assertEquals("external", score.call("withdraw", owner.getAddress()));
+    assertEquals("external", score.call("withdraw", owner.getAddress(), BigInteger.ONE));
+  }
+
+  @Test
+  void testPrefersTheExactOverload () {
+    assertEquals("BigInteger", score.call("overloaded", BigInteger.ONE));
+    assertEquals("long", score.call("overloaded", 1L));
+    assertEquals("Address", score.call("overloaded", owner.getAddress()));
+  }
+
+  @Test
+  void testRejectsTheAmbiguousOverloads () {
+    var error = assertThrows(RuntimeException.class, () -> score.call("overloaded", 1));
+    assertTrue(error.getMessage().startsWith("Ambiguous call to"));
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2022 Convexus Protocol
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iconloop.score.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+
+import org.junit.jupiter.api.Test;
+import score.Address;
+import score.Context;
+import score.VarDB;
+import score.annotation.External;
+
+class ServiceManagerTest extends TestBase {
+  private static final ServiceManager sm = getServiceManager();
+  private static final Account owner = sm.createAccount();
+
+  public static class Counter {
+    protected final VarDB<BigInteger> count = Context.newVarDB("count", BigInteger.class);
+    protected final VarDB<String> version = Context.newVarDB("version", String.class);
+
+    public Counter (String version) {
+      if (this.count.get() == null) {
+        this.count.set(BigInteger.ZERO);
+      }
+      this.version.set(version);
+    }
+
+    @External
+    public void increment () {
+      this.count.set(this.count.get().add(BigInteger.ONE));
+    }
+
+    @External
+    public void fail () {
+      this.count.set(BigInteger.TEN);
+      Context.revert("fail");
+    }
+
+    @External(readonly = true)
+    public BigInteger count () {
+      return this.count.get();
+    }
+
+    @External(readonly = true)
+    public String version () {
+      return this.version.get();
+    }
+  }
+
+  public static class CounterV2 extends Counter {
+    public CounterV2 (String version) {
+      super(version);
+    }
+
+    @External
+    public void reset () {
+      this.count.set(BigInteger.ZERO);
+    }
+  }
+
+  public static class Caller {
+    public Caller () {}
+
+    @External
+    public void incrementTwice (Address counter) {
+      Context.call(counter, "increment");
+      Context.call(counter, "increment");
+    }
+  }
+
+  @Test
+  void testUpdateKeepsTheAddressAndTheStorage () throws Exception {
+    Score counter = sm.deploy(owner, Counter.class, "v1");
+    Address address = counter.getAddress();
+    counter.invoke(owner, "increment");
+
+    sm.update(counter, CounterV2.class, "v2");
+
+    assertEquals(address, counter.getAddress());
+    assertEquals(BigInteger.ONE, counter.call("count"));
+    assertEquals("v2", counter.call("version"));
+
+    counter.invoke(owner, "reset");
+    assertEquals(BigInteger.ZERO, counter.call("count"));
+  }
+
+  @Test
+  void testUpdateRequiresASinglePublicConstructor () throws Exception {
+    Score counter = sm.deploy(owner, Counter.class, "v1");
+
+    assertThrows(AssertionError.class, () -> sm.update(counter, String.class));
+  }
+
+  @Test
+  void testCountsTheStorageReadsAndWrites () throws Exception {
+    Score counter = sm.deploy(owner, Counter.class, "v1");
+
+    long reads = sm.getStorageReads();
+    long writes = sm.getStorageWrites();
+    counter.invoke(owner, "increment");
+    assertEquals(1, sm.getStorageReads() - reads);
+    assertEquals(1, sm.getStorageWrites() - writes);
+
+    // reverted writes are counted too
+    writes = sm.getStorageWrites();
+    assertThrows(AssertionError.class, () -> counter.invoke(owner, "fail"));
+    assertEquals(1, sm.getStorageWrites() - writes);
+    assertEquals(BigInteger.ONE, counter.call("count"));
+  }
+
+  @Test
+  void testCountsTheScoreCalls () throws Exception {
+    Score counter = sm.deploy(owner, Counter.class, "v1");
+    Score caller = sm.deploy(owner, Caller.class);
+
+    long calls = sm.getScoreCalls();
+    caller.invoke(owner, "incrementTwice", counter.getAddress());
+    assertEquals(2, sm.getScoreCalls() - calls);
+    assertEquals(BigInteger.TWO, counter.call("count"));
+
+    // calls from the tests aren't counted
+    calls = sm.getScoreCalls();
+    counter.invoke(owner, "increment");
+    assertEquals(0, sm.getScoreCalls() - calls);
+  }
+}